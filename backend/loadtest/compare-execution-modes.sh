@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Runs the same read/write mix against the backend in platform-thread mode and in
+# virtual-thread mode and prints the latency/throughput summary of each run.
+#
+# Requirements: a built jar (mvn -B package), a running MySQL with data, `hey`
+# (https://github.com/rakyll/hey) and a JWT in $TOKEN.
+#
+#   TOKEN=... ./loadtest/compare-execution-modes.sh [concurrency] [duration]
+set -euo pipefail
+
+CONCURRENCY=${1:-400}
+DURATION=${2:-60s}
+PORT=${PORT:-3001}
+BASE="http://localhost:${PORT}"
+JAR=$(ls target/vehicle-service-management-*.jar | head -n 1)
+: "${TOKEN:?Set TOKEN to a valid JWT}"
+
+wait_for_port() {
+    for _ in $(seq 1 60); do
+        if curl -s -o /dev/null "${BASE}/api/auth/login"; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "Backend did not start on port ${PORT}" >&2
+    exit 1
+}
+
+run_mode() {
+    local mode=$1 virtual=$2
+    echo "=== ${mode} threads (spring.threads.virtual.enabled=${virtual}) ==="
+    java -jar "${JAR}" --spring.threads.virtual.enabled="${virtual}" > "loadtest-${mode}.log" 2>&1 &
+    local pid=$!
+    trap 'kill ${pid} 2>/dev/null || true' EXIT
+    wait_for_port
+
+    # Warm up JIT and the connection pool before measuring
+    hey -z 10s -c 50 -H "Authorization: Bearer ${TOKEN}" "${BASE}/api/service-requests" > /dev/null
+
+    echo "--- GET /api/service-requests"
+    hey -z "${DURATION}" -c "${CONCURRENCY}" -H "Authorization: Bearer ${TOKEN}" \
+        "${BASE}/api/service-requests" | sed -n '/Summary/,/Status code distribution/p;/\[/p'
+
+    echo "--- GET /api/invoices"
+    hey -z "${DURATION}" -c "${CONCURRENCY}" -H "Authorization: Bearer ${TOKEN}" \
+        "${BASE}/api/invoices" | sed -n '/Summary/,/Status code distribution/p;/\[/p'
+
+    kill "${pid}"
+    wait "${pid}" 2>/dev/null || true
+    trap - EXIT
+}
+
+run_mode platform false
+run_mode virtual true
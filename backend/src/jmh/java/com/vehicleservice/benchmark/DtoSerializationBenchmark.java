@@ -0,0 +1,127 @@
+package com.vehicleservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.vehicleservice.dto.InvoiceDTO;
+import com.vehicleservice.dto.ServiceItemDTO;
+import com.vehicleservice.dto.ServiceRequestDTO;
+import com.vehicleservice.dto.VehicleDTO;
+import com.vehicleservice.logging.LazyJson;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of the DTOs we return and used to log, with the plain shared
+ * mapper and with Blackbird accessors. The log benchmarks show what an INFO line
+ * costs with eager vs. lazy argument rendering when the level is disabled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoSerializationBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger("benchmark.disabled");
+
+    @Param({"shared", "blackbird"})
+    public String mapper;
+
+    private ObjectMapper objectMapper;
+    private VehicleDTO vehicle;
+    private ServiceRequestDTO serviceRequest;
+    private InvoiceDTO invoice;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if ("blackbird".equals(mapper)) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+
+        vehicle = new VehicleDTO();
+        vehicle.setId(42L);
+        vehicle.setUserId(7L);
+        vehicle.setMake("Toyota");
+        vehicle.setModel("Camry");
+        vehicle.setYear(2020);
+        vehicle.setLicensePlate("AB-123-CD");
+        vehicle.setVinNumber("4T1B11HK5JU123456");
+        vehicle.setMileage(42000);
+
+        serviceRequest = new ServiceRequestDTO();
+        serviceRequest.setId(1001L);
+        serviceRequest.setVehicleId(42L);
+        serviceRequest.setMechanicId(3L);
+        serviceRequest.setMechanicName("Sam Mechanic");
+        serviceRequest.setDescription("Brake pedal feels soft, squeal when stopping");
+        serviceRequest.setServiceType("BRAKE_SERVICE");
+        serviceRequest.setPriority("HIGH");
+        serviceRequest.setPreferredDate(LocalDateTime.of(2026, 3, 2, 9, 0));
+        serviceRequest.setCreatedAt(LocalDateTime.of(2026, 2, 27, 14, 30));
+        serviceRequest.setStatus("ASSIGNED");
+        serviceRequest.setAssignedAt(LocalDateTime.of(2026, 2, 28, 8, 0));
+
+        invoice = new InvoiceDTO();
+        invoice.setId(501L);
+        invoice.setServiceRequestId(1001L);
+        invoice.setTotalAmount(195.0);
+        invoice.setStatus("PENDING");
+        invoice.setCreatedAt(LocalDateTime.of(2026, 3, 2, 16, 0));
+        invoice.setBillingAddress("1 Main Street");
+        invoice.setBillingCity("Springfield");
+        invoice.setBillingZip("12345");
+        List<ServiceItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ServiceItemDTO item = new ServiceItemDTO();
+            item.setId((long) i);
+            item.setInvoiceId(501L);
+            item.setName("Item " + i);
+            item.setDescription("Brake pads and labor line " + i);
+            item.setPrice(19.5);
+            item.setQuantity(1);
+            item.setType(i % 2 == 0 ? "PART" : "LABOR");
+            item.setPartNumber("BP-" + i);
+            items.add(item);
+        }
+        invoice.setServiceItems(items);
+    }
+
+    @Benchmark
+    public byte[] vehicleDto() throws Exception {
+        return objectMapper.writeValueAsBytes(vehicle);
+    }
+
+    @Benchmark
+    public byte[] serviceRequestDto() throws Exception {
+        return objectMapper.writeValueAsBytes(serviceRequest);
+    }
+
+    @Benchmark
+    public byte[] invoiceDto() throws Exception {
+        return objectMapper.writeValueAsBytes(invoice);
+    }
+
+    @Benchmark
+    public void eagerLogArgument(Blackhole blackhole) throws Exception {
+        logger.debug("Vehicle details: {}", objectMapper.writeValueAsString(vehicle));
+        blackhole.consume(vehicle);
+    }
+
+    @Benchmark
+    public void lazyLogArgument(Blackhole blackhole) {
+        logger.debug("Vehicle details: {}", LazyJson.of(objectMapper, vehicle));
+        blackhole.consume(vehicle);
+    }
+}
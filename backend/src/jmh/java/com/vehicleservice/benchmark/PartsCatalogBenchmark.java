@@ -0,0 +1,76 @@
+package com.vehicleservice.benchmark;
+
+import com.vehicleservice.dto.PartDTO;
+import com.vehicleservice.service.PartsCatalogIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete and exact lookups against in-memory catalogs of 1k to 1M parts, with
+ * prefixes of one to six characters. build shows what a catalog reload costs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PartsCatalogBenchmark {
+    private static final String[] VENDORS = {"BK", "OF", "AF", "SP", "TB", "WB", "FL", "BT"};
+
+    @Param({"1000", "100000", "1000000"})
+    public int partCount;
+
+    @Param({"1", "3", "6"})
+    public int prefixLength;
+
+    private List<PartDTO> parts;
+    private PartsCatalogIndex index;
+    private String[] prefixes;
+    private String[] partNumbers;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        parts = new ArrayList<>(partCount);
+        for (int i = 0; i < partCount; i++) {
+            PartDTO part = new PartDTO();
+            part.setId((long) i + 1);
+            part.setPartNumber(VENDORS[random.nextInt(VENDORS.length)] + "-" + (100000 + random.nextInt(900000)));
+            part.setName("Part " + i);
+            part.setPrice(5.0 + random.nextInt(500));
+            parts.add(part);
+        }
+        index = PartsCatalogIndex.build(parts);
+        prefixes = new String[1024];
+        partNumbers = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String partNumber = parts.get(random.nextInt(partCount)).getPartNumber();
+            partNumbers[i] = partNumber;
+            String key = partNumber.replace("-", "");
+            prefixes[i] = key.substring(0, Math.min(prefixLength, key.length())).toLowerCase();
+        }
+    }
+
+    @Benchmark
+    public List<PartDTO> autocomplete() {
+        return index.prefix(prefixes[next++ & (prefixes.length - 1)], 10);
+    }
+
+    @Benchmark
+    public PartDTO exactLookup() {
+        return index.find(partNumbers[next++ & (partNumbers.length - 1)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PartsCatalogIndex build() {
+        return PartsCatalogIndex.build(parts);
+    }
+}
@@ -0,0 +1,115 @@
+package com.vehicleservice.benchmark;
+
+import com.vehicleservice.model.PricingRule;
+import com.vehicleservice.model.ServiceItem;
+import com.vehicleservice.service.CompiledRuleSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of pricing a 50-line invoice against compiled rule sets of 10 to 10k rules, for a
+ * customer with no rules of their own, a fleet customer with their own rates, and a
+ * customer under a discount cap. compile shows what a rule change costs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingRulesBenchmark {
+    private static final String[] ITEM_TYPES = {"PART", "LABOR", "SERVICE", "FLUID", "TIRE", "DIAGNOSTIC"};
+    private static final int LINES = 50;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int ruleCount;
+
+    private List<PricingRule> rules;
+    private CompiledRuleSet compiled;
+    private List<ServiceItem> invoiceItems;
+    private long fleetCustomerId;
+    private long cappedCustomerId;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        rules = new ArrayList<>(ruleCount);
+        rules.add(rule(1, "TAX", "PART", null, 0.08, null));
+        rules.add(rule(2, "TAX", "LABOR", null, 0.0, null));
+        rules.add(rule(3, "TAX", null, null, 0.06, null));
+        int customers = Math.max(1, ruleCount / 3);
+        for (int i = rules.size(); i < ruleCount; i++) {
+            long customerId = 1000 + random.nextInt(customers);
+            String type = random.nextBoolean() ? ITEM_TYPES[random.nextInt(ITEM_TYPES.length)] : null;
+            switch (i % 5) {
+                case 0:
+                    rules.add(rule(i + 1, "TAX", type, customerId, random.nextDouble() * 0.1, null));
+                    break;
+                case 4:
+                    rules.add(rule(i + 1, "CAP", null, customerId, null, 50.0 + random.nextInt(200)));
+                    break;
+                default:
+                    rules.add(rule(i + 1, "DISCOUNT", type, customerId, random.nextDouble() * 0.2, null));
+            }
+        }
+        fleetCustomerId = rules.stream()
+                .filter(r -> "DISCOUNT".equals(r.getKind()) && r.getCustomerId() != null)
+                .map(PricingRule::getCustomerId).findFirst().orElse(1000L);
+        cappedCustomerId = rules.stream()
+                .filter(r -> "CAP".equals(r.getKind()))
+                .map(PricingRule::getCustomerId).findFirst().orElse(fleetCustomerId);
+        compiled = CompiledRuleSet.compile(rules, 0.0, 0.0);
+
+        invoiceItems = new ArrayList<>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            ServiceItem item = new ServiceItem();
+            item.setPrice(5.0 + random.nextInt(500));
+            item.setQuantity(1 + random.nextInt(4));
+            item.setType(ITEM_TYPES[i % ITEM_TYPES.length]);
+            invoiceItems.add(item);
+        }
+    }
+
+    @Benchmark
+    public Object priceInvoiceAnonymousCustomer() {
+        return compiled.priceItems(invoiceItems, 1L);
+    }
+
+    @Benchmark
+    public Object priceInvoiceFleetCustomer() {
+        return compiled.priceItems(invoiceItems, fleetCustomerId);
+    }
+
+    @Benchmark
+    public Object priceInvoiceCappedCustomer() {
+        return compiled.priceItems(invoiceItems, cappedCustomerId);
+    }
+
+    @Benchmark
+    public Object priceSingleLine() {
+        return compiled.priceLine(invoiceItems.get(7), fleetCustomerId);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object compile() {
+        return CompiledRuleSet.compile(rules, 0.0, 0.0);
+    }
+
+    private static PricingRule rule(long id, String kind, String itemType, Long customerId, Double rate, Double amount) {
+        PricingRule rule = new PricingRule();
+        rule.setId(id);
+        rule.setName(kind + "-" + id);
+        rule.setKind(kind);
+        rule.setItemType(itemType);
+        rule.setCustomerId(customerId);
+        rule.setRate(rate);
+        rule.setAmount(amount);
+        rule.setPriority((int) (id % 3));
+        return rule;
+    }
+}
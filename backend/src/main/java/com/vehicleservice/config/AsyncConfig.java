@@ -0,0 +1,14 @@
+package com.vehicleservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * @Async methods run on Boot's applicationTaskExecutor. With
+ * spring.threads.virtual.enabled=true that executor (and Tomcat's request
+ * handling) uses one virtual thread per task instead of a platform thread pool.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
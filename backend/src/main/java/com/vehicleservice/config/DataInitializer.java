@@ -10,6 +10,7 @@ import com.vehicleservice.repository.VehicleRepository;
 import com.vehicleservice.repository.ServiceRequestRepository;
 import com.vehicleservice.repository.InvoiceRepository;
 import com.vehicleservice.repository.ServiceItemRepository;
+import com.vehicleservice.service.InvoicePricingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -37,6 +38,9 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private ServiceItemRepository serviceItemRepository;
 
+    @Autowired
+    private InvoicePricingService invoicePricingService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -189,7 +193,6 @@ public class DataInitializer implements CommandLineRunner {
 
     private void createServiceItemsForInvoice(Invoice invoice, String serviceType) {
         List<ServiceItem> items = Arrays.asList();
-        double totalAmount = 0.0;
 
         switch (serviceType) {
             case "MAINTENANCE":
@@ -226,14 +229,12 @@ public class DataInitializer implements CommandLineRunner {
                 );
         }
 
-        // Save service items and calculate total
+        // Save service items and calculate totals
         for (ServiceItem item : items) {
             serviceItemRepository.save(item);
-            totalAmount += item.getPrice() * item.getQuantity();
         }
 
-        // Update invoice with total amount
-        invoice.setTotalAmount(totalAmount);
+        invoicePricingService.applyTotals(invoice, items);
         invoiceRepository.save(invoice);
     }
 
@@ -0,0 +1,63 @@
+package com.vehicleservice.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Wraps the connection pool in a datasource-proxy so every JDBC statement - Hibernate's
+ * and JdbcTemplate's alike - is counted and timed into the thread's QueryStats. Outside
+ * an open QueryStats scope the listener does nothing. The pool stays reachable through
+ * unwrap(HikariDataSource.class).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.query-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceProxyConfig {
+
+    private static final String START_NANOS = "queryStats.startNanos";
+
+    @Bean
+    public static BeanPostProcessor queryStatsDataSourceWrapper() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(new QueryStatsListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static final class QueryStatsListener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (QueryStats.isActive()) {
+                execInfo.addCustomValue(START_NANOS, System.nanoTime());
+            }
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+            if (start == null || !QueryStats.isActive()) {
+                return;
+            }
+            // A batch is one round trip however many rows it carries
+            String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+            QueryStats.record(sql, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.vehicleservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps in-flight API requests at what the connection pool can serve. With virtual
+ * threads Tomcat no longer limits concurrency, so without this thousands of requests
+ * would queue inside Hikari and time out there. Requests wait here instead, with the
+ * same timeout, and get a 503 when no permit frees up in time.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class DatabaseConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseConcurrencyLimitFilter.class);
+
+    private static final byte[] BUSY_BODY =
+            "{\"success\":false,\"error\":\"Server busy, please retry\"}".getBytes();
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+
+    public DatabaseConcurrencyLimitFilter(DataSource dataSource,
+                                          @Value("${app.execution.db-permits-per-connection:2}") int permitsPerConnection)
+            throws SQLException {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        int maxPermits = hikari.getMaximumPoolSize() * permitsPerConnection;
+        this.permits = new Semaphore(maxPermits, true);
+        this.acquireTimeoutMs = hikari.getConnectionTimeout();
+        logger.info("Virtual-thread mode: limiting concurrent API requests to {}", maxPermits);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !path.startsWith("/api/") || path.contains("/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(BUSY_BODY);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+}
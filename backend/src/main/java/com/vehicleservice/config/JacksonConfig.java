@@ -0,0 +1,58 @@
+package com.vehicleservice.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.vehicleservice.dto.InvoiceDTO;
+import com.vehicleservice.dto.ServiceItemDTO;
+import com.vehicleservice.dto.ServiceRequestDTO;
+import com.vehicleservice.dto.VehicleDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Tuning for the single application-wide ObjectMapper. Inject that bean instead of
+ * creating a new ObjectMapper: every instance builds its own serializer cache.
+ */
+@Configuration
+public class JacksonConfig {
+    private static final Logger logger = LoggerFactory.getLogger(JacksonConfig.class);
+
+    private static final List<Class<?>> WARM_UP_TYPES = List.of(
+            VehicleDTO.class, ServiceRequestDTO.class, InvoiceDTO.class, ServiceItemDTO.class);
+
+    /**
+     * Replaces reflective getter/setter calls with generated lambdas. Off by default;
+     * enable with app.jackson.blackbird.enabled=true.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.jackson.blackbird.enabled", havingValue = "true")
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * Resolves serializers and deserializers for the hot DTOs at startup so the first
+     * requests don't pay for introspection.
+     */
+    @Bean
+    public ApplicationRunner jacksonWarmUp(ObjectMapper objectMapper) {
+        return args -> {
+            for (Class<?> type : WARM_UP_TYPES) {
+                try {
+                    Object sample = type.getDeclaredConstructor().newInstance();
+                    byte[] json = objectMapper.writerFor(type).writeValueAsBytes(sample);
+                    objectMapper.readerFor(type).readValue(json);
+                } catch (Exception e) {
+                    logger.debug("Could not warm up Jackson for {}: {}", type.getSimpleName(), e.getMessage());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,124 @@
+package com.vehicleservice.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC statements executed on the current thread between open and close, as seen by the
+ * datasource proxy (DataSourceProxyConfig): round trips, time spent in the driver, and
+ * how often each distinct SQL string ran. Scopes nest; a statement counts towards every
+ * open scope on the thread, so an assertion inside a request does not hide it from the
+ * request's totals.
+ */
+public final class QueryStats implements AutoCloseable {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+
+    private final QueryStats parent;
+    private final Map<String, Integer> countBySql = new HashMap<>();
+    private int statements;
+    private long dbTimeNanos;
+
+    private QueryStats(QueryStats parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Starts counting on this thread. Close the returned scope on the same thread.
+     */
+    public static QueryStats open() {
+        QueryStats stats = new QueryStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static void record(String sql, long elapsedNanos) {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.statements++;
+            stats.dbTimeNanos += elapsedNanos;
+            stats.countBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (parent != null) {
+            CURRENT.set(parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    public int getStatementCount() {
+        return statements;
+    }
+
+    public long getDbTimeNanos() {
+        return dbTimeNanos;
+    }
+
+    public double getDbTimeMillis() {
+        return dbTimeNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Statement shapes that ran at least threshold times, most repeated first. A shape is
+     * the SQL with literals and IN lists folded, so loading one child row per parent shows
+     * up as a single shape with a count of the parent rows: the usual N+1 signature.
+     */
+    public List<RepeatedStatement> getRepeatedStatements(int threshold) {
+        Map<String, Integer> countByShape = new HashMap<>();
+        countBySql.forEach((sql, count) -> countByShape.merge(shapeOf(sql), count, Integer::sum));
+        List<RepeatedStatement> repeated = new ArrayList<>();
+        countByShape.forEach((shape, count) -> {
+            if (count >= threshold) {
+                repeated.add(new RepeatedStatement(shape, count));
+            }
+        });
+        repeated.sort((a, b) -> Integer.compare(b.count, a.count));
+        return repeated;
+    }
+
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return IN_LIST.matcher(shape).replaceAll("(?...)");
+    }
+
+    public static final class RepeatedStatement {
+        private final String shape;
+        private final int count;
+
+        private RepeatedStatement(String shape, int count) {
+            this.shape = shape;
+            this.count = count;
+        }
+
+        public String getShape() {
+            return shape;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return count + " x " + shape;
+        }
+    }
+}
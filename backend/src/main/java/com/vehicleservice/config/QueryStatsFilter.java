@@ -0,0 +1,112 @@
+package com.vehicleservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a QueryStats scope per API request and records the statement count
+ * (http.server.requests.queries) and JDBC time (http.server.requests.db) tagged like
+ * http.server.requests. A statement shape repeated n-plus-one-threshold times in one
+ * request is logged and counted as a suspected N+1.
+ *
+ * With app.query-stats.headers (meant for dev) responses also carry X-Query-Count and a
+ * Server-Timing db entry. The body is buffered for that so the headers can still be set
+ * after the handler has run; SSE streams are skipped, and invoice documents are never
+ * buffered: the wrapper holds back their Content-Length, which a sendfile response (no
+ * body written by the handler) would then go out without.
+ */
+@Component
+@ConditionalOnProperty(name = "app.query-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatsFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(QueryStatsFilter.class);
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean headers;
+    private final int nPlusOneThreshold;
+
+    public QueryStatsFilter(MeterRegistry meterRegistry,
+                            @Value("${app.query-stats.headers:false}") boolean headers,
+                            @Value("${app.query-stats.n-plus-one-threshold:5}") int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.headers = headers;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !path.startsWith("/api/") || path.contains("/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper buffered = headers && !request.getRequestURI().endsWith("/document")
+                ? new ContentCachingResponseWrapper(response) : null;
+        QueryStats stats = QueryStats.open();
+        try {
+            filterChain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            stats.close();
+            record(request, stats);
+            if (buffered != null) {
+                buffered.setHeader(QUERY_COUNT_HEADER, String.valueOf(stats.getStatementCount()));
+                buffered.addHeader("Server-Timing", String.format(Locale.ROOT, "db;dur=%.1f;desc=\"%d queries\"",
+                        stats.getDbTimeMillis(), stats.getStatementCount()));
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        DistributionSummary.builder("http.server.requests.queries")
+                .description("JDBC statements per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry)
+                .record(stats.getStatementCount());
+        Timer.builder("http.server.requests.db")
+                .description("Time spent in JDBC statements per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry)
+                .record(stats.getDbTimeNanos(), TimeUnit.NANOSECONDS);
+
+        List<QueryStats.RepeatedStatement> repeated = stats.getRepeatedStatements(nPlusOneThreshold);
+        if (!repeated.isEmpty()) {
+            Counter.builder("http.server.requests.n_plus_one")
+                    .description("Requests that repeated one statement shape n-plus-one-threshold times or more")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            logger.warn("Suspected N+1 in {} {} ({} statements): {}", method, uri, stats.getStatementCount(), repeated);
+        }
+    }
+}
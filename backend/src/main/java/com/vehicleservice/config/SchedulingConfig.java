@@ -0,0 +1,14 @@
+package com.vehicleservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs such as the capacity calendar's refresh from booking_slots.
+ * They share Boot's scheduler, sized by spring.task.scheduling.pool.size so that the
+ * hourly batch jobs cannot delay the sub-second pollers.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
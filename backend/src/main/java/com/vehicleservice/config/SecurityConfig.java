@@ -1,5 +1,7 @@
 package com.vehicleservice.config;
 
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -61,6 +63,10 @@ public class SecurityConfig {
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // The JWT filter only runs on the original request, so the async dispatch that
+                // completes an SSE stream and the error dispatch carry no authentication; the
+                // request itself was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 // Auth endpoints
                 .requestMatchers(new AntPathRequestMatcher("/api/auth/**")).permitAll()
                 // Swagger UI
@@ -68,6 +74,9 @@ public class SecurityConfig {
                 .requestMatchers(new AntPathRequestMatcher("/v3/api-docs/**")).permitAll()
                 // Public endpoints
                 .requestMatchers(new AntPathRequestMatcher("/api/public/**")).permitAll()
+                // Actuator (management port only): probes and scrapes are anonymous
+                .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasAuthority("ADMIN")
                 // Role-based endpoints
                 .requestMatchers(new AntPathRequestMatcher("/api/admin/**")).hasAuthority("ADMIN")
                 .requestMatchers(new AntPathRequestMatcher("/api/mechanic/**")).hasAuthority("MECHANIC")
@@ -0,0 +1,43 @@
+package com.vehicleservice.controller;
+
+import com.vehicleservice.dto.AnalyticsReportDTO;
+import com.vehicleservice.service.AnalyticsRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsAdminController {
+
+    @Autowired
+    private AnalyticsRollupService analyticsRollupService;
+
+    /**
+     * Revenue, request counts and average turnaround for [from, to], grouped by day,
+     * serviceType or mechanic.
+     */
+    @GetMapping
+    public ResponseEntity<AnalyticsReportDTO> getReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String groupBy) {
+        return ResponseEntity.ok(analyticsRollupService.report(from, to, groupBy));
+    }
+
+    /**
+     * Recomputes the rollups from the source tables; without dates, for all history.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int days = analyticsRollupService.rebuild(from, to);
+        return ResponseEntity.ok(Map.of("success", true, "days", days));
+    }
+}
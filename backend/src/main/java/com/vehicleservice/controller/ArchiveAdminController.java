@@ -0,0 +1,27 @@
+package com.vehicleservice.controller;
+
+import com.vehicleservice.service.ArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/archive")
+@CrossOrigin(origins = "*")
+public class ArchiveAdminController {
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(archiveService.getStatus());
+    }
+
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> run() {
+        return ResponseEntity.ok(archiveService.run());
+    }
+}
@@ -0,0 +1,36 @@
+package com.vehicleservice.controller;
+
+import com.vehicleservice.dto.MechanicWorkloadDTO;
+import com.vehicleservice.dto.ServiceRequestDTO;
+import com.vehicleservice.service.MechanicAssignmentEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/assignment")
+@CrossOrigin(origins = "*")
+public class AssignmentController {
+
+    @Autowired
+    private MechanicAssignmentEngine assignmentEngine;
+
+    @PostMapping("/run")
+    public ResponseEntity<List<ServiceRequestDTO>> assignPending(@RequestParam(defaultValue = "50") int max) {
+        return ResponseEntity.ok(assignmentEngine.autoAssignPending(max));
+    }
+
+    @GetMapping("/workload")
+    public ResponseEntity<List<MechanicWorkloadDTO>> getWorkload() {
+        return ResponseEntity.ok(assignmentEngine.getWorkload());
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        assignmentEngine.rebuild();
+        return ResponseEntity.ok(Map.of("success", true, "pending", assignmentEngine.getPendingCount()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.vehicleservice.controller;
+
+import com.vehicleservice.dto.AuditEntryDTO;
+import com.vehicleservice.service.AuditLogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/audit")
+@CrossOrigin(origins = "*")
+public class AuditAdminController {
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(auditLogService.getStatus());
+    }
+
+    @GetMapping("/entries")
+    public ResponseEntity<List<AuditEntryDTO>> getEntries(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(auditLogService.getEntries(entityType, entityId, limit));
+    }
+}
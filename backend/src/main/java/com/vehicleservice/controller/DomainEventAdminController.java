@@ -0,0 +1,31 @@
+package com.vehicleservice.controller;
+
+import com.vehicleservice.event.DomainEvent;
+import com.vehicleservice.service.DomainEventDispatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/events")
+@CrossOrigin(origins = "*")
+public class DomainEventAdminController {
+
+    @Autowired
+    private DomainEventDispatcher domainEventDispatcher;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(domainEventDispatcher.getStatus());
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<List<DomainEvent>> readEvents(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(domainEventDispatcher.readEvents(after, limit));
+    }
+}
@@ -1,24 +1,79 @@
 package com.vehicleservice.controller;
 
+import com.vehicleservice.exception.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseBody;
-import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
-import java.util.HashMap;
 import java.util.Map;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private static final ResponseEntity<Map<String, Object>> DATA_CONFLICT =
+            errorResponse(HttpStatus.CONFLICT, "Request conflicts with existing data");
+    private static final ResponseEntity<Map<String, Object>> CONCURRENT_MODIFICATION =
+            errorResponse(HttpStatus.CONFLICT, "Resource was modified concurrently, please retry");
+    private static final ResponseEntity<Map<String, Object>> MALFORMED_BODY =
+            errorResponse(HttpStatus.BAD_REQUEST, "Malformed request body");
+    private static final ResponseEntity<Map<String, Object>> INTERNAL_ERROR =
+            errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error");
+
+    @ExceptionHandler(ApiException.class)
+    public ResponseEntity<Map<String, Object>> handleApiException(ApiException ex) {
+        return ex.toResponseEntity();
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, Object>> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        logger.debug("Data integrity violation: {}", ex.getMostSpecificCause().getMessage());
+        return DATA_CONFLICT;
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        return CONCURRENT_MODIFICATION;
+    }
+
+    // Client errors name only the offending parameter: the exception messages carry parser
+    // and class details. A bare IllegalArgumentException is a bug and goes to the 500 handler.
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<Map<String, Object>> handleMissingParameter(MissingServletRequestParameterException ex) {
+        return errorResponse(HttpStatus.BAD_REQUEST, "Missing request parameter: " + ex.getParameterName());
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Map<String, Object>> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        return errorResponse(HttpStatus.BAD_REQUEST, "Invalid value for parameter: " + ex.getName());
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, Object>> handleUnreadableBody(HttpMessageNotReadableException ex) {
+        logger.debug("Unreadable request body: {}", ex.getMessage());
+        return MALFORMED_BODY;
+    }
+
     @ExceptionHandler(Exception.class)
-    @ResponseBody
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity<Map<String, Object>> handleAllExceptions(Exception ex) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("success", false);
-        errorResponse.put("error", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        if (ex instanceof ErrorResponse springError) {
+            return errorResponse(springError.getStatusCode(), ex.getMessage());
+        }
+        logger.error("Unhandled exception", ex);
+        return INTERNAL_ERROR;
+    }
+
+    private static ResponseEntity<Map<String, Object>> errorResponse(HttpStatusCode status, String message) {
+        return ResponseEntity.status(status).body(Map.of("success", false, "error", String.valueOf(message)));
     }
-} 
\ No newline at end of file
+}
@@ -1,11 +1,21 @@
 package com.vehicleservice.controller;
 
 import com.vehicleservice.dto.InvoiceDTO;
+import com.vehicleservice.dto.PaymentIntentDTO;
+import com.vehicleservice.service.IdempotencyService;
+import com.vehicleservice.service.InvoiceDocumentService;
 import com.vehicleservice.service.InvoiceService;
+import com.vehicleservice.service.PaymentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
 import java.util.List;
 
 @RestController
@@ -13,9 +23,21 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class InvoiceController {
 
+    // Below this, writing from the handler is cheaper than handing the file to the poller (Tomcat's own default)
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
     @Autowired
     private InvoiceService invoiceService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private InvoiceDocumentService invoiceDocumentService;
+
     @PostMapping
     public ResponseEntity<InvoiceDTO> createInvoice(@RequestBody InvoiceDTO invoiceDTO) {
         return ResponseEntity.ok(invoiceService.createInvoice(invoiceDTO));
@@ -45,11 +67,50 @@ public class InvoiceController {
     }
 
     @PostMapping("/{id}/process-payment")
-    public ResponseEntity<InvoiceDTO> processPayment(
+    public ResponseEntity<PaymentIntentDTO> processPayment(
             @PathVariable Long id,
             @RequestParam String paymentMethod,
-            @RequestParam String cardLastFour) {
-        return ResponseEntity.ok(invoiceService.processPayment(id, paymentMethod, cardLastFour));
+            @RequestParam String cardLastFour,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        // Accepted, not settled: the invoice is marked paid once a payment worker has charged the card
+        PaymentIntentDTO intent = idempotencyService.execute("invoice-payment", idempotencyKey,
+                idempotencyService.fingerprint(id, paymentMethod, cardLastFour), PaymentIntentDTO.class,
+                () -> paymentService.requestPayment(id, paymentMethod, cardLastFour));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header("Location", "/api/invoices/payments/" + intent.getId())
+                .body(intent);
+    }
+
+    @GetMapping("/payments/{paymentId}")
+    public ResponseEntity<PaymentIntentDTO> getPayment(@PathVariable Long paymentId) {
+        return ResponseEntity.ok(paymentService.getPaymentIntent(paymentId));
+    }
+
+    @GetMapping("/{id}/document")
+    public void getInvoiceDocument(
+            @PathVariable Long id,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        InvoiceDocumentService.StoredDocument document = invoiceDocumentService.getDocument(id);
+        // The file name is the content hash, so it doubles as a strong ETag
+        String etag = "\"" + document.getHash() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        response.setContentType("text/html;charset=UTF-8");
+        response.setContentLengthLong(document.getSize());
+        if (document.getSize() >= SENDFILE_MIN_BYTES
+                && Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            // Tomcat's poller sends the file itself once this handler returns
+            request.setAttribute("org.apache.tomcat.sendfile.filename", document.getPath().toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", document.getSize());
+            return;
+        }
+        invoiceDocumentService.transferTo(document, Channels.newChannel(response.getOutputStream()));
     }
 
     @GetMapping("/service-request/{serviceRequestId}")
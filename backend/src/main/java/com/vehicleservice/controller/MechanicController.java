@@ -0,0 +1,31 @@
+package com.vehicleservice.controller;
+
+import com.vehicleservice.dto.ServiceRequestDTO;
+import com.vehicleservice.model.User;
+import com.vehicleservice.service.AuthService;
+import com.vehicleservice.service.MechanicQueueService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/mechanic")
+@CrossOrigin(origins = "*")
+public class MechanicController {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private MechanicQueueService mechanicQueueService;
+
+    @GetMapping("/queue")
+    public ResponseEntity<Page<ServiceRequestDTO>> getMyQueue(
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        User mechanic = authService.getCurrentUser();
+        return ResponseEntity.ok(mechanicQueueService.getQueue(mechanic.getId(), status, page, size));
+    }
+}
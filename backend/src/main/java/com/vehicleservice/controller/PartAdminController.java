@@ -0,0 +1,45 @@
+package com.vehicleservice.controller;
+
+import com.vehicleservice.dto.PartDTO;
+import com.vehicleservice.service.PartsCatalogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/parts")
+@CrossOrigin(origins = "*")
+public class PartAdminController {
+
+    @Autowired
+    private PartsCatalogService partsCatalogService;
+
+    @GetMapping
+    public ResponseEntity<List<PartDTO>> getAllParts() {
+        return ResponseEntity.ok(partsCatalogService.getAllParts());
+    }
+
+    @PostMapping
+    public ResponseEntity<PartDTO> createPart(@RequestBody PartDTO partDTO) {
+        return ResponseEntity.ok(partsCatalogService.savePart(null, partDTO));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<PartDTO> updatePart(@PathVariable Long id, @RequestBody PartDTO partDTO) {
+        return ResponseEntity.ok(partsCatalogService.savePart(id, partDTO));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deactivatePart(@PathVariable Long id) {
+        partsCatalogService.deactivatePart(id);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<Void> reload() {
+        partsCatalogService.reload();
+        return ResponseEntity.ok().build();
+    }
+}
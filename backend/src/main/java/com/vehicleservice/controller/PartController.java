@@ -0,0 +1,36 @@
+package com.vehicleservice.controller;
+
+import com.vehicleservice.dto.PartDTO;
+import com.vehicleservice.dto.PartPriceDTO;
+import com.vehicleservice.service.PartsCatalogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/parts")
+@CrossOrigin(origins = "*")
+public class PartController {
+
+    @Autowired
+    private PartsCatalogService partsCatalogService;
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<PartDTO>> autocomplete(
+            @RequestParam("q") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(partsCatalogService.autocomplete(prefix, limit));
+    }
+
+    @GetMapping("/{partNumber}")
+    public ResponseEntity<PartDTO> getPart(@PathVariable String partNumber) {
+        return ResponseEntity.ok(partsCatalogService.getPart(partNumber));
+    }
+
+    @GetMapping("/{partNumber}/price-history")
+    public ResponseEntity<List<PartPriceDTO>> getPriceHistory(@PathVariable String partNumber) {
+        return ResponseEntity.ok(partsCatalogService.getPriceHistory(partNumber));
+    }
+}
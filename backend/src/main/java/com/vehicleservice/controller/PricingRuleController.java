@@ -0,0 +1,45 @@
+package com.vehicleservice.controller;
+
+import com.vehicleservice.model.PricingRule;
+import com.vehicleservice.service.PricingRuleEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/pricing-rules")
+@CrossOrigin(origins = "*")
+public class PricingRuleController {
+
+    @Autowired
+    private PricingRuleEngine pricingRuleEngine;
+
+    @GetMapping
+    public ResponseEntity<List<PricingRule>> getAllRules() {
+        return ResponseEntity.ok(pricingRuleEngine.getAllRules());
+    }
+
+    @PostMapping
+    public ResponseEntity<PricingRule> createRule(@RequestBody PricingRule rule) {
+        return ResponseEntity.ok(pricingRuleEngine.saveRule(null, rule));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<PricingRule> updateRule(@PathVariable Long id, @RequestBody PricingRule rule) {
+        return ResponseEntity.ok(pricingRuleEngine.saveRule(id, rule));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRule(@PathVariable Long id) {
+        pricingRuleEngine.deleteRule(id);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<Void> reload() {
+        pricingRuleEngine.reload();
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.vehicleservice.controller;
+
+import com.vehicleservice.service.MaintenanceReminderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/reminders")
+@CrossOrigin(origins = "*")
+public class ReminderAdminController {
+
+    @Autowired
+    private MaintenanceReminderService reminderService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(reminderService.getStatus());
+    }
+
+    @PostMapping("/run")
+    public ResponseEntity<MaintenanceReminderService.PassResult> run() {
+        return ResponseEntity.ok(reminderService.run(true));
+    }
+}
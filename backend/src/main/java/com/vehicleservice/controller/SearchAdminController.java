@@ -0,0 +1,28 @@
+package com.vehicleservice.controller;
+
+import com.vehicleservice.service.ServiceRequestSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/search")
+@CrossOrigin(origins = "*")
+public class SearchAdminController {
+
+    @Autowired
+    private ServiceRequestSearchService searchService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(Map.of("success", true, "documents", searchService.getDocumentCount()));
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        int indexed = searchService.rebuild();
+        return ResponseEntity.ok(Map.of("success", true, "indexed", indexed));
+    }
+}
@@ -93,7 +93,7 @@ public class ServiceItemController {
             testItem.setWarrantyInfo("Test warranty");
             
             System.out.println("About to save test service item with invoice ID: " + testInvoice.getId());
-            ServiceItem savedItem = serviceItemRepository.save(testItem);
+            ServiceItem savedItem = serviceItemService.saveNewServiceItem(testItem);
             System.out.println("✓ Test service item saved with ID: " + savedItem.getId());
             
             return ResponseEntity.ok("Test service item created successfully with ID: " + savedItem.getId());
@@ -144,7 +144,7 @@ public class ServiceItemController {
             System.out.println("6. About to attempt save...");
             
             // Try to save
-            ServiceItem savedItem = serviceItemRepository.save(testItem);
+            ServiceItem savedItem = serviceItemService.saveNewServiceItem(testItem);
             System.out.println("✓ Service item saved successfully with ID: " + savedItem.getId());
             
             return ResponseEntity.ok("Diagnosis: Everything working correctly! Test service item saved with ID: " + savedItem.getId());
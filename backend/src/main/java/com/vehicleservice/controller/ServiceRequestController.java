@@ -4,6 +4,13 @@ import com.vehicleservice.dto.ServiceRequestDTO;
 import com.vehicleservice.dto.CreateServiceRequestDTO;
 import com.vehicleservice.dto.InvoiceDTO;
 import com.vehicleservice.dto.ServiceItemDTO;
+import com.vehicleservice.dto.ServiceRequestSearchCriteria;
+import com.vehicleservice.dto.SlotAvailabilityDTO;
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.service.CapacityCalendarService;
+import com.vehicleservice.service.IdempotencyService;
+import com.vehicleservice.service.MechanicAssignmentEngine;
+import com.vehicleservice.service.ServiceRequestSearchService;
 import com.vehicleservice.service.ServiceRequestService;
 import com.vehicleservice.service.InvoiceService;
 import com.vehicleservice.service.ServiceItemService;
@@ -11,16 +18,23 @@ import com.vehicleservice.repository.ServiceItemRepository;
 import com.vehicleservice.repository.ServiceRequestRepository;
 import com.vehicleservice.model.ServiceItem;
 import com.vehicleservice.model.ServiceRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/service-requests")
 @CrossOrigin(origins = "*")
 public class ServiceRequestController {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceRequestController.class);
 
     @Autowired
     private ServiceRequestService serviceRequestService;
@@ -37,22 +51,24 @@ public class ServiceRequestController {
     @Autowired
     private ServiceRequestRepository serviceRequestRepository;
 
+    @Autowired
+    private MechanicAssignmentEngine assignmentEngine;
+
+    @Autowired
+    private CapacityCalendarService capacityCalendar;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ServiceRequestSearchService searchService;
+
     @PostMapping
     public ResponseEntity<ServiceRequestDTO> createServiceRequest(@RequestBody CreateServiceRequestDTO createServiceRequestDTO) {
-        System.out.println("Received service request creation request:");
-        System.out.println("Vehicle ID: " + createServiceRequestDTO.getVehicleId());
-        System.out.println("Description: " + createServiceRequestDTO.getDescription());
-        System.out.println("Service Type: " + createServiceRequestDTO.getServiceType());
-        System.out.println("Priority: " + createServiceRequestDTO.getPriority());
-        System.out.println("Preferred Date: " + createServiceRequestDTO.getPreferredDate());
+        logger.debug("Received service request creation for vehicleId={}", createServiceRequestDTO.getVehicleId());
         
-        try {
-            ServiceRequestDTO createdRequest = serviceRequestService.createServiceRequest(createServiceRequestDTO);
-            return ResponseEntity.ok(createdRequest);
-        } catch (Exception e) {
-            System.err.println("Error in controller: " + e.getMessage());
-            throw e;
-        }
+        ServiceRequestDTO createdRequest = serviceRequestService.createServiceRequest(createServiceRequestDTO);
+        return ResponseEntity.ok(createdRequest);
     }
 
     @GetMapping
@@ -60,6 +76,27 @@ public class ServiceRequestController {
         return ResponseEntity.ok(serviceRequestService.getAllServiceRequests());
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<Page<ServiceRequestDTO>> search(
+            ServiceRequestSearchCriteria criteria,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(searchService.search(criteria, page, size));
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<List<SlotAvailabilityDTO>> getAvailability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(capacityCalendar.getDay(date));
+    }
+
+    @GetMapping("/availability/next")
+    public ResponseEntity<SlotAvailabilityDTO> getFirstAvailableSlot(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after) {
+        SlotAvailabilityDTO slot = capacityCalendar.findFirstAvailable(after);
+        return slot != null ? ResponseEntity.ok(slot) : ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ServiceRequestDTO> getServiceRequestById(@PathVariable Long id) {
         return ResponseEntity.ok(serviceRequestService.getServiceRequestById(id));
@@ -75,35 +112,39 @@ public class ServiceRequestController {
             @PathVariable Long requestId,
             @RequestParam Long mechanicId,
             @RequestParam(required = false) String notes) {
-        try {
-            ServiceRequestDTO updatedRequest = serviceRequestService.assignMechanic(requestId, mechanicId, notes);
-            return ResponseEntity.ok(updatedRequest);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
-        }
+        ServiceRequestDTO updatedRequest = serviceRequestService.assignMechanic(requestId, mechanicId, notes);
+        return ResponseEntity.ok(updatedRequest);
+    }
+
+    @PostMapping("/{requestId}/auto-assign")
+    public ResponseEntity<ServiceRequestDTO> autoAssignMechanic(@PathVariable Long requestId) {
+        return ResponseEntity.ok(assignmentEngine.autoAssign(requestId));
     }
 
     @PutMapping("/{requestId}/status")
     public ResponseEntity<ServiceRequestDTO> updateServiceRequestStatus(
             @PathVariable Long requestId,
             @RequestParam String status,
-            @RequestParam(required = false) String notes) {
-        try {
-            ServiceRequestDTO updatedRequest = serviceRequestService.updateServiceRequestStatus(requestId, status, notes);
-            return ResponseEntity.ok(updatedRequest);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
-        }
+            @RequestParam(required = false) String notes,
+            @RequestParam(required = false) Integer mileage) {
+        ServiceRequestDTO updatedRequest = serviceRequestService.updateServiceRequestStatus(requestId, status, notes, mileage);
+        return ResponseEntity.ok(updatedRequest);
     }
 
     @PostMapping("/{id}/invoice")
     public ResponseEntity<InvoiceDTO> createInvoiceForServiceRequest(
             @PathVariable Long id,
-            @RequestBody InvoiceDTO invoiceDTO) {
-        System.out.println("=== CREATING INVOICE FOR SERVICE REQUEST ===");
-        System.out.println("Service Request ID: " + id);
-        System.out.println("Invoice DTO: " + invoiceDTO);
-        
+            @RequestBody InvoiceDTO invoiceDTO,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        logger.debug("Creating invoice for serviceRequestId={}", id);
+
+        InvoiceDTO created = idempotencyService.execute("service-request-invoice", idempotencyKey,
+                idempotencyService.fingerprint(id, invoiceDTO), InvoiceDTO.class,
+                () -> createInvoice(id, invoiceDTO));
+        return ResponseEntity.ok(created);
+    }
+
+    private InvoiceDTO createInvoice(Long id, InvoiceDTO invoiceDTO) {
         try {
             // Use ServiceItemService to create invoice with service items
             var createdInvoice = serviceItemService.createInvoice(id, invoiceDTO);
@@ -113,17 +154,19 @@ public class ServiceRequestController {
             responseDTO.setId(createdInvoice.getId());
             responseDTO.setServiceRequestId(createdInvoice.getServiceRequest().getId());
             responseDTO.setTotalAmount(createdInvoice.getTotalAmount());
+            responseDTO.setSubtotal(createdInvoice.getSubtotal());
+            responseDTO.setTaxAmount(createdInvoice.getTaxAmount());
+            responseDTO.setDiscountAmount(createdInvoice.getDiscountAmount());
             responseDTO.setStatus(createdInvoice.getStatus());
             responseDTO.setBillingAddress(createdInvoice.getBillingAddress());
             responseDTO.setBillingCity(createdInvoice.getBillingCity());
             responseDTO.setBillingZip(createdInvoice.getBillingZip());
             responseDTO.setCreatedAt(createdInvoice.getCreatedAt());
             
-            System.out.println("✓ Invoice created successfully with ID: " + createdInvoice.getId());
-            return ResponseEntity.ok(responseDTO);
+            logger.debug("Invoice created invoiceId={} serviceRequestId={}", createdInvoice.getId(), id);
+            return responseDTO;
         } catch (Exception e) {
-            System.err.println("✗ Error creating invoice: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error creating invoice for serviceRequestId={}", id, e);
             throw e;
         }
     }
@@ -132,7 +175,7 @@ public class ServiceRequestController {
     public ResponseEntity<ServiceItemDTO> addServiceItemToRequest(@PathVariable Long id, @RequestBody ServiceItemDTO itemDTO) {
         // First, find the service request to verify it exists
         ServiceRequest request = serviceRequestRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Service request not found"));
+            .orElseThrow(() -> ResourceNotFoundException.SERVICE_REQUEST);
         
         // Create the service item
         ServiceItem item = new ServiceItem();
@@ -0,0 +1,35 @@
+package com.vehicleservice.controller;
+
+import com.vehicleservice.service.AuthService;
+import com.vehicleservice.service.ServiceRequestStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/service-requests")
+@CrossOrigin(origins = "*")
+public class ServiceRequestStreamController {
+
+    @Autowired
+    private ServiceRequestStreamService streamService;
+
+    @Autowired
+    private AuthService authService;
+
+    @GetMapping(value = "/stream/user/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamForUser(@PathVariable Long userId) {
+        return streamService.subscribeToUser(authService.getCurrentUser(), userId);
+    }
+
+    @GetMapping(value = "/stream/mechanic/{mechanicId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamForMechanic(@PathVariable Long mechanicId) {
+        return streamService.subscribeToMechanic(authService.getCurrentUser(), mechanicId);
+    }
+
+    @GetMapping(value = "/{requestId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamForRequest(@PathVariable Long requestId) {
+        return streamService.subscribeToRequest(authService.getCurrentUser(), requestId);
+    }
+}
@@ -2,6 +2,7 @@ package com.vehicleservice.controller;
 
 import com.vehicleservice.model.User;
 import com.vehicleservice.repository.UserRepository;
+import com.vehicleservice.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +16,9 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserService userService;
+
     @GetMapping
     public ResponseEntity<List<User>> getUsersByRole(@RequestParam(required = false) String role) {
         if (role != null) {
@@ -23,4 +27,9 @@ public class UserController {
             return ResponseEntity.ok(userRepository.findAll());
         }
     }
+
+    @GetMapping("/available")
+    public ResponseEntity<List<User>> getAvailableUsersByRole(@RequestParam(defaultValue = "MECHANIC") String role) {
+        return ResponseEntity.ok(userService.getAvailableUsersByRole(role.toUpperCase()));
+    }
 } 
\ No newline at end of file
@@ -1,17 +1,29 @@
 package com.vehicleservice.controller;
 
 import com.vehicleservice.model.Vehicle;
+import com.vehicleservice.service.MaintenanceReminderService;
+import com.vehicleservice.service.VehicleHistoryService;
+import com.vehicleservice.service.VehicleImportService;
 import com.vehicleservice.service.VehicleService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import com.vehicleservice.dto.MaintenanceReminderDTO;
 import com.vehicleservice.dto.VehicleDTO;
+import com.vehicleservice.dto.VehicleHistoryEntryDTO;
+import com.vehicleservice.dto.VehicleImportResultDTO;
+import com.vehicleservice.exception.ApiException;
+import com.vehicleservice.exception.ValidationException;
+import com.vehicleservice.logging.LazyJson;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.time.LocalDateTime;
@@ -21,36 +33,30 @@ import java.time.LocalDateTime;
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5177", "http://localhost:5174", "http://localhost:5175", "http://localhost:5176"})
 public class VehicleController {
     private static final Logger logger = LoggerFactory.getLogger(VehicleController.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Autowired
     private VehicleService vehicleService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private VehicleImportService vehicleImportService;
+
+    @Autowired
+    private VehicleHistoryService vehicleHistoryService;
+
+    @Autowired
+    private MaintenanceReminderService maintenanceReminderService;
+
     @PostMapping(value = "/user/{userId}", 
                 consumes = MediaType.APPLICATION_JSON_VALUE,
                 produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> addVehicle(@PathVariable Long userId, @RequestBody VehicleDTO vehicleDTO) {
         try {
-            logger.info("Received request to add vehicle for user {}: {}", userId, objectMapper.writeValueAsString(vehicleDTO));
-            
-            // Validate required fields
-            if (vehicleDTO.getMake() == null || vehicleDTO.getMake().trim().isEmpty()) {
-                logger.error("Make is required");
-                return ResponseEntity.badRequest().body("Make is required");
-            }
-            if (vehicleDTO.getModel() == null || vehicleDTO.getModel().trim().isEmpty()) {
-                logger.error("Model is required");
-                return ResponseEntity.badRequest().body("Model is required");
-            }
-            if (vehicleDTO.getYear() == null) {
-                logger.error("Year is required");
-                return ResponseEntity.badRequest().body("Year is required");
-            }
-            if (vehicleDTO.getLicensePlate() == null || vehicleDTO.getLicensePlate().trim().isEmpty()) {
-                logger.error("License plate is required");
-                return ResponseEntity.badRequest().body("License plate is required");
-            }
+            logger.debug("Received request to add vehicle for user {}: {}", userId, LazyJson.of(objectMapper, vehicleDTO));
 
+            // Required fields are validated by VehicleService (422 on failure)
             // Convert DTO to Vehicle
             Vehicle vehicle = new Vehicle();
             vehicle.setMake(vehicleDTO.getMake());
@@ -60,20 +66,35 @@ public class VehicleController {
             vehicle.setVinNumber(vehicleDTO.getVinNumber());
             vehicle.setMileage(vehicleDTO.getMileage());
 
-            logger.info("Validation passed, calling vehicleService.addVehicle");
             Vehicle savedVehicle = vehicleService.addVehicle(vehicle, userId);
             logger.info("Successfully added vehicle with ID: {}", savedVehicle.getId());
-            logger.info("Vehicle details: {}", objectMapper.writeValueAsString(savedVehicle));
+            // Log the flat DTO, never the entity: serializing Vehicle walks its lazy user graph
+            logger.debug("Vehicle details: {}", LazyJson.of(objectMapper, () -> VehicleDTO.fromEntity(savedVehicle)));
             return ResponseEntity.ok(savedVehicle);
-        } catch (DataIntegrityViolationException e) {
-            logger.error("Duplicate license plate error: {}", e.getMessage());
-            return ResponseEntity.badRequest().body("A vehicle with this license plate already exists.");
+        } catch (ApiException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error adding vehicle: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("success", false, "error", "Failed to add vehicle: " + e.getMessage()));
         }
     }
 
+    /**
+     * Bulk import for fleet customers: one vehicle per line, as CSV with a header row
+     * (text/csv) or NDJSON (application/x-ndjson). Rows that fail are listed in the result.
+     */
+    @PostMapping(value = "/user/{userId}/import",
+                consumes = {"text/csv", "application/x-ndjson"},
+                produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<VehicleImportResultDTO> importVehicles(
+            @PathVariable Long userId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request) throws IOException {
+        VehicleImportService.Format format = contentType.toLowerCase().startsWith("text/csv")
+                ? VehicleImportService.Format.CSV : VehicleImportService.Format.NDJSON;
+        return ResponseEntity.ok(vehicleImportService.importVehicles(userId, request.getInputStream(), format));
+    }
+
     @PostMapping(value = "", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> addVehicleWithBody(@RequestBody Map<String, Object> payload) {
         try {
@@ -81,6 +102,8 @@ public class VehicleController {
             Object vehicleObj = payload.get("vehicle");
             VehicleDTO vehicleDTO = objectMapper.convertValue(vehicleObj, VehicleDTO.class);
             return addVehicle(userId, vehicleDTO);
+        } catch (ApiException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error in addVehicleWithBody: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("success", false, "error", "Failed to add vehicle: " + e.getMessage()));
@@ -89,16 +112,11 @@ public class VehicleController {
 
     @GetMapping(value = "/user/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> getVehiclesByUser(@PathVariable Long userId) {
-        try {
-            List<Vehicle> vehicles = vehicleService.getVehiclesByUser(userId);
-            List<VehicleDTO> vehicleDTOs = vehicles.stream()
-                .map(VehicleDTO::fromEntity)
-                .toList();
-            return ResponseEntity.ok(vehicleDTOs);
-        } catch (RuntimeException e) {
-            logger.error("Error getting vehicles for user {}: {}", userId, e.getMessage());
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        List<Vehicle> vehicles = vehicleService.getVehiclesByUser(userId);
+        List<VehicleDTO> vehicleDTOs = vehicles.stream()
+            .map(VehicleDTO::fromEntity)
+            .toList();
+        return ResponseEntity.ok(vehicleDTOs);
     }
 
     @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -117,39 +135,65 @@ public class VehicleController {
         }
     }
 
+    @GetMapping(value = "/lookup", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<VehicleDTO> lookupVehicle(
+            @RequestParam(required = false) String plate,
+            @RequestParam(required = false) String vin) {
+        if (vin != null && !vin.isBlank()) {
+            return ResponseEntity.ok(VehicleDTO.fromEntity(vehicleService.findByVin(vin)));
+        }
+        if (plate == null || plate.isBlank()) {
+            throw new ValidationException("plate or vin is required");
+        }
+        return ResponseEntity.ok(VehicleDTO.fromEntity(vehicleService.findByLicensePlate(plate)));
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<VehicleDTO>> searchByPlate(
+            @RequestParam String platePrefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(vehicleService.searchByPlatePrefix(platePrefix, limit).stream()
+                .map(VehicleDTO::fromEntity)
+                .toList());
+    }
+
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> getVehicle(@PathVariable Long id) {
-        try {
-            Vehicle vehicle = vehicleService.getVehicleById(id);
-            return ResponseEntity.ok(vehicle);
-        } catch (RuntimeException e) {
-            logger.error("Error getting vehicle {}: {}", id, e.getMessage());
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        Vehicle vehicle = vehicleService.getVehicleById(id);
+        return ResponseEntity.ok(vehicle);
+    }
+
+    /**
+     * Service timeline of the vehicle, newest first, optionally limited to [from, to].
+     */
+    @GetMapping(value = "/{id}/history", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<VehicleHistoryEntryDTO>> getServiceHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(vehicleHistoryService.getTimeline(id, from, to, limit));
+    }
+
+    @GetMapping(value = "/{id}/reminders", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<MaintenanceReminderDTO>> getReminders(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean includeClosed) {
+        return ResponseEntity.ok(maintenanceReminderService.getReminders(id, includeClosed));
     }
 
     @PutMapping(value = "/{id}", 
                 consumes = MediaType.APPLICATION_JSON_VALUE,
                 produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> updateVehicle(@PathVariable Long id, @RequestBody Vehicle vehicle) {
-        try {
-            Vehicle updatedVehicle = vehicleService.updateVehicle(id, vehicle);
-            return ResponseEntity.ok(updatedVehicle);
-        } catch (RuntimeException e) {
-            logger.error("Error updating vehicle {}: {}", id, e.getMessage());
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        Vehicle updatedVehicle = vehicleService.updateVehicle(id, vehicle);
+        return ResponseEntity.ok(updatedVehicle);
     }
 
     @DeleteMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> deleteVehicle(@PathVariable Long id) {
-        try {
-            vehicleService.deleteVehicle(id);
-            return ResponseEntity.ok().build();
-        } catch (RuntimeException e) {
-            logger.error("Error deleting vehicle {}: {}", id, e.getMessage());
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        vehicleService.deleteVehicle(id);
+        return ResponseEntity.ok().build();
     }
 
     @GetMapping(value = "/test", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -0,0 +1,28 @@
+package com.vehicleservice.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class AnalyticsReportDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private String groupBy;
+    private AnalyticsRowDTO totals;
+    private List<AnalyticsRowDTO> rows;
+
+    // Getters and Setters
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+
+    public String getGroupBy() { return groupBy; }
+    public void setGroupBy(String groupBy) { this.groupBy = groupBy; }
+
+    public AnalyticsRowDTO getTotals() { return totals; }
+    public void setTotals(AnalyticsRowDTO totals) { this.totals = totals; }
+
+    public List<AnalyticsRowDTO> getRows() { return rows; }
+    public void setRows(List<AnalyticsRowDTO> rows) { this.rows = rows; }
+}
@@ -0,0 +1,33 @@
+package com.vehicleservice.dto;
+
+public class AnalyticsRowDTO {
+    private String key;
+    private String label;
+    private long requestsCreated;
+    private long requestsCompleted;
+    private Double averageTurnaroundHours;
+    private long invoicesPaid;
+    private double revenue;
+
+    // Getters and Setters
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+
+    public long getRequestsCreated() { return requestsCreated; }
+    public void setRequestsCreated(long requestsCreated) { this.requestsCreated = requestsCreated; }
+
+    public long getRequestsCompleted() { return requestsCompleted; }
+    public void setRequestsCompleted(long requestsCompleted) { this.requestsCompleted = requestsCompleted; }
+
+    public Double getAverageTurnaroundHours() { return averageTurnaroundHours; }
+    public void setAverageTurnaroundHours(Double averageTurnaroundHours) { this.averageTurnaroundHours = averageTurnaroundHours; }
+
+    public long getInvoicesPaid() { return invoicesPaid; }
+    public void setInvoicesPaid(long invoicesPaid) { this.invoicesPaid = invoicesPaid; }
+
+    public double getRevenue() { return revenue; }
+    public void setRevenue(double revenue) { this.revenue = revenue; }
+}
@@ -0,0 +1,36 @@
+package com.vehicleservice.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class AuditEntryDTO {
+    private Long id;
+    private String entityType;
+    private Long entityId;
+    private String action;
+    private Map<String, Object> changes;
+    private String actor;
+    private LocalDateTime occurredAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+
+    public Long getEntityId() { return entityId; }
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+
+    public Map<String, Object> getChanges() { return changes; }
+    public void setChanges(Map<String, Object> changes) { this.changes = changes; }
+
+    public String getActor() { return actor; }
+    public void setActor(String actor) { this.actor = actor; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+}
@@ -7,6 +7,9 @@ public class InvoiceDTO {
     private Long id;
     private Long serviceRequestId;
     private Double totalAmount;
+    private Double subtotal;
+    private Double taxAmount;
+    private Double discountAmount;
     private String status;
     private LocalDateTime createdAt;
     private LocalDateTime paidAt;
@@ -106,6 +109,30 @@ public class InvoiceDTO {
         this.billingZip = billingZip;
     }
 
+    public Double getSubtotal() {
+        return subtotal;
+    }
+
+    public void setSubtotal(Double subtotal) {
+        this.subtotal = subtotal;
+    }
+
+    public Double getTaxAmount() {
+        return taxAmount;
+    }
+
+    public void setTaxAmount(Double taxAmount) {
+        this.taxAmount = taxAmount;
+    }
+
+    public Double getDiscountAmount() {
+        return discountAmount;
+    }
+
+    public void setDiscountAmount(Double discountAmount) {
+        this.discountAmount = discountAmount;
+    }
+
     public List<ServiceItemDTO> getServiceItems() {
         return serviceItems;
     }
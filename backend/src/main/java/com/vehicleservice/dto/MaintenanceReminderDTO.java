@@ -0,0 +1,43 @@
+package com.vehicleservice.dto;
+
+import java.time.LocalDateTime;
+
+public class MaintenanceReminderDTO {
+    private Long id;
+    private Long vehicleId;
+    private String reminderType;
+    private String reason;
+    private LocalDateTime dueAt;
+    private Integer dueMileage;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime closedAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getVehicleId() { return vehicleId; }
+    public void setVehicleId(Long vehicleId) { this.vehicleId = vehicleId; }
+
+    public String getReminderType() { return reminderType; }
+    public void setReminderType(String reminderType) { this.reminderType = reminderType; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public LocalDateTime getDueAt() { return dueAt; }
+    public void setDueAt(LocalDateTime dueAt) { this.dueAt = dueAt; }
+
+    public Integer getDueMileage() { return dueMileage; }
+    public void setDueMileage(Integer dueMileage) { this.dueMileage = dueMileage; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getClosedAt() { return closedAt; }
+    public void setClosedAt(LocalDateTime closedAt) { this.closedAt = closedAt; }
+}
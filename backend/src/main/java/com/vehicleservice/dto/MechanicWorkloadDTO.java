@@ -0,0 +1,26 @@
+package com.vehicleservice.dto;
+
+public class MechanicWorkloadDTO {
+    private Long mechanicId;
+    private int openJobs;
+    private long estimatedMinutes;
+
+    public MechanicWorkloadDTO() {
+    }
+
+    public MechanicWorkloadDTO(Long mechanicId, int openJobs, long estimatedMinutes) {
+        this.mechanicId = mechanicId;
+        this.openJobs = openJobs;
+        this.estimatedMinutes = estimatedMinutes;
+    }
+
+    // Getters and Setters
+    public Long getMechanicId() { return mechanicId; }
+    public void setMechanicId(Long mechanicId) { this.mechanicId = mechanicId; }
+
+    public int getOpenJobs() { return openJobs; }
+    public void setOpenJobs(int openJobs) { this.openJobs = openJobs; }
+
+    public long getEstimatedMinutes() { return estimatedMinutes; }
+    public void setEstimatedMinutes(long estimatedMinutes) { this.estimatedMinutes = estimatedMinutes; }
+}
@@ -0,0 +1,43 @@
+package com.vehicleservice.dto;
+
+import java.time.LocalDateTime;
+
+public class PartDTO {
+    private Long id;
+    private String partNumber;
+    private String name;
+    private String description;
+    private String type;
+    private Double price;
+    private String warrantyInfo;
+    private Boolean active;
+    private LocalDateTime updatedAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPartNumber() { return partNumber; }
+    public void setPartNumber(String partNumber) { this.partNumber = partNumber; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public String getWarrantyInfo() { return warrantyInfo; }
+    public void setWarrantyInfo(String warrantyInfo) { this.warrantyInfo = warrantyInfo; }
+
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
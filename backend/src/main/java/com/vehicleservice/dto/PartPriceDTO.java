@@ -0,0 +1,23 @@
+package com.vehicleservice.dto;
+
+import java.time.LocalDateTime;
+
+public class PartPriceDTO {
+    private Double price;
+    private LocalDateTime effectiveFrom;
+
+    public PartPriceDTO() {
+    }
+
+    public PartPriceDTO(Double price, LocalDateTime effectiveFrom) {
+        this.price = price;
+        this.effectiveFrom = effectiveFrom;
+    }
+
+    // Getters and Setters
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public LocalDateTime getEffectiveFrom() { return effectiveFrom; }
+    public void setEffectiveFrom(LocalDateTime effectiveFrom) { this.effectiveFrom = effectiveFrom; }
+}
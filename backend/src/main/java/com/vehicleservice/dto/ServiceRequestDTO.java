@@ -15,6 +15,7 @@ public class ServiceRequestDTO {
     private String status;
     private String mechanicNotes;
     private LocalDateTime assignedAt;
+    private LocalDateTime completedAt;
 
     // Getters and Setters
     public Long getId() {
@@ -112,4 +113,12 @@ public class ServiceRequestDTO {
     public void setAssignedAt(LocalDateTime assignedAt) {
         this.assignedAt = assignedAt;
     }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.vehicleservice.dto;
+
+import java.time.LocalDateTime;
+
+public class SlotAvailabilityDTO {
+    private LocalDateTime start;
+    private int booked;
+    private int capacity;
+
+    public SlotAvailabilityDTO() {
+    }
+
+    public SlotAvailabilityDTO(LocalDateTime start, int booked, int capacity) {
+        this.start = start;
+        this.booked = booked;
+        this.capacity = capacity;
+    }
+
+    // Getters and Setters
+    public LocalDateTime getStart() { return start; }
+    public void setStart(LocalDateTime start) { this.start = start; }
+
+    public int getBooked() { return booked; }
+    public void setBooked(int booked) { this.booked = booked; }
+
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+
+    public boolean isAvailable() { return booked < capacity; }
+}
@@ -0,0 +1,56 @@
+package com.vehicleservice.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class VehicleHistoryEntryDTO {
+    private Long id;
+    private Long vehicleId;
+    private String eventType;
+    private LocalDateTime occurredAt;
+    private Long serviceRequestId;
+    private Long invoiceId;
+    private String serviceType;
+    private String description;
+    private String mechanicName;
+    private Integer mileage;
+    private Double amount;
+    private List<ServiceItemDTO> items;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getVehicleId() { return vehicleId; }
+    public void setVehicleId(Long vehicleId) { this.vehicleId = vehicleId; }
+
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+
+    public Long getServiceRequestId() { return serviceRequestId; }
+    public void setServiceRequestId(Long serviceRequestId) { this.serviceRequestId = serviceRequestId; }
+
+    public Long getInvoiceId() { return invoiceId; }
+    public void setInvoiceId(Long invoiceId) { this.invoiceId = invoiceId; }
+
+    public String getServiceType() { return serviceType; }
+    public void setServiceType(String serviceType) { this.serviceType = serviceType; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getMechanicName() { return mechanicName; }
+    public void setMechanicName(String mechanicName) { this.mechanicName = mechanicName; }
+
+    public Integer getMileage() { return mileage; }
+    public void setMileage(Integer mileage) { this.mileage = mileage; }
+
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+
+    public List<ServiceItemDTO> getItems() { return items; }
+    public void setItems(List<ServiceItemDTO> items) { this.items = items; }
+}
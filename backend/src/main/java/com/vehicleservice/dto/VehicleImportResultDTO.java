@@ -0,0 +1,61 @@
+package com.vehicleservice.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class VehicleImportResultDTO {
+    private int totalRows;
+    private int imported;
+    private int failed;
+    private boolean errorsTruncated;
+    // Set when the import hit max-rows: rows from stoppedAtLine on were not read
+    private boolean rowLimitReached;
+    private Integer stoppedAtLine;
+    private List<RowError> errors = new ArrayList<>();
+
+    // Getters and Setters
+    public int getTotalRows() { return totalRows; }
+    public void setTotalRows(int totalRows) { this.totalRows = totalRows; }
+
+    public int getImported() { return imported; }
+    public void setImported(int imported) { this.imported = imported; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+
+    public boolean isRowLimitReached() { return rowLimitReached; }
+    public void setRowLimitReached(boolean rowLimitReached) { this.rowLimitReached = rowLimitReached; }
+
+    public Integer getStoppedAtLine() { return stoppedAtLine; }
+    public void setStoppedAtLine(Integer stoppedAtLine) { this.stoppedAtLine = stoppedAtLine; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public static class RowError {
+        private int row;
+        private String licensePlate;
+        private String message;
+
+        public RowError() {
+        }
+
+        public RowError(int row, String licensePlate, String message) {
+            this.row = row;
+            this.licensePlate = licensePlate;
+            this.message = message;
+        }
+
+        public int getRow() { return row; }
+        public void setRow(int row) { this.row = row; }
+
+        public String getLicensePlate() { return licensePlate; }
+        public void setLicensePlate(String licensePlate) { this.licensePlate = licensePlate; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
@@ -0,0 +1,56 @@
+package com.vehicleservice.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the domain_events outbox: something happened to an aggregate, with the
+ * aggregate's state afterwards as a JSON payload. Written by DomainEventOutbox in the
+ * transaction that made the change and delivered in id order to DomainEventSubscribers.
+ */
+public class DomainEvent {
+
+    public static final String SERVICE_REQUEST = "ServiceRequest";
+    public static final String INVOICE = "Invoice";
+    public static final String VEHICLE = "Vehicle";
+
+    private final long id;
+    private final String aggregateType;
+    private final long aggregateId;
+    private final String eventType;
+    private final String payload;
+    private final LocalDateTime createdAt;
+
+    public DomainEvent(long id, String aggregateType, long aggregateId, String eventType, String payload,
+                       LocalDateTime createdAt) {
+        this.id = id;
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public long getAggregateId() {
+        return aggregateId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
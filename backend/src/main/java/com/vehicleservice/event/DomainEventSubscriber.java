@@ -0,0 +1,42 @@
+package com.vehicleservice.event;
+
+import java.util.List;
+
+/**
+ * In-process consumer of the domain event stream. Any bean implementing this is picked
+ * up by DomainEventDispatcher and gets its own checkpoint, so a slow or failing
+ * subscriber never holds the others back.
+ *
+ * Delivery is at least once: a batch whose onEvents throws is delivered again later,
+ * and a crash between onEvents and the checkpoint update repeats the batch. Handlers
+ * must therefore be idempotent.
+ */
+public interface DomainEventSubscriber {
+
+    /**
+     * Stable name the checkpoint is stored under. Renaming a subscriber starts it over.
+     */
+    String getName();
+
+    /**
+     * Events this subscriber wants; the rest are skipped but still checkpointed.
+     */
+    default boolean accepts(DomainEvent event) {
+        return true;
+    }
+
+    /**
+     * Whether a newly registered subscriber replays the retained history instead of
+     * starting at the end of the stream.
+     */
+    default boolean replayFromStart() {
+        return false;
+    }
+
+    /**
+     * Handles a batch of accepted events in id order. An event whose transaction committed
+     * after the dispatcher had moved past its id arrives later, in a batch of its own.
+     * Runs on the dispatcher thread.
+     */
+    void onEvents(List<DomainEvent> events);
+}
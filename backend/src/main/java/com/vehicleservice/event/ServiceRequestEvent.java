@@ -0,0 +1,68 @@
+package com.vehicleservice.event;
+
+import com.vehicleservice.dto.ServiceRequestDTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by ServiceRequestService whenever a service request is created, assigned
+ * or changes status. Listeners should use @TransactionalEventListener so they only
+ * see changes that actually committed.
+ */
+public class ServiceRequestEvent {
+
+    public enum Type {
+        CREATED,
+        ASSIGNED,
+        STATUS_CHANGED
+    }
+
+    private final Type type;
+    private final ServiceRequestDTO serviceRequest;
+    private final Long userId;
+    private final Long previousMechanicId;
+    private final String previousStatus;
+    private final LocalDateTime occurredAt;
+
+    public ServiceRequestEvent(Type type, ServiceRequestDTO serviceRequest, Long userId,
+                               Long previousMechanicId, String previousStatus) {
+        this.type = type;
+        this.serviceRequest = serviceRequest;
+        this.userId = userId;
+        this.previousMechanicId = previousMechanicId;
+        this.previousStatus = previousStatus;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public ServiceRequestDTO getServiceRequest() {
+        return serviceRequest;
+    }
+
+    public Long getServiceRequestId() {
+        return serviceRequest.getId();
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getMechanicId() {
+        return serviceRequest.getMechanicId();
+    }
+
+    public Long getPreviousMechanicId() {
+        return previousMechanicId;
+    }
+
+    public String getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,21 @@
+package com.vehicleservice.event;
+
+import java.util.List;
+
+/**
+ * Published by ArchiveService for each batch of service requests it moves to
+ * service_requests_archive. Listeners should use @TransactionalEventListener so they
+ * only act once the rows are really gone from service_requests.
+ */
+public class ServiceRequestsArchivedEvent {
+
+    private final List<Long> serviceRequestIds;
+
+    public ServiceRequestsArchivedEvent(List<Long> serviceRequestIds) {
+        this.serviceRequestIds = List.copyOf(serviceRequestIds);
+    }
+
+    public List<Long> getServiceRequestIds() {
+        return serviceRequestIds;
+    }
+}
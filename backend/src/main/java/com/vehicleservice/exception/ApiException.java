@@ -0,0 +1,36 @@
+package com.vehicleservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+/**
+ * Base class for expected failures (not found, conflict, invalid input). These are
+ * part of normal request handling, so they skip stack trace capture and suppression,
+ * and cache their error response. Instances with a fixed message can therefore be
+ * shared constants and thrown without allocating anything.
+ */
+public abstract class ApiException extends RuntimeException {
+
+    private final HttpStatus status;
+    private volatile ResponseEntity<Map<String, Object>> response;
+
+    protected ApiException(HttpStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public ResponseEntity<Map<String, Object>> toResponseEntity() {
+        ResponseEntity<Map<String, Object>> cached = response;
+        if (cached == null) {
+            cached = ResponseEntity.status(status).body(Map.of("success", false, "error", getMessage()));
+            response = cached;
+        }
+        return cached;
+    }
+}
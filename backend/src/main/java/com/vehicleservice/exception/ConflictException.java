@@ -0,0 +1,10 @@
+package com.vehicleservice.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ConflictException extends ApiException {
+
+    public ConflictException(String message) {
+        super(HttpStatus.CONFLICT, message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.vehicleservice.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ForbiddenException extends ApiException {
+
+    public static final ForbiddenException NOT_OWNER = new ForbiddenException("Not allowed to access this resource");
+
+    public ForbiddenException(String message) {
+        super(HttpStatus.FORBIDDEN, message);
+    }
+}
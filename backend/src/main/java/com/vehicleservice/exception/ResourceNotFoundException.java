@@ -0,0 +1,20 @@
+package com.vehicleservice.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ResourceNotFoundException extends ApiException {
+
+    public static final ResourceNotFoundException SERVICE_REQUEST = new ResourceNotFoundException("Service request not found");
+    public static final ResourceNotFoundException INVOICE = new ResourceNotFoundException("Invoice not found");
+    public static final ResourceNotFoundException SERVICE_ITEM = new ResourceNotFoundException("Service item not found");
+    public static final ResourceNotFoundException VEHICLE = new ResourceNotFoundException("Vehicle not found");
+    public static final ResourceNotFoundException USER = new ResourceNotFoundException("User not found");
+    public static final ResourceNotFoundException MECHANIC = new ResourceNotFoundException("Mechanic not found");
+    public static final ResourceNotFoundException PAYMENT_INTENT = new ResourceNotFoundException("Payment not found");
+    public static final ResourceNotFoundException PRICING_RULE = new ResourceNotFoundException("Pricing rule not found");
+    public static final ResourceNotFoundException PART = new ResourceNotFoundException("Part not found");
+
+    public ResourceNotFoundException(String message) {
+        super(HttpStatus.NOT_FOUND, message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.vehicleservice.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class UnauthorizedException extends ApiException {
+
+    public static final UnauthorizedException NOT_AUTHENTICATED = new UnauthorizedException("User not authenticated");
+    public static final UnauthorizedException INVALID_CREDENTIALS = new UnauthorizedException("Invalid credentials");
+
+    public UnauthorizedException(String message) {
+        super(HttpStatus.UNAUTHORIZED, message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.vehicleservice.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ValidationException extends ApiException {
+
+    public ValidationException(String message) {
+        super(HttpStatus.UNPROCESSABLE_ENTITY, message);
+    }
+}
@@ -0,0 +1,39 @@
+package com.vehicleservice.logging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.function.Supplier;
+
+/**
+ * Log argument that serializes its value only when the logger actually formats the
+ * message. Pass it as a {} parameter; with the level disabled nothing is rendered and
+ * the supplier is never called.
+ */
+public final class LazyJson {
+
+    private final ObjectMapper objectMapper;
+    private final Supplier<?> value;
+
+    private LazyJson(ObjectMapper objectMapper, Supplier<?> value) {
+        this.objectMapper = objectMapper;
+        this.value = value;
+    }
+
+    public static LazyJson of(ObjectMapper objectMapper, Object value) {
+        return new LazyJson(objectMapper, () -> value);
+    }
+
+    public static LazyJson of(ObjectMapper objectMapper, Supplier<?> value) {
+        return new LazyJson(objectMapper, value);
+    }
+
+    @Override
+    public String toString() {
+        try {
+            return objectMapper.writeValueAsString(value.get());
+        } catch (JsonProcessingException e) {
+            return "<unserializable: " + e.getOriginalMessage() + ">";
+        }
+    }
+}
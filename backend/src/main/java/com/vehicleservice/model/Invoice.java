@@ -1,5 +1,6 @@
 package com.vehicleservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -7,6 +8,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "invoices")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Invoice {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,6 +21,23 @@ public class Invoice {
     @Column(nullable = false)
     private Double totalAmount;
 
+    // Maintained by InvoicePricingService; totalAmount = subtotal - discountAmount + taxAmount
+    @Column(nullable = false)
+    private Double subtotal = 0.0;
+
+    @Column(nullable = false)
+    private Double taxAmount = 0.0;
+
+    @Column(nullable = false)
+    private Double discountAmount = 0.0;
+
+    // CompiledRuleSet version the totals were priced with; null means reprice on next change
+    @Column(length = 16)
+    private String pricingVersion;
+
+    @Version
+    private Long version;
+
     @Column(nullable = false)
     private String status;
 
@@ -151,4 +170,44 @@ public class Invoice {
     public void setServiceItems(List<ServiceItem> serviceItems) {
         this.serviceItems = serviceItems;
     }
+
+    public Double getSubtotal() {
+        return subtotal;
+    }
+
+    public void setSubtotal(Double subtotal) {
+        this.subtotal = subtotal;
+    }
+
+    public Double getTaxAmount() {
+        return taxAmount;
+    }
+
+    public void setTaxAmount(Double taxAmount) {
+        this.taxAmount = taxAmount;
+    }
+
+    public Double getDiscountAmount() {
+        return discountAmount;
+    }
+
+    public void setDiscountAmount(Double discountAmount) {
+        this.discountAmount = discountAmount;
+    }
+
+    public String getPricingVersion() {
+        return pricingVersion;
+    }
+
+    public void setPricingVersion(String pricingVersion) {
+        this.pricingVersion = pricingVersion;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 } 
\ No newline at end of file
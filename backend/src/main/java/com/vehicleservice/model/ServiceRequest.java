@@ -1,10 +1,12 @@
 package com.vehicleservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "service_requests")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class ServiceRequest {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,6 +29,10 @@ public class ServiceRequest {
     @Column(nullable = false)
     private String priority;
 
+    // Numeric copy of priority so the mechanic queue index can order HIGH before LOW
+    @Column(name = "priority_rank", nullable = false)
+    private int priorityRank = priorityRank(null);
+
     @Column(name = "preferred_date", nullable = false)
     private LocalDateTime preferredDate;
 
@@ -42,6 +48,10 @@ public class ServiceRequest {
     @Column(name = "assigned_at")
     private LocalDateTime assignedAt;
 
+    // Set when the request enters COMPLETED and cleared if it leaves it again
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
     @OneToMany(mappedBy = "serviceRequest", cascade = CascadeType.ALL, orphanRemoval = true)
     private java.util.List<ServiceItem> serviceItems;
 
@@ -50,6 +60,25 @@ public class ServiceRequest {
         createdAt = LocalDateTime.now();
     }
 
+    /**
+     * Sort key for priority: HIGH before MEDIUM before LOW, unknown values last.
+     */
+    public static int priorityRank(String priority) {
+        if (priority == null) {
+            return 3;
+        }
+        switch (priority.toUpperCase()) {
+            case "HIGH":
+                return 0;
+            case "MEDIUM":
+                return 1;
+            case "LOW":
+                return 2;
+            default:
+                return 3;
+        }
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -97,6 +126,11 @@ public class ServiceRequest {
 
     public void setPriority(String priority) {
         this.priority = priority;
+        this.priorityRank = priorityRank(priority);
+    }
+
+    public int getPriorityRank() {
+        return priorityRank;
     }
 
     public LocalDateTime getPreferredDate() {
@@ -138,4 +172,12 @@ public class ServiceRequest {
     public void setAssignedAt(LocalDateTime assignedAt) {
         this.assignedAt = assignedAt;
     }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
 } 
\ No newline at end of file
@@ -1,11 +1,14 @@
 package com.vehicleservice.model;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "vehicles")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Vehicle {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,12 +34,27 @@ public class Vehicle {
     @Column(name = "vin_number", unique = true)
     private String vinNumber;
 
+    // Lookup keys: "ab-123" and "AB 123" share plate key "AB123". The unique indexes on
+    // these columns are what reject duplicate vehicles.
+    @JsonIgnore
+    @Column(name = "plate_key", nullable = false, unique = true, length = 32)
+    private String plateKey;
+
+    @JsonIgnore
+    @Column(name = "vin_key", unique = true, length = 32)
+    private String vinKey;
+
     @Column(name = "mileage")
     private Integer mileage;
 
     @Column(name = "last_service_date")
     private LocalDateTime lastServiceDate;
 
+    // Odometer reading when lastServiceDate was recorded; maintenance reminders measure
+    // distance driven since the last service from it
+    @Column(name = "last_service_mileage")
+    private Integer lastServiceMileage;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -90,6 +108,7 @@ public class Vehicle {
 
     public void setLicensePlate(String licensePlate) {
         this.licensePlate = licensePlate;
+        this.plateKey = plateKey(licensePlate);
     }
 
     public String getVinNumber() {
@@ -98,6 +117,47 @@ public class Vehicle {
 
     public void setVinNumber(String vinNumber) {
         this.vinNumber = vinNumber;
+        this.vinKey = vinKey(vinNumber);
+    }
+
+    public String getPlateKey() {
+        return plateKey;
+    }
+
+    public String getVinKey() {
+        return vinKey;
+    }
+
+    /**
+     * Upper case ASCII letters and digits only; separators and any other character are
+     * dropped. V14 builds the keys of existing rows with the same rule in SQL.
+     */
+    public static String plateKey(String licensePlate) {
+        if (licensePlate == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(licensePlate.length());
+        for (int i = 0; i < licensePlate.length(); i++) {
+            char c = licensePlate.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                key.append((char) (c - 'a' + 'A'));
+            } else if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Like plateKey, and also reads I, O and Q as 1, 0 and 0: those letters never occur
+     * in a VIN, so they are always mistyped digits.
+     */
+    public static String vinKey(String vinNumber) {
+        String key = plateKey(vinNumber);
+        if (key == null || key.isEmpty()) {
+            return null;
+        }
+        return key.replace('I', '1').replace('O', '0').replace('Q', '0');
     }
 
     public Integer getMileage() {
@@ -116,6 +176,14 @@ public class Vehicle {
         this.lastServiceDate = lastServiceDate;
     }
 
+    public Integer getLastServiceMileage() {
+        return lastServiceMileage;
+    }
+
+    public void setLastServiceMileage(Integer lastServiceMileage) {
+        this.lastServiceMileage = lastServiceMileage;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -2,9 +2,67 @@ package com.vehicleservice.repository;
 
 import com.vehicleservice.model.Invoice;
 import com.vehicleservice.model.ServiceRequest;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.Optional;
 
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     Optional<Invoice> findByServiceRequest(ServiceRequest serviceRequest);
+
+    // SELECT ... FOR UPDATE: serializes work that must see the invoice and act on it atomically
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Invoice i where i.id = :id")
+    Optional<Invoice> findByIdForUpdate(@Param("id") Long id);
+
+    // Bumps the version at commit even if only the invoice's items change
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select i from Invoice i where i.id = :id")
+    Optional<Invoice> findByIdForChange(@Param("id") Long id);
+
+    // Locks the invoice row like findByIdForUpdate, so an item change cannot interleave with
+    // PaymentService opening an intent or settling the invoice
+    @Query(value = "SELECT v.user_id AS customerId, i.pricing_version AS pricingVersion, i.status AS status, " +
+                   "i.subtotal AS subtotal, i.tax_amount AS taxAmount, i.discount_amount AS discountAmount, " +
+                   "i.total_amount AS totalAmount, " +
+                   "(SELECT p.id FROM payment_intents p WHERE p.open_invoice_id = i.id) AS openIntentId " +
+                   "FROM invoices i LEFT JOIN service_requests sr ON sr.id = i.service_request_id " +
+                   "LEFT JOIN vehicles v ON v.id = sr.vehicle_id WHERE i.id = :id FOR UPDATE OF i",
+           nativeQuery = true)
+    Optional<PricingView> findPricingViewForUpdate(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE invoices SET subtotal = :subtotal, tax_amount = :tax, discount_amount = :discount, " +
+                   "total_amount = :total, pricing_version = :pricingVersion, version = version + 1 WHERE id = :id",
+           nativeQuery = true)
+    int setTotals(@Param("id") Long id, @Param("subtotal") double subtotal, @Param("tax") double tax,
+                  @Param("discount") double discount, @Param("total") double total,
+                  @Param("pricingVersion") String pricingVersion);
+
+    // Adjusts the stored totals by one line's contribution without loading the invoice's items.
+    // Matches nothing once the totals were priced with another rule set.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE invoices SET subtotal = ROUND(subtotal + :subtotal, 2), " +
+                   "tax_amount = ROUND(tax_amount + :tax, 2), discount_amount = ROUND(discount_amount + :discount, 2), " +
+                   "total_amount = ROUND(total_amount + :total, 2), version = version + 1 " +
+                   "WHERE id = :id AND pricing_version = :pricingVersion",
+           nativeQuery = true)
+    int applyTotalsDelta(@Param("id") Long id, @Param("subtotal") double subtotal, @Param("tax") double tax,
+                         @Param("discount") double discount, @Param("total") double total,
+                         @Param("pricingVersion") String pricingVersion);
+
+    interface PricingView {
+        Long getCustomerId();
+        String getPricingVersion();
+        String getStatus();
+        Long getOpenIntentId();
+        Double getSubtotal();
+        Double getTaxAmount();
+        Double getDiscountAmount();
+        Double getTotalAmount();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.vehicleservice.repository;
+
+import com.vehicleservice.model.PartPriceHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface PartPriceHistoryRepository extends JpaRepository<PartPriceHistory, Long> {
+    List<PartPriceHistory> findByPartIdOrderByEffectiveFromDesc(Long partId);
+}
@@ -0,0 +1,23 @@
+package com.vehicleservice.repository;
+
+import com.vehicleservice.model.Part;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface PartRepository extends JpaRepository<Part, Long> {
+    List<Part> findByActiveTrue();
+
+    // Key as PartsCatalogIndex.normalize builds it; also finds retired parts
+    Optional<Part> findByPartKey(String partKey);
+
+    // Same change check as the pricing rules: any insert, update or delete moves one of these
+    @Query("select count(p) from Part p")
+    long countParts();
+
+    @Query("select max(p.updatedAt) from Part p")
+    LocalDateTime findLastUpdatedAt();
+}
@@ -0,0 +1,11 @@
+package com.vehicleservice.repository;
+
+import com.vehicleservice.model.PaymentIntent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface PaymentIntentRepository extends JpaRepository<PaymentIntent, Long> {
+    Optional<PaymentIntent> findFirstByInvoiceIdAndStatusNotIn(Long invoiceId, Collection<String> statuses);
+}
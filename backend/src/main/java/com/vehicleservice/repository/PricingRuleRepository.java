@@ -0,0 +1,19 @@
+package com.vehicleservice.repository;
+
+import com.vehicleservice.model.PricingRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PricingRuleRepository extends JpaRepository<PricingRule, Long> {
+    List<PricingRule> findByEnabledTrue();
+
+    // Cheap change check for other instances: any insert, update or delete moves one of these
+    @Query("select count(r) from PricingRule r")
+    long countRules();
+
+    @Query("select max(r.updatedAt) from PricingRule r")
+    LocalDateTime findLastUpdatedAt();
+}
@@ -1,12 +1,42 @@
 package com.vehicleservice.repository;
 
 import com.vehicleservice.model.ServiceRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ServiceRequestRepository extends JpaRepository<ServiceRequest, Long> {
     List<ServiceRequest> findByVehicle_User_Id(Long userId);
+
+    boolean existsByIdAndVehicle_User_Id(Long id, Long userId);
+
+    boolean existsByIdAndMechanic_Id(Long id, Long mechanicId);
+
+    // Served by idx_service_requests_mechanic_queue (mechanic_id, status, priority_rank, preferred_date)
+    @EntityGraph(attributePaths = "mechanic")
+    Page<ServiceRequest> findByMechanic_IdAndStatusInOrderByPriorityRankAscPreferredDateAsc(
+            Long mechanicId, Collection<String> statuses, Pageable pageable);
+
+    @Query("select sr.id as id, m.id as mechanicId, sr.serviceType as serviceType, sr.status as status, " +
+           "sr.priority as priority, sr.preferredDate as preferredDate " +
+           "from ServiceRequest sr left join sr.mechanic m where sr.status not in :closedStatuses")
+    List<OpenRequestView> findOpenRequests(@Param("closedStatuses") Collection<String> closedStatuses);
+
+    interface OpenRequestView {
+        Long getId();
+        Long getMechanicId();
+        String getServiceType();
+        String getStatus();
+        String getPriority();
+        LocalDateTime getPreferredDate();
+    }
 } 
\ No newline at end of file
@@ -2,10 +2,12 @@ package com.vehicleservice.repository;
 
 import com.vehicleservice.model.Vehicle;
 import com.vehicleservice.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
@@ -16,4 +18,9 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     List<Vehicle> findByModel(String model);
     List<Vehicle> findByYear(Integer year);
     List<Vehicle> findByLicensePlate(String licensePlate);
+
+    // Lookups by Vehicle.plateKey / Vehicle.vinKey, served by their unique indexes
+    Optional<Vehicle> findByPlateKey(String plateKey);
+    Optional<Vehicle> findByVinKey(String vinKey);
+    List<Vehicle> findByPlateKeyStartingWithOrderByPlateKeyAsc(String plateKeyPrefix, Pageable pageable);
 } 
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.vehicleservice.repository;
+
+import com.vehicleservice.model.VehicleServiceHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface VehicleServiceHistoryRepository extends JpaRepository<VehicleServiceHistory, Long> {
+    // Range read of idx_vehicle_service_history_timeline (vehicle_id, occurred_at)
+    List<VehicleServiceHistory> findByVehicleIdAndOccurredAtBetweenOrderByOccurredAtDesc(
+            Long vehicleId, LocalDateTime from, LocalDateTime to, Pageable pageable);
+}
@@ -0,0 +1,352 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.AnalyticsReportDTO;
+import com.vehicleservice.dto.AnalyticsRowDTO;
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.exception.ValidationException;
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.model.ServiceRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps analytics_daily_rollups, one row per (day, service type, mechanic), current by
+ * delta. Callers describe what a request or invoice contributed before and after a
+ * change and applyChange upserts the difference in the caller's transaction, so the
+ * rollups commit or roll back with the change itself. Reports then sum rollup rows,
+ * whose number depends on the date range and not on how many requests or invoices
+ * there are.
+ *
+ * Attribution: a created request counts on its creation day, unattributed to a mechanic;
+ * a completion on its completion day for the assigned mechanic; a paid invoice on its
+ * payment day for its request's service type and mechanic.
+ */
+@Service
+public class AnalyticsRollupService {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsRollupService.class);
+
+    static final String REBUILD_JOB = "analytics-rebuild";
+
+    private static final int MAX_SERVICE_TYPE_LENGTH = 64;
+    private static final long MAX_REPORT_DAYS = 3660;
+    private static final long REBUILD_LEASE_SECONDS = 120;
+
+    private static final String UPSERT_SQL = "INSERT INTO analytics_daily_rollups "
+            + "(day, service_type, mechanic_id, requests_created, requests_completed, turnaround_seconds, "
+            + "invoices_paid, revenue) VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "requests_created = requests_created + VALUES(requests_created), "
+            + "requests_completed = requests_completed + VALUES(requests_completed), "
+            + "turnaround_seconds = turnaround_seconds + VALUES(turnaround_seconds), "
+            + "invoices_paid = invoices_paid + VALUES(invoices_paid), "
+            + "revenue = revenue + VALUES(revenue)";
+
+    // Rebuilding a day: the same attribution as the deltas, computed from the source
+    // tables and their archives. Each branch filters on its own index.
+    private static final String REBUILD_CREATED_SQL = "INSERT INTO analytics_daily_rollups "
+            + "(day, service_type, mechanic_id, requests_created) "
+            + "SELECT ?, s.service_type, 0, COUNT(*) FROM ("
+            + "SELECT COALESCE(LEFT(TRIM(service_type), 64), '') AS service_type FROM service_requests "
+            + "WHERE created_at >= ? AND created_at < ? UNION ALL "
+            + "SELECT COALESCE(LEFT(TRIM(service_type), 64), '') FROM service_requests_archive "
+            + "WHERE created_at >= ? AND created_at < ?) s GROUP BY s.service_type "
+            + "ON DUPLICATE KEY UPDATE requests_created = requests_created + VALUES(requests_created)";
+
+    private static final String REBUILD_COMPLETED_SQL = "INSERT INTO analytics_daily_rollups "
+            + "(day, service_type, mechanic_id, requests_completed, turnaround_seconds) "
+            + "SELECT ?, c.service_type, c.mechanic_id, COUNT(*), SUM(c.turnaround) FROM ("
+            + "SELECT COALESCE(LEFT(TRIM(service_type), 64), '') AS service_type, COALESCE(mechanic_id, 0) AS mechanic_id, "
+            + "GREATEST(TIMESTAMPDIFF(SECOND, created_at, completed_at), 0) AS turnaround FROM service_requests "
+            + "WHERE status = 'COMPLETED' AND completed_at >= ? AND completed_at < ? UNION ALL "
+            + "SELECT COALESCE(LEFT(TRIM(service_type), 64), ''), COALESCE(mechanic_id, 0), "
+            + "GREATEST(TIMESTAMPDIFF(SECOND, created_at, completed_at), 0) FROM service_requests_archive "
+            + "WHERE status = 'COMPLETED' AND completed_at >= ? AND completed_at < ?) c "
+            + "GROUP BY c.service_type, c.mechanic_id "
+            + "ON DUPLICATE KEY UPDATE requests_completed = requests_completed + VALUES(requests_completed), "
+            + "turnaround_seconds = turnaround_seconds + VALUES(turnaround_seconds)";
+
+    // An archived invoice's request may be hot or archived itself
+    private static final String REBUILD_PAID_SQL = "INSERT INTO analytics_daily_rollups "
+            + "(day, service_type, mechanic_id, invoices_paid, revenue) "
+            + "SELECT ?, p.service_type, p.mechanic_id, COUNT(*), SUM(p.amount) FROM ("
+            + "SELECT COALESCE(LEFT(TRIM(sr.service_type), 64), '') AS service_type, "
+            + "COALESCE(sr.mechanic_id, 0) AS mechanic_id, COALESCE(i.total_amount, 0) AS amount FROM invoices i "
+            + "LEFT JOIN service_requests sr ON sr.id = i.service_request_id "
+            + "WHERE i.status = 'COMPLETED' AND i.paid_at >= ? AND i.paid_at < ? UNION ALL "
+            + "SELECT COALESCE(LEFT(TRIM(COALESCE(sr.service_type, sra.service_type)), 64), ''), "
+            + "COALESCE(sr.mechanic_id, sra.mechanic_id, 0), COALESCE(i.total_amount, 0) FROM invoices_archive i "
+            + "LEFT JOIN service_requests sr ON sr.id = i.service_request_id "
+            + "LEFT JOIN service_requests_archive sra ON sra.id = i.service_request_id "
+            + "WHERE i.status = 'COMPLETED' AND i.paid_at >= ? AND i.paid_at < ?) p "
+            + "GROUP BY p.service_type, p.mechanic_id "
+            + "ON DUPLICATE KEY UPDATE invoices_paid = invoices_paid + VALUES(invoices_paid), "
+            + "revenue = revenue + VALUES(revenue)";
+
+    private static final String SUMS = "SUM(r.requests_created) AS created, SUM(r.requests_completed) AS completed, "
+            + "SUM(r.turnaround_seconds) AS turnaround, SUM(r.invoices_paid) AS paid, SUM(r.revenue) AS revenue";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    private final TransactionTemplate rebuildTransaction;
+
+    public AnalyticsRollupService(PlatformTransactionManager transactionManager) {
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        // READ COMMITTED: the INSERT ... SELECTs read the source tables without locking them
+        this.rebuildTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    public void recordRequestCreated(ServiceRequest serviceRequest) {
+        LocalDateTime createdAt = serviceRequest.getCreatedAt() != null ? serviceRequest.getCreatedAt() : LocalDateTime.now();
+        upsert(new Contribution(createdAt.toLocalDate(), serviceType(serviceRequest.getServiceType()), 0L,
+                1, 0, 0L, 0, BigDecimal.ZERO), 1);
+    }
+
+    /**
+     * What the request contributes as a completion right now; null unless it is completed.
+     */
+    public Contribution completionOf(ServiceRequest serviceRequest) {
+        if (!"COMPLETED".equals(serviceRequest.getStatus()) || serviceRequest.getCompletedAt() == null) {
+            return null;
+        }
+        LocalDateTime completedAt = serviceRequest.getCompletedAt();
+        long turnaround = serviceRequest.getCreatedAt() != null
+                ? Math.max(0L, Duration.between(serviceRequest.getCreatedAt(), completedAt).getSeconds()) : 0L;
+        return new Contribution(completedAt.toLocalDate(), serviceType(serviceRequest.getServiceType()),
+                mechanicId(serviceRequest), 0, 1, turnaround, 0, BigDecimal.ZERO);
+    }
+
+    /**
+     * What the invoice contributes to revenue right now; null unless it is paid.
+     */
+    public Contribution revenueOf(Invoice invoice) {
+        if (!"COMPLETED".equals(invoice.getStatus()) || invoice.getPaidAt() == null) {
+            return null;
+        }
+        ServiceRequest serviceRequest = invoice.getServiceRequest();
+        BigDecimal amount = invoice.getTotalAmount() != null
+                ? BigDecimal.valueOf(invoice.getTotalAmount()).setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+        return new Contribution(invoice.getPaidAt().toLocalDate(),
+                serviceRequest != null ? serviceType(serviceRequest.getServiceType()) : "",
+                serviceRequest != null ? mechanicId(serviceRequest) : 0L, 0, 0, 0L, 1, amount);
+    }
+
+    /**
+     * Moves the rollups from before's contribution to after's. Either may be null.
+     * Must run in the transaction that makes the change.
+     */
+    public void applyChange(Contribution before, Contribution after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        if (before != null) {
+            upsert(before, -1);
+        }
+        if (after != null) {
+            upsert(after, 1);
+        }
+    }
+
+    public AnalyticsReportDTO report(LocalDate from, LocalDate to, String groupBy) {
+        if (from == null || to == null) {
+            throw new ValidationException("from and to are required");
+        }
+        if (from.isAfter(to)) {
+            throw new ValidationException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_REPORT_DAYS) {
+            throw new ValidationException("Date range must be at most " + MAX_REPORT_DAYS + " days");
+        }
+        String grouping = groupBy == null || groupBy.isBlank() ? "day" : groupBy.trim();
+        String sql;
+        switch (grouping) {
+            case "day":
+                sql = "SELECT r.day AS group_key, NULL AS label, " + SUMS + " FROM analytics_daily_rollups r "
+                        + "WHERE r.day BETWEEN ? AND ? GROUP BY r.day ORDER BY r.day";
+                break;
+            case "serviceType":
+                sql = "SELECT r.service_type AS group_key, NULL AS label, " + SUMS + " FROM analytics_daily_rollups r "
+                        + "WHERE r.day BETWEEN ? AND ? GROUP BY r.service_type ORDER BY revenue DESC";
+                break;
+            case "mechanic":
+                sql = "SELECT r.mechanic_id AS group_key, MAX(u.name) AS label, " + SUMS
+                        + " FROM analytics_daily_rollups r LEFT JOIN users u ON u.id = r.mechanic_id "
+                        + "WHERE r.day BETWEEN ? AND ? GROUP BY r.mechanic_id ORDER BY revenue DESC";
+                break;
+            default:
+                throw new ValidationException("groupBy must be one of day, serviceType, mechanic");
+        }
+        Date fromDate = Date.valueOf(from);
+        Date toDate = Date.valueOf(to);
+
+        AnalyticsReportDTO report = new AnalyticsReportDTO();
+        report.setFrom(from);
+        report.setTo(to);
+        report.setGroupBy(grouping);
+        report.setRows(jdbcTemplate.query(sql, (rs, rowNum) -> toRow(rs), fromDate, toDate));
+        report.setTotals(jdbcTemplate.queryForObject("SELECT 'total' AS group_key, NULL AS label, " + SUMS
+                + " FROM analytics_daily_rollups r WHERE r.day BETWEEN ? AND ?", (rs, rowNum) -> toRow(rs),
+                fromDate, toDate));
+        return report;
+    }
+
+    /**
+     * Recomputes the rollups of every day in [from, to] from the source tables, one day
+     * per transaction. Deltas applied concurrently stay correct: deleting a day's rows
+     * first makes a racing delta either wait for the rebuilt rows or land before the
+     * recount that includes its change.
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : earliestDay();
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (start == null || start.isAfter(end)) {
+            return 0;
+        }
+        if (jobLeaseService.tryAcquire(REBUILD_JOB, REBUILD_LEASE_SECONDS) == null) {
+            throw new ConflictException("An analytics rebuild is already running");
+        }
+        long started = System.nanoTime();
+        int days = 0;
+        try {
+            for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+                rebuildDay(day);
+                days++;
+                if (!jobLeaseService.checkpoint(REBUILD_JOB, day.toEpochDay(), REBUILD_LEASE_SECONDS)) {
+                    throw new ConflictException("Lost the analytics rebuild lease at " + day);
+                }
+            }
+            jobLeaseService.completePass(REBUILD_JOB);
+        } catch (RuntimeException e) {
+            jobLeaseService.release(REBUILD_JOB);
+            throw e;
+        }
+        logger.info("Rebuilt analytics rollups for {} days ({} to {}) in {} ms", days, start, end,
+                (System.nanoTime() - started) / 1_000_000);
+        return days;
+    }
+
+    private void rebuildDay(LocalDate day) {
+        Date date = Date.valueOf(day);
+        Timestamp dayStart = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp dayEnd = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        rebuildTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM analytics_daily_rollups WHERE day = ?", date);
+            jdbcTemplate.update(REBUILD_CREATED_SQL, date, dayStart, dayEnd, dayStart, dayEnd);
+            jdbcTemplate.update(REBUILD_COMPLETED_SQL, date, dayStart, dayEnd, dayStart, dayEnd);
+            jdbcTemplate.update(REBUILD_PAID_SQL, date, dayStart, dayEnd, dayStart, dayEnd);
+        });
+    }
+
+    private LocalDate earliestDay() {
+        List<Date> firsts = jdbcTemplate.query("SELECT MIN(d) AS first_day FROM ("
+                        + "SELECT MIN(DATE(created_at)) AS d FROM service_requests "
+                        + "UNION ALL SELECT MIN(DATE(created_at)) FROM service_requests_archive "
+                        + "UNION ALL SELECT MIN(DATE(paid_at)) FROM invoices "
+                        + "UNION ALL SELECT MIN(DATE(paid_at)) FROM invoices_archive "
+                        + "UNION ALL SELECT MIN(day) FROM analytics_daily_rollups) days",
+                (rs, rowNum) -> rs.getDate("first_day"));
+        return firsts.isEmpty() || firsts.get(0) == null ? null : firsts.get(0).toLocalDate();
+    }
+
+    private void upsert(Contribution contribution, int sign) {
+        jdbcTemplate.update(UPSERT_SQL, Date.valueOf(contribution.day), contribution.serviceType,
+                contribution.mechanicId, sign * contribution.created, sign * contribution.completed,
+                sign * contribution.turnaroundSeconds, sign * contribution.invoicesPaid,
+                sign < 0 ? contribution.revenue.negate() : contribution.revenue);
+    }
+
+    private static AnalyticsRowDTO toRow(ResultSet rs) throws SQLException {
+        AnalyticsRowDTO row = new AnalyticsRowDTO();
+        row.setKey(rs.getString("group_key"));
+        row.setLabel(rs.getString("label"));
+        row.setRequestsCreated(rs.getLong("created"));
+        row.setRequestsCompleted(rs.getLong("completed"));
+        long turnaround = rs.getLong("turnaround");
+        if (row.getRequestsCompleted() > 0) {
+            row.setAverageTurnaroundHours(Math.round(turnaround / 36.0 / row.getRequestsCompleted()) / 100.0);
+        }
+        row.setInvoicesPaid(rs.getLong("paid"));
+        BigDecimal revenue = rs.getBigDecimal("revenue");
+        row.setRevenue(revenue != null ? revenue.doubleValue() : 0.0);
+        return row;
+    }
+
+    private static String serviceType(String serviceType) {
+        if (serviceType == null) {
+            return "";
+        }
+        String trimmed = serviceType.trim();
+        return trimmed.length() > MAX_SERVICE_TYPE_LENGTH ? trimmed.substring(0, MAX_SERVICE_TYPE_LENGTH) : trimmed;
+    }
+
+    private static long mechanicId(ServiceRequest serviceRequest) {
+        return serviceRequest.getMechanic() != null ? serviceRequest.getMechanic().getId() : 0L;
+    }
+
+    /**
+     * The counters one request or invoice adds to one rollup row.
+     */
+    public static final class Contribution {
+        private final LocalDate day;
+        private final String serviceType;
+        private final long mechanicId;
+        private final int created;
+        private final int completed;
+        private final long turnaroundSeconds;
+        private final int invoicesPaid;
+        private final BigDecimal revenue;
+
+        private Contribution(LocalDate day, String serviceType, long mechanicId, int created, int completed,
+                             long turnaroundSeconds, int invoicesPaid, BigDecimal revenue) {
+            this.day = day;
+            this.serviceType = serviceType;
+            this.mechanicId = mechanicId;
+            this.created = created;
+            this.completed = completed;
+            this.turnaroundSeconds = turnaroundSeconds;
+            this.invoicesPaid = invoicesPaid;
+            this.revenue = revenue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Contribution)) {
+                return false;
+            }
+            Contribution other = (Contribution) o;
+            return mechanicId == other.mechanicId && created == other.created && completed == other.completed
+                    && turnaroundSeconds == other.turnaroundSeconds && invoicesPaid == other.invoicesPaid
+                    && day.equals(other.day) && serviceType.equals(other.serviceType)
+                    && revenue.compareTo(other.revenue) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, serviceType, mechanicId, created, completed, turnaroundSeconds, invoicesPaid);
+        }
+    }
+}
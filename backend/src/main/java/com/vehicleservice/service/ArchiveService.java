@@ -0,0 +1,392 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.InvoiceDTO;
+import com.vehicleservice.dto.PaymentIntentDTO;
+import com.vehicleservice.dto.ServiceItemDTO;
+import com.vehicleservice.dto.ServiceRequestDTO;
+import com.vehicleservice.event.ServiceRequestsArchivedEvent;
+import com.vehicleservice.exception.ConflictException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves cold rows out of the hot tables: invoices paid more than after-months ago with
+ * their service items and settled payment intents, then closed service requests that no
+ * hot invoice refers to.
+ * Each batch is one short transaction that locks its rows (skipping any that are in
+ * use), copies them to the *_archive tables and deletes them, so the hot tables and
+ * their indexes stay proportional to recent activity. Reads by id fall through to the
+ * archive via findInvoice / findServiceRequest.
+ */
+@Service
+public class ArchiveService {
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveService.class);
+
+    static final String JOB_NAME = "archive";
+
+    private static final String INVOICE_COLUMNS = "i.id, i.service_request_id, i.total_amount, i.subtotal, "
+            + "i.tax_amount, i.discount_amount, i.status, i.created_at, i.paid_at, i.payment_method, "
+            + "i.card_last_four, i.billing_address, i.billing_city, i.billing_zip";
+
+    private static final String ITEM_COLUMNS = "id, invoice_id, name, description, price, quantity, type, "
+            + "part_number, warranty_info";
+
+    // Every stored column of each hot table, named so that rows are copied by name and
+    // not by position; payment_intents.open_invoice_id is generated and not archived
+    private static final String INVOICE_ARCHIVE_COLUMNS = "id, service_request_id, total_amount, subtotal, "
+            + "tax_amount, discount_amount, version, status, created_at, paid_at, payment_method, card_last_four, "
+            + "billing_address, billing_city, billing_zip, document_hash, document_version, pricing_version";
+
+    private static final String ITEM_ARCHIVE_COLUMNS = "id, invoice_id, service_request_id, name, description, "
+            + "price, quantity, type, part_number, warranty_info";
+
+    private static final String REQUEST_ARCHIVE_COLUMNS = "id, vehicle_id, mechanic_id, description, service_type, "
+            + "priority, priority_rank, preferred_date, created_at, status, mechanic_notes, assigned_at, completed_at";
+
+    private static final String INTENT_ARCHIVE_COLUMNS = "id, invoice_id, amount, payment_method, card_last_four, "
+            + "status, gateway_reference, failure_reason, created_at, completed_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.archive.after-months:24}")
+    private int afterMonths;
+
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.archive.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.archive.batch-pause-ms:50}")
+    private long batchPauseMs;
+
+    @Value("${app.archive.lease-seconds:120}")
+    private long leaseSeconds;
+
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ArchiveService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.archive.interval-ms:3600000}", initialDelayString = "${app.archive.initial-delay-ms:300000}")
+    public void runScheduled() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            run();
+        } catch (ConflictException e) {
+            // An admin-triggered run is already going on this node
+        }
+    }
+
+    /**
+     * Archives up to max-batches-per-run batches of each kind. Returns how many invoices,
+     * service items, payment intents and service requests were moved.
+     */
+    public Map<String, Object> run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("Archiving is already running");
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        try {
+            if (jobLeaseService.tryAcquire(JOB_NAME, leaseSeconds) == null) {
+                result.put("skipped", "Another instance holds the lease");
+                return result;
+            }
+            long started = System.nanoTime();
+            LocalDateTime cutoff = LocalDateTime.now().minusMonths(afterMonths);
+            int[] moved = new int[4];
+            try {
+                for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                    int[] counts = transactionTemplate.execute(status -> archiveInvoiceBatch(cutoff));
+                    moved[0] += counts[0];
+                    moved[1] += counts[1];
+                    moved[3] += counts[2];
+                    if (counts[0] < batchSize || !pauseAndRenew()) {
+                        break;
+                    }
+                }
+                for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                    int[] counts = transactionTemplate.execute(status -> archiveRequestBatch(cutoff));
+                    moved[2] += counts[0];
+                    moved[1] += counts[1];
+                    if (counts[0] < batchSize || !pauseAndRenew()) {
+                        break;
+                    }
+                }
+                jobLeaseService.completePass(JOB_NAME);
+            } catch (RuntimeException e) {
+                jobLeaseService.release(JOB_NAME);
+                throw e;
+            }
+            result.put("invoices", moved[0]);
+            result.put("serviceItems", moved[1]);
+            result.put("paymentIntents", moved[3]);
+            result.put("serviceRequests", moved[2]);
+            result.put("cutoff", cutoff);
+            logger.info("Archived {} invoices, {} service items, {} payment intents and {} service requests "
+                    + "older than {} in {} ms", moved[0], moved[1], moved[3], moved[2], cutoff,
+                    (System.nanoTime() - started) / 1_000_000);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("running", running.get());
+        status.put("afterMonths", afterMonths);
+        status.put("archivedInvoices", jdbcTemplate.queryForObject("SELECT COUNT(*) FROM invoices_archive", Long.class));
+        status.put("archivedServiceRequests",
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM service_requests_archive", Long.class));
+        JobLeaseService.Lease lease = jobLeaseService.find(JOB_NAME);
+        if (lease != null) {
+            status.put("lastCompletedAt", lease.getLastCompletedAt());
+            status.put("leaseUntil", lease.getLeaseUntil());
+        }
+        return status;
+    }
+
+    public Optional<InvoiceDTO> findInvoice(Long id) {
+        List<InvoiceDTO> invoices = jdbcTemplate.query("SELECT " + INVOICE_COLUMNS + " FROM invoices_archive i WHERE i.id = ?",
+                (rs, rowNum) -> toInvoiceDTO(rs), id);
+        if (invoices.isEmpty()) {
+            return Optional.empty();
+        }
+        attachItems(invoices);
+        return Optional.of(invoices.get(0));
+    }
+
+    public List<InvoiceDTO> findInvoicesByServiceRequestId(Long serviceRequestId) {
+        List<InvoiceDTO> invoices = jdbcTemplate.query("SELECT " + INVOICE_COLUMNS + " FROM invoices_archive i "
+                + "WHERE i.service_request_id = ? ORDER BY i.id", (rs, rowNum) -> toInvoiceDTO(rs), serviceRequestId);
+        attachItems(invoices);
+        return invoices;
+    }
+
+    public Optional<ServiceRequestDTO> findServiceRequest(Long id) {
+        List<ServiceRequestDTO> requests = jdbcTemplate.query("SELECT sr.id, sr.vehicle_id, sr.mechanic_id, u.name AS mechanic_name, "
+                        + "sr.description, sr.service_type, sr.priority, sr.preferred_date, sr.created_at, sr.status, "
+                        + "sr.mechanic_notes, sr.assigned_at, sr.completed_at FROM service_requests_archive sr "
+                        + "LEFT JOIN users u ON u.id = sr.mechanic_id WHERE sr.id = ?",
+                (rs, rowNum) -> {
+                    ServiceRequestDTO dto = new ServiceRequestDTO();
+                    dto.setId(rs.getLong("id"));
+                    dto.setVehicleId(rs.getObject("vehicle_id", Long.class));
+                    dto.setMechanicId(rs.getObject("mechanic_id", Long.class));
+                    dto.setMechanicName(rs.getString("mechanic_name"));
+                    dto.setDescription(rs.getString("description"));
+                    dto.setServiceType(rs.getString("service_type"));
+                    dto.setPriority(rs.getString("priority"));
+                    dto.setPreferredDate(toLocalDateTime(rs.getTimestamp("preferred_date")));
+                    dto.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+                    dto.setStatus(rs.getString("status"));
+                    dto.setMechanicNotes(rs.getString("mechanic_notes"));
+                    dto.setAssignedAt(toLocalDateTime(rs.getTimestamp("assigned_at")));
+                    dto.setCompletedAt(toLocalDateTime(rs.getTimestamp("completed_at")));
+                    return dto;
+                },
+                id);
+        return requests.isEmpty() ? Optional.empty() : Optional.of(requests.get(0));
+    }
+
+    public Optional<PaymentIntentDTO> findPaymentIntent(Long id) {
+        List<PaymentIntentDTO> intents = jdbcTemplate.query("SELECT " + INTENT_ARCHIVE_COLUMNS
+                        + " FROM payment_intents_archive WHERE id = ?",
+                (rs, rowNum) -> {
+                    PaymentIntentDTO dto = new PaymentIntentDTO();
+                    dto.setId(rs.getLong("id"));
+                    dto.setInvoiceId(rs.getLong("invoice_id"));
+                    dto.setAmount(rs.getObject("amount", Double.class));
+                    dto.setPaymentMethod(rs.getString("payment_method"));
+                    dto.setCardLastFour(rs.getString("card_last_four"));
+                    dto.setStatus(rs.getString("status"));
+                    dto.setGatewayReference(rs.getString("gateway_reference"));
+                    dto.setFailureReason(rs.getString("failure_reason"));
+                    dto.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+                    dto.setCompletedAt(toLocalDateTime(rs.getTimestamp("completed_at")));
+                    return dto;
+                },
+                id);
+        return intents.isEmpty() ? Optional.empty() : Optional.of(intents.get(0));
+    }
+
+    public boolean isServiceRequestArchived(Long id) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM service_requests_archive WHERE id = ?",
+                Integer.class, id);
+        return count != null && count > 0;
+    }
+
+    private int[] archiveInvoiceBatch(LocalDateTime cutoff) {
+        // SKIP LOCKED: an invoice someone is touching right now waits for the next run.
+        // So does one with a payment still open or still in the outbox's hands.
+        List<Long> ids = jdbcTemplate.queryForList("SELECT i.id FROM invoices i "
+                + "WHERE i.status = 'COMPLETED' AND i.paid_at < ? AND NOT EXISTS (SELECT 1 FROM payment_intents p "
+                + "LEFT JOIN payment_outbox o ON o.payment_intent_id = p.id AND o.status IN ('PENDING', 'IN_FLIGHT') "
+                + "WHERE p.invoice_id = i.id AND (p.open_invoice_id IS NOT NULL OR o.id IS NOT NULL)) "
+                + "ORDER BY i.paid_at LIMIT ? FOR UPDATE OF i SKIP LOCKED", Long.class, Timestamp.valueOf(cutoff), batchSize);
+        if (ids.isEmpty()) {
+            return new int[] {0, 0, 0};
+        }
+        String in = placeholders(ids.size());
+        Object[] args = withArchivedAt(ids);
+        jdbcTemplate.update("INSERT INTO service_items_archive (" + ITEM_ARCHIVE_COLUMNS + ", archived_at) SELECT "
+                + ITEM_ARCHIVE_COLUMNS + ", ? FROM service_items WHERE invoice_id IN (" + in + ")", args);
+        jdbcTemplate.update("INSERT INTO invoices_archive (" + INVOICE_ARCHIVE_COLUMNS + ", archived_at) SELECT "
+                + INVOICE_ARCHIVE_COLUMNS + ", ? FROM invoices WHERE id IN (" + in + ")", args);
+        jdbcTemplate.update("INSERT INTO payment_intents_archive (" + INTENT_ARCHIVE_COLUMNS + ", archived_at) SELECT "
+                + INTENT_ARCHIVE_COLUMNS + ", ? FROM payment_intents WHERE invoice_id IN (" + in + ")", args);
+        // Finished outbox rows are delivery bookkeeping; the archived intent keeps the outcome
+        jdbcTemplate.update("DELETE o FROM payment_outbox o JOIN payment_intents p ON p.id = o.payment_intent_id "
+                + "WHERE p.invoice_id IN (" + in + ")", ids.toArray());
+        int intents = jdbcTemplate.update("DELETE FROM payment_intents WHERE invoice_id IN (" + in + ")", ids.toArray());
+        int items = jdbcTemplate.update("DELETE FROM service_items WHERE invoice_id IN (" + in + ")", ids.toArray());
+        int invoices = jdbcTemplate.update("DELETE FROM invoices WHERE id IN (" + in + ")", ids.toArray());
+        return new int[] {invoices, items, intents};
+    }
+
+    private int[] archiveRequestBatch(LocalDateTime cutoff) {
+        Timestamp cutoffTs = Timestamp.valueOf(cutoff);
+        // Two index range reads rather than one OR over completed_at and created_at
+        List<Long> ids = new ArrayList<>(jdbcTemplate.queryForList("SELECT sr.id FROM service_requests sr "
+                + "WHERE sr.status = 'COMPLETED' AND sr.completed_at < ? "
+                + "AND NOT EXISTS (SELECT 1 FROM invoices i WHERE i.service_request_id = sr.id) "
+                + "ORDER BY sr.completed_at LIMIT ? FOR UPDATE SKIP LOCKED", Long.class, cutoffTs, batchSize));
+        if (ids.size() < batchSize) {
+            ids.addAll(jdbcTemplate.queryForList("SELECT sr.id FROM service_requests sr "
+                    + "WHERE sr.status = 'CANCELLED' AND sr.created_at < ? "
+                    + "AND NOT EXISTS (SELECT 1 FROM invoices i WHERE i.service_request_id = sr.id) "
+                    + "ORDER BY sr.created_at LIMIT ? FOR UPDATE SKIP LOCKED", Long.class, cutoffTs, batchSize - ids.size()));
+        }
+        if (ids.isEmpty()) {
+            return new int[] {0, 0};
+        }
+        String in = placeholders(ids.size());
+        Object[] args = withArchivedAt(ids);
+        // Items recorded against the request without an invoice go with it
+        jdbcTemplate.update("INSERT INTO service_items_archive (" + ITEM_ARCHIVE_COLUMNS + ", archived_at) SELECT "
+                + ITEM_ARCHIVE_COLUMNS + ", ? FROM service_items WHERE invoice_id IS NULL AND service_request_id IN ("
+                + in + ")", args);
+        jdbcTemplate.update("INSERT INTO service_requests_archive (" + REQUEST_ARCHIVE_COLUMNS + ", archived_at) SELECT "
+                + REQUEST_ARCHIVE_COLUMNS + ", ? FROM service_requests WHERE id IN (" + in + ")", args);
+        int items = jdbcTemplate.update("DELETE FROM service_items WHERE invoice_id IS NULL AND service_request_id IN ("
+                + in + ")", ids.toArray());
+        int requests = jdbcTemplate.update("DELETE FROM service_requests WHERE id IN (" + in + ")", ids.toArray());
+        // The search index drops them once this batch commits
+        eventPublisher.publishEvent(new ServiceRequestsArchivedEvent(ids));
+        return new int[] {requests, items};
+    }
+
+    /**
+     * Gives the database room between batches and extends the lease; false means the
+     * lease was lost and the run must stop.
+     */
+    private boolean pauseAndRenew() {
+        if (batchPauseMs > 0) {
+            try {
+                Thread.sleep(batchPauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return jobLeaseService.checkpoint(JOB_NAME, 0L, leaseSeconds);
+    }
+
+    private void attachItems(List<InvoiceDTO> invoices) {
+        if (invoices.isEmpty()) {
+            return;
+        }
+        Map<Long, InvoiceDTO> byId = new LinkedHashMap<>();
+        for (InvoiceDTO invoice : invoices) {
+            invoice.setServiceItems(new ArrayList<>());
+            byId.put(invoice.getId(), invoice);
+        }
+        jdbcTemplate.query("SELECT " + ITEM_COLUMNS + " FROM service_items_archive WHERE invoice_id IN ("
+                + placeholders(byId.size()) + ") ORDER BY id", rs -> {
+            ServiceItemDTO item = new ServiceItemDTO();
+            item.setId(rs.getLong("id"));
+            item.setInvoiceId(rs.getLong("invoice_id"));
+            item.setName(rs.getString("name"));
+            item.setDescription(rs.getString("description"));
+            item.setPrice(rs.getObject("price", Double.class));
+            item.setQuantity(rs.getObject("quantity", Integer.class));
+            item.setType(rs.getString("type"));
+            item.setPartNumber(rs.getString("part_number"));
+            item.setWarrantyInfo(rs.getString("warranty_info"));
+            byId.get(item.getInvoiceId()).getServiceItems().add(item);
+        }, byId.keySet().toArray());
+    }
+
+    private static InvoiceDTO toInvoiceDTO(ResultSet rs) throws SQLException {
+        InvoiceDTO dto = new InvoiceDTO();
+        dto.setId(rs.getLong("id"));
+        dto.setServiceRequestId(rs.getObject("service_request_id", Long.class));
+        dto.setTotalAmount(rs.getObject("total_amount", Double.class));
+        dto.setSubtotal(rs.getObject("subtotal", Double.class));
+        dto.setTaxAmount(rs.getObject("tax_amount", Double.class));
+        dto.setDiscountAmount(rs.getObject("discount_amount", Double.class));
+        dto.setStatus(rs.getString("status"));
+        dto.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        dto.setPaidAt(toLocalDateTime(rs.getTimestamp("paid_at")));
+        dto.setPaymentMethod(rs.getString("payment_method"));
+        dto.setCardLastFour(rs.getString("card_last_four"));
+        dto.setBillingAddress(rs.getString("billing_address"));
+        dto.setBillingCity(rs.getString("billing_city"));
+        dto.setBillingZip(rs.getString("billing_zip"));
+        dto.setServiceItems(Collections.emptyList());
+        return dto;
+    }
+
+    private static Object[] withArchivedAt(List<Long> ids) {
+        Object[] args = new Object[ids.size() + 1];
+        args[0] = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < ids.size(); i++) {
+            args[i + 1] = ids.get(i);
+        }
+        return args;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
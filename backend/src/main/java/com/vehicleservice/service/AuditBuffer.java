@@ -0,0 +1,58 @@
+package com.vehicleservice.service;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded multi-producer, single-consumer queue without locks: producers reserve a slot
+ * with a CAS on the size counter before linking into a ConcurrentLinkedQueue, so offer
+ * never blocks and fails fast once capacity is reached.
+ */
+final class AuditBuffer<T> {
+
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    AuditBuffer(int capacity) {
+        this.capacity = capacity;
+    }
+
+    boolean offer(T element) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        queue.offer(element);
+        return true;
+    }
+
+    /**
+     * Moves up to max elements into target. Only the writer thread may call this.
+     */
+    int drainTo(List<T> target, int max) {
+        int drained = 0;
+        T element;
+        while (drained < max && (element = queue.poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        if (drained > 0) {
+            size.addAndGet(-drained);
+        }
+        return drained;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,184 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.model.ServiceItem;
+import com.vehicleservice.model.ServiceRequest;
+import com.vehicleservice.model.User;
+import com.vehicleservice.model.Vehicle;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Turns Hibernate insert/update/delete events on the audited entities into field-level
+ * diffs for AuditLogService. JPA's own entity listeners only see the new state, so this
+ * hooks Hibernate's event registry, which hands over the loaded (before) state as well.
+ *
+ * With ASYNC durability the listener is registered for the post-commit events, so rolled
+ * back changes are never audited; with SYNC it runs during flush, inside the transaction.
+ * Associations are recorded by id, collections are skipped and passwords are redacted.
+ * Bulk JDBC/JPQL updates (vehicle import) bypass these events; the native invoice total
+ * UPDATEs are audited by InvoicePricingService instead.
+ */
+@Component
+public class AuditEntityListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(AuditEntityListener.class);
+
+    private static final Set<Class<?>> AUDITED = Set.of(
+            ServiceRequest.class, Invoice.class, ServiceItem.class, Vehicle.class, User.class);
+
+    private static final Set<String> REDACTED = Set.of("password");
+
+    private static final String REDACTED_VALUE = "[redacted]";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        if (auditLogService.getDurability() == AuditLogService.Durability.SYNC) {
+            registry.appendListeners(EventType.POST_INSERT, this);
+            registry.appendListeners(EventType.POST_UPDATE, this);
+            registry.appendListeners(EventType.POST_DELETE, this);
+        } else {
+            registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+            registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+            registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        }
+        logger.info("Auditing {} entities ({} durability)", AUDITED.size(), auditLogService.getDurability());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return isAudited(persister);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        EntityPersister persister = event.getPersister();
+        if (isAudited(persister)) {
+            record(persister, event.getId(), "CREATE",
+                    diff(persister, null, event.getState(), event.getSession()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        EntityPersister persister = event.getPersister();
+        if (!isAudited(persister)) {
+            return;
+        }
+        Map<String, Object[]> changes = diff(persister, event.getOldState(), event.getState(), event.getSession());
+        if (!changes.isEmpty()) {
+            record(persister, event.getId(), "UPDATE", changes);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        EntityPersister persister = event.getPersister();
+        if (isAudited(persister)) {
+            record(persister, event.getId(), "DELETE",
+                    diff(persister, event.getDeletedState(), null, event.getSession()));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private void record(EntityPersister persister, Object id, String action, Map<String, Object[]> changes) {
+        if (!(id instanceof Long)) {
+            return;
+        }
+        try {
+            auditLogService.record(persister.getMappedClass().getSimpleName(), (Long) id, action, changes);
+        } catch (RuntimeException e) {
+            if (auditLogService.getDurability() == AuditLogService.Durability.SYNC) {
+                throw e;
+            }
+            // The change has already committed; losing its audit row must not fail the request
+            logger.error("Could not audit {} {} id={}", action, persister.getMappedClass().getSimpleName(), id, e);
+        }
+    }
+
+    /**
+     * Field name to [before, after] for every property whose value differs. Either state
+     * may be null (insert or delete), in which case every non-null value is recorded.
+     */
+    private static Map<String, Object[]> diff(EntityPersister persister, Object[] before, Object[] after,
+                                              SharedSessionContractImplementor session) {
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        int versionProperty = persister.isVersioned() ? persister.getVersionProperty() : -1;
+        Map<String, Object[]> changes = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            if (i == versionProperty || types[i].isCollectionType()) {
+                continue;
+            }
+            Object from = before != null ? render(types[i], before[i], session) : null;
+            Object to = after != null ? render(types[i], after[i], session) : null;
+            if (Objects.equals(from, to)) {
+                continue;
+            }
+            if (REDACTED.contains(names[i])) {
+                from = from != null ? REDACTED_VALUE : null;
+                to = to != null ? REDACTED_VALUE : null;
+            }
+            changes.put(names[i], new Object[] {from, to});
+        }
+        return changes;
+    }
+
+    private static Object render(Type type, Object value, SharedSessionContractImplementor session) {
+        if (value == null || !type.isEntityType()) {
+            return value;
+        }
+        LazyInitializer lazy = HibernateProxy.extractLazyInitializer(value);
+        if (lazy != null) {
+            return lazy.getInternalIdentifier();
+        }
+        return ((EntityType) type).getAssociatedEntityPersister(session.getFactory()).getIdentifier(value, session);
+    }
+
+    private static boolean isAudited(EntityPersister persister) {
+        return AUDITED.contains(persister.getMappedClass());
+    }
+}
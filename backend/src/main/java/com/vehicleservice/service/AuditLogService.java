@@ -0,0 +1,314 @@
+package com.vehicleservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vehicleservice.dto.AuditEntryDTO;
+import com.vehicleservice.exception.ValidationException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stores the field-level diffs captured by AuditEntityListener in audit_log.
+ *
+ * Durability ASYNC (the default) hands committed changes to a bounded lock-free buffer
+ * that a single writer thread flushes in batched inserts, so a mutation pays for an
+ * enqueue rather than an extra insert; whatever is still buffered when the process dies
+ * is lost. SYNC inserts the audit row inside the mutating transaction instead, so the
+ * change and its audit row commit or roll back together.
+ *
+ * When the buffer is full the overflow policy decides: BLOCK parks the caller until the
+ * writer frees space (up to block-timeout-ms, then drops), DROP discards the entry at once.
+ * Either way dropped entries are counted and reported in getStatus.
+ */
+@Service
+public class AuditLogService {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_log (entity_type, entity_id, action, changes, actor, occurred_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final TypeReference<Map<String, Object>> CHANGES_TYPE = new TypeReference<>() {};
+
+    public enum Durability { ASYNC, SYNC }
+
+    public enum OverflowPolicy { BLOCK, DROP }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${app.audit.block-timeout-ms:100}")
+    private long blockTimeoutMs;
+
+    @Value("${app.audit.retry-max-ms:30000}")
+    private long retryMaxMs;
+
+    @Value("${app.audit.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private final Durability durability;
+    private final OverflowPolicy overflowPolicy;
+    private final AuditBuffer<AuditEntry> buffer;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile boolean running = true;
+    private volatile LocalDateTime lastFlushAt;
+    private Thread writer;
+
+    public AuditLogService(@Value("${app.audit.durability:ASYNC}") Durability durability,
+                           @Value("${app.audit.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+                           @Value("${app.audit.buffer-capacity:50000}") int bufferCapacity) {
+        this.durability = durability;
+        this.overflowPolicy = overflowPolicy;
+        this.buffer = new AuditBuffer<>(bufferCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (durability == Durability.ASYNC) {
+            writer = new Thread(this::writeLoop, "audit-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Stops accepting work and gives the writer up to shutdown-timeout-ms to flush what
+     * is already buffered.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(shutdownTimeoutMs);
+            if (buffer.size() > 0) {
+                logger.warn("Audit writer stopped with {} entries still buffered", buffer.size());
+            }
+        }
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Records a change written by a native UPDATE, which Hibernate's entity events never
+     * see, with the timing AuditEntityListener uses: inside the transaction in SYNC mode,
+     * once it has committed in ASYNC mode.
+     */
+    public void recordDirectChange(String entityType, Long entityId, String action, Map<String, Object[]> changes) {
+        if (durability == Durability.SYNC || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(entityType, entityId, action, changes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    record(entityType, entityId, action, changes);
+                } catch (RuntimeException e) {
+                    logger.error("Could not audit {} {} id={}", action, entityType, entityId, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Records one change. In SYNC mode this runs inside the caller's transaction; in
+     * ASYNC mode it is called once the change has committed.
+     */
+    public void record(String entityType, Long entityId, String action, Map<String, Object[]> changes) {
+        AuditEntry entry = new AuditEntry(entityType, entityId, action, changes, currentActor(), LocalDateTime.now());
+        if (durability == Durability.SYNC) {
+            write(List.of(entry));
+            return;
+        }
+        if (!running || !enqueue(entry)) {
+            long count = dropped.incrementAndGet();
+            if (count == 1 || count % 1000 == 0) {
+                logger.warn("Audit buffer full: dropped {} entries so far (policy {})", count, overflowPolicy);
+            }
+        }
+    }
+
+    public List<AuditEntryDTO> getEntries(String entityType, Long entityId, int limit) {
+        if (limit < 1 || limit > 500) {
+            throw new ValidationException("limit must be between 1 and 500");
+        }
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, entity_type, entity_id, action, changes, actor, occurred_at FROM audit_log WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (entityType != null && !entityType.isBlank()) {
+            sql.append(" AND entity_type = ?");
+            args.add(entityType);
+        }
+        if (entityId != null) {
+            sql.append(" AND entity_id = ?");
+            args.add(entityId);
+        }
+        sql.append(" ORDER BY occurred_at DESC, id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            AuditEntryDTO dto = new AuditEntryDTO();
+            dto.setId(rs.getLong("id"));
+            dto.setEntityType(rs.getString("entity_type"));
+            dto.setEntityId(rs.getLong("entity_id"));
+            dto.setAction(rs.getString("action"));
+            dto.setChanges(readChanges(rs.getString("changes")));
+            dto.setActor(rs.getString("actor"));
+            dto.setOccurredAt(rs.getTimestamp("occurred_at").toLocalDateTime());
+            return dto;
+        }, args.toArray());
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("durability", durability);
+        status.put("overflowPolicy", overflowPolicy);
+        status.put("buffered", buffer.size());
+        status.put("capacity", buffer.capacity());
+        status.put("written", written.get());
+        status.put("dropped", dropped.get());
+        status.put("failedBatches", failedBatches.get());
+        status.put("lastFlushAt", lastFlushAt);
+        return status;
+    }
+
+    private boolean enqueue(AuditEntry entry) {
+        boolean accepted = buffer.offer(entry);
+        if (!accepted && overflowPolicy == OverflowPolicy.BLOCK) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+            LockSupport.unpark(writer);
+            while (!accepted && running && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                accepted = buffer.offer(entry);
+            }
+        }
+        if (accepted && buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+        return accepted;
+    }
+
+    private void writeLoop() {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        long backoffMs = 0;
+        while (running || buffer.size() > 0 || !batch.isEmpty()) {
+            if (batch.isEmpty() && buffer.drainTo(batch, batchSize) == 0) {
+                // Woken early by a producer once a full batch is waiting
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                continue;
+            }
+            try {
+                write(batch);
+                batch.clear();
+                backoffMs = 0;
+            } catch (RuntimeException e) {
+                failedBatches.incrementAndGet();
+                if (!running) {
+                    logger.error("Audit writer giving up on {} entries during shutdown", batch.size(), e);
+                    return;
+                }
+                // Keep the batch and retry; meanwhile the buffer fills and the overflow policy applies
+                backoffMs = backoffMs == 0 ? flushIntervalMs : Math.min(backoffMs * 2, retryMaxMs);
+                logger.warn("Could not write {} audit entries, retrying in {} ms", batch.size(), backoffMs, e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMs));
+            }
+        }
+    }
+
+    private void write(List<AuditEntry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setString(1, entry.entityType);
+            ps.setLong(2, entry.entityId);
+            ps.setString(3, entry.action);
+            ps.setString(4, writeChanges(entry.changes));
+            ps.setString(5, entry.actor);
+            ps.setTimestamp(6, Timestamp.valueOf(entry.occurredAt));
+        });
+        written.addAndGet(entries.size());
+        lastFlushAt = LocalDateTime.now();
+    }
+
+    private String writeChanges(Map<String, Object[]> changes) {
+        if (changes == null || changes.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(changes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize audit changes", e);
+        }
+    }
+
+    private Map<String, Object> readChanges(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, CHANGES_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read audit changes", e);
+        }
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static final class AuditEntry {
+        private final String entityType;
+        private final long entityId;
+        private final String action;
+        private final Map<String, Object[]> changes;
+        private final String actor;
+        private final LocalDateTime occurredAt;
+
+        private AuditEntry(String entityType, long entityId, String action, Map<String, Object[]> changes,
+                           String actor, LocalDateTime occurredAt) {
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.action = action;
+            this.changes = changes;
+            this.actor = actor;
+            this.occurredAt = occurredAt;
+        }
+    }
+}
@@ -3,12 +3,16 @@ package com.vehicleservice.service;
 import com.vehicleservice.dto.AuthResponse;
 import com.vehicleservice.dto.LoginRequest;
 import com.vehicleservice.dto.RegisterRequest;
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.exception.UnauthorizedException;
 import com.vehicleservice.model.User;
 import com.vehicleservice.model.Vehicle;
 import com.vehicleservice.repository.UserRepository;
 import com.vehicleservice.repository.VehicleRepository;
 import com.vehicleservice.security.JwtTokenProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -16,6 +20,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,13 +47,16 @@ public class AuthService {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private MechanicAssignmentEngine assignmentEngine;
+
     public AuthResponse register(RegisterRequest request) {
         logger.debug("Attempting to register user with email: {}", request.getEmail());
         
         // Check if email already exists
         if (userRepository.findByEmail(request.getEmail()).isPresent()) {
             logger.warn("Registration failed: Email {} already exists", request.getEmail());
-            throw new RuntimeException("Email already exists");
+            throw new ConflictException("Email already exists");
         }
 
         // Create new user
@@ -70,6 +79,9 @@ public class AuthService {
         // Save user
         User savedUser = userRepository.save(user);
         logger.debug("User registered successfully with email: {} and role: {}", savedUser.getEmail(), savedUser.getRole());
+        if ("MECHANIC".equals(savedUser.getRole())) {
+            trackMechanicAfterCommit(savedUser.getId());
+        }
 
         // Create vehicle for the user
         Vehicle vehicle = new Vehicle();
@@ -88,17 +100,32 @@ public class AuthService {
         return new AuthResponse(savedUser, token);
     }
 
+    // Auto-assign only considers mechanics the engine tracks, so a new one must be added
+    // once the user row is visible to the assignment queries
+    private void trackMechanicAfterCommit(Long mechanicId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    assignmentEngine.trackMechanic(mechanicId);
+                }
+            });
+        } else {
+            assignmentEngine.trackMechanic(mechanicId);
+        }
+    }
+
     public AuthResponse login(LoginRequest request) {
         logger.debug("Attempting to login user with email: {}", request.getEmail());
         
-        try {
-            // Get user first to check role
-            User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> {
-                    logger.warn("Login failed: User not found with email: {}", request.getEmail());
-                    return new RuntimeException("User not found");
-                });
+        // Get user first to check role
+        User user = userRepository.findByEmail(request.getEmail())
+            .orElseThrow(() -> {
+                logger.warn("Login failed: User not found with email: {}", request.getEmail());
+                return UnauthorizedException.INVALID_CREDENTIALS;
+            });
 
+        try {
             // Authenticate user first
             Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
@@ -113,10 +140,7 @@ public class AuthService {
             return new AuthResponse(user, token);
         } catch (BadCredentialsException e) {
             logger.warn("Login failed: Invalid credentials for user: {}", request.getEmail());
-            throw new RuntimeException("Invalid credentials");
-        } catch (Exception e) {
-            logger.error("Login failed: Unexpected error for user: {}", request.getEmail(), e);
-            throw new RuntimeException("Login failed: " + e.getMessage());
+            throw UnauthorizedException.INVALID_CREDENTIALS;
         }
     }
 
@@ -127,16 +151,17 @@ public class AuthService {
 
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
             logger.warn("getCurrentUser failed: User not authenticated");
-            throw new RuntimeException("User not authenticated");
+            throw UnauthorizedException.NOT_AUTHENTICATED;
         }
 
         String email = authentication.getName();
         return userRepository.findByEmail(email)
             .orElseThrow(() -> {
                 logger.warn("getCurrentUser failed: User not found with email: {}", email);
-                return new RuntimeException("User not found");
+                return ResourceNotFoundException.USER;
             });
     }
 
@@ -0,0 +1,409 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.SlotAvailabilityDTO;
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.exception.ValidationException;
+import com.vehicleservice.repository.ServiceRequestRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bay capacity per time slot for preferredDate bookings. The booking_slots table is the
+ * source of truth: a booking takes a bay with a conditional UPDATE inside the caller's
+ * transaction, so instances sharing the database cannot overbook a slot between them.
+ *
+ * Availability reads come from an in-memory copy of the table: a ring of horizon-days
+ * days, one AtomicIntegerArray cell per slot, with a bitmap of full slots so "first
+ * available after X" skips 64 slots per word. The copy follows this instance's bookings
+ * immediately and reloads from the table every refresh-interval-ms.
+ *
+ * Preferred dates outside opening hours or the horizon are accepted without a capacity
+ * check, as before the calendar existed.
+ */
+@Service
+public class CapacityCalendarService {
+    private static final Logger logger = LoggerFactory.getLogger(CapacityCalendarService.class);
+
+    private static final String ENSURE_SLOT_SQL =
+            "INSERT INTO booking_slots (slot_date, slot_index, booked, capacity) VALUES (?, ?, 0, ?) "
+                    + "ON DUPLICATE KEY UPDATE capacity = VALUES(capacity)";
+
+    private static final String TAKE_BAY_SQL =
+            "UPDATE booking_slots SET booked = booked + 1 "
+                    + "WHERE slot_date = ? AND slot_index = ? AND booked < capacity";
+
+    private static final String RELEASE_BAY_SQL =
+            "UPDATE booking_slots SET booked = booked - 1 WHERE slot_date = ? AND slot_index = ? AND booked > 0";
+
+    private static final String SELECT_SLOT_SQL =
+            "SELECT booked FROM booking_slots WHERE slot_date = ? AND slot_index = ?";
+
+    private static final String SELECT_HORIZON_SQL =
+            "SELECT slot_date, slot_index, booked FROM booking_slots WHERE slot_date >= ? AND slot_date < ?";
+
+    // Only fills slots with no row yet, so counts already in the table win
+    private static final String SEED_SLOT_SQL =
+            "INSERT INTO booking_slots (slot_date, slot_index, booked, capacity) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE slot_date = slot_date";
+
+    @Autowired
+    private ServiceRequestRepository serviceRequestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final int bays;
+    private final LocalTime openTime;
+    private final int slotMinutes;
+    private final int slotsPerDay;
+    private final int horizonDays;
+
+    private final AtomicIntegerArray slotBooked;
+    private final AtomicIntegerArray dayBooked;
+    private final AtomicLongArray dayTags;
+    private final AtomicLongArray fullBits;
+    private final Object[] dayLocks;
+
+    public CapacityCalendarService(@Value("${app.calendar.bays:4}") int bays,
+                                   @Value("${app.calendar.open-hour:8}") int openHour,
+                                   @Value("${app.calendar.close-hour:18}") int closeHour,
+                                   @Value("${app.calendar.slot-minutes:60}") int slotMinutes,
+                                   @Value("${app.calendar.horizon-days:120}") int horizonDays) {
+        if (closeHour <= openHour || (closeHour - openHour) * 60 % slotMinutes != 0) {
+            throw new IllegalArgumentException("Opening hours must divide evenly into slots");
+        }
+        this.bays = bays;
+        this.openTime = LocalTime.of(openHour, 0);
+        this.slotMinutes = slotMinutes;
+        this.slotsPerDay = (closeHour - openHour) * 60 / slotMinutes;
+        this.horizonDays = horizonDays;
+        int totalSlots = slotsPerDay * horizonDays;
+
+        this.slotBooked = new AtomicIntegerArray(totalSlots);
+        this.dayBooked = new AtomicIntegerArray(horizonDays);
+        this.dayTags = new AtomicLongArray(horizonDays);
+        this.fullBits = new AtomicLongArray((totalSlots + 63) / 64);
+        this.dayLocks = new Object[horizonDays];
+        for (int i = 0; i < horizonDays; i++) {
+            dayLocks[i] = new Object();
+            dayTags.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Seeds booking_slots from open service_requests for slots the table has never seen
+     * (the table is new, so the first start fills it) and loads the in-memory copy. Runs
+     * before the web server accepts bookings.
+     */
+    @PostConstruct
+    public void rebuild() {
+        LocalDate today = LocalDate.now();
+        Map<Integer, Integer> openBySlot = new HashMap<>();
+        for (ServiceRequestRepository.OpenRequestView request
+                : serviceRequestRepository.findOpenRequests(MechanicAssignmentEngine.CLOSED_STATUSES)) {
+            LocalDateTime preferred = request.getPreferredDate();
+            if (isBookable(today, preferred)) {
+                openBySlot.merge(slotOf(preferred), 1, Integer::sum);
+            }
+        }
+        List<Object[]> seed = new ArrayList<>(openBySlot.size());
+        openBySlot.forEach((slot, booked) -> seed.add(new Object[] {
+                Date.valueOf(LocalDate.ofEpochDay(dayTags.get(slot / slotsPerDay))), slot % slotsPerDay, booked, bays }));
+        if (!seed.isEmpty()) {
+            jdbcTemplate.batchUpdate(SEED_SLOT_SQL, seed);
+        }
+        int loaded = load(today);
+        logger.info("Capacity calendar rebuilt: {} bookings over {} days, {} bays x {} slots per day",
+                loaded, horizonDays, bays, slotsPerDay);
+    }
+
+    /**
+     * Takes one bay in the slot containing preferredDate, or fails with 409 naming the first
+     * free slot. The bay is held by the caller's transaction and handed back if it rolls back.
+     */
+    public void reserve(LocalDateTime preferredDate) {
+        if (!isBookable(LocalDate.now(), preferredDate)) {
+            return;
+        }
+        int slot = slotOf(preferredDate);
+        LocalDate date = preferredDate.toLocalDate();
+        Date slotDate = Date.valueOf(date);
+        int slotIndex = slot % slotsPerDay;
+
+        jdbcTemplate.update(ENSURE_SLOT_SQL, slotDate, slotIndex, bays);
+        boolean taken = jdbcTemplate.update(TAKE_BAY_SQL, slotDate, slotIndex) == 1;
+        // Re-read either way: the row also counts other instances' bookings
+        Integer booked = jdbcTemplate.queryForObject(SELECT_SLOT_SQL, Integer.class, slotDate, slotIndex);
+        setBooked(slot, booked != null ? booked : 0);
+        if (!taken) {
+            SlotAvailabilityDTO next = findFirstAvailable(preferredDate);
+            throw new ConflictException(next == null
+                    ? "No capacity left for " + preferredDate
+                    : "No capacity left for " + preferredDate + "; first available slot is " + next.getStart());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        decrement(slot, date);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Hands back the bay held for preferredDate as part of the caller's transaction.
+     */
+    public void release(LocalDateTime preferredDate) {
+        if (!isBookable(LocalDate.now(), preferredDate)) {
+            return;
+        }
+        int slot = slotOf(preferredDate);
+        LocalDate date = preferredDate.toLocalDate();
+        if (jdbcTemplate.update(RELEASE_BAY_SQL, Date.valueOf(date), slot % slotsPerDay) == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    decrement(slot, date);
+                }
+            });
+        } else {
+            decrement(slot, date);
+        }
+    }
+
+    /**
+     * First slot starting at or after the given time with a free bay, or null if the
+     * horizon is full.
+     */
+    public SlotAvailabilityDTO findFirstAvailable(LocalDateTime after) {
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = after == null || after.isBefore(now) ? now : after;
+
+        LocalDate day = from.toLocalDate();
+        int slotIndex = 0;
+        if (!from.toLocalTime().isBefore(openTime)) {
+            slotIndex = slotInDay(from.toLocalTime());
+            if (slotStart(day, slotIndex).isBefore(from)) {
+                slotIndex++;
+            }
+        }
+        for (long offset = day.toEpochDay() - today.toEpochDay(); offset < horizonDays; offset++) {
+            if (slotIndex < slotsPerDay) {
+                int base = ringSlot(day, 0);
+                int free = firstNotFull(base + slotIndex, base + slotsPerDay);
+                while (free >= 0) {
+                    int booked = slotBooked.get(free);
+                    if (booked < bays) {
+                        return new SlotAvailabilityDTO(slotStart(day, free - base), booked, bays);
+                    }
+                    free = firstNotFull(free + 1, base + slotsPerDay);
+                }
+            }
+            day = day.plusDays(1);
+            slotIndex = 0;
+        }
+        return null;
+    }
+
+    public List<SlotAvailabilityDTO> getDay(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        long offset = date.toEpochDay() - today.toEpochDay();
+        if (offset < 0 || offset >= horizonDays) {
+            throw new ValidationException("Date must be within the next " + horizonDays + " days");
+        }
+        List<SlotAvailabilityDTO> slots = new ArrayList<>(slotsPerDay);
+        for (int i = 0; i < slotsPerDay; i++) {
+            slots.add(new SlotAvailabilityDTO(slotStart(date, i), bookedAt(date, i), bays));
+        }
+        return slots;
+    }
+
+    public int getDayBooked(LocalDate date) {
+        int day = dayIndex(date);
+        return dayTags.get(day) == date.toEpochDay() ? dayBooked.get(day) : 0;
+    }
+
+    /**
+     * Reloads the in-memory copy from booking_slots, picking up bookings and releases
+     * made by other instances.
+     */
+    @Scheduled(fixedDelayString = "${app.calendar.refresh-interval-ms:5000}",
+            initialDelayString = "${app.calendar.refresh-interval-ms:5000}")
+    public void refresh() {
+        try {
+            load(LocalDate.now());
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh booking slots, keeping the current counts: {}", e.getMessage());
+        }
+    }
+
+    private int load(LocalDate today) {
+        int[] loaded = new int[1];
+        jdbcTemplate.query(SELECT_HORIZON_SQL, rs -> {
+            int slotIndex = rs.getInt("slot_index");
+            if (slotIndex < slotsPerDay) {
+                int booked = rs.getInt("booked");
+                setBooked(ringSlot(rs.getDate("slot_date").toLocalDate(), slotIndex), booked);
+                loaded[0] += booked;
+            }
+        }, Date.valueOf(today), Date.valueOf(today.plusDays(horizonDays)));
+        return loaded[0];
+    }
+
+    private void setBooked(int slot, int booked) {
+        int current = slotBooked.getAndSet(slot, booked);
+        if (current == booked) {
+            return;
+        }
+        dayBooked.addAndGet(slot / slotsPerDay, booked - current);
+        if (booked >= bays) {
+            markFull(slot);
+        } else {
+            clearFull(slot);
+        }
+    }
+
+    private void decrement(int slot, LocalDate date) {
+        int day = slot / slotsPerDay;
+        if (dayTags.get(day) != date.toEpochDay()) {
+            return;
+        }
+        while (true) {
+            int current = slotBooked.get(slot);
+            if (current == 0) {
+                return;
+            }
+            if (slotBooked.compareAndSet(slot, current, current - 1)) {
+                dayBooked.decrementAndGet(day);
+                if (current - 1 < bays) {
+                    clearFull(slot);
+                }
+                return;
+            }
+        }
+    }
+
+    // The bitmap is a hint updated after the counter; each change re-checks the counter
+    // so a racing reserve/release cannot leave a bit that contradicts it.
+    private void markFull(int slot) {
+        setBit(slot, true);
+        if (slotBooked.get(slot) < bays) {
+            setBit(slot, false);
+        }
+    }
+
+    private void clearFull(int slot) {
+        setBit(slot, false);
+        if (slotBooked.get(slot) >= bays) {
+            setBit(slot, true);
+        }
+    }
+
+    private void setBit(int slot, boolean full) {
+        int word = slot >>> 6;
+        long mask = 1L << (slot & 63);
+        long current;
+        long updated;
+        do {
+            current = fullBits.get(word);
+            updated = full ? current | mask : current & ~mask;
+        } while (current != updated && !fullBits.compareAndSet(word, current, updated));
+    }
+
+    // Scans the full-slot bitmap a word at a time; -1 if every slot in [from, to) is full.
+    private int firstNotFull(int from, int to) {
+        int position = from;
+        while (position < to) {
+            int word = position >>> 6;
+            long free = ~fullBits.get(word) & (-1L << (position & 63));
+            if (free != 0) {
+                int candidate = (word << 6) + Long.numberOfTrailingZeros(free);
+                return candidate < to ? candidate : -1;
+            }
+            position = (word + 1) << 6;
+        }
+        return -1;
+    }
+
+    private int bookedAt(LocalDate date, int slotIndex) {
+        int day = dayIndex(date);
+        return dayTags.get(day) == date.toEpochDay() ? slotBooked.get(day * slotsPerDay + slotIndex) : 0;
+    }
+
+    private int slotOf(LocalDateTime dateTime) {
+        return ringSlot(dateTime.toLocalDate(), slotInDay(dateTime.toLocalTime()));
+    }
+
+    /**
+     * Ring position for a slot, first clearing the day's cells if they still hold a day
+     * that has rolled out of the horizon.
+     */
+    private int ringSlot(LocalDate date, int slotIndex) {
+        int day = dayIndex(date);
+        long epochDay = date.toEpochDay();
+        if (dayTags.get(day) != epochDay) {
+            synchronized (dayLocks[day]) {
+                if (dayTags.get(day) < epochDay) {
+                    for (int i = 0; i < slotsPerDay; i++) {
+                        int slot = day * slotsPerDay + i;
+                        slotBooked.set(slot, 0);
+                        setBit(slot, false);
+                    }
+                    dayBooked.set(day, 0);
+                    dayTags.set(day, epochDay);
+                }
+            }
+        }
+        return day * slotsPerDay + slotIndex;
+    }
+
+    private int dayIndex(LocalDate date) {
+        return (int) Math.floorMod(date.toEpochDay(), (long) horizonDays);
+    }
+
+    private int slotInDay(LocalTime time) {
+        return (int) (Duration.between(openTime, time).toMinutes() / slotMinutes);
+    }
+
+    private LocalDateTime slotStart(LocalDate date, int slotIndex) {
+        return date.atTime(openTime).plusMinutes((long) slotIndex * slotMinutes);
+    }
+
+    private boolean isBookable(LocalDate today, LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return false;
+        }
+        long offset = dateTime.toLocalDate().toEpochDay() - today.toEpochDay();
+        LocalTime time = dateTime.toLocalTime();
+        return offset >= 0 && offset < horizonDays
+                && !time.isBefore(openTime)
+                && time.isBefore(openTime.plusMinutes((long) slotsPerDay * slotMinutes));
+    }
+}
@@ -0,0 +1,334 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.model.PricingRule;
+import com.vehicleservice.model.ServiceItem;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable, pre-resolved form of the pricing rules. Compiling decides rule precedence
+ * once for every (customer, item type) pair that any rule mentions, so evaluating a line
+ * is two hash lookups and no allocation.
+ *
+ * Precedence for TAX and DISCOUNT: customer + type, customer + any type, any customer +
+ * type, any customer + any type, then the configured defaults. CAP rules only look at
+ * the customer. Within one scope the highest priority wins, then the lowest id.
+ */
+public final class CompiledRuleSet {
+
+    private static final String ANY_TYPE = "";
+
+    private final RateTable anyCustomer;
+    private final Map<Long, RateTable> byCustomer;
+    private final double defaultCap;
+    private final Map<Long, Double> capByCustomer;
+    private final int ruleCount;
+    private final String version;
+
+    private CompiledRuleSet(RateTable anyCustomer, Map<Long, RateTable> byCustomer, double defaultCap,
+                            Map<Long, Double> capByCustomer, int ruleCount, String version) {
+        this.anyCustomer = anyCustomer;
+        this.byCustomer = byCustomer;
+        this.defaultCap = defaultCap;
+        this.capByCustomer = capByCustomer;
+        this.ruleCount = ruleCount;
+        this.version = version;
+    }
+
+    public static CompiledRuleSet compile(Collection<PricingRule> rules, double defaultTaxRate, double defaultDiscountRate) {
+        Map<ScopeKey, PricingRule> tax = new HashMap<>();
+        Map<ScopeKey, PricingRule> discount = new HashMap<>();
+        Map<Long, PricingRule> caps = new HashMap<>();
+        PricingRule anyCap = null;
+        Set<Long> customers = new HashSet<>();
+        Map<Long, Set<String>> typesByCustomer = new HashMap<>();
+        Set<String> anyCustomerTypes = new HashSet<>();
+        List<String> fingerprint = new ArrayList<>();
+
+        int count = 0;
+        for (PricingRule rule : rules) {
+            PricingRule.Kind kind = kindOf(rule);
+            if (kind == null || (rule.getEnabled() != null && !rule.getEnabled())) {
+                continue;
+            }
+            count++;
+            String type = normalizeType(rule.getItemType());
+            Long customerId = rule.getCustomerId();
+            fingerprint.add(rule.getId() + "|" + kind + "|" + customerId + "|" + type + "|" + rule.getRate()
+                    + "|" + rule.getAmount() + "|" + rule.getPriority());
+            ScopeKey key = new ScopeKey(customerId, type);
+            switch (kind) {
+                case TAX:
+                    tax.merge(key, rule, CompiledRuleSet::preferred);
+                    break;
+                case DISCOUNT:
+                    discount.merge(key, rule, CompiledRuleSet::preferred);
+                    break;
+                case CAP:
+                    if (customerId == null) {
+                        anyCap = anyCap == null ? rule : preferred(anyCap, rule);
+                    } else {
+                        caps.merge(customerId, rule, CompiledRuleSet::preferred);
+                    }
+                    continue;
+            }
+            if (customerId == null) {
+                anyCustomerTypes.add(type);
+            } else {
+                customers.add(customerId);
+                typesByCustomer.computeIfAbsent(customerId, id -> new HashSet<>()).add(type);
+            }
+        }
+
+        RateTable anyTable = buildTable(null, anyCustomerTypes, tax, discount, defaultTaxRate, defaultDiscountRate);
+        Map<Long, RateTable> customerTables = new HashMap<>();
+        for (Long customerId : customers) {
+            Set<String> types = new HashSet<>(anyCustomerTypes);
+            types.addAll(typesByCustomer.get(customerId));
+            customerTables.put(customerId,
+                    buildTable(customerId, types, tax, discount, defaultTaxRate, defaultDiscountRate));
+        }
+
+        Map<Long, Double> capAmounts = new HashMap<>();
+        caps.forEach((customerId, rule) -> capAmounts.put(customerId, capAmount(rule)));
+        double defaultCap = anyCap != null ? capAmount(anyCap) : Double.POSITIVE_INFINITY;
+
+        fingerprint.sort(null);
+        fingerprint.add(defaultTaxRate + "|" + defaultDiscountRate);
+        return new CompiledRuleSet(anyTable, Map.copyOf(customerTables), defaultCap, Map.copyOf(capAmounts), count,
+                versionOf(fingerprint));
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Identifies the rules and defaults this set was compiled from. Every instance that
+     * compiles the same rules gets the same version, so it can be stored next to the
+     * totals it priced and compared later.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * True when a discount cap applies to this customer, i.e. the invoice total is not a
+     * plain sum of line amounts and must be priced as a whole.
+     */
+    public boolean hasCap(Long customerId) {
+        return capFor(customerId) != Double.POSITIVE_INFINITY;
+    }
+
+    public InvoicePricingService.Totals priceLine(ServiceItem item, Long customerId) {
+        if (item == null || item.getPrice() == null || item.getQuantity() == null) {
+            return InvoicePricingService.Totals.ZERO;
+        }
+        Rates rates = ratesFor(customerId, item.getType());
+        double subtotal = round(item.getPrice() * item.getQuantity());
+        double discount = round(subtotal * rates.discountRate);
+        double tax = round((subtotal - discount) * rates.taxRate);
+        return new InvoicePricingService.Totals(subtotal, tax, discount);
+    }
+
+    /**
+     * Prices a whole invoice. Without a cap this equals the sum of priceLine; with one,
+     * each line's discount is scaled down so the total discount is at most the cap and
+     * tax follows the scaled discounts.
+     */
+    public InvoicePricingService.Totals priceItems(List<ServiceItem> items, Long customerId) {
+        RateTable table = tableFor(customerId);
+        double subtotal = 0.0;
+        double discount = 0.0;
+        double tax = 0.0;
+        double taxOnDiscount = 0.0;
+        for (int i = 0, n = items.size(); i < n; i++) {
+            ServiceItem item = items.get(i);
+            if (item.getPrice() == null || item.getQuantity() == null) {
+                continue;
+            }
+            Rates rates = table.lookup(item.getType());
+            double lineSubtotal = round(item.getPrice() * item.getQuantity());
+            double lineDiscount = round(lineSubtotal * rates.discountRate);
+            subtotal += lineSubtotal;
+            discount += lineDiscount;
+            tax += round((lineSubtotal - lineDiscount) * rates.taxRate);
+            taxOnDiscount += lineDiscount * rates.taxRate;
+        }
+        double cap = capFor(customerId);
+        if (discount > cap) {
+            double scale = discount > 0 ? cap / discount : 0.0;
+            // Taking back (1 - scale) of every line discount makes that share taxable again
+            tax += taxOnDiscount * (1 - scale);
+            discount = cap;
+        }
+        return new InvoicePricingService.Totals(round(subtotal), round(tax), round(discount));
+    }
+
+    private double capFor(Long customerId) {
+        if (customerId != null) {
+            Double cap = capByCustomer.get(customerId);
+            if (cap != null) {
+                return cap;
+            }
+        }
+        return defaultCap;
+    }
+
+    private Rates ratesFor(Long customerId, String itemType) {
+        return tableFor(customerId).lookup(itemType);
+    }
+
+    private RateTable tableFor(Long customerId) {
+        if (customerId == null) {
+            return anyCustomer;
+        }
+        RateTable table = byCustomer.get(customerId);
+        return table != null ? table : anyCustomer;
+    }
+
+    private static RateTable buildTable(Long customerId, Set<String> types,
+                                        Map<ScopeKey, PricingRule> tax, Map<ScopeKey, PricingRule> discount,
+                                        double defaultTaxRate, double defaultDiscountRate) {
+        Map<String, Rates> byType = new HashMap<>();
+        for (String type : types) {
+            byType.put(type, new Rates(
+                    resolve(tax, customerId, type, defaultTaxRate),
+                    resolve(discount, customerId, type, defaultDiscountRate)));
+        }
+        Rates fallback = byType.containsKey(ANY_TYPE)
+                ? byType.get(ANY_TYPE)
+                : new Rates(resolve(tax, customerId, ANY_TYPE, defaultTaxRate),
+                        resolve(discount, customerId, ANY_TYPE, defaultDiscountRate));
+        return new RateTable(Map.copyOf(byType), fallback);
+    }
+
+    private static double resolve(Map<ScopeKey, PricingRule> rules, Long customerId, String type, double defaultRate) {
+        PricingRule rule = null;
+        if (customerId != null) {
+            rule = rules.get(new ScopeKey(customerId, type));
+            if (rule == null) {
+                rule = rules.get(new ScopeKey(customerId, ANY_TYPE));
+            }
+        }
+        if (rule == null) {
+            rule = rules.get(new ScopeKey(null, type));
+        }
+        if (rule == null) {
+            rule = rules.get(new ScopeKey(null, ANY_TYPE));
+        }
+        return rule != null && rule.getRate() != null ? rule.getRate() : defaultRate;
+    }
+
+    private static PricingRule preferred(PricingRule a, PricingRule b) {
+        int pa = a.getPriority() != null ? a.getPriority() : 0;
+        int pb = b.getPriority() != null ? b.getPriority() : 0;
+        if (pa != pb) {
+            return pa > pb ? a : b;
+        }
+        if (a.getId() == null || b.getId() == null) {
+            return a.getId() == null ? b : a;
+        }
+        return a.getId() <= b.getId() ? a : b;
+    }
+
+    private static PricingRule.Kind kindOf(PricingRule rule) {
+        try {
+            return rule.getKind() != null ? PricingRule.Kind.valueOf(rule.getKind().trim().toUpperCase()) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static double capAmount(PricingRule rule) {
+        return rule.getAmount() != null ? rule.getAmount() : Double.POSITIVE_INFINITY;
+    }
+
+    private static String versionOf(List<String> fingerprint) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.join("\n", fingerprint).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String normalizeType(String type) {
+        return type == null || type.isBlank() ? ANY_TYPE : type.trim().toUpperCase();
+    }
+
+    static double round(double amount) {
+        return Math.round(amount * 100.0) / 100.0;
+    }
+
+    private static final class Rates {
+        private final double taxRate;
+        private final double discountRate;
+
+        private Rates(double taxRate, double discountRate) {
+            this.taxRate = taxRate;
+            this.discountRate = discountRate;
+        }
+    }
+
+    private static final class RateTable {
+        private final Map<String, Rates> byType;
+        private final Rates fallback;
+
+        private RateTable(Map<String, Rates> byType, Rates fallback) {
+            this.byType = byType;
+            this.fallback = fallback;
+        }
+
+        private Rates lookup(String itemType) {
+            if (itemType == null || byType.isEmpty()) {
+                return fallback;
+            }
+            Rates rates = byType.get(itemType);
+            if (rates == null) {
+                // Types are stored upper-case; only pay for the conversion on a miss
+                rates = byType.get(itemType.toUpperCase());
+            }
+            return rates != null ? rates : fallback;
+        }
+    }
+
+    private static final class ScopeKey {
+        private final Long customerId;
+        private final String type;
+
+        private ScopeKey(Long customerId, String type) {
+            this.customerId = customerId;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ScopeKey)) {
+                return false;
+            }
+            ScopeKey other = (ScopeKey) o;
+            return Objects.equals(customerId, other.customerId) && type.equals(other.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(customerId) + type.hashCode();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.vehicleservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A parsed template: literal text, {{field}} placeholders (HTML-escaped) and
+ * {{#list}}...{{/list}} sections repeated for each map in the list. Parsing happens once;
+ * rendering only appends to a StringBuilder.
+ */
+public final class DocumentTemplate {
+
+    private final List<Segment> segments;
+
+    private DocumentTemplate(List<Segment> segments) {
+        this.segments = segments;
+    }
+
+    public static DocumentTemplate compile(String source) {
+        List<Segment> segments = new ArrayList<>();
+        int end = parse(source, 0, null, segments);
+        if (end != source.length()) {
+            throw new IllegalArgumentException("Unexpected section end at offset " + end);
+        }
+        return new DocumentTemplate(List.copyOf(segments));
+    }
+
+    public String render(Map<String, ?> model) {
+        StringBuilder out = new StringBuilder(4096);
+        renderSegments(segments, model, out);
+        return out.toString();
+    }
+
+    private static int parse(String source, int from, String section, List<Segment> segments) {
+        int position = from;
+        while (true) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                if (section != null) {
+                    throw new IllegalArgumentException("Section " + section + " is not closed");
+                }
+                addLiteral(segments, source.substring(position));
+                return source.length();
+            }
+            int close = source.indexOf("}}", open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed tag at offset " + open);
+            }
+            addLiteral(segments, source.substring(position, open));
+            String tag = source.substring(open + 2, close).trim();
+            position = close + 2;
+            if (tag.startsWith("#")) {
+                String name = tag.substring(1).trim();
+                List<Segment> body = new ArrayList<>();
+                position = parse(source, position, name, body);
+                segments.add(new SectionSegment(name, List.copyOf(body)));
+            } else if (tag.startsWith("/")) {
+                if (!tag.substring(1).trim().equals(section)) {
+                    throw new IllegalArgumentException("Unexpected " + tag + " at offset " + open);
+                }
+                return position;
+            } else {
+                segments.add(new FieldSegment(tag));
+            }
+        }
+    }
+
+    private static void addLiteral(List<Segment> segments, String text) {
+        if (!text.isEmpty()) {
+            segments.add(new LiteralSegment(text));
+        }
+    }
+
+    private static void renderSegments(List<Segment> segments, Map<String, ?> model, StringBuilder out) {
+        for (Segment segment : segments) {
+            segment.render(model, out);
+        }
+    }
+
+    private static void escape(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<': out.append("&lt;"); break;
+                case '>': out.append("&gt;"); break;
+                case '&': out.append("&amp;"); break;
+                case '"': out.append("&quot;"); break;
+                case '\'': out.append("&#39;"); break;
+                default: out.append(c);
+            }
+        }
+    }
+
+    private interface Segment {
+        void render(Map<String, ?> model, StringBuilder out);
+    }
+
+    private static final class LiteralSegment implements Segment {
+        private final String text;
+
+        private LiteralSegment(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(Map<String, ?> model, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    private static final class FieldSegment implements Segment {
+        private final String name;
+
+        private FieldSegment(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void render(Map<String, ?> model, StringBuilder out) {
+            Object value = model.get(name);
+            if (value != null) {
+                escape(value.toString(), out);
+            }
+        }
+    }
+
+    private static final class SectionSegment implements Segment {
+        private final String name;
+        private final List<Segment> body;
+
+        private SectionSegment(String name, List<Segment> body) {
+            this.name = name;
+            this.body = body;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void render(Map<String, ?> model, StringBuilder out) {
+            Object value = model.get(name);
+            if (value instanceof List) {
+                for (Object entry : (List<?>) value) {
+                    renderSegments(body, (Map<String, ?>) entry, out);
+                }
+            }
+        }
+    }
+}
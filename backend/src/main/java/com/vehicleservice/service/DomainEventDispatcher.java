@@ -0,0 +1,343 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.event.DomainEvent;
+import com.vehicleservice.event.DomainEventSubscriber;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Delivers the domain_events outbox to in-process DomainEventSubscribers, in id order,
+ * in batches, at least once. Each subscriber has a checkpoint row holding the last event
+ * id it has handled; the checkpoint only moves after onEvents returns. One instance at
+ * a time dispatches (job lease "domain-events"); another takes over from the stored
+ * checkpoints if it dies.
+ *
+ * Ids are allocated at insert but become visible at commit, so a lower id can appear
+ * after a higher one. A batch therefore stops at the first missing id until the event
+ * after the gap is gap-grace-ms old, and then moves past it. The skipped range is kept in
+ * domain_event_gaps and re-read on every poll for gap-max-age-ms, so an event whose
+ * transaction commits later than that is still delivered, after events with higher ids;
+ * a range still empty by then was a rollback (or an unused auto-increment block).
+ */
+@Service
+public class DomainEventDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(DomainEventDispatcher.class);
+
+    static final String JOB_NAME = "domain-events";
+
+    private static final String SELECT_SQL = "SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at "
+            + "FROM domain_events WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String GAP_RANGE_SQL = "SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at "
+            + "FROM domain_events WHERE id BETWEEN ? AND ? ORDER BY id";
+
+    private static final String INSERT_GAP_SQL =
+            "INSERT INTO domain_event_gaps (subscriber, from_id, to_id, skipped_at) VALUES (?, ?, ?, ?)";
+
+    private static final RowMapper<DomainEvent> EVENT_MAPPER = (rs, rowNum) -> new DomainEvent(rs.getLong("id"),
+            rs.getString("aggregate_type"), rs.getLong("aggregate_id"), rs.getString("event_type"),
+            rs.getString("payload"), rs.getTimestamp("created_at").toLocalDateTime());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Autowired(required = false)
+    private List<DomainEventSubscriber> subscribers = List.of();
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${app.outbox.gap-grace-ms:10000}")
+    private long gapGraceMs;
+
+    @Value("${app.outbox.gap-max-age-ms:3600000}")
+    private long gapMaxAgeMs;
+
+    @Value("${app.outbox.lease-seconds:30}")
+    private long leaseSeconds;
+
+    @Value("${app.outbox.retry-base-ms:1000}")
+    private long retryBaseMs;
+
+    @Value("${app.outbox.retry-max-ms:60000}")
+    private long retryMaxMs;
+
+    @Value("${app.outbox.retention-hours:72}")
+    private long retentionHours;
+
+    private final Map<String, SubscriberState> states = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Set<String> names = new HashSet<>();
+        for (DomainEventSubscriber subscriber : subscribers) {
+            if (!names.add(subscriber.getName())) {
+                throw new IllegalStateException("Duplicate domain event subscriber name " + subscriber.getName());
+            }
+            long start = subscriber.replayFromStart() ? 0L : latestEventId();
+            // A subscriber seen before keeps its checkpoint
+            jdbcTemplate.update("INSERT INTO domain_event_checkpoints (subscriber, last_event_id, updated_at) "
+                    + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE subscriber = subscriber",
+                    subscriber.getName(), start, Timestamp.valueOf(LocalDateTime.now()));
+            states.put(subscriber.getName(), new SubscriberState(subscriber));
+        }
+        logger.info("Domain event subscribers: {}", states.keySet());
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:200}")
+    public void poll() {
+        if (states.isEmpty() || jobLeaseService.tryAcquire(JOB_NAME, leaseSeconds) == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (SubscriberState state : states.values()) {
+            if (now < state.retryAt) {
+                continue;
+            }
+            try {
+                redeliverGaps(state);
+                for (int batch = 0; batch < maxBatchesPerPoll && deliverBatch(state); batch++) {
+                    // keep draining while full batches come back
+                }
+                state.failures = 0;
+                state.lastError = null;
+            } catch (RuntimeException e) {
+                state.failures++;
+                long delay = Math.min(retryMaxMs, retryBaseMs << Math.min(state.failures - 1, 20));
+                state.retryAt = System.currentTimeMillis() + delay;
+                state.lastError = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                logger.warn("Domain event subscriber {} failed ({} in a row), retrying in {} ms",
+                        state.subscriber.getName(), state.failures, delay, e);
+            }
+        }
+    }
+
+    /**
+     * Drops events every subscriber has handled once they are older than retention-hours;
+     * with no subscriber checkpoints at all, every event older than that. Also drops gap
+     * ranges that have outlived gap-max-age-ms, e.g. those of removed subscribers.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        Long minCheckpoint = jdbcTemplate.queryForObject("SELECT MIN(last_event_id) FROM domain_event_checkpoints",
+                Long.class);
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours));
+        String sql = minCheckpoint != null
+                ? "DELETE FROM domain_events WHERE id <= ? AND created_at < ? ORDER BY id LIMIT 10000"
+                : "DELETE FROM domain_events WHERE created_at < ? ORDER BY id LIMIT 10000";
+        Object[] args = minCheckpoint != null ? new Object[] {minCheckpoint, cutoff} : new Object[] {cutoff};
+        int deleted;
+        int total = 0;
+        do {
+            deleted = jdbcTemplate.update(sql, args);
+            total += deleted;
+        } while (deleted == 10000);
+        jdbcTemplate.update("DELETE FROM domain_event_gaps WHERE skipped_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minusNanos(gapMaxAgeMs * 1_000_000)));
+        if (total > 0) {
+            logger.debug("Purged {} delivered domain events", total);
+        }
+    }
+
+    public List<DomainEvent> readEvents(long afterId, int limit) {
+        return jdbcTemplate.query(SELECT_SQL, EVENT_MAPPER, afterId, Math.max(1, Math.min(limit, 1000)));
+    }
+
+    public Map<String, Object> getStatus() {
+        long latest = latestEventId();
+        Map<String, Long> checkpoints = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT subscriber, last_event_id FROM domain_event_checkpoints ORDER BY subscriber",
+                rs -> {
+                    checkpoints.put(rs.getString("subscriber"), rs.getLong("last_event_id"));
+                });
+        List<Map<String, Object>> subscriberStatus = new ArrayList<>();
+        checkpoints.forEach((name, checkpoint) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", name);
+            entry.put("checkpoint", checkpoint);
+            entry.put("lag", Math.max(0L, latest - checkpoint));
+            SubscriberState state = states.get(name);
+            entry.put("registered", state != null);
+            if (state != null) {
+                entry.put("failures", state.failures);
+                entry.put("lastError", state.lastError);
+            }
+            subscriberStatus.add(entry);
+        });
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("latestEventId", latest);
+        status.put("subscribers", subscriberStatus);
+        JobLeaseService.Lease lease = jobLeaseService.find(JOB_NAME);
+        if (lease != null) {
+            status.put("leaseUntil", lease.getLeaseUntil());
+        }
+        return status;
+    }
+
+    /**
+     * Delivers the next settled batch to one subscriber. Returns true when the batch was
+     * full, i.e. there may be more to deliver right away.
+     */
+    private boolean deliverBatch(SubscriberState state) {
+        String name = state.subscriber.getName();
+        // Re-read every time: another instance may have advanced it while it held the lease
+        Long checkpoint = jdbcTemplate.queryForObject(
+                "SELECT last_event_id FROM domain_event_checkpoints WHERE subscriber = ?", Long.class, name);
+        List<DomainEvent> fetched = jdbcTemplate.query(SELECT_SQL, EVENT_MAPPER, checkpoint, batchSize);
+        List<DomainEvent> settled = settledPrefix(checkpoint, fetched);
+        if (settled.isEmpty()) {
+            return false;
+        }
+        List<DomainEvent> accepted = new ArrayList<>(settled.size());
+        for (DomainEvent event : settled) {
+            if (state.subscriber.accepts(event)) {
+                accepted.add(event);
+            }
+        }
+        if (!accepted.isEmpty()) {
+            state.subscriber.onEvents(accepted);
+        }
+        // Recorded before the checkpoint moves past them; a crash in between only means
+        // the batch, and its gaps, are taken again
+        recordGaps(name, checkpoint, settled);
+        long last = settled.get(settled.size() - 1).getId();
+        jdbcTemplate.update("UPDATE domain_event_checkpoints SET last_event_id = ?, updated_at = ? WHERE subscriber = ?",
+                last, Timestamp.valueOf(LocalDateTime.now()), name);
+        return settled.size() == batchSize;
+    }
+
+    /**
+     * Re-reads the subscriber's skipped id ranges and delivers whatever has committed in
+     * them since. Found ids are taken out of the range; a range past gap-max-age-ms is
+     * given up after this last look.
+     */
+    private void redeliverGaps(SubscriberState state) {
+        String name = state.subscriber.getName();
+        List<Gap> gaps = jdbcTemplate.query("SELECT id, from_id, to_id, skipped_at FROM domain_event_gaps "
+                        + "WHERE subscriber = ? ORDER BY from_id",
+                (rs, rowNum) -> new Gap(rs.getLong("id"), rs.getLong("from_id"), rs.getLong("to_id"),
+                        rs.getTimestamp("skipped_at")),
+                name);
+        LocalDateTime expiry = LocalDateTime.now().minusNanos(gapMaxAgeMs * 1_000_000);
+        for (Gap gap : gaps) {
+            List<DomainEvent> late = jdbcTemplate.query(GAP_RANGE_SQL, EVENT_MAPPER, gap.fromId, gap.toId);
+            boolean expired = gap.skippedAt.toLocalDateTime().isBefore(expiry);
+            if (late.isEmpty() && !expired) {
+                continue;
+            }
+            List<DomainEvent> accepted = new ArrayList<>(late.size());
+            for (DomainEvent event : late) {
+                if (state.subscriber.accepts(event)) {
+                    accepted.add(event);
+                }
+            }
+            if (!accepted.isEmpty()) {
+                state.subscriber.onEvents(accepted);
+            }
+            if (!late.isEmpty()) {
+                logger.info("Delivered {} late domain events to {} from ids {}-{}", late.size(), name,
+                        gap.fromId, gap.toId);
+            }
+            jdbcTemplate.update("DELETE FROM domain_event_gaps WHERE id = ?", gap.id);
+            if (!expired) {
+                List<Object[]> rest = new ArrayList<>();
+                long from = gap.fromId;
+                for (DomainEvent event : late) {
+                    if (event.getId() > from) {
+                        rest.add(new Object[] {name, from, event.getId() - 1, gap.skippedAt});
+                    }
+                    from = event.getId() + 1;
+                }
+                if (from <= gap.toId) {
+                    rest.add(new Object[] {name, from, gap.toId, gap.skippedAt});
+                }
+                if (!rest.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_GAP_SQL, rest);
+                }
+            }
+        }
+    }
+
+    private void recordGaps(String subscriber, long checkpoint, List<DomainEvent> settled) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> gaps = new ArrayList<>();
+        long expected = checkpoint + 1;
+        for (DomainEvent event : settled) {
+            if (event.getId() > expected) {
+                gaps.add(new Object[] {subscriber, expected, event.getId() - 1, now});
+            }
+            expected = event.getId() + 1;
+        }
+        if (!gaps.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_GAP_SQL, gaps);
+        }
+    }
+
+    private List<DomainEvent> settledPrefix(long checkpoint, List<DomainEvent> fetched) {
+        LocalDateTime graceCutoff = LocalDateTime.now().minusNanos(gapGraceMs * 1_000_000);
+        long expected = checkpoint + 1;
+        int end = 0;
+        for (DomainEvent event : fetched) {
+            if (event.getId() != expected && event.getCreatedAt().isAfter(graceCutoff)) {
+                // A lower id may still commit; wait for it
+                break;
+            }
+            expected = event.getId() + 1;
+            end++;
+        }
+        return fetched.subList(0, end);
+    }
+
+    private long latestEventId() {
+        Long latest = jdbcTemplate.queryForObject("SELECT MAX(id) FROM domain_events", Long.class);
+        return latest != null ? latest : 0L;
+    }
+
+    private static final class Gap {
+        private final long id;
+        private final long fromId;
+        private final long toId;
+        private final Timestamp skippedAt;
+
+        private Gap(long id, long fromId, long toId, Timestamp skippedAt) {
+            this.id = id;
+            this.fromId = fromId;
+            this.toId = toId;
+            this.skippedAt = skippedAt;
+        }
+    }
+
+    private static final class SubscriberState {
+        private final DomainEventSubscriber subscriber;
+        // Written by the dispatching thread, read by getStatus
+        private volatile int failures;
+        private volatile long retryAt;
+        private volatile String lastError;
+
+        private SubscriberState(DomainEventSubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.vehicleservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes domain events into the domain_events outbox. Appending requires a running
+ * transaction: the event row commits or rolls back with the change it describes, so
+ * subscribers never see a change that did not happen nor miss one that did.
+ */
+@Service
+public class DomainEventOutbox {
+
+    private static final String INSERT_SQL = "INSERT INTO domain_events "
+            + "(aggregate_type, aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, Long aggregateId, String eventType, Object payload) {
+        jdbcTemplate.update(INSERT_SQL, aggregateType, aggregateId, eventType, toJson(payload),
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Appends one event per element with a single batched insert.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void appendAll(String aggregateType, String eventType, List<T> aggregates,
+                              Function<T, Long> idOf, Function<T, Object> payloadOf) {
+        if (aggregates.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, aggregates, aggregates.size(), (ps, aggregate) -> {
+            ps.setString(1, aggregateType);
+            ps.setLong(2, idOf.apply(aggregate));
+            ps.setString(3, eventType);
+            ps.setString(4, toJson(payloadOf.apply(aggregate)));
+            ps.setTimestamp(5, now);
+        });
+    }
+
+    private String toJson(Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize domain event payload", e);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.vehicleservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.exception.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs an operation at most once per Idempotency-Key. Completed responses are kept in a
+ * bounded LRU in front of the idempotency_keys table. A duplicate that arrives while the
+ * first call is still running waits for its result instead of running again; across
+ * instances the key row's primary key does the same job.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, StoredResponse> recent;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(PlatformTransactionManager transactionManager,
+                              @Value("${app.idempotency.cache-size:10000}") int cacheSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recent = new LinkedHashMap<>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Runs action once for (scope, key); later calls with the same key get the stored
+     * result. fingerprint identifies the request so a key reused for a different
+     * request is rejected. A null key just runs the action.
+     */
+    public <T> T execute(String scope, String key, String fingerprint, Class<T> type, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String cacheKey = scope + ":" + key;
+
+        StoredResponse stored = cached(cacheKey);
+        if (stored == null) {
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(cacheKey, mine);
+            if (running != null) {
+                stored = await(running);
+            } else {
+                try {
+                    stored = runOnce(scope, key, fingerprint, action);
+                    synchronized (recent) {
+                        recent.put(cacheKey, stored);
+                    }
+                    mine.complete(stored);
+                } catch (RuntimeException e) {
+                    mine.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.remove(cacheKey, mine);
+                }
+            }
+        }
+
+        if (!stored.fingerprint.equals(fingerprint)) {
+            throw new ValidationException(HEADER + " was already used for a different request");
+        }
+        return stored.read(objectMapper, type);
+    }
+
+    /**
+     * Stable hash of the parts that make up a request.
+     */
+    public String fingerprint(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(objectMapper.writeValueAsBytes(part));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ?",
+                Timestamp.valueOf(LocalDateTime.now()));
+        if (purged > 0) {
+            logger.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private StoredResponse cached(String cacheKey) {
+        StoredResponse stored;
+        synchronized (recent) {
+            stored = recent.get(cacheKey);
+        }
+        if (stored != null && stored.expiresAt.isBefore(LocalDateTime.now())) {
+            synchronized (recent) {
+                recent.remove(cacheKey, stored);
+            }
+            return null;
+        }
+        return stored;
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ConflictException("A request with this " + HEADER + " is still in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while waiting for " + HEADER);
+        }
+    }
+
+    private <T> StoredResponse runOnce(String scope, String key, String fingerprint, Supplier<T> action) {
+        StoredResponse existing = load(scope, key);
+        if (existing != null) {
+            return existing;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusHours(ttlHours);
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE scope = ? AND idem_key = ? AND expires_at < ?",
+                scope, key, Timestamp.valueOf(now));
+        try {
+            // The key row and the action's writes commit or roll back together
+            return transactionTemplate.execute(status -> {
+                jdbcTemplate.update("INSERT INTO idempotency_keys (scope, idem_key, fingerprint, expires_at) "
+                        + "VALUES (?, ?, ?, ?)", scope, key, fingerprint, Timestamp.valueOf(expiresAt));
+                String json = write(action.get());
+                jdbcTemplate.update("UPDATE idempotency_keys SET response_json = ? WHERE scope = ? AND idem_key = ?",
+                        json, scope, key);
+                return new StoredResponse(fingerprint, json, expiresAt);
+            });
+        } catch (DuplicateKeyException e) {
+            // Another instance ran it first; its row is committed by the time the insert fails
+            StoredResponse winner = load(scope, key);
+            if (winner == null) {
+                throw new ConflictException("A request with this " + HEADER + " is still in progress");
+            }
+            return winner;
+        }
+    }
+
+    private StoredResponse load(String scope, String key) {
+        List<StoredResponse> rows = jdbcTemplate.query(
+                "SELECT fingerprint, response_json, expires_at FROM idempotency_keys "
+                        + "WHERE scope = ? AND idem_key = ? AND expires_at > ? AND response_json IS NOT NULL",
+                (rs, rowNum) -> new StoredResponse(rs.getString("fingerprint"), rs.getString("response_json"),
+                        rs.getTimestamp("expires_at").toLocalDateTime()),
+                scope, key, Timestamp.valueOf(LocalDateTime.now()));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store idempotent response", e);
+        }
+    }
+
+    private static final class StoredResponse {
+        private final String fingerprint;
+        private final String json;
+        private final LocalDateTime expiresAt;
+
+        private StoredResponse(String fingerprint, String json, LocalDateTime expiresAt) {
+            this.fingerprint = fingerprint;
+            this.json = json;
+            this.expiresAt = expiresAt;
+        }
+
+        private <T> T read(ObjectMapper objectMapper, Class<T> type) {
+            try {
+                return objectMapper.readValue(json, type);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not replay idempotent response", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.InvoiceDTO;
+import com.vehicleservice.dto.ServiceItemDTO;
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.exception.ServiceUnavailableException;
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.model.ServiceItem;
+import com.vehicleservice.model.ServiceRequest;
+import com.vehicleservice.repository.InvoiceRepository;
+import com.vehicleservice.repository.ServiceItemRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders invoices to HTML on the server. Templates are parsed once and cached, renders
+ * run on a bounded worker pool (a full queue is reported as 503 rather than piling up
+ * request threads), and each finished document is stored on disk under its SHA-256 so
+ * identical output is written once. An invoice is re-rendered only when its version no
+ * longer matches the version its stored document was rendered from; every change to the
+ * invoice or to any of its items bumps that version. Archived invoices are rendered from
+ * invoices_archive; they no longer change, so their document is rendered once.
+ */
+@Service
+public class InvoiceDocumentService {
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceDocumentService.class);
+
+    private static final String INVOICE_TEMPLATE = "invoice";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private ServiceItemRepository serviceItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Value("${app.invoice-docs.render-timeout-ms:10000}")
+    private long renderTimeoutMs;
+
+    private final Path root;
+    private final TransactionTemplate readTransaction;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, DocumentTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<Long, StoredDocument> documents = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<StoredDocument>> rendering = new ConcurrentHashMap<>();
+
+    public InvoiceDocumentService(PlatformTransactionManager transactionManager,
+                                  @Value("${app.invoice-docs.dir:}") String dir,
+                                  @Value("${app.invoice-docs.workers:2}") int workerThreads,
+                                  @Value("${app.invoice-docs.queue-capacity:50}") int queueCapacity) {
+        this.root = dir.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "invoice-docs")
+                : Paths.get(dir);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "invoice-render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Returns the stored document for the invoice's current version, rendering it first
+     * if needed. Concurrent requests for the same version share one render.
+     */
+    public StoredDocument getDocument(Long invoiceId) {
+        DocumentState state = loadState(invoiceId);
+
+        StoredDocument known = documents.get(invoiceId);
+        if (known != null && Objects.equals(known.version, state.version) && Files.exists(known.path)) {
+            return known;
+        }
+        if (state.documentHash != null && Objects.equals(state.documentVersion, state.version)) {
+            // Rendered earlier, possibly by another instance sharing the directory
+            Path path = pathFor(state.documentHash);
+            if (Files.exists(path)) {
+                StoredDocument stored = new StoredDocument(invoiceId, state.version, state.documentHash, path, size(path));
+                documents.put(invoiceId, stored);
+                return stored;
+            }
+        }
+        return await(render(invoiceId, state));
+    }
+
+    /**
+     * Copies the document to target with FileChannel.transferTo, which lets the kernel
+     * move the bytes without copying them through the heap where the channel allows it.
+     */
+    public void transferTo(StoredDocument document, WritableByteChannel target) throws IOException {
+        try (FileChannel file = FileChannel.open(document.path, StandardOpenOption.READ)) {
+            long position = 0;
+            long size = file.size();
+            while (position < size) {
+                position += file.transferTo(position, size - position, target);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private CompletableFuture<StoredDocument> render(Long invoiceId, DocumentState state) {
+        String key = invoiceId + ":" + state.version;
+        CompletableFuture<StoredDocument> mine = new CompletableFuture<>();
+        CompletableFuture<StoredDocument> running = rendering.putIfAbsent(key, mine);
+        if (running != null) {
+            return running;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    mine.complete(state.archived ? renderArchived(invoiceId, state.version) : renderNow(invoiceId));
+                } catch (Throwable e) {
+                    mine.completeExceptionally(e);
+                } finally {
+                    rendering.remove(key, mine);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rendering.remove(key, mine);
+            throw new ServiceUnavailableException("Invoice rendering is busy, please retry shortly");
+        }
+        return mine;
+    }
+
+    private StoredDocument renderNow(Long invoiceId) {
+        long started = System.nanoTime();
+        RenderedInvoice rendered = readTransaction.execute(status -> {
+            Invoice invoice = invoiceRepository.findById(invoiceId)
+                    .orElseThrow(() -> ResourceNotFoundException.INVOICE);
+            List<ServiceItem> items = serviceItemRepository.findByInvoiceId(invoiceId);
+            String html = template(INVOICE_TEMPLATE).render(model(invoice, items));
+            return new RenderedInvoice(invoice.getVersion(), html.getBytes(StandardCharsets.UTF_8));
+        });
+
+        StoredDocument stored = storeRendered(invoiceId, rendered, "invoices");
+        logger.debug("Rendered invoiceId={} version={} bytes={} in {}ms", invoiceId, rendered.version,
+                rendered.bytes.length, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return stored;
+    }
+
+    private StoredDocument renderArchived(Long invoiceId, Long version) {
+        InvoiceDTO archived = archiveService.findInvoice(invoiceId).orElseThrow(() -> ResourceNotFoundException.INVOICE);
+        Invoice invoice = detachedInvoice(archived);
+        List<ServiceItem> items = new ArrayList<>();
+        for (ServiceItemDTO itemDTO : archived.getServiceItems()) {
+            items.add(detachedItem(itemDTO));
+        }
+        String html = template(INVOICE_TEMPLATE).render(model(invoice, items));
+        StoredDocument stored = storeRendered(invoiceId, new RenderedInvoice(version, html.getBytes(StandardCharsets.UTF_8)),
+                "invoices_archive");
+        logger.debug("Rendered archived invoiceId={} bytes={}", invoiceId, stored.size);
+        return stored;
+    }
+
+    private StoredDocument storeRendered(Long invoiceId, RenderedInvoice rendered, String table) {
+        String hash = sha256(rendered.bytes);
+        Path path = store(hash, rendered.bytes);
+        // Plain SQL: recording the render must not bump the invoice's optimistic-lock version
+        jdbcTemplate.update("UPDATE " + table + " SET document_hash = ?, document_version = ? "
+                        + "WHERE id = ? AND (document_version IS NULL OR document_version <= ?)",
+                hash, rendered.version, invoiceId, rendered.version);
+
+        StoredDocument stored = new StoredDocument(invoiceId, rendered.version, hash, path, rendered.bytes.length);
+        documents.merge(invoiceId, stored, (current, candidate) ->
+                current.version != null && candidate.version != null && current.version > candidate.version
+                        ? current : candidate);
+        return stored;
+    }
+
+    private Path store(String hash, byte[] bytes) {
+        Path path = pathFor(hash);
+        if (Files.exists(path)) {
+            return path;
+        }
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), hash, ".tmp");
+            try {
+                Files.write(temp, bytes);
+                // Same content under the same name, so losing a race to another writer is harmless
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return path;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store invoice document " + hash, e);
+        }
+    }
+
+    private DocumentTemplate template(String name) {
+        return templates.computeIfAbsent(name, key -> {
+            try (InputStream in = getClass().getClassLoader().getResourceAsStream("templates/" + key + ".html")) {
+                if (in == null) {
+                    throw new IllegalStateException("Template not found: " + key);
+                }
+                return DocumentTemplate.compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read template " + key, e);
+            }
+        });
+    }
+
+    private static Map<String, Object> model(Invoice invoice, List<ServiceItem> items) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("id", invoice.getId());
+        model.put("serviceRequestId", invoice.getServiceRequest() != null ? invoice.getServiceRequest().getId() : null);
+        model.put("createdAt", date(invoice.getCreatedAt()));
+        model.put("status", invoice.getStatus());
+        model.put("billingAddress", invoice.getBillingAddress());
+        model.put("billingCity", invoice.getBillingCity());
+        model.put("billingZip", invoice.getBillingZip());
+        model.put("subtotal", money(invoice.getSubtotal()));
+        model.put("discountAmount", money(invoice.getDiscountAmount()));
+        model.put("taxAmount", money(invoice.getTaxAmount()));
+        model.put("totalAmount", money(invoice.getTotalAmount()));
+        model.put("paidAt", date(invoice.getPaidAt()));
+        model.put("paymentMethod", invoice.getPaymentMethod());
+        model.put("cardLastFour", invoice.getCardLastFour() != null ? "**** " + invoice.getCardLastFour() : null);
+
+        List<Map<String, Object>> lines = new ArrayList<>(items.size());
+        for (ServiceItem item : items) {
+            Map<String, Object> line = new HashMap<>();
+            line.put("name", item.getName());
+            line.put("description", item.getDescription());
+            line.put("type", item.getType());
+            line.put("partNumber", item.getPartNumber());
+            line.put("quantity", item.getQuantity());
+            line.put("price", money(item.getPrice()));
+            line.put("amount", item.getPrice() != null && item.getQuantity() != null
+                    ? money(item.getPrice() * item.getQuantity()) : null);
+            lines.add(line);
+        }
+        model.put("items", lines);
+        return model;
+    }
+
+    // The template model reads entities; an archived invoice is rebuilt as unmanaged ones
+    private static Invoice detachedInvoice(InvoiceDTO dto) {
+        Invoice invoice = new Invoice();
+        invoice.setId(dto.getId());
+        if (dto.getServiceRequestId() != null) {
+            ServiceRequest serviceRequest = new ServiceRequest();
+            serviceRequest.setId(dto.getServiceRequestId());
+            invoice.setServiceRequest(serviceRequest);
+        }
+        invoice.setCreatedAt(dto.getCreatedAt());
+        invoice.setStatus(dto.getStatus());
+        invoice.setBillingAddress(dto.getBillingAddress());
+        invoice.setBillingCity(dto.getBillingCity());
+        invoice.setBillingZip(dto.getBillingZip());
+        invoice.setSubtotal(dto.getSubtotal());
+        invoice.setDiscountAmount(dto.getDiscountAmount());
+        invoice.setTaxAmount(dto.getTaxAmount());
+        invoice.setTotalAmount(dto.getTotalAmount());
+        invoice.setPaidAt(dto.getPaidAt());
+        invoice.setPaymentMethod(dto.getPaymentMethod());
+        invoice.setCardLastFour(dto.getCardLastFour());
+        return invoice;
+    }
+
+    private static ServiceItem detachedItem(ServiceItemDTO dto) {
+        ServiceItem item = new ServiceItem();
+        item.setName(dto.getName());
+        item.setDescription(dto.getDescription());
+        item.setType(dto.getType());
+        item.setPartNumber(dto.getPartNumber());
+        item.setQuantity(dto.getQuantity());
+        item.setPrice(dto.getPrice());
+        return item;
+    }
+
+    private static String money(Double amount) {
+        return String.format(Locale.ROOT, "%.2f", amount != null ? amount : 0.0);
+    }
+
+    private static String date(LocalDateTime value) {
+        return value != null ? DATE_FORMAT.format(value) : null;
+    }
+
+    private DocumentState loadState(Long invoiceId) {
+        List<DocumentState> rows = loadState(invoiceId, "invoices", false);
+        if (rows.isEmpty()) {
+            rows = loadState(invoiceId, "invoices_archive", true);
+        }
+        if (rows.isEmpty()) {
+            throw ResourceNotFoundException.INVOICE;
+        }
+        return rows.get(0);
+    }
+
+    private List<DocumentState> loadState(Long invoiceId, String table, boolean archived) {
+        return jdbcTemplate.query(
+                "SELECT version, document_hash, document_version FROM " + table + " WHERE id = ?",
+                (rs, rowNum) -> new DocumentState(rs.getLong("version"), rs.getString("document_hash"),
+                        rs.getObject("document_version", Long.class), archived),
+                invoiceId);
+    }
+
+    private StoredDocument await(CompletableFuture<StoredDocument> future) {
+        try {
+            return future.get(renderTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("Invoice document is still rendering, please retry shortly");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while rendering invoice document");
+        }
+    }
+
+    private Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + ".html");
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static final class StoredDocument {
+        private final Long invoiceId;
+        private final Long version;
+        private final String hash;
+        private final Path path;
+        private final long size;
+
+        private StoredDocument(Long invoiceId, Long version, String hash, Path path, long size) {
+            this.invoiceId = invoiceId;
+            this.version = version;
+            this.hash = hash;
+            this.path = path;
+            this.size = size;
+        }
+
+        public Long getInvoiceId() { return invoiceId; }
+        public Long getVersion() { return version; }
+        public String getHash() { return hash; }
+        public Path getPath() { return path; }
+        public long getSize() { return size; }
+    }
+
+    private static final class DocumentState {
+        private final Long version;
+        private final String documentHash;
+        private final Long documentVersion;
+        private final boolean archived;
+
+        private DocumentState(Long version, String documentHash, Long documentVersion, boolean archived) {
+            this.version = version;
+            this.documentHash = documentHash;
+            this.documentVersion = documentVersion;
+            this.archived = archived;
+        }
+    }
+
+    private static final class RenderedInvoice {
+        private final Long version;
+        private final byte[] bytes;
+
+        private RenderedInvoice(Long version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.model.ServiceItem;
+import com.vehicleservice.model.ServiceRequest;
+import com.vehicleservice.repository.InvoiceRepository;
+import com.vehicleservice.repository.ServiceItemRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Owns invoice totals, using the shop's compiled pricing rules. Without a discount cap
+ * every amount is a sum of per-line amounts, so a single item add/update/delete moves
+ * the stored totals by that line's contribution in one UPDATE instead of re-reading the
+ * invoice's items. That only holds while the totals were priced with the current rule
+ * set, so each invoice records the rule-set version it was priced with; after a rule
+ * change, and always for a capped customer, the invoice is repriced as a whole. Those
+ * UPDATEs bypass Hibernate, so an Invoice already loaded in the session is refreshed
+ * after them.
+ *
+ * Those UPDATEs bypass the audit listener too, so each price change is audited here as
+ * an Invoice UPDATE with the before and after amounts.
+ *
+ * Items are frozen once payment starts: the open intent was created for the current
+ * total, and a paid invoice's total is already in the revenue rollup and its history.
+ */
+@Service
+public class InvoicePricingService {
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private ServiceItemRepository serviceItemRepository;
+
+    @Autowired
+    private PricingRuleEngine pricingRuleEngine;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    public Totals priceLine(ServiceItem item, Long customerId) {
+        return pricingRuleEngine.current().priceLine(item, customerId);
+    }
+
+    public Totals priceItems(List<ServiceItem> items, Long customerId) {
+        return items == null ? Totals.ZERO : pricingRuleEngine.current().priceItems(items, customerId);
+    }
+
+    /**
+     * Sets the invoice's totals from its full set of items. Used when the item list is
+     * built or replaced as a whole.
+     */
+    public void applyTotals(Invoice invoice, List<ServiceItem> items) {
+        CompiledRuleSet rules = pricingRuleEngine.current();
+        Totals totals = items == null ? Totals.ZERO : rules.priceItems(items, customerIdOf(invoice));
+        invoice.setSubtotal(totals.getSubtotal());
+        invoice.setTaxAmount(totals.getTax());
+        invoice.setDiscountAmount(totals.getDiscount());
+        invoice.setTotalAmount(totals.getTotal());
+        invoice.setPricingVersion(rules.getVersion());
+    }
+
+    /**
+     * Moves the stored totals of the invoice from removed's contribution to added's.
+     * Either side may be null (pure add or pure delete). Call after the item change has
+     * been saved: a capped or outdated invoice is repriced from its items as they now
+     * stand. The invoice's version is bumped even when the amounts do not move. Throws
+     * ConflictException, rolling the item change back with the caller's transaction, if
+     * the invoice is paid or has a payment in progress.
+     */
+    public void applyLineChange(Long invoiceId, ServiceItem removed, ServiceItem added) {
+        if (invoiceId == null) {
+            return;
+        }
+        InvoiceRepository.PricingView pricing = invoiceRepository.findPricingViewForUpdate(invoiceId).orElse(null);
+        if (pricing == null) {
+            return;
+        }
+        if ("COMPLETED".equals(pricing.getStatus())) {
+            throw new ConflictException("Invoice is already paid; its items can no longer change");
+        }
+        if (pricing.getOpenIntentId() != null) {
+            throw new ConflictException("Invoice has a payment in progress; its items can no longer change");
+        }
+        CompiledRuleSet rules = pricingRuleEngine.current();
+        Long customerId = pricing.getCustomerId();
+        if (!rules.hasCap(customerId) && rules.getVersion().equals(pricing.getPricingVersion())) {
+            Totals delta = rules.priceLine(added, customerId).minus(rules.priceLine(removed, customerId));
+            // Repriced under another rule set since it was read: fall through to a full reprice
+            if (invoiceRepository.applyTotalsDelta(invoiceId, delta.getSubtotal(), delta.getTax(),
+                    delta.getDiscount(), delta.getTotal(), rules.getVersion()) > 0) {
+                // Same rounding as the UPDATE applies to each column
+                auditTotals(invoiceId, pricing, sum(pricing.getSubtotal(), delta.getSubtotal()),
+                        sum(pricing.getTaxAmount(), delta.getTax()), sum(pricing.getDiscountAmount(), delta.getDiscount()),
+                        sum(pricing.getTotalAmount(), delta.getTotal()));
+                refreshIfLoaded(invoiceId);
+                return;
+            }
+        }
+        Totals totals = rules.priceItems(serviceItemRepository.findByInvoiceId(invoiceId), customerId);
+        invoiceRepository.setTotals(invoiceId, totals.getSubtotal(), totals.getTax(),
+                totals.getDiscount(), totals.getTotal(), rules.getVersion());
+        auditTotals(invoiceId, pricing, totals.getSubtotal(), totals.getTax(), totals.getDiscount(), totals.getTotal());
+        refreshIfLoaded(invoiceId);
+    }
+
+    private void auditTotals(Long invoiceId, InvoiceRepository.PricingView before, double subtotal, double tax,
+                             double discount, double total) {
+        Map<String, Object[]> changes = new LinkedHashMap<>();
+        addChange(changes, "subtotal", before.getSubtotal(), subtotal);
+        addChange(changes, "taxAmount", before.getTaxAmount(), tax);
+        addChange(changes, "discountAmount", before.getDiscountAmount(), discount);
+        addChange(changes, "totalAmount", before.getTotalAmount(), total);
+        if (!changes.isEmpty()) {
+            auditLogService.recordDirectChange("Invoice", invoiceId, "UPDATE", changes);
+        }
+    }
+
+    private static void addChange(Map<String, Object[]> changes, String field, Double before, double after) {
+        if (!Objects.equals(before, after)) {
+            changes.put(field, new Object[] {before, after});
+        }
+    }
+
+    private static double sum(Double stored, double delta) {
+        return round((stored != null ? stored : 0.0) + delta);
+    }
+
+    /**
+     * Re-reads the invoice's totals and version if the session holds it, so a later flush
+     * neither writes back the old totals nor fails the optimistic lock on the old version.
+     * An invoice the session has not loaded is left alone: it is read fresh when touched.
+     */
+    private void refreshIfLoaded(Long invoiceId) {
+        Invoice invoice = entityManager.getReference(Invoice.class, invoiceId);
+        if (Hibernate.isInitialized(invoice)) {
+            entityManager.refresh(invoice);
+        }
+    }
+
+    private static Long customerIdOf(Invoice invoice) {
+        ServiceRequest serviceRequest = invoice.getServiceRequest();
+        if (serviceRequest == null || serviceRequest.getVehicle() == null
+                || serviceRequest.getVehicle().getUser() == null) {
+            return null;
+        }
+        return serviceRequest.getVehicle().getUser().getId();
+    }
+
+    private static double round(double amount) {
+        return CompiledRuleSet.round(amount);
+    }
+
+    public static final class Totals {
+        public static final Totals ZERO = new Totals(0.0, 0.0, 0.0);
+
+        private final double subtotal;
+        private final double tax;
+        private final double discount;
+
+        public Totals(double subtotal, double tax, double discount) {
+            this.subtotal = subtotal;
+            this.tax = tax;
+            this.discount = discount;
+        }
+
+        public double getSubtotal() { return subtotal; }
+        public double getTax() { return tax; }
+        public double getDiscount() { return discount; }
+        public double getTotal() { return round(subtotal - discount + tax); }
+
+        public Totals plus(Totals other) {
+            return new Totals(round(subtotal + other.subtotal), round(tax + other.tax), round(discount + other.discount));
+        }
+
+        public Totals minus(Totals other) {
+            return new Totals(round(subtotal - other.subtotal), round(tax - other.tax), round(discount - other.discount));
+        }
+
+    }
+}
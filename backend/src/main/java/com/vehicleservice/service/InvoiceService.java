@@ -2,22 +2,29 @@ package com.vehicleservice.service;
 
 import com.vehicleservice.dto.InvoiceDTO;
 import com.vehicleservice.dto.ServiceItemDTO;
+import com.vehicleservice.event.DomainEvent;
+import com.vehicleservice.exception.ResourceNotFoundException;
 import com.vehicleservice.model.Invoice;
 import com.vehicleservice.model.ServiceItem;
 import com.vehicleservice.model.ServiceRequest;
 import com.vehicleservice.repository.InvoiceRepository;
 import com.vehicleservice.repository.ServiceItemRepository;
 import com.vehicleservice.repository.ServiceRequestRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class InvoiceService {
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceService.class);
 
     @Autowired
     private InvoiceRepository invoiceRepository;
@@ -28,45 +35,55 @@ public class InvoiceService {
     @Autowired
     private ServiceItemRepository serviceItemRepository;
 
+    @Autowired
+    private InvoicePricingService invoicePricingService;
+
+    @Autowired
+    private VehicleHistoryService vehicleHistoryService;
+
+    @Autowired
+    private AnalyticsRollupService analyticsRollupService;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private DomainEventOutbox domainEventOutbox;
+
+    @Timed(value = "invoice.create", percentiles = {0.5, 0.99, 0.999})
     @Transactional
     public InvoiceDTO createInvoice(InvoiceDTO dto) {
-        System.out.println("=== INVOICE CREATION START ===");
-        System.out.println("Creating invoice with service request ID: " + dto.getServiceRequestId());
-        System.out.println("Service items count: " + (dto.getServiceItems() != null ? dto.getServiceItems().size() : 0));
-        
-        if (dto.getServiceItems() != null) {
-            for (int i = 0; i < dto.getServiceItems().size(); i++) {
-                ServiceItemDTO item = dto.getServiceItems().get(i);
-                System.out.println("Service Item " + (i+1) + ": " + item.getName() + " - $" + item.getPrice() + " x" + item.getQuantity());
+        int itemCount = dto.getServiceItems() != null ? dto.getServiceItems().size() : 0;
+        logger.debug("Creating invoice for serviceRequestId={} itemCount={}", dto.getServiceRequestId(), itemCount);
+        if (logger.isTraceEnabled() && dto.getServiceItems() != null) {
+            for (ServiceItemDTO item : dto.getServiceItems()) {
+                logger.trace("Invoice item name={} price={} quantity={}", item.getName(), item.getPrice(), item.getQuantity());
             }
         }
         
         Invoice invoice = new Invoice();
         updateInvoiceFromDTO(invoice, dto);
         invoice = invoiceRepository.save(invoice);
-        System.out.println("Invoice saved with ID: " + invoice.getId());
+        logger.debug("Invoice saved invoiceId={}", invoice.getId());
         
         // Explicitly save service items to ensure they are stored in the database
         if (invoice.getServiceItems() != null && !invoice.getServiceItems().isEmpty()) {
-            System.out.println("Saving " + invoice.getServiceItems().size() + " service items to service_items table");
             for (ServiceItem item : invoice.getServiceItems()) {
                 try {
                     item.setInvoice(invoice);
-                    System.out.println("About to save service item: " + item.getName() + " with invoice ID: " + invoice.getId());
                     ServiceItem savedItem = serviceItemRepository.save(item);
-                    System.out.println("✓ Service item saved successfully with ID: " + savedItem.getId() + ", Name: " + savedItem.getName());
+                    logger.trace("Service item saved itemId={} invoiceId={}", savedItem.getId(), invoice.getId());
                 } catch (Exception e) {
-                    System.err.println("✗ Error saving service item: " + item.getName());
-                    System.err.println("Error details: " + e.getMessage());
-                    e.printStackTrace();
+                    logger.error("Error saving service item {} for invoiceId={}", item.getName(), invoice.getId(), e);
                 }
             }
         } else {
-            System.out.println("No service items to save - invoice.getServiceItems() is null or empty");
+            logger.debug("No service items to save for invoiceId={}", invoice.getId());
         }
         
-        System.out.println("=== INVOICE CREATION END ===");
-        return convertToDTO(invoice);
+        InvoiceDTO result = convertToDTO(invoice);
+        domainEventOutbox.append(DomainEvent.INVOICE, result.getId(), "CREATED", result);
+        return result;
     }
 
     @Transactional(readOnly = true)
@@ -78,71 +95,88 @@ public class InvoiceService {
 
     @Transactional(readOnly = true)
     public InvoiceDTO getInvoiceById(Long id) {
-        Invoice invoice = invoiceRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Invoice not found"));
-        return convertToDTO(invoice);
+        return invoiceRepository.findById(id)
+                .map(this::convertToDTO)
+                .or(() -> archiveService.findInvoice(id))
+                .orElseThrow(() -> ResourceNotFoundException.INVOICE);
     }
 
     @Transactional
     public InvoiceDTO updateInvoice(Long id, InvoiceDTO dto) {
-        Invoice invoice = invoiceRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Invoice not found"));
+        // Items are replaced wholesale, so the version must move even if the invoice row does not
+        Invoice invoice = invoiceRepository.findByIdForChange(id)
+                .orElseThrow(() -> ResourceNotFoundException.INVOICE);
+        String previousStatus = invoice.getStatus();
+        AnalyticsRollupService.Contribution previousRevenue = analyticsRollupService.revenueOf(invoice);
         updateInvoiceFromDTO(invoice, dto);
         invoice = invoiceRepository.save(invoice);
-        return convertToDTO(invoice);
+        analyticsRollupService.applyChange(previousRevenue, analyticsRollupService.revenueOf(invoice));
+        if ("COMPLETED".equals(invoice.getStatus()) && !"COMPLETED".equals(previousStatus)
+                && invoice.getPaidAt() != null) {
+            vehicleHistoryService.recordInvoicePaid(invoice);
+        }
+        InvoiceDTO result = convertToDTO(invoice);
+        domainEventOutbox.append(DomainEvent.INVOICE, id, "UPDATED", result);
+        return result;
     }
 
     @Transactional
     public void deleteInvoice(Long id) {
+        invoiceRepository.findById(id).ifPresent(invoice -> {
+            analyticsRollupService.applyChange(analyticsRollupService.revenueOf(invoice), null);
+            domainEventOutbox.append(DomainEvent.INVOICE, id, "DELETED", Map.of("id", id));
+        });
         invoiceRepository.deleteById(id);
     }
 
+    @Timed(value = "invoice.payment", percentiles = {0.5, 0.99, 0.999})
     @Transactional
     public InvoiceDTO processPayment(Long id, String paymentMethod, String cardLastFour) {
-        System.out.println("=== PAYMENT PROCESSING START ===");
-        System.out.println("Processing payment for invoice ID: " + id);
-        System.out.println("Payment method: " + paymentMethod);
-        System.out.println("Card last four: " + cardLastFour);
+        logger.debug("Processing payment invoiceId={} paymentMethod={}", id, paymentMethod);
         
         Invoice invoice = invoiceRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Invoice not found"));
-        
-        System.out.println("Found invoice with status: " + invoice.getStatus());
+                .orElseThrow(() -> ResourceNotFoundException.INVOICE);
         
+        String previousStatus = invoice.getStatus();
+        AnalyticsRollupService.Contribution previousRevenue = analyticsRollupService.revenueOf(invoice);
         invoice.setStatus("COMPLETED");
         invoice.setPaidAt(LocalDateTime.now());
         invoice.setPaymentMethod(paymentMethod);
         invoice.setCardLastFour(cardLastFour);
         
-        System.out.println("Updated invoice status to: " + invoice.getStatus());
-        
         invoice = invoiceRepository.save(invoice);
-        System.out.println("Invoice saved successfully with ID: " + invoice.getId());
+        analyticsRollupService.applyChange(previousRevenue, analyticsRollupService.revenueOf(invoice));
+        vehicleHistoryService.recordInvoicePaid(invoice);
+        logger.debug("Payment recorded invoiceId={} status {} -> {}", invoice.getId(), previousStatus, invoice.getStatus());
         
         InvoiceDTO result = convertToDTO(invoice);
-        System.out.println("Converted to DTO successfully");
-        System.out.println("=== PAYMENT PROCESSING END ===");
-        
+        domainEventOutbox.append(DomainEvent.INVOICE, id, "PAID", result);
         return result;
     }
 
     @Transactional(readOnly = true)
     public List<InvoiceDTO> getInvoicesByServiceRequestId(Long serviceRequestId) {
-        ServiceRequest serviceRequest = serviceRequestRepository.findById(serviceRequestId)
-                .orElseThrow(() -> new RuntimeException("Service request not found"));
-        return invoiceRepository.findByServiceRequest(serviceRequest).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        ServiceRequest serviceRequest = serviceRequestRepository.findById(serviceRequestId).orElse(null);
+        if (serviceRequest == null && !archiveService.isServiceRequestArchived(serviceRequestId)) {
+            throw ResourceNotFoundException.SERVICE_REQUEST;
+        }
+        // Older paid invoices may already be archived while the request is still hot
+        List<InvoiceDTO> invoices = archiveService.findInvoicesByServiceRequestId(serviceRequestId);
+        if (serviceRequest != null) {
+            invoiceRepository.findByServiceRequest(serviceRequest).stream()
+                    .map(this::convertToDTO)
+                    .forEach(invoices::add);
+        }
+        return invoices;
     }
 
     private void updateInvoiceFromDTO(Invoice invoice, InvoiceDTO dto) {
         if (dto.getServiceRequestId() != null) {
             ServiceRequest serviceRequest = serviceRequestRepository.findById(dto.getServiceRequestId())
-                    .orElseThrow(() -> new RuntimeException("Service request not found"));
+                    .orElseThrow(() -> ResourceNotFoundException.SERVICE_REQUEST);
             invoice.setServiceRequest(serviceRequest);
         }
 
-        invoice.setTotalAmount(dto.getTotalAmount());
         invoice.setStatus(dto.getStatus());
         invoice.setPaymentMethod(dto.getPaymentMethod());
         invoice.setCardLastFour(dto.getCardLastFour());
@@ -168,6 +202,9 @@ public class InvoiceService {
                 invoice.getServiceItems().add(item);
             }
         }
+
+        // Totals come from the items; any client-supplied totalAmount is ignored
+        invoicePricingService.applyTotals(invoice, invoice.getServiceItems());
     }
 
     private InvoiceDTO convertToDTO(Invoice invoice) {
@@ -178,11 +215,14 @@ public class InvoiceService {
         if (invoice.getServiceRequest() != null) {
             dto.setServiceRequestId(invoice.getServiceRequest().getId());
         } else {
-            System.out.println("Warning: Invoice " + invoice.getId() + " has no service request");
+            logger.warn("Invoice {} has no service request", invoice.getId());
             dto.setServiceRequestId(null);
         }
         
         dto.setTotalAmount(invoice.getTotalAmount());
+        dto.setSubtotal(invoice.getSubtotal());
+        dto.setTaxAmount(invoice.getTaxAmount());
+        dto.setDiscountAmount(invoice.getDiscountAmount());
         dto.setStatus(invoice.getStatus());
         dto.setCreatedAt(invoice.getCreatedAt());
         dto.setPaidAt(invoice.getPaidAt());
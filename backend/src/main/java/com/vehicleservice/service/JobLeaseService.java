@@ -0,0 +1,124 @@
+package com.vehicleservice.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cluster-wide leases on job_leases rows, so a batch job runs on one node at a time.
+ * Every statement is a single-row UPDATE conditioned on the holder, so taking, renewing
+ * and releasing a lease never waits on anything but that row. A node that dies simply
+ * stops renewing; another node takes over once lease_until has passed and resumes from
+ * the persisted watermark.
+ */
+@Service
+public class JobLeaseService {
+
+    private final String owner = UUID.randomUUID().toString();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes (or re-takes) the named lease for leaseSeconds. Returns the job's persisted
+     * state, or null when another node holds an unexpired lease.
+     */
+    public Lease tryAcquire(String name, long leaseSeconds) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jdbcTemplate.update("UPDATE job_leases SET owner = ?, lease_until = ? "
+                        + "WHERE name = ? AND (lease_until IS NULL OR lease_until < ? OR owner = ?)",
+                owner, Timestamp.valueOf(now.plusSeconds(leaseSeconds)), name, Timestamp.valueOf(now), owner);
+        return updated == 0 ? null : find(name);
+    }
+
+    /**
+     * The job's persisted state, whoever holds the lease; null for an unknown job.
+     */
+    public Lease find(String name) {
+        List<Lease> rows = jdbcTemplate.query(
+                "SELECT owner, lease_until, watermark, pass_started_at, last_completed_at FROM job_leases WHERE name = ?",
+                (rs, rowNum) -> new Lease(name, rs.getString("owner"), toLocalDateTime(rs.getTimestamp("lease_until")),
+                        rs.getLong("watermark"), toLocalDateTime(rs.getTimestamp("pass_started_at")),
+                        toLocalDateTime(rs.getTimestamp("last_completed_at"))),
+                name);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Marks the start of a fresh pass over the job's input.
+     */
+    public boolean startPass(String name, long leaseSeconds) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update("UPDATE job_leases SET watermark = 0, pass_started_at = ?, lease_until = ? "
+                        + "WHERE name = ? AND owner = ?",
+                Timestamp.valueOf(now), Timestamp.valueOf(now.plusSeconds(leaseSeconds)), name, owner) == 1;
+    }
+
+    /**
+     * Persists progress and extends the lease. False means the lease was lost (it ran
+     * out and another node took it), and the caller must stop.
+     */
+    public boolean checkpoint(String name, long watermark, long leaseSeconds) {
+        return jdbcTemplate.update("UPDATE job_leases SET watermark = ?, lease_until = ? WHERE name = ? AND owner = ?",
+                watermark, Timestamp.valueOf(LocalDateTime.now().plusSeconds(leaseSeconds)), name, owner) == 1;
+    }
+
+    /**
+     * Records a completed pass and gives the lease up.
+     */
+    public void completePass(String name) {
+        jdbcTemplate.update("UPDATE job_leases SET watermark = 0, pass_started_at = NULL, last_completed_at = ?, "
+                + "owner = NULL, lease_until = NULL WHERE name = ? AND owner = ?",
+                Timestamp.valueOf(LocalDateTime.now()), name, owner);
+    }
+
+    /**
+     * Gives the lease up, keeping the watermark so the next holder resumes the pass.
+     */
+    public void release(String name) {
+        jdbcTemplate.update("UPDATE job_leases SET owner = NULL, lease_until = NULL WHERE name = ? AND owner = ?",
+                name, owner);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    public static final class Lease {
+        private final String name;
+        private final String owner;
+        private final LocalDateTime leaseUntil;
+        private final long watermark;
+        private final LocalDateTime passStartedAt;
+        private final LocalDateTime lastCompletedAt;
+
+        private Lease(String name, String owner, LocalDateTime leaseUntil, long watermark,
+                      LocalDateTime passStartedAt, LocalDateTime lastCompletedAt) {
+            this.name = name;
+            this.owner = owner;
+            this.leaseUntil = leaseUntil;
+            this.watermark = watermark;
+            this.passStartedAt = passStartedAt;
+            this.lastCompletedAt = lastCompletedAt;
+        }
+
+        public String getName() { return name; }
+        public String getOwner() { return owner; }
+        public LocalDateTime getLeaseUntil() { return leaseUntil; }
+        public long getWatermark() { return watermark; }
+        public LocalDateTime getPassStartedAt() { return passStartedAt; }
+        public LocalDateTime getLastCompletedAt() { return lastCompletedAt; }
+
+        /**
+         * True while a pass is under way (possibly started by a node that died).
+         */
+        public boolean isPassInProgress() {
+            return passStartedAt != null;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.MaintenanceReminderDTO;
+import com.vehicleservice.exception.ConflictException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Raises "oil change due"-style reminders from each vehicle's mileage and last service.
+ *
+ * A pass walks vehicles in primary-key order, chunkSize rows at a time (keyset paging,
+ * so every chunk is a short range read and never a growing OFFSET scan). Each chunk is
+ * read with a plain autocommit SELECT, which InnoDB serves from a snapshot without row
+ * locks, so the pass never blocks vehicle writes. Rules are evaluated on a fork/join
+ * pool and the due reminders written with one batched insert per chunk; a reminder
+ * already raised for the (vehicle, type, cycle) unique key is left as it is, so
+ * re-evaluating a chunk is harmless, while any other failure still fails the pass. The last
+ * vehicle id of every chunk is persisted as the watermark together with the lease
+ * renewal, so a pass interrupted on one node is resumed, not restarted, by the next.
+ */
+@Service
+public class MaintenanceReminderService {
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceReminderService.class);
+
+    static final String JOB_NAME = "maintenance-reminders";
+
+    // Rows per fork/join leaf: small enough to spread a chunk across the pool
+    private static final int EVALUATE_THRESHOLD = 256;
+
+    private static final String CHUNK_SQL = "SELECT id, mileage, last_service_date, last_service_mileage, created_at "
+            + "FROM vehicles WHERE id > ? ORDER BY id LIMIT ?";
+
+    // Only the cycle's unique key may collide; unlike INSERT IGNORE this does not turn a
+    // missing vehicle or an oversized value into a warning
+    private static final String INSERT_SQL = "INSERT INTO maintenance_reminders "
+            + "(vehicle_id, reminder_type, cycle_key, reason, due_at, due_mileage, status, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, 'OPEN', ?) ON DUPLICATE KEY UPDATE vehicle_id = vehicle_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Value("${app.reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.reminders.rules:OIL_CHANGE:6:5000,TIRE_ROTATION:6:7500,BRAKE_CHECK:12:20000}")
+    private String rulesSpec;
+
+    @Value("${app.reminders.pass-interval-hours:24}")
+    private long passIntervalHours;
+
+    @Value("${app.reminders.chunk-size:2000}")
+    private int chunkSize;
+
+    @Value("${app.reminders.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${app.reminders.lead-days:14}")
+    private int leadDays;
+
+    @Value("${app.reminders.lead-miles:500}")
+    private int leadMiles;
+
+    private final ForkJoinPool evaluators;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile List<MaintenanceRule> rules = List.of();
+
+    public MaintenanceReminderService(@Value("${app.reminders.parallelism:4}") int parallelism) {
+        this.evaluators = new ForkJoinPool(parallelism);
+    }
+
+    @PostConstruct
+    public void init() {
+        rules = List.copyOf(MaintenanceRule.parse(rulesSpec));
+        logger.info("Maintenance reminder rules: {}", rulesSpec);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evaluators.shutdown();
+    }
+
+    /**
+     * Runs a pass when one is due (or resumes one another node left unfinished). Cheap
+     * to call often: with nothing to do it is one UPDATE and one SELECT.
+     */
+    @Scheduled(fixedDelayString = "${app.reminders.check-interval-ms:60000}")
+    public void runIfDue() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            run(false);
+        } catch (ConflictException e) {
+            // An admin-triggered pass is already running on this node
+        }
+    }
+
+    /**
+     * Runs a pass now unless another node holds the lease. force starts a pass even if
+     * the last one completed less than pass-interval-hours ago.
+     */
+    public PassResult run(boolean force) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("A maintenance reminder pass is already running");
+        }
+        try {
+            JobLeaseService.Lease lease = jobLeaseService.tryAcquire(JOB_NAME, leaseSeconds);
+            if (lease == null) {
+                return PassResult.skipped("Another instance holds the lease");
+            }
+            try {
+                if (!lease.isPassInProgress()) {
+                    boolean recent = lease.getLastCompletedAt() != null
+                            && lease.getLastCompletedAt().isAfter(LocalDateTime.now().minusHours(passIntervalHours));
+                    if (recent && !force) {
+                        jobLeaseService.release(JOB_NAME);
+                        return PassResult.skipped("Last pass completed at " + lease.getLastCompletedAt());
+                    }
+                    jobLeaseService.startPass(JOB_NAME, leaseSeconds);
+                }
+                return scan(lease.isPassInProgress() ? lease.getWatermark() : 0L);
+            } catch (RuntimeException e) {
+                // Keep the watermark; the next run resumes after the last completed chunk
+                jobLeaseService.release(JOB_NAME);
+                throw e;
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public List<MaintenanceReminderDTO> getReminders(Long vehicleId, boolean includeClosed) {
+        return jdbcTemplate.query("SELECT id, vehicle_id, reminder_type, reason, due_at, due_mileage, status, "
+                        + "created_at, closed_at FROM maintenance_reminders WHERE vehicle_id = ?"
+                        + (includeClosed ? "" : " AND status = 'OPEN'") + " ORDER BY created_at DESC",
+                (rs, rowNum) -> {
+                    MaintenanceReminderDTO dto = new MaintenanceReminderDTO();
+                    dto.setId(rs.getLong("id"));
+                    dto.setVehicleId(rs.getLong("vehicle_id"));
+                    dto.setReminderType(rs.getString("reminder_type"));
+                    dto.setReason(rs.getString("reason"));
+                    dto.setDueAt(toLocalDateTime(rs.getTimestamp("due_at")));
+                    dto.setDueMileage(rs.getObject("due_mileage", Integer.class));
+                    dto.setStatus(rs.getString("status"));
+                    dto.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+                    dto.setClosedAt(toLocalDateTime(rs.getTimestamp("closed_at")));
+                    return dto;
+                },
+                vehicleId);
+    }
+
+    /**
+     * Settles the vehicle's open reminders; called when it is serviced, in that transaction.
+     */
+    public void closeOpenReminders(Long vehicleId) {
+        jdbcTemplate.update("UPDATE maintenance_reminders SET status = 'CLOSED', closed_at = ? "
+                + "WHERE vehicle_id = ? AND status = 'OPEN'", Timestamp.valueOf(LocalDateTime.now()), vehicleId);
+    }
+
+    public Map<String, Object> getStatus() {
+        JobLeaseService.Lease lease = jobLeaseService.find(JOB_NAME);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("running", running.get());
+        status.put("rules", rulesSpec);
+        if (lease != null) {
+            status.put("passInProgress", lease.isPassInProgress());
+            status.put("watermark", lease.getWatermark());
+            status.put("passStartedAt", lease.getPassStartedAt());
+            status.put("lastCompletedAt", lease.getLastCompletedAt());
+            status.put("leaseUntil", lease.getLeaseUntil());
+        }
+        return status;
+    }
+
+    private PassResult scan(long startAfter) {
+        long started = System.nanoTime();
+        long watermark = startAfter;
+        int scanned = 0;
+        int due = 0;
+        while (true) {
+            List<MaintenanceRule.VehicleSnapshot> chunk = jdbcTemplate.query(CHUNK_SQL,
+                    (rs, rowNum) -> new MaintenanceRule.VehicleSnapshot(rs.getLong("id"),
+                            rs.getObject("mileage", Integer.class),
+                            toLocalDateTime(rs.getTimestamp("last_service_date")),
+                            rs.getObject("last_service_mileage", Integer.class),
+                            toLocalDateTime(rs.getTimestamp("created_at"))),
+                    watermark, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            List<MaintenanceRule.Due> reminders = evaluators.invoke(
+                    new EvaluateTask(chunk, 0, chunk.size(), rules, LocalDateTime.now(), leadDays, leadMiles));
+            insert(reminders);
+            due += reminders.size();
+            scanned += chunk.size();
+            watermark = chunk.get(chunk.size() - 1).getId();
+            if (!jobLeaseService.checkpoint(JOB_NAME, watermark, leaseSeconds)) {
+                logger.warn("Lost the {} lease at vehicle id {}; stopping", JOB_NAME, watermark);
+                return new PassResult(false, scanned, due, "Lease lost at vehicle id " + watermark);
+            }
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        jobLeaseService.completePass(JOB_NAME);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Maintenance reminder pass scanned {} vehicles, {} reminders due, in {} ms",
+                scanned, due, elapsedMs);
+        return new PassResult(true, scanned, due, null);
+    }
+
+    private void insert(List<MaintenanceRule.Due> due) {
+        if (due.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // Reminders already raised for the same cycle are skipped by the unique key
+        jdbcTemplate.batchUpdate(INSERT_SQL, due, due.size(), (ps, reminder) -> {
+            ps.setLong(1, reminder.getVehicleId());
+            ps.setString(2, reminder.getType());
+            ps.setString(3, reminder.getCycleKey());
+            ps.setString(4, reminder.getReason());
+            if (reminder.getDueAt() != null) {
+                ps.setTimestamp(5, Timestamp.valueOf(reminder.getDueAt()));
+            } else {
+                ps.setNull(5, Types.TIMESTAMP);
+            }
+            if (reminder.getDueMileage() != null) {
+                ps.setInt(6, reminder.getDueMileage());
+            } else {
+                ps.setNull(6, Types.INTEGER);
+            }
+            ps.setTimestamp(7, now);
+        });
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * Evaluates every rule against a slice of a chunk, splitting until slices are small.
+     */
+    private static final class EvaluateTask extends RecursiveTask<List<MaintenanceRule.Due>> {
+        private final List<MaintenanceRule.VehicleSnapshot> vehicles;
+        private final int from;
+        private final int to;
+        private final List<MaintenanceRule> rules;
+        private final LocalDateTime now;
+        private final int leadDays;
+        private final int leadMiles;
+
+        private EvaluateTask(List<MaintenanceRule.VehicleSnapshot> vehicles, int from, int to,
+                             List<MaintenanceRule> rules, LocalDateTime now, int leadDays, int leadMiles) {
+            this.vehicles = vehicles;
+            this.from = from;
+            this.to = to;
+            this.rules = rules;
+            this.now = now;
+            this.leadDays = leadDays;
+            this.leadMiles = leadMiles;
+        }
+
+        @Override
+        protected List<MaintenanceRule.Due> compute() {
+            if (to - from <= EVALUATE_THRESHOLD) {
+                List<MaintenanceRule.Due> due = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    MaintenanceRule.VehicleSnapshot vehicle = vehicles.get(i);
+                    for (MaintenanceRule rule : rules) {
+                        MaintenanceRule.Due reminder = rule.evaluate(vehicle, now, leadDays, leadMiles);
+                        if (reminder != null) {
+                            due.add(reminder);
+                        }
+                    }
+                }
+                return due;
+            }
+            int mid = (from + to) >>> 1;
+            EvaluateTask left = new EvaluateTask(vehicles, from, mid, rules, now, leadDays, leadMiles);
+            left.fork();
+            List<MaintenanceRule.Due> right =
+                    new EvaluateTask(vehicles, mid, to, rules, now, leadDays, leadMiles).compute();
+            List<MaintenanceRule.Due> due = left.join();
+            due.addAll(right);
+            return due;
+        }
+    }
+
+    public static final class PassResult {
+        private final boolean completed;
+        private final int vehiclesScanned;
+        private final int remindersDue;
+        private final String message;
+
+        private PassResult(boolean completed, int vehiclesScanned, int remindersDue, String message) {
+            this.completed = completed;
+            this.vehiclesScanned = vehiclesScanned;
+            this.remindersDue = remindersDue;
+            this.message = message;
+        }
+
+        private static PassResult skipped(String message) {
+            return new PassResult(false, 0, 0, message);
+        }
+
+        public boolean isCompleted() { return completed; }
+        public int getVehiclesScanned() { return vehiclesScanned; }
+        // Includes reminders already raised by an earlier pass for the same service cycle
+        public int getRemindersDue() { return remindersDue; }
+        public String getMessage() { return message; }
+    }
+}
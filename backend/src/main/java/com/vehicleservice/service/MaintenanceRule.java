@@ -0,0 +1,139 @@
+package com.vehicleservice.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One kind of periodic maintenance: due intervalMonths after the last service or
+ * intervalMiles driven since it, whichever comes first. A zero interval disables that
+ * half of the rule. Rules are configured as "TYPE:months:miles" entries in
+ * app.reminders.rules.
+ */
+public final class MaintenanceRule {
+
+    private final String type;
+    private final int intervalMonths;
+    private final int intervalMiles;
+
+    public MaintenanceRule(String type, int intervalMonths, int intervalMiles) {
+        if (type == null || type.isBlank() || type.length() > 32) {
+            throw new IllegalArgumentException("Reminder type must be 1 to 32 characters: " + type);
+        }
+        if (intervalMonths < 0 || intervalMiles < 0 || (intervalMonths == 0 && intervalMiles == 0)) {
+            throw new IllegalArgumentException("Reminder " + type + " needs a positive month or mile interval");
+        }
+        this.type = type.trim().toUpperCase();
+        this.intervalMonths = intervalMonths;
+        this.intervalMiles = intervalMiles;
+    }
+
+    public static List<MaintenanceRule> parse(String spec) {
+        List<MaintenanceRule> rules = new ArrayList<>();
+        if (spec == null) {
+            return rules;
+        }
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Expected TYPE:months:miles, got " + entry.trim());
+            }
+            rules.add(new MaintenanceRule(parts[0], Integer.parseInt(parts[1].trim()), Integer.parseInt(parts[2].trim())));
+        }
+        return rules;
+    }
+
+    public String getType() { return type; }
+    public int getIntervalMonths() { return intervalMonths; }
+    public int getIntervalMiles() { return intervalMiles; }
+
+    /**
+     * The reminder this rule raises for the vehicle, or null when it is not due within
+     * the lead window. Pure function of its arguments, so it can run on any thread.
+     */
+    public Due evaluate(VehicleSnapshot vehicle, LocalDateTime now, int leadDays, int leadMiles) {
+        boolean serviced = vehicle.lastServiceDate != null;
+        LocalDateTime cycleStart = serviced ? vehicle.lastServiceDate : vehicle.createdAt;
+
+        LocalDateTime dueAt = null;
+        String reason = null;
+        if (intervalMonths > 0 && cycleStart != null) {
+            dueAt = cycleStart.plusMonths(intervalMonths);
+            if (!now.isBefore(dueAt.minusDays(leadDays))) {
+                reason = intervalMonths + " months since " + (serviced ? "last service" : "registration");
+            }
+        }
+
+        // Without a reading at the last service the distance driven since is unknown
+        Integer dueMileage = null;
+        Integer baseline = serviced ? vehicle.lastServiceMileage : null;
+        if (intervalMiles > 0 && baseline != null) {
+            dueMileage = baseline + intervalMiles;
+            if (reason == null && vehicle.mileage != null && vehicle.mileage >= dueMileage - leadMiles) {
+                reason = intervalMiles + " miles since last service";
+            }
+        }
+
+        if (reason == null) {
+            return null;
+        }
+        String cycleKey = serviced ? vehicle.lastServiceDate.truncatedTo(ChronoUnit.SECONDS).toString() : "NEW";
+        return new Due(vehicle.id, type, cycleKey, label() + " due: " + reason, dueAt, dueMileage);
+    }
+
+    private String label() {
+        String words = type.replace('_', ' ').toLowerCase();
+        return Character.toUpperCase(words.charAt(0)) + words.substring(1);
+    }
+
+    /**
+     * The columns of vehicles the rules look at.
+     */
+    public static final class VehicleSnapshot {
+        private final long id;
+        private final Integer mileage;
+        private final LocalDateTime lastServiceDate;
+        private final Integer lastServiceMileage;
+        private final LocalDateTime createdAt;
+
+        public VehicleSnapshot(long id, Integer mileage, LocalDateTime lastServiceDate, Integer lastServiceMileage,
+                               LocalDateTime createdAt) {
+            this.id = id;
+            this.mileage = mileage;
+            this.lastServiceDate = lastServiceDate;
+            this.lastServiceMileage = lastServiceMileage;
+            this.createdAt = createdAt;
+        }
+
+        public long getId() { return id; }
+    }
+
+    public static final class Due {
+        private final long vehicleId;
+        private final String type;
+        private final String cycleKey;
+        private final String reason;
+        private final LocalDateTime dueAt;
+        private final Integer dueMileage;
+
+        private Due(long vehicleId, String type, String cycleKey, String reason, LocalDateTime dueAt, Integer dueMileage) {
+            this.vehicleId = vehicleId;
+            this.type = type;
+            this.cycleKey = cycleKey;
+            this.reason = reason;
+            this.dueAt = dueAt;
+            this.dueMileage = dueMileage;
+        }
+
+        public long getVehicleId() { return vehicleId; }
+        public String getType() { return type; }
+        public String getCycleKey() { return cycleKey; }
+        public String getReason() { return reason; }
+        public LocalDateTime getDueAt() { return dueAt; }
+        public Integer getDueMileage() { return dueMileage; }
+    }
+}
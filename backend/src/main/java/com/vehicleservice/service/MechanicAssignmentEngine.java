@@ -0,0 +1,407 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.MechanicWorkloadDTO;
+import com.vehicleservice.dto.ServiceRequestDTO;
+import com.vehicleservice.event.ServiceRequestEvent;
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.exception.ValidationException;
+import com.vehicleservice.model.ServiceRequest;
+import com.vehicleservice.model.User;
+import com.vehicleservice.repository.ServiceRequestRepository;
+import com.vehicleservice.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Picks the least-loaded mechanic for a service request without touching the database.
+ * Each mechanic's open jobs and estimated minutes are held in memory, rebuilt from
+ * service_requests at startup and kept current from ServiceRequestEvents. Unassigned
+ * requests wait in a queue ordered by priority, then preferred date.
+ */
+@Service
+public class MechanicAssignmentEngine {
+    private static final Logger logger = LoggerFactory.getLogger(MechanicAssignmentEngine.class);
+
+    static final Set<String> CLOSED_STATUSES = Set.of("COMPLETED", "CANCELLED");
+
+    private static final Map<String, Integer> DEFAULT_DURATIONS = Map.of(
+            "WIPER_REPLACEMENT", 15,
+            "LIGHT_REPLACEMENT", 20,
+            "OIL_CHANGE", 30,
+            "BATTERY_REPLACEMENT", 30,
+            "TIRE_SERVICE", 45,
+            "BRAKE_SERVICE", 90,
+            "AC_SERVICE", 90,
+            "MAINTENANCE", 120,
+            "ENGINE_REPAIR", 240);
+
+    private static final Comparator<MechanicLoad> LOAD_ORDER = Comparator
+            .comparingLong((MechanicLoad load) -> load.estimatedMinutes)
+            .thenComparingInt(load -> load.openJobs)
+            .thenComparingLong(load -> load.mechanicId);
+
+    private static final Comparator<PendingRequest> PENDING_ORDER = Comparator
+            .comparingInt((PendingRequest pending) -> pending.priorityRank)
+            .thenComparing(pending -> pending.preferredDate)
+            .thenComparingLong(pending -> pending.requestId);
+
+    @Autowired
+    private ServiceRequestRepository serviceRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ServiceRequestService serviceRequestService;
+
+    @Value("${app.assignment.default-duration-minutes:60}")
+    private int defaultDurationMinutes;
+
+    // Load bookkeeping is a few map/tree operations; one lock keeps select-and-reserve atomic.
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final Map<Long, MechanicLoad> loadsByMechanic = new HashMap<>();
+    private final TreeSet<MechanicLoad> loadOrder = new TreeSet<>(LOAD_ORDER);
+    private final Map<Long, OpenJob> jobsByRequest = new HashMap<>();
+
+    private final ConcurrentSkipListSet<PendingRequest> pendingQueue = new ConcurrentSkipListSet<>(PENDING_ORDER);
+    private final Map<Long, PendingRequest> pendingById = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<User> mechanics = userRepository.findByRole("MECHANIC");
+        List<ServiceRequestRepository.OpenRequestView> openRequests =
+                serviceRequestRepository.findOpenRequests(CLOSED_STATUSES);
+
+        loadLock.lock();
+        try {
+            loadsByMechanic.clear();
+            loadOrder.clear();
+            jobsByRequest.clear();
+            for (User mechanic : mechanics) {
+                adjustLoad(mechanic.getId(), 0, 0);
+            }
+            for (ServiceRequestRepository.OpenRequestView request : openRequests) {
+                if (request.getMechanicId() != null) {
+                    int minutes = durationOf(request.getServiceType());
+                    jobsByRequest.put(request.getId(), new OpenJob(request.getMechanicId(), minutes));
+                    adjustLoad(request.getMechanicId(), 1, minutes);
+                }
+            }
+        } finally {
+            loadLock.unlock();
+        }
+
+        pendingQueue.clear();
+        pendingById.clear();
+        for (ServiceRequestRepository.OpenRequestView request : openRequests) {
+            if (request.getMechanicId() == null && "PENDING".equals(request.getStatus())) {
+                addPending(new PendingRequest(request.getId(), request.getPriority(), request.getPreferredDate(),
+                        durationOf(request.getServiceType())));
+            }
+        }
+        logger.info("Assignment engine rebuilt: {} mechanics, {} open jobs, {} pending requests",
+                mechanics.size(), jobsByRequest.size(), pendingById.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onServiceRequestEvent(ServiceRequestEvent event) {
+        ServiceRequestDTO request = event.getServiceRequest();
+        boolean closed = CLOSED_STATUSES.contains(request.getStatus());
+
+        if (closed || request.getMechanicId() != null) {
+            removePending(request.getId());
+        }
+        if (closed) {
+            releaseJob(request.getId());
+        } else if (request.getMechanicId() != null) {
+            recordJob(request.getId(), request.getMechanicId(), durationOf(request.getServiceType()));
+        } else if ("PENDING".equals(request.getStatus())) {
+            addPending(new PendingRequest(request.getId(), request.getPriority(), request.getPreferredDate(),
+                    durationOf(request.getServiceType())));
+        }
+    }
+
+    /**
+     * Assigns the request to the mechanic with the least estimated open work.
+     */
+    public ServiceRequestDTO autoAssign(Long requestId) {
+        PendingRequest pending = pendingById.get(requestId);
+        if (pending == null) {
+            ServiceRequest serviceRequest = serviceRequestRepository.findById(requestId)
+                    .orElseThrow(() -> ResourceNotFoundException.SERVICE_REQUEST);
+            if (CLOSED_STATUSES.contains(serviceRequest.getStatus())) {
+                throw new ValidationException("Service request is already closed");
+            }
+            pending = new PendingRequest(requestId, serviceRequest.getPriority(), serviceRequest.getPreferredDate(),
+                    durationOf(serviceRequest.getServiceType()));
+        }
+        return assign(pending);
+    }
+
+    /**
+     * Assigns up to max pending requests, highest priority and earliest preferred date first.
+     */
+    public List<ServiceRequestDTO> autoAssignPending(int max) {
+        List<ServiceRequestDTO> assigned = new ArrayList<>();
+        List<PendingRequest> failed = new ArrayList<>();
+        while (assigned.size() < max) {
+            PendingRequest next = pendingQueue.pollFirst();
+            if (next == null) {
+                break;
+            }
+            pendingById.remove(next.requestId, next);
+            try {
+                assigned.add(assign(next));
+            } catch (ConflictException e) {
+                addPending(next);
+                break;
+            } catch (RuntimeException e) {
+                logger.warn("Auto-assignment of service request {} failed: {}", next.requestId, e.getMessage());
+                // assign() queued it again; hold it back so this pass does not keep retrying it
+                removePending(next.requestId);
+                failed.add(next);
+            }
+        }
+        failed.forEach(this::addPending);
+        return assigned;
+    }
+
+    public List<MechanicWorkloadDTO> getWorkload() {
+        loadLock.lock();
+        try {
+            List<MechanicWorkloadDTO> workload = new ArrayList<>(loadOrder.size());
+            for (MechanicLoad load : loadOrder) {
+                workload.add(new MechanicWorkloadDTO(load.mechanicId, load.openJobs, load.estimatedMinutes));
+            }
+            return workload;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Mechanic ids mapped to their position in the load order (0 = least loaded).
+     */
+    public Map<Long, Integer> getMechanicRanking() {
+        loadLock.lock();
+        try {
+            Map<Long, Integer> ranking = new LinkedHashMap<>();
+            int position = 0;
+            for (MechanicLoad load : loadOrder) {
+                ranking.put(load.mechanicId, position++);
+            }
+            return ranking;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Starts tracking a mechanic registered after the last rebuild.
+     */
+    public void trackMechanic(Long mechanicId) {
+        loadLock.lock();
+        try {
+            if (!loadsByMechanic.containsKey(mechanicId)) {
+                adjustLoad(mechanicId, 0, 0);
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingById.size();
+    }
+
+    private ServiceRequestDTO assign(PendingRequest pending) {
+        Reservation reservation = reserveLeastLoaded(pending.requestId, pending.estimatedMinutes);
+        if (reservation == null) {
+            throw new ConflictException("No mechanic available");
+        }
+        removePending(pending.requestId);
+        try {
+            return serviceRequestService.assignMechanic(pending.requestId, reservation.job.mechanicId, "Auto-assigned");
+        } catch (RuntimeException e) {
+            cancelReservation(pending.requestId, reservation);
+            if (reservation.previous == null) {
+                addPending(pending);
+            }
+            throw e;
+        }
+    }
+
+    private Reservation reserveLeastLoaded(Long requestId, int minutes) {
+        loadLock.lock();
+        try {
+            if (loadOrder.isEmpty()) {
+                return null;
+            }
+            OpenJob previous = jobsByRequest.remove(requestId);
+            if (previous != null) {
+                adjustLoad(previous.mechanicId, -1, -previous.minutes);
+            }
+            OpenJob job = new OpenJob(loadOrder.first().mechanicId, minutes);
+            jobsByRequest.put(requestId, job);
+            adjustLoad(job.mechanicId, 1, minutes);
+            return new Reservation(job, previous);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Undoes a reservation whose assignment failed, putting back the job it replaced. Does
+     * nothing if an event has recorded a newer job for the request in the meantime.
+     */
+    private void cancelReservation(Long requestId, Reservation reservation) {
+        loadLock.lock();
+        try {
+            if (!jobsByRequest.remove(requestId, reservation.job)) {
+                return;
+            }
+            adjustLoad(reservation.job.mechanicId, -1, -reservation.job.minutes);
+            if (reservation.previous != null) {
+                jobsByRequest.put(requestId, reservation.previous);
+                adjustLoad(reservation.previous.mechanicId, 1, reservation.previous.minutes);
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void recordJob(Long requestId, Long mechanicId, int minutes) {
+        loadLock.lock();
+        try {
+            OpenJob existing = jobsByRequest.get(requestId);
+            if (existing != null && existing.mechanicId.equals(mechanicId)) {
+                return;
+            }
+            if (existing != null) {
+                adjustLoad(existing.mechanicId, -1, -existing.minutes);
+            }
+            jobsByRequest.put(requestId, new OpenJob(mechanicId, minutes));
+            adjustLoad(mechanicId, 1, minutes);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void releaseJob(Long requestId) {
+        loadLock.lock();
+        try {
+            OpenJob job = jobsByRequest.remove(requestId);
+            if (job != null) {
+                adjustLoad(job.mechanicId, -1, -job.minutes);
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // Caller holds loadLock
+    private void adjustLoad(Long mechanicId, int jobDelta, long minuteDelta) {
+        MechanicLoad current = loadsByMechanic.get(mechanicId);
+        if (current != null) {
+            loadOrder.remove(current);
+        }
+        MechanicLoad updated = current == null
+                ? new MechanicLoad(mechanicId, Math.max(0, jobDelta), Math.max(0, minuteDelta))
+                : new MechanicLoad(mechanicId, Math.max(0, current.openJobs + jobDelta),
+                        Math.max(0, current.estimatedMinutes + minuteDelta));
+        loadsByMechanic.put(mechanicId, updated);
+        loadOrder.add(updated);
+    }
+
+    // compute runs under the map's per-key lock, so the map and the queue never disagree on a request
+    private void addPending(PendingRequest pending) {
+        pendingById.compute(pending.requestId, (id, previous) -> {
+            if (previous != null) {
+                pendingQueue.remove(previous);
+            }
+            pendingQueue.add(pending);
+            return pending;
+        });
+    }
+
+    private void removePending(Long requestId) {
+        pendingById.computeIfPresent(requestId, (id, pending) -> {
+            pendingQueue.remove(pending);
+            return null;
+        });
+    }
+
+    private int durationOf(String serviceType) {
+        if (serviceType == null) {
+            return defaultDurationMinutes;
+        }
+        return DEFAULT_DURATIONS.getOrDefault(serviceType.toUpperCase(), defaultDurationMinutes);
+    }
+
+    private static final class MechanicLoad {
+        private final Long mechanicId;
+        private final int openJobs;
+        private final long estimatedMinutes;
+
+        private MechanicLoad(Long mechanicId, int openJobs, long estimatedMinutes) {
+            this.mechanicId = mechanicId;
+            this.openJobs = openJobs;
+            this.estimatedMinutes = estimatedMinutes;
+        }
+    }
+
+    private static final class OpenJob {
+        private final Long mechanicId;
+        private final int minutes;
+
+        private OpenJob(Long mechanicId, int minutes) {
+            this.mechanicId = mechanicId;
+            this.minutes = minutes;
+        }
+    }
+
+    private static final class Reservation {
+        private final OpenJob job;
+        private final OpenJob previous;
+
+        private Reservation(OpenJob job, OpenJob previous) {
+            this.job = job;
+            this.previous = previous;
+        }
+    }
+
+    private static final class PendingRequest {
+        private final Long requestId;
+        private final int priorityRank;
+        private final LocalDateTime preferredDate;
+        private final int estimatedMinutes;
+
+        private PendingRequest(Long requestId, String priority, LocalDateTime preferredDate, int estimatedMinutes) {
+            this.requestId = requestId;
+            this.priorityRank = ServiceRequest.priorityRank(priority);
+            this.preferredDate = preferredDate != null ? preferredDate : LocalDateTime.MAX;
+            this.estimatedMinutes = estimatedMinutes;
+        }
+    }
+}
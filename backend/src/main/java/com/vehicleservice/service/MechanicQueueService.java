@@ -0,0 +1,112 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.ServiceRequestDTO;
+import com.vehicleservice.event.ServiceRequestEvent;
+import com.vehicleservice.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A mechanic's open jobs, highest priority and earliest preferred date first. Pages are
+ * cached per mechanic for a few seconds and dropped as soon as an assignment or status
+ * change touching that mechanic commits. Only known statuses are accepted and at most
+ * MAX_CACHED_PAGES pages are kept per mechanic, so request parameters cannot grow the
+ * cache without bound.
+ */
+@Service
+public class MechanicQueueService {
+
+    static final List<String> OPEN_STATUSES = List.of("ASSIGNED", "IN_PROGRESS", "PENDING");
+
+    static final int MAX_CACHED_PAGES = 32;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private ServiceRequestService serviceRequestService;
+
+    @Value("${app.mechanic-queue.cache-ttl-ms:5000}")
+    private long cacheTtlMs;
+
+    private final Map<Long, MechanicPages> cache = new ConcurrentHashMap<>();
+
+    public Page<ServiceRequestDTO> getQueue(Long mechanicId, String status, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<String> statuses = status != null ? List.of(knownStatus(status)) : OPEN_STATUSES;
+        String key = statuses + ":" + page + ":" + size;
+
+        MechanicPages pages = cache.computeIfAbsent(mechanicId, id -> new MechanicPages());
+        long now = System.currentTimeMillis();
+        CachedPage cached = pages.entries.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.page;
+        }
+
+        // A load that overlaps an invalidation is returned but not cached
+        long generation = pages.generation;
+        Page<ServiceRequestDTO> result =
+                serviceRequestService.getMechanicQueue(mechanicId, statuses, PageRequest.of(page, size));
+        if (pages.generation == generation && cache.get(mechanicId) == pages) {
+            if (pages.entries.size() >= MAX_CACHED_PAGES) {
+                pages.entries.values().removeIf(entry -> entry.expiresAt <= now);
+            }
+            if (pages.entries.size() < MAX_CACHED_PAGES) {
+                pages.entries.put(key, new CachedPage(result, now + cacheTtlMs));
+            }
+        }
+        return result;
+    }
+
+    private static String knownStatus(String status) {
+        String normalized = status.trim().toUpperCase(Locale.ROOT);
+        if (!OPEN_STATUSES.contains(normalized) && !MechanicAssignmentEngine.CLOSED_STATUSES.contains(normalized)) {
+            throw new ValidationException("Unknown status: " + status);
+        }
+        return normalized;
+    }
+
+    public void invalidate(Long mechanicId) {
+        MechanicPages pages = cache.remove(mechanicId);
+        if (pages != null) {
+            pages.generation++;
+            pages.entries.clear();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onServiceRequestEvent(ServiceRequestEvent event) {
+        if (event.getMechanicId() != null) {
+            invalidate(event.getMechanicId());
+        }
+        if (event.getPreviousMechanicId() != null) {
+            invalidate(event.getPreviousMechanicId());
+        }
+    }
+
+    private static final class MechanicPages {
+        private final Map<String, CachedPage> entries = new ConcurrentHashMap<>();
+        private volatile long generation;
+    }
+
+    private static final class CachedPage {
+        private final Page<ServiceRequestDTO> page;
+        private final long expiresAt;
+
+        private CachedPage(Page<ServiceRequestDTO> page, long expiresAt) {
+            this.page = page;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.PartDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable, memory-resident index of the active parts. Part numbers are normalized
+ * (upper case, separators dropped, so "bk 12-a" finds "BK12A") and kept in one sorted
+ * array: every part with a given prefix sits in a contiguous run, found by binary
+ * search. That answers the same prefix queries as a trie with a fraction of the objects.
+ */
+public final class PartsCatalogIndex {
+
+    public static final PartsCatalogIndex EMPTY = build(List.of());
+
+    private final String[] keys;
+    private final PartDTO[] parts;
+
+    private PartsCatalogIndex(String[] keys, PartDTO[] parts) {
+        this.keys = keys;
+        this.parts = parts;
+    }
+
+    public static PartsCatalogIndex build(Collection<PartDTO> catalog) {
+        // Normalize each part number once, not on every comparison
+        List<Entry> entries = new ArrayList<>(catalog.size());
+        for (PartDTO part : catalog) {
+            String key = normalize(part.getPartNumber());
+            if (!key.isEmpty()) {
+                entries.add(new Entry(key, part));
+            }
+        }
+        entries.sort(Comparator.comparing((Entry entry) -> entry.key)
+                .thenComparing(entry -> entry.part.getPartNumber()));
+        String[] keys = new String[entries.size()];
+        PartDTO[] parts = new PartDTO[entries.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = entries.get(i).key;
+            parts[i] = entries.get(i).part;
+        }
+        return new PartsCatalogIndex(keys, parts);
+    }
+
+    public int size() {
+        return parts.length;
+    }
+
+    /**
+     * Parts whose normalized part number starts with prefix, in part-number order.
+     */
+    public List<PartDTO> prefix(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<PartDTO> matches = new ArrayList<>(Math.min(limit, 16));
+        for (int i = lowerBound(key); i < keys.length && keys[i].startsWith(key) && matches.size() < limit; i++) {
+            matches.add(parts[i]);
+        }
+        return matches;
+    }
+
+    public PartDTO find(String partNumber) {
+        String key = normalize(partNumber);
+        if (key.isEmpty()) {
+            return null;
+        }
+        int i = lowerBound(key);
+        return i < keys.length && keys[i].equals(key) ? parts[i] : null;
+    }
+
+    private int lowerBound(String key) {
+        int i = Arrays.binarySearch(keys, key);
+        if (i < 0) {
+            return -i - 1;
+        }
+        // Walk back to the first of any equal keys
+        while (i > 0 && keys[i - 1].equals(key)) {
+            i--;
+        }
+        return i;
+    }
+
+    static String normalize(String partNumber) {
+        if (partNumber == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(partNumber.length());
+        for (int i = 0; i < partNumber.length(); i++) {
+            char c = partNumber.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toUpperCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final PartDTO part;
+
+        private Entry(String key, PartDTO part) {
+            this.key = key;
+            this.part = part;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.PartDTO;
+import com.vehicleservice.dto.PartPriceDTO;
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.exception.ValidationException;
+import com.vehicleservice.model.Part;
+import com.vehicleservice.model.PartPriceHistory;
+import com.vehicleservice.repository.PartPriceHistoryRepository;
+import com.vehicleservice.repository.PartRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * The parts catalog. Lookups and autocomplete are answered from a PartsCatalogIndex
+ * held in memory and never touch the database; writes go to the parts table, record a
+ * price history row when the list price changes, and swap in a rebuilt index after
+ * commit. Other instances' changes are picked up by the same periodic count/updated_at
+ * check the pricing rules use.
+ */
+@Service
+public class PartsCatalogService {
+    private static final Logger logger = LoggerFactory.getLogger(PartsCatalogService.class);
+
+    private static final int MAX_SUGGESTIONS = 50;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private PartPriceHistoryRepository partPriceHistoryRepository;
+
+    private final AtomicReference<PartsCatalogIndex> index = new AtomicReference<>(PartsCatalogIndex.EMPTY);
+    private volatile String loadedSignature;
+
+    @PostConstruct
+    public void reload() {
+        String signature = signature();
+        List<PartDTO> parts = partRepository.findByActiveTrue().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        index.set(PartsCatalogIndex.build(parts));
+        loadedSignature = signature;
+        logger.info("Loaded {} catalog parts", parts.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.parts.refresh-ms:30000}")
+    public void refreshIfChanged() {
+        if (!Objects.equals(signature(), loadedSignature)) {
+            reload();
+        }
+    }
+
+    public List<PartDTO> autocomplete(String prefix, int limit) {
+        return index.get().prefix(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    public PartDTO getPart(String partNumber) {
+        PartDTO part = index.get().find(partNumber);
+        if (part == null) {
+            throw ResourceNotFoundException.PART;
+        }
+        return part;
+    }
+
+    /**
+     * The active catalog part with this number, or null.
+     */
+    public PartDTO findPart(String partNumber) {
+        return index.get().find(partNumber);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PartDTO> getAllParts() {
+        return partRepository.findAll().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Price history of any part, retired ones included: past invoices may still show them.
+     */
+    @Transactional(readOnly = true)
+    public List<PartPriceDTO> getPriceHistory(String partNumber) {
+        Long partId = partRepository.findByPartKey(PartsCatalogIndex.normalize(partNumber))
+                .orElseThrow(() -> ResourceNotFoundException.PART)
+                .getId();
+        return partPriceHistoryRepository.findByPartIdOrderByEffectiveFromDesc(partId).stream()
+                .map(entry -> new PartPriceDTO(entry.getPrice(), entry.getEffectiveFrom()))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public PartDTO savePart(Long id, PartDTO dto) {
+        validate(dto);
+        String partNumber = dto.getPartNumber().trim().toUpperCase();
+        // Duplicates are judged by the key the index matches on, not the stored spelling
+        String partKey = PartsCatalogIndex.normalize(partNumber);
+        Part part = id == null ? new Part()
+                : partRepository.findById(id).orElseThrow(() -> ResourceNotFoundException.PART);
+        partRepository.findByPartKey(partKey)
+                .filter(existing -> !existing.getId().equals(part.getId()))
+                .ifPresent(existing -> {
+                    throw new ConflictException("Part number " + partNumber + " already exists as "
+                            + existing.getPartNumber());
+                });
+
+        boolean priceChanged = !Objects.equals(part.getPrice(), dto.getPrice());
+        part.setPartNumber(partNumber);
+        part.setPartKey(partKey);
+        part.setName(dto.getName().trim());
+        part.setDescription(dto.getDescription());
+        part.setType(dto.getType() != null && !dto.getType().isBlank() ? dto.getType().trim().toUpperCase() : null);
+        part.setPrice(dto.getPrice());
+        part.setWarrantyInfo(dto.getWarrantyInfo());
+        part.setActive(dto.getActive() == null || dto.getActive());
+        Part saved = partRepository.save(part);
+        if (priceChanged) {
+            partPriceHistoryRepository.save(new PartPriceHistory(saved.getId(), saved.getPrice(), LocalDateTime.now()));
+        }
+        reloadAfterCommit();
+        return convertToDTO(saved);
+    }
+
+    /**
+     * Retires a part: it leaves the index but keeps its row and price history, which
+     * past invoices may still refer to.
+     */
+    @Transactional
+    public void deactivatePart(Long id) {
+        Part part = partRepository.findById(id).orElseThrow(() -> ResourceNotFoundException.PART);
+        part.setActive(false);
+        partRepository.save(part);
+        reloadAfterCommit();
+    }
+
+    private void validate(PartDTO dto) {
+        if (dto.getPartNumber() == null || dto.getPartNumber().isBlank()) {
+            throw new ValidationException("Part number is required");
+        }
+        if (PartsCatalogIndex.normalize(dto.getPartNumber()).isEmpty()) {
+            throw new ValidationException("Part number must contain a letter or digit");
+        }
+        if (dto.getName() == null || dto.getName().isBlank()) {
+            throw new ValidationException("Part name is required");
+        }
+        if (dto.getPrice() == null || dto.getPrice() < 0) {
+            throw new ValidationException("Part price must be zero or more");
+        }
+    }
+
+    private void reloadAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+
+    private String signature() {
+        LocalDateTime lastUpdated = partRepository.findLastUpdatedAt();
+        return partRepository.countParts() + "@" + lastUpdated;
+    }
+
+    private PartDTO convertToDTO(Part part) {
+        PartDTO dto = new PartDTO();
+        dto.setId(part.getId());
+        dto.setPartNumber(part.getPartNumber());
+        dto.setName(part.getName());
+        dto.setDescription(part.getDescription());
+        dto.setType(part.getType());
+        dto.setPrice(part.getPrice());
+        dto.setWarrantyInfo(part.getWarrantyInfo());
+        dto.setActive(part.getActive());
+        dto.setUpdatedAt(part.getUpdatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,20 @@
+package com.vehicleservice.service;
+
+/**
+ * Downstream card processor. Called by the payment outbox workers, never on a request thread.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Charges the payment and returns the gateway's reference. idempotencyKey is stable
+     * across retries of the same intent so a retried charge is not taken twice.
+     * Throws DeclinedException for a permanent refusal; any other exception is retried.
+     */
+    String charge(String idempotencyKey, double amount, String paymentMethod, String cardLastFour);
+
+    class DeclinedException extends RuntimeException {
+        public DeclinedException(String message) {
+            super(message);
+        }
+    }
+}
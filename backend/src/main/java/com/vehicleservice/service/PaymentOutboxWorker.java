@@ -0,0 +1,182 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.model.PaymentIntent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains payment_outbox: claims due rows in batches with FOR UPDATE SKIP LOCKED (so
+ * several instances can poll the same table), charges the gateway on a worker pool and
+ * settles the payment intent. Transient gateway errors are retried with exponential
+ * backoff; a claim whose worker died is picked up again once its lease runs out.
+ */
+@Service
+public class PaymentOutboxWorker {
+    private static final Logger logger = LoggerFactory.getLogger(PaymentOutboxWorker.class);
+
+    private static final String CLAIM_SQL =
+            "SELECT id, payment_intent_id, attempts FROM payment_outbox "
+                    + "WHERE (status = 'PENDING' AND next_attempt_at <= ?) OR (status = 'IN_FLIGHT' AND lease_until < ?) "
+                    + "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentGateway paymentGateway;
+
+    @Value("${app.payments.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.payments.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${app.payments.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.payments.backoff-base-ms:1000}")
+    private long backoffBaseMs;
+
+    @Value("${app.payments.backoff-max-ms:300000}")
+    private long backoffMaxMs;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public PaymentOutboxWorker(PlatformTransactionManager transactionManager,
+                               @Value("${app.payments.workers:4}") int workerThreads) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxInFlight = workerThreads * 2;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "payment-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.payments.poll-interval-ms:500}")
+    public void poll() {
+        int capacity = Math.min(batchSize, maxInFlight - inFlight.get());
+        if (capacity <= 0) {
+            return;
+        }
+        List<OutboxEntry> claimed = claim(capacity);
+        for (OutboxEntry entry : claimed) {
+            inFlight.incrementAndGet();
+            workers.execute(() -> {
+                try {
+                    process(entry);
+                } catch (RuntimeException e) {
+                    // Left IN_FLIGHT; retried when the lease expires
+                    logger.error("Payment outbox entry {} could not be processed", entry.id, e);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private List<OutboxEntry> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            Timestamp nowTs = Timestamp.valueOf(now);
+            List<OutboxEntry> entries = jdbcTemplate.query(CLAIM_SQL,
+                    (rs, rowNum) -> new OutboxEntry(rs.getLong("id"), rs.getLong("payment_intent_id"), rs.getInt("attempts")),
+                    nowTs, nowTs, limit);
+            if (!entries.isEmpty()) {
+                Timestamp leaseUntil = Timestamp.valueOf(now.plusSeconds(leaseSeconds));
+                jdbcTemplate.batchUpdate("UPDATE payment_outbox SET status = 'IN_FLIGHT', lease_until = ? WHERE id = ?",
+                        entries, entries.size(), (ps, entry) -> {
+                            ps.setTimestamp(1, leaseUntil);
+                            ps.setLong(2, entry.id);
+                        });
+            }
+            return entries;
+        });
+    }
+
+    private void process(OutboxEntry entry) {
+        PaymentIntent intent = paymentService.findPendingIntent(entry.paymentIntentId);
+        if (intent == null) {
+            // Settled by an earlier attempt that died before closing its outbox row
+            finish(entry, "DONE", null);
+            return;
+        }
+        try {
+            String reference = paymentGateway.charge("pi_" + intent.getId(), intent.getAmount(),
+                    intent.getPaymentMethod(), intent.getCardLastFour());
+            paymentService.markSucceeded(intent.getId(), reference);
+            finish(entry, "DONE", null);
+        } catch (PaymentGateway.DeclinedException e) {
+            paymentService.markFailed(intent.getId(), e.getMessage());
+            finish(entry, "DONE", e.getMessage());
+        } catch (RuntimeException e) {
+            retryOrGiveUp(entry, intent, e);
+        }
+    }
+
+    private void retryOrGiveUp(OutboxEntry entry, PaymentIntent intent, RuntimeException error) {
+        int attempts = entry.attempts + 1;
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        if (attempts >= maxAttempts) {
+            paymentService.markFailed(intent.getId(), "Gave up after " + attempts + " attempts: " + message);
+            finish(entry, "FAILED", message);
+            return;
+        }
+        long delay = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempts - 1, 20));
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        jdbcTemplate.update("UPDATE payment_outbox SET status = 'PENDING', attempts = ?, next_attempt_at = ?, "
+                        + "lease_until = NULL, last_error = ? WHERE id = ?",
+                attempts, Timestamp.valueOf(LocalDateTime.now().plusNanos(delay * 1_000_000)), truncate(message), entry.id);
+        logger.debug("Payment attempt {} for paymentIntentId={} failed, retrying in {} ms: {}",
+                attempts, intent.getId(), delay, message);
+    }
+
+    private void finish(OutboxEntry entry, String status, String error) {
+        jdbcTemplate.update("UPDATE payment_outbox SET status = ?, lease_until = NULL, last_error = ? WHERE id = ?",
+                status, truncate(error), entry.id);
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 512 ? message.substring(0, 512) : message;
+    }
+
+    private static final class OutboxEntry {
+        private final long id;
+        private final long paymentIntentId;
+        private final int attempts;
+
+        private OutboxEntry(long id, long paymentIntentId, int attempts) {
+            this.id = id;
+            this.paymentIntentId = paymentIntentId;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.PaymentIntentDTO;
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.model.PaymentIntent;
+import com.vehicleservice.repository.InvoiceRepository;
+import com.vehicleservice.repository.PaymentIntentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Accepts payments without waiting for the gateway. A payment request only writes a
+ * payment intent and its outbox row; PaymentOutboxWorker charges the card and then
+ * settles the intent and the invoice here.
+ */
+@Service
+public class PaymentService {
+    private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
+
+    @Autowired
+    private PaymentIntentRepository paymentIntentRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public PaymentIntentDTO requestPayment(Long invoiceId, String paymentMethod, String cardLastFour) {
+        // The row lock makes check-then-insert atomic: concurrent requests for one invoice queue here
+        Invoice invoice = invoiceRepository.findByIdForUpdate(invoiceId)
+                .orElseThrow(() -> ResourceNotFoundException.INVOICE);
+        if ("COMPLETED".equals(invoice.getStatus())) {
+            throw new ConflictException("Invoice is already paid");
+        }
+
+        // One open intent per invoice: a second request while the first is unsettled joins it
+        PaymentIntent open = paymentIntentRepository
+                .findFirstByInvoiceIdAndStatusNotIn(invoiceId, PaymentIntent.TERMINAL_STATUSES)
+                .orElse(null);
+        if (open != null) {
+            return convertToDTO(open);
+        }
+
+        PaymentIntent intent = new PaymentIntent();
+        intent.setInvoiceId(invoiceId);
+        intent.setAmount(invoice.getTotalAmount());
+        intent.setPaymentMethod(paymentMethod);
+        intent.setCardLastFour(cardLastFour);
+        intent = paymentIntentRepository.save(intent);
+
+        jdbcTemplate.update("INSERT INTO payment_outbox (payment_intent_id, next_attempt_at) VALUES (?, ?)",
+                intent.getId(), Timestamp.valueOf(LocalDateTime.now()));
+        logger.debug("Payment accepted invoiceId={} paymentIntentId={}", invoiceId, intent.getId());
+        return convertToDTO(intent);
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentIntentDTO getPaymentIntent(Long id) {
+        return paymentIntentRepository.findById(id)
+                .map(this::convertToDTO)
+                .or(() -> archiveService.findPaymentIntent(id))
+                .orElseThrow(() -> ResourceNotFoundException.PAYMENT_INTENT);
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentIntent findPendingIntent(Long id) {
+        return paymentIntentRepository.findById(id)
+                .filter(intent -> PaymentIntent.Status.PENDING.name().equals(intent.getStatus()))
+                .orElse(null);
+    }
+
+    @Transactional
+    public void markSucceeded(Long intentId, String gatewayReference) {
+        PaymentIntent intent = paymentIntentRepository.findById(intentId)
+                .orElseThrow(() -> ResourceNotFoundException.PAYMENT_INTENT);
+        intent.setStatus(PaymentIntent.Status.SUCCEEDED.name());
+        intent.setGatewayReference(gatewayReference);
+        intent.setCompletedAt(LocalDateTime.now());
+        paymentIntentRepository.save(intent);
+        invoiceService.processPayment(intent.getInvoiceId(), intent.getPaymentMethod(), intent.getCardLastFour());
+    }
+
+    @Transactional
+    public void markFailed(Long intentId, String reason) {
+        PaymentIntent intent = paymentIntentRepository.findById(intentId)
+                .orElseThrow(() -> ResourceNotFoundException.PAYMENT_INTENT);
+        intent.setStatus(PaymentIntent.Status.FAILED.name());
+        intent.setFailureReason(truncate(reason));
+        intent.setCompletedAt(LocalDateTime.now());
+        paymentIntentRepository.save(intent);
+        logger.warn("Payment failed paymentIntentId={} invoiceId={}: {}", intentId, intent.getInvoiceId(), reason);
+    }
+
+    private static String truncate(String reason) {
+        return reason != null && reason.length() > PaymentIntent.FAILURE_REASON_LENGTH
+                ? reason.substring(0, PaymentIntent.FAILURE_REASON_LENGTH)
+                : reason;
+    }
+
+    private PaymentIntentDTO convertToDTO(PaymentIntent intent) {
+        PaymentIntentDTO dto = new PaymentIntentDTO();
+        dto.setId(intent.getId());
+        dto.setInvoiceId(intent.getInvoiceId());
+        dto.setAmount(intent.getAmount());
+        dto.setPaymentMethod(intent.getPaymentMethod());
+        dto.setCardLastFour(intent.getCardLastFour());
+        dto.setStatus(intent.getStatus());
+        dto.setGatewayReference(intent.getGatewayReference());
+        dto.setFailureReason(intent.getFailureReason());
+        dto.setCreatedAt(intent.getCreatedAt());
+        dto.setCompletedAt(intent.getCompletedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,128 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.exception.ValidationException;
+import com.vehicleservice.model.PricingRule;
+import com.vehicleservice.repository.PricingRuleRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current CompiledRuleSet. Rules are read from pricing_rules and compiled off
+ * to the side; readers always see one complete rule set because the new one replaces
+ * the old with a single reference swap. Changes made on other instances are picked up
+ * by a periodic count/max(updated_at) check.
+ */
+@Service
+public class PricingRuleEngine {
+    private static final Logger logger = LoggerFactory.getLogger(PricingRuleEngine.class);
+
+    @Autowired
+    private PricingRuleRepository pricingRuleRepository;
+
+    @Value("${app.pricing.tax-rate:0.0}")
+    private double defaultTaxRate;
+
+    @Value("${app.pricing.discount-rate:0.0}")
+    private double defaultDiscountRate;
+
+    private final AtomicReference<CompiledRuleSet> current = new AtomicReference<>();
+    private volatile String loadedSignature;
+
+    @PostConstruct
+    public void reload() {
+        String signature = signature();
+        CompiledRuleSet compiled = CompiledRuleSet.compile(
+                pricingRuleRepository.findByEnabledTrue(), defaultTaxRate, defaultDiscountRate);
+        current.set(compiled);
+        loadedSignature = signature;
+        logger.info("Compiled {} pricing rules", compiled.getRuleCount());
+    }
+
+    public CompiledRuleSet current() {
+        return current.get();
+    }
+
+    @Scheduled(fixedDelayString = "${app.pricing.rules-refresh-ms:30000}")
+    public void refreshIfChanged() {
+        if (!Objects.equals(signature(), loadedSignature)) {
+            reload();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<PricingRule> getAllRules() {
+        return pricingRuleRepository.findAll();
+    }
+
+    @Transactional
+    public PricingRule saveRule(Long id, PricingRule rule) {
+        validate(rule);
+        PricingRule target = id == null ? new PricingRule()
+                : pricingRuleRepository.findById(id).orElseThrow(() -> ResourceNotFoundException.PRICING_RULE);
+        target.setName(rule.getName());
+        target.setKind(rule.getKind().trim().toUpperCase());
+        target.setItemType(rule.getItemType() != null && !rule.getItemType().isBlank()
+                ? rule.getItemType().trim().toUpperCase() : null);
+        target.setCustomerId(rule.getCustomerId());
+        target.setRate(rule.getRate());
+        target.setAmount(rule.getAmount());
+        target.setPriority(rule.getPriority() != null ? rule.getPriority() : 0);
+        target.setEnabled(rule.getEnabled() == null || rule.getEnabled());
+        PricingRule saved = pricingRuleRepository.save(target);
+        reloadAfterCommit();
+        return saved;
+    }
+
+    @Transactional
+    public void deleteRule(Long id) {
+        pricingRuleRepository.deleteById(id);
+        reloadAfterCommit();
+    }
+
+    private void validate(PricingRule rule) {
+        if (rule.getName() == null || rule.getName().isBlank()) {
+            throw new ValidationException("Rule name is required");
+        }
+        PricingRule.Kind kind;
+        try {
+            kind = PricingRule.Kind.valueOf(String.valueOf(rule.getKind()).trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Rule kind must be TAX, DISCOUNT or CAP");
+        }
+        if (kind == PricingRule.Kind.CAP) {
+            if (rule.getAmount() == null || rule.getAmount() < 0) {
+                throw new ValidationException("A CAP rule needs a non-negative amount");
+            }
+        } else if (rule.getRate() == null || rule.getRate() < 0 || rule.getRate() > 1) {
+            throw new ValidationException("A " + kind + " rule needs a rate between 0 and 1");
+        }
+    }
+
+    private void reloadAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+
+    private String signature() {
+        LocalDateTime lastUpdated = pricingRuleRepository.findLastUpdatedAt();
+        return pricingRuleRepository.countRules() + "@" + lastUpdated;
+    }
+}
@@ -2,6 +2,9 @@ package com.vehicleservice.service;
 
 import com.vehicleservice.dto.ServiceItemDTO;
 import com.vehicleservice.dto.InvoiceDTO;
+import com.vehicleservice.dto.PartDTO;
+import com.vehicleservice.event.DomainEvent;
+import com.vehicleservice.exception.ResourceNotFoundException;
 import com.vehicleservice.model.Invoice;
 import com.vehicleservice.model.ServiceItem;
 import com.vehicleservice.model.ServiceRequest;
@@ -12,7 +15,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,12 +33,38 @@ public class ServiceItemService {
     @Autowired
     private ServiceRequestRepository serviceRequestRepository;
 
+    @Autowired
+    private InvoicePricingService invoicePricingService;
+
+    @Autowired
+    private PartsCatalogService partsCatalogService;
+
+    @Autowired
+    private DomainEventOutbox domainEventOutbox;
+
     @Transactional
     public ServiceItemDTO createServiceItem(ServiceItemDTO dto) {
         ServiceItem serviceItem = new ServiceItem();
         updateServiceItemFromDTO(serviceItem, dto);
         serviceItem = serviceItemRepository.save(serviceItem);
-        return convertToDTO(serviceItem);
+        invoicePricingService.applyLineChange(invoiceIdOf(serviceItem), null, serviceItem);
+        ServiceItemDTO result = convertToDTO(serviceItem);
+        appendItemEvent(result.getInvoiceId(), "ITEM_ADDED", result);
+        return result;
+    }
+
+    /**
+     * Saves a new item built by the caller and prices it onto its invoice, which also
+     * bumps the invoice's version.
+     */
+    @Transactional
+    public ServiceItem saveNewServiceItem(ServiceItem serviceItem) {
+        ServiceItem saved = serviceItemRepository.save(serviceItem);
+        invoicePricingService.applyLineChange(invoiceIdOf(saved), null, saved);
+        if (saved.getInvoice() != null) {
+            appendItemEvent(saved.getInvoice().getId(), "ITEM_ADDED", convertToDTO(saved));
+        }
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -45,28 +77,48 @@ public class ServiceItemService {
     @Transactional(readOnly = true)
     public ServiceItemDTO getServiceItemById(Long id) {
         ServiceItem serviceItem = serviceItemRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Service item not found"));
+                .orElseThrow(() -> ResourceNotFoundException.SERVICE_ITEM);
         return convertToDTO(serviceItem);
     }
 
     @Transactional
     public ServiceItemDTO updateServiceItem(Long id, ServiceItemDTO dto) {
         ServiceItem serviceItem = serviceItemRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Service item not found"));
+                .orElseThrow(() -> ResourceNotFoundException.SERVICE_ITEM);
+        ServiceItem before = pricedCopy(serviceItem);
+        Long previousInvoiceId = invoiceIdOf(serviceItem);
+
         updateServiceItemFromDTO(serviceItem, dto);
         serviceItem = serviceItemRepository.save(serviceItem);
-        return convertToDTO(serviceItem);
+
+        Long invoiceId = invoiceIdOf(serviceItem);
+        ServiceItemDTO result = convertToDTO(serviceItem);
+        if (Objects.equals(previousInvoiceId, invoiceId)) {
+            invoicePricingService.applyLineChange(invoiceId, before, serviceItem);
+            appendItemEvent(invoiceId, "ITEM_UPDATED", result);
+        } else {
+            invoicePricingService.applyLineChange(previousInvoiceId, before, null);
+            invoicePricingService.applyLineChange(invoiceId, null, serviceItem);
+            appendItemRemoved(previousInvoiceId, id);
+            appendItemEvent(invoiceId, "ITEM_ADDED", result);
+        }
+        return result;
     }
 
     @Transactional
     public void deleteServiceItem(Long id) {
-        serviceItemRepository.deleteById(id);
+        serviceItemRepository.findById(id).ifPresent(serviceItem -> {
+            serviceItemRepository.delete(serviceItem);
+            Long invoiceId = invoiceIdOf(serviceItem);
+            invoicePricingService.applyLineChange(invoiceId, serviceItem, null);
+            appendItemRemoved(invoiceId, id);
+        });
     }
 
     @Transactional(readOnly = true)
     public List<ServiceItemDTO> getServiceItemsByInvoiceId(Long invoiceId) {
         Invoice invoice = invoiceRepository.findById(invoiceId)
-                .orElseThrow(() -> new RuntimeException("Invoice not found"));
+                .orElseThrow(() -> ResourceNotFoundException.INVOICE);
         return serviceItemRepository.findByInvoice(invoice).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
@@ -75,33 +127,32 @@ public class ServiceItemService {
     @Transactional
     public ServiceItemDTO addServiceItemToServiceRequest(Long serviceRequestId, ServiceItemDTO dto) {
         var serviceRequest = serviceRequestRepository.findById(serviceRequestId)
-                .orElseThrow(() -> new RuntimeException("Service request not found"));
+                .orElseThrow(() -> ResourceNotFoundException.SERVICE_REQUEST);
         var invoice = invoiceRepository.findByServiceRequest(serviceRequest)
-                .orElseThrow(() -> new RuntimeException("Invoice not found for this service request"));
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice not found for this service request"));
         ServiceItem serviceItem = new ServiceItem();
         updateServiceItemFromDTO(serviceItem, dto);
         serviceItem.setInvoice(invoice);
         serviceItem = serviceItemRepository.save(serviceItem);
-        return convertToDTO(serviceItem);
+        invoicePricingService.applyLineChange(invoice.getId(), null, serviceItem);
+        ServiceItemDTO result = convertToDTO(serviceItem);
+        appendItemEvent(invoice.getId(), "ITEM_ADDED", result);
+        return result;
     }
 
     @Transactional
     public Invoice createInvoice(Long serviceRequestId, InvoiceDTO invoiceDTO) {
         ServiceRequest sr = serviceRequestRepository.findById(serviceRequestId)
-                .orElseThrow(() -> new RuntimeException("Service request not found"));
+                .orElseThrow(() -> ResourceNotFoundException.SERVICE_REQUEST);
         
         Invoice invoice = new Invoice();
         invoice.setServiceRequest(sr);
-        invoice.setTotalAmount(invoiceDTO.getTotalAmount());
         invoice.setStatus(invoiceDTO.getStatus());
         invoice.setBillingAddress(invoiceDTO.getBillingAddress());
         invoice.setBillingCity(invoiceDTO.getBillingCity());
         invoice.setBillingZip(invoiceDTO.getBillingZip());
-        
-        // Save the invoice first
-        invoice = invoiceRepository.save(invoice);
-        
-        // Add service items
+
+        List<ServiceItem> items = new ArrayList<>();
         if (invoiceDTO.getServiceItems() != null) {
             for (ServiceItemDTO itemDTO : invoiceDTO.getServiceItems()) {
                 ServiceItem item = new ServiceItem();
@@ -112,19 +163,75 @@ public class ServiceItemService {
                 item.setType(itemDTO.getType());
                 item.setPartNumber(itemDTO.getPartNumber());
                 item.setWarrantyInfo(itemDTO.getWarrantyInfo());
-                item.setInvoice(invoice);
                 item.setServiceRequestId(serviceRequestId);
-                serviceItemRepository.save(item);
+                applyCatalogDefaults(item);
+                items.add(item);
             }
         }
-        
+        invoicePricingService.applyTotals(invoice, items);
+
+        // Save the invoice first
+        invoice = invoiceRepository.save(invoice);
+
+        // Add service items
+        List<ServiceItemDTO> itemDTOs = new ArrayList<>(items.size());
+        for (ServiceItem item : items) {
+            item.setInvoice(invoice);
+            itemDTOs.add(convertToDTO(serviceItemRepository.save(item)));
+        }
+
+        // Same event and payload as InvoiceService.createInvoice
+        InvoiceDTO created = new InvoiceDTO();
+        created.setId(invoice.getId());
+        created.setServiceRequestId(serviceRequestId);
+        created.setTotalAmount(invoice.getTotalAmount());
+        created.setSubtotal(invoice.getSubtotal());
+        created.setTaxAmount(invoice.getTaxAmount());
+        created.setDiscountAmount(invoice.getDiscountAmount());
+        created.setStatus(invoice.getStatus());
+        created.setCreatedAt(invoice.getCreatedAt());
+        created.setPaidAt(invoice.getPaidAt());
+        created.setPaymentMethod(invoice.getPaymentMethod());
+        created.setCardLastFour(invoice.getCardLastFour());
+        created.setBillingAddress(invoice.getBillingAddress());
+        created.setBillingCity(invoice.getBillingCity());
+        created.setBillingZip(invoice.getBillingZip());
+        created.setServiceItems(itemDTOs);
+        domainEventOutbox.append(DomainEvent.INVOICE, invoice.getId(), "CREATED", created);
         return invoice;
     }
 
+    // Items have no stream of their own: their changes are events of the invoice they are on
+    private void appendItemEvent(Long invoiceId, String eventType, Object payload) {
+        if (invoiceId != null) {
+            domainEventOutbox.append(DomainEvent.INVOICE, invoiceId, eventType, payload);
+        }
+    }
+
+    private void appendItemRemoved(Long invoiceId, Long itemId) {
+        if (invoiceId != null) {
+            appendItemEvent(invoiceId, "ITEM_REMOVED", Map.of("id", itemId, "invoiceId", invoiceId));
+        }
+    }
+
+    private static Long invoiceIdOf(ServiceItem serviceItem) {
+        return serviceItem.getInvoice() != null ? serviceItem.getInvoice().getId() : null;
+    }
+
+    // Detached copy of the fields that affect pricing, taken before an update overwrites them
+    private static ServiceItem pricedCopy(ServiceItem serviceItem) {
+        ServiceItem copy = new ServiceItem();
+        copy.setPrice(serviceItem.getPrice());
+        copy.setQuantity(serviceItem.getQuantity());
+        copy.setType(serviceItem.getType());
+        copy.setPartNumber(serviceItem.getPartNumber());
+        return copy;
+    }
+
     private void updateServiceItemFromDTO(ServiceItem serviceItem, ServiceItemDTO dto) {
         if (dto.getInvoiceId() != null) {
             Invoice invoice = invoiceRepository.findById(dto.getInvoiceId())
-                    .orElseThrow(() -> new RuntimeException("Invoice not found"));
+                    .orElseThrow(() -> ResourceNotFoundException.INVOICE);
             serviceItem.setInvoice(invoice);
         }
 
@@ -135,6 +242,30 @@ public class ServiceItemService {
         serviceItem.setType(dto.getType());
         serviceItem.setPartNumber(dto.getPartNumber());
         serviceItem.setWarrantyInfo(dto.getWarrantyInfo());
+        applyCatalogDefaults(serviceItem);
+    }
+
+    // Fields left empty on an item that names a catalog part are taken from the catalog
+    private void applyCatalogDefaults(ServiceItem serviceItem) {
+        PartDTO part = partsCatalogService.findPart(serviceItem.getPartNumber());
+        if (part == null) {
+            return;
+        }
+        if (serviceItem.getName() == null || serviceItem.getName().isBlank()) {
+            serviceItem.setName(part.getName());
+        }
+        if (serviceItem.getDescription() == null || serviceItem.getDescription().isBlank()) {
+            serviceItem.setDescription(part.getDescription() != null ? part.getDescription() : part.getName());
+        }
+        if (serviceItem.getType() == null || serviceItem.getType().isBlank()) {
+            serviceItem.setType(part.getType());
+        }
+        if (serviceItem.getPrice() == null) {
+            serviceItem.setPrice(part.getPrice());
+        }
+        if (serviceItem.getWarrantyInfo() == null) {
+            serviceItem.setWarrantyInfo(part.getWarrantyInfo());
+        }
     }
 
     private ServiceItemDTO convertToDTO(ServiceItem serviceItem) {
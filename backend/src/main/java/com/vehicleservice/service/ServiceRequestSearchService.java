@@ -0,0 +1,618 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.ServiceRequestDTO;
+import com.vehicleservice.dto.ServiceRequestSearchCriteria;
+import com.vehicleservice.event.ServiceRequestEvent;
+import com.vehicleservice.event.ServiceRequestsArchivedEvent;
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.exception.ValidationException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortedNumericSelector;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over service request descriptions and mechanic notes, backed by a
+ * Lucene index on local disk. Committed changes reach the index through the service
+ * request events and become searchable at the next near-real-time refresh (about a
+ * second); the index itself is committed to disk less often. The index can always be
+ * thrown away and rebuilt from service_requests by the parallel bulk indexer.
+ *
+ * Each build lives in its own generation directory under the index dir, named by the
+ * CURRENT file. A rebuild fills a new generation off to the side while searches, events
+ * and the scheduled refresh/commit keep using the live one, then swaps it in.
+ */
+@Service
+public class ServiceRequestSearchService {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceRequestSearchService.class);
+
+    private static final String F_ID = "id";
+    private static final String F_DESCRIPTION = "description";
+    private static final String F_NOTES = "mechanicNotes";
+    private static final String F_STATUS = "status";
+    private static final String F_SERVICE_TYPE = "serviceType";
+    private static final String F_PRIORITY = "priority";
+    private static final String F_VEHICLE_ID = "vehicleId";
+    private static final String F_USER_ID = "userId";
+    private static final String F_MECHANIC_ID = "mechanicId";
+    private static final String F_MECHANIC_NAME = "mechanicName";
+    private static final String F_CREATED_AT = "createdAt";
+    private static final String F_PREFERRED_DATE = "preferredDate";
+    private static final String F_ASSIGNED_AT = "assignedAt";
+
+    // Deep offset paging gets expensive; past this, narrow the query instead
+    private static final int MAX_RESULT_WINDOW = 10_000;
+
+    private static final String ROW_SQL =
+            "SELECT sr.id, sr.vehicle_id, v.user_id, sr.mechanic_id, m.name AS mechanic_name, sr.description, "
+                    + "sr.service_type, sr.priority, sr.preferred_date, sr.created_at, sr.status, sr.mechanic_notes, "
+                    + "sr.assigned_at FROM service_requests sr "
+                    + "LEFT JOIN vehicles v ON v.id = sr.vehicle_id LEFT JOIN users m ON m.id = sr.mechanic_id ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.search.index-dir:}")
+    private String indexDir;
+
+    @Value("${app.search.indexer-threads:4}")
+    private int indexerThreads;
+
+    @Value("${app.search.indexer-batch-size:1000}")
+    private int indexerBatchSize;
+
+    private static final String CURRENT_MARKER = "CURRENT";
+    private static final String GENERATION_PREFIX = "index-";
+
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Writers to the live index hold the read lock; swapping it out takes the write lock
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Set<Long> touchedDuringRebuild;
+    private Path root;
+    private volatile SearchIndex index;
+
+    @PostConstruct
+    public void open() throws IOException {
+        root = indexDir.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "service-request-index")
+                : Paths.get(indexDir);
+        Files.createDirectories(root);
+        Path marker = root.resolve(CURRENT_MARKER);
+        String generation = Files.exists(marker) ? Files.readString(marker, StandardCharsets.UTF_8).trim() : "";
+        if (generation.isEmpty()) {
+            generation = newGeneration();
+            writeMarker(generation);
+        }
+        index = SearchIndex.open(root.resolve(generation), analyzer, IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        deleteGenerationsOtherThan(generation);
+        logger.info("Opened service request search index at {} with {} documents", index.path,
+                index.writer.getDocStats().numDocs);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        index.close();
+    }
+
+    /**
+     * A fresh install (or a wiped index directory) starts empty; fill it in the
+     * background rather than holding up startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM service_requests", Integer.class);
+        if (index.writer.getDocStats().numDocs == 0 && rows != null && rows > 0) {
+            Thread thread = new Thread(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    logger.warn("Initial search index build failed", e);
+                }
+            }, "search-index-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onServiceRequestEvent(ServiceRequestEvent event) {
+        Set<Long> touched = touchedDuringRebuild;
+        if (touched != null) {
+            touched.add(event.getServiceRequestId());
+        }
+        swapLock.readLock().lock();
+        try {
+            index.writer.updateDocument(new Term(F_ID, String.valueOf(event.getServiceRequestId())),
+                    toDocument(event.getServiceRequest(), event.getUserId()));
+        } catch (IOException e) {
+            // The database is the source of truth; a rebuild repairs whatever was missed
+            logger.warn("Could not index serviceRequestId={}", event.getServiceRequestId(), e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onServiceRequestsArchived(ServiceRequestsArchivedEvent event) {
+        Set<Long> touched = touchedDuringRebuild;
+        if (touched != null) {
+            touched.addAll(event.getServiceRequestIds());
+        }
+        swapLock.readLock().lock();
+        try {
+            for (Long id : event.getServiceRequestIds()) {
+                index.writer.deleteDocuments(new Term(F_ID, String.valueOf(id)));
+            }
+        } catch (IOException e) {
+            logger.warn("Could not remove {} archived service requests from the index",
+                    event.getServiceRequestIds().size(), e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.refresh-ms:1000}")
+    public void refresh() throws IOException {
+        swapLock.readLock().lock();
+        try {
+            index.searcherManager.maybeRefresh();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.commit-interval-ms:60000}")
+    public void commit() throws IOException {
+        swapLock.readLock().lock();
+        try {
+            if (index.writer.hasUncommittedChanges()) {
+                index.writer.commit();
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked by relevance when q is given, newest first otherwise.
+     */
+    public Page<ServiceRequestDTO> search(ServiceRequestSearchCriteria criteria, int page, int size) {
+        if (page < 0 || size < 1 || size > 100) {
+            throw new ValidationException("page must be >= 0 and size between 1 and 100");
+        }
+        int window = (page + 1) * size;
+        if (window > MAX_RESULT_WINDOW) {
+            throw new ValidationException("Results past " + MAX_RESULT_WINDOW + " are not available; narrow the search");
+        }
+        boolean ranked = criteria.getQ() != null && !criteria.getQ().isBlank();
+        Query query = buildQuery(criteria);
+
+        // A searcher keeps its reader open, so it stays valid if a rebuild swaps the index meanwhile
+        SearcherManager searcherManager;
+        IndexSearcher searcher;
+        swapLock.readLock().lock();
+        try {
+            searcherManager = index.searcherManager;
+            searcher = searcherManager.acquire();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search failed", e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        try {
+            TopDocs top = ranked
+                    ? searcher.search(query, window)
+                    : searcher.search(query, window, new Sort(LongField.newSortField(F_CREATED_AT, true, SortedNumericSelector.Type.MAX)));
+            long total = top.totalHits.relation == TotalHits.Relation.EQUAL_TO
+                    ? top.totalHits.value : searcher.count(query);
+
+            StoredFields storedFields = searcher.storedFields();
+            List<ServiceRequestDTO> content = new ArrayList<>(size);
+            for (int i = page * size; i < top.scoreDocs.length; i++) {
+                ScoreDoc hit = top.scoreDocs[i];
+                content.add(toDTO(storedFields.document(hit.doc)));
+            }
+            return new PageImpl<>(content, PageRequest.of(page, size), total);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search failed", e);
+        } finally {
+            release(searcherManager, searcher);
+        }
+    }
+
+    /**
+     * Replaces the whole index with the current contents of service_requests. A new
+     * generation is built beside the live index, which keeps serving searches and taking
+     * events. The id range is cut into batches that are read and indexed in parallel;
+     * after the swap, requests changed while the rebuild ran are indexed again, so a
+     * batch that read a row just before it changed cannot leave the stale version behind.
+     */
+    public int rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new ConflictException("A search index rebuild is already running");
+        }
+        long started = System.currentTimeMillis();
+        touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(indexerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "search-indexer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        String generation = newGeneration();
+        SearchIndex fresh = null;
+        try {
+            fresh = SearchIndex.open(root.resolve(generation), analyzer, IndexWriterConfig.OpenMode.CREATE);
+            IndexWriter target = fresh.writer;
+            Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS lo, MAX(id) AS hi FROM service_requests");
+            int indexed = 0;
+            if (bounds.get("lo") != null) {
+                long lo = ((Number) bounds.get("lo")).longValue();
+                long hi = ((Number) bounds.get("hi")).longValue();
+                List<Future<Integer>> batches = new ArrayList<>();
+                for (long start = lo; start <= hi; start += indexerBatchSize) {
+                    long from = start;
+                    long to = Math.min(hi, start + indexerBatchSize - 1);
+                    batches.add(pool.submit(() -> indexRange(target, from, to)));
+                }
+                for (Future<Integer> batch : batches) {
+                    indexed += batch.get();
+                }
+            }
+            target.commit();
+            writeMarker(generation);
+
+            SearchIndex previous;
+            swapLock.writeLock().lock();
+            try {
+                previous = index;
+                index = fresh;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            // Events now go to the new index; catch up on the ones the batches may have missed
+            Set<Long> touched = touchedDuringRebuild;
+            touchedDuringRebuild = null;
+            for (Long id : touched) {
+                reindex(target, id);
+            }
+            fresh.searcherManager.maybeRefreshBlocking();
+            fresh = null;
+            retire(previous);
+            logger.info("Rebuilt service request search index: {} documents in {}ms", indexed,
+                    System.currentTimeMillis() - started);
+            return indexed;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search index rebuild failed", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search index rebuild failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search index rebuild interrupted", e);
+        } finally {
+            pool.shutdownNow();
+            touchedDuringRebuild = null;
+            if (fresh != null) {
+                // Failed before the swap: the live index was never touched
+                retire(fresh);
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    public int getDocumentCount() {
+        return index.writer.getDocStats().numDocs;
+    }
+
+    private int indexRange(IndexWriter writer, long from, long to) throws IOException {
+        List<IndexedRow> rows = jdbcTemplate.query(ROW_SQL + "WHERE sr.id BETWEEN ? AND ?", this::mapRow, from, to);
+        for (IndexedRow row : rows) {
+            writer.updateDocument(new Term(F_ID, String.valueOf(row.request.getId())), toDocument(row.request, row.userId));
+        }
+        return rows.size();
+    }
+
+    private void reindex(IndexWriter writer, Long id) throws IOException {
+        List<IndexedRow> rows = jdbcTemplate.query(ROW_SQL + "WHERE sr.id = ?", this::mapRow, id);
+        Term term = new Term(F_ID, String.valueOf(id));
+        if (rows.isEmpty()) {
+            writer.deleteDocuments(term);
+        } else {
+            writer.updateDocument(term, toDocument(rows.get(0).request, rows.get(0).userId));
+        }
+    }
+
+    private Query buildQuery(ServiceRequestSearchCriteria criteria) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        if (criteria.getQ() != null && !criteria.getQ().isBlank()) {
+            SimpleQueryParser parser = new SimpleQueryParser(analyzer, Map.of(F_DESCRIPTION, 1.0f, F_NOTES, 0.8f));
+            parser.setDefaultOperator(BooleanClause.Occur.MUST);
+            query.add(parser.parse(criteria.getQ()), BooleanClause.Occur.MUST);
+        } else {
+            query.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        addKeywordFilter(query, F_STATUS, criteria.getStatus());
+        addKeywordFilter(query, F_SERVICE_TYPE, criteria.getServiceType());
+        addKeywordFilter(query, F_PRIORITY, criteria.getPriority());
+        addIdFilter(query, F_MECHANIC_ID, criteria.getMechanicId());
+        addIdFilter(query, F_VEHICLE_ID, criteria.getVehicleId());
+        addIdFilter(query, F_USER_ID, criteria.getUserId());
+        if (criteria.getCreatedFrom() != null || criteria.getCreatedTo() != null) {
+            long from = criteria.getCreatedFrom() != null ? toMillis(criteria.getCreatedFrom()) : Long.MIN_VALUE;
+            long to = criteria.getCreatedTo() != null ? toMillis(criteria.getCreatedTo()) : Long.MAX_VALUE;
+            query.add(LongField.newRangeQuery(F_CREATED_AT, from, to), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private static void addKeywordFilter(BooleanQuery.Builder query, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            query.add(new TermQuery(new Term(field, keyword(value))), BooleanClause.Occur.FILTER);
+        }
+    }
+
+    private static void addIdFilter(BooleanQuery.Builder query, String field, Long value) {
+        if (value != null) {
+            query.add(LongField.newExactQuery(field, value), BooleanClause.Occur.FILTER);
+        }
+    }
+
+    private static Document toDocument(ServiceRequestDTO request, Long userId) {
+        Document doc = new Document();
+        doc.add(new StringField(F_ID, String.valueOf(request.getId()), Field.Store.YES));
+        addText(doc, F_DESCRIPTION, request.getDescription());
+        addText(doc, F_NOTES, request.getMechanicNotes());
+        addKeyword(doc, F_STATUS, request.getStatus());
+        addKeyword(doc, F_SERVICE_TYPE, request.getServiceType());
+        addKeyword(doc, F_PRIORITY, request.getPriority());
+        addLong(doc, F_VEHICLE_ID, request.getVehicleId());
+        addLong(doc, F_USER_ID, userId);
+        addLong(doc, F_MECHANIC_ID, request.getMechanicId());
+        if (request.getMechanicName() != null) {
+            doc.add(new StoredField(F_MECHANIC_NAME, request.getMechanicName()));
+        }
+        if (request.getCreatedAt() != null) {
+            addLong(doc, F_CREATED_AT, toMillis(request.getCreatedAt()));
+        }
+        if (request.getPreferredDate() != null) {
+            doc.add(new StoredField(F_PREFERRED_DATE, toMillis(request.getPreferredDate())));
+        }
+        if (request.getAssignedAt() != null) {
+            doc.add(new StoredField(F_ASSIGNED_AT, toMillis(request.getAssignedAt())));
+        }
+        return doc;
+    }
+
+    private static void addText(Document doc, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            doc.add(new TextField(field, value, Field.Store.YES));
+        }
+    }
+
+    // Filters match case-insensitively; the original value is stored for display
+    private static void addKeyword(Document doc, String field, String value) {
+        if (value != null) {
+            doc.add(new StringField(field, keyword(value), Field.Store.NO));
+            doc.add(new StoredField(field, value));
+        }
+    }
+
+    private static void addLong(Document doc, String field, Long value) {
+        if (value != null) {
+            doc.add(new LongField(field, value, Field.Store.YES));
+        }
+    }
+
+    private static ServiceRequestDTO toDTO(Document doc) {
+        ServiceRequestDTO dto = new ServiceRequestDTO();
+        dto.setId(Long.valueOf(doc.get(F_ID)));
+        dto.setDescription(doc.get(F_DESCRIPTION));
+        dto.setMechanicNotes(doc.get(F_NOTES));
+        dto.setStatus(doc.get(F_STATUS));
+        dto.setServiceType(doc.get(F_SERVICE_TYPE));
+        dto.setPriority(doc.get(F_PRIORITY));
+        dto.setVehicleId(storedLong(doc, F_VEHICLE_ID));
+        dto.setMechanicId(storedLong(doc, F_MECHANIC_ID));
+        dto.setMechanicName(doc.get(F_MECHANIC_NAME));
+        dto.setCreatedAt(storedTime(doc, F_CREATED_AT));
+        dto.setPreferredDate(storedTime(doc, F_PREFERRED_DATE));
+        dto.setAssignedAt(storedTime(doc, F_ASSIGNED_AT));
+        return dto;
+    }
+
+    private IndexedRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        ServiceRequestDTO dto = new ServiceRequestDTO();
+        dto.setId(rs.getLong("id"));
+        dto.setVehicleId(rs.getObject("vehicle_id", Long.class));
+        dto.setMechanicId(rs.getObject("mechanic_id", Long.class));
+        dto.setMechanicName(rs.getString("mechanic_name"));
+        dto.setDescription(rs.getString("description"));
+        dto.setServiceType(rs.getString("service_type"));
+        dto.setPriority(rs.getString("priority"));
+        dto.setStatus(rs.getString("status"));
+        dto.setMechanicNotes(rs.getString("mechanic_notes"));
+        dto.setPreferredDate(toLocalDateTime(rs.getTimestamp("preferred_date")));
+        dto.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        dto.setAssignedAt(toLocalDateTime(rs.getTimestamp("assigned_at")));
+        return new IndexedRow(dto, rs.getObject("user_id", Long.class));
+    }
+
+    private String newGeneration() {
+        long stamp = System.currentTimeMillis();
+        while (Files.exists(root.resolve(GENERATION_PREFIX + stamp))) {
+            stamp++;
+        }
+        return GENERATION_PREFIX + stamp;
+    }
+
+    private void writeMarker(String generation) throws IOException {
+        Path temp = Files.createTempFile(root, CURRENT_MARKER, ".tmp");
+        Files.writeString(temp, generation, StandardCharsets.UTF_8);
+        Files.move(temp, root.resolve(CURRENT_MARKER), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Leftovers of a rebuild that crashed or of a generation that was swapped out
+    private void deleteGenerationsOtherThan(String generation) throws IOException {
+        try (Stream<Path> children = Files.list(root)) {
+            children.filter(child -> Files.isDirectory(child)
+                            && child.getFileName().toString().startsWith(GENERATION_PREFIX)
+                            && !child.getFileName().toString().equals(generation))
+                    .forEach(ServiceRequestSearchService::deleteDirectory);
+        }
+    }
+
+    private void retire(SearchIndex old) {
+        try {
+            old.close();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not close search index at {}", old.path, e);
+        }
+        deleteDirectory(old.path);
+    }
+
+    private static void deleteDirectory(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            logger.warn("Could not delete old search index at {}", dir, e);
+        }
+    }
+
+    private void release(SearcherManager searcherManager, IndexSearcher searcher) {
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            logger.warn("Could not release index searcher", e);
+        }
+    }
+
+    private static String keyword(String value) {
+        return value.trim().toUpperCase();
+    }
+
+    private static Long storedLong(Document doc, String field) {
+        IndexableField stored = doc.getField(field);
+        return stored != null && stored.numericValue() != null ? stored.numericValue().longValue() : null;
+    }
+
+    private static LocalDateTime storedTime(Document doc, String field) {
+        Long millis = storedLong(doc, field);
+        return millis != null ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()) : null;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static final class SearchIndex {
+        private final Path path;
+        private final FSDirectory directory;
+        private final IndexWriter writer;
+        private final SearcherManager searcherManager;
+
+        private SearchIndex(Path path, FSDirectory directory, IndexWriter writer, SearcherManager searcherManager) {
+            this.path = path;
+            this.directory = directory;
+            this.writer = writer;
+            this.searcherManager = searcherManager;
+        }
+
+        static SearchIndex open(Path path, Analyzer analyzer, IndexWriterConfig.OpenMode mode) throws IOException {
+            FSDirectory directory = FSDirectory.open(path);
+            IndexWriterConfig config = new IndexWriterConfig(analyzer);
+            config.setOpenMode(mode);
+            config.setRAMBufferSizeMB(64);
+            IndexWriter writer = new IndexWriter(directory, config);
+            return new SearchIndex(path, directory, writer, new SearcherManager(writer, null));
+        }
+
+        void close() throws IOException {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        }
+    }
+
+    private static final class IndexedRow {
+        private final ServiceRequestDTO request;
+        private final Long userId;
+
+        private IndexedRow(ServiceRequestDTO request, Long userId) {
+            this.request = request;
+            this.userId = userId;
+        }
+    }
+}
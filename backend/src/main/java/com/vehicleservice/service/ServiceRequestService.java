@@ -2,23 +2,35 @@ package com.vehicleservice.service;
 
 import com.vehicleservice.dto.ServiceRequestDTO;
 import com.vehicleservice.dto.CreateServiceRequestDTO;
+import com.vehicleservice.event.DomainEvent;
+import com.vehicleservice.event.ServiceRequestEvent;
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.exception.ValidationException;
 import com.vehicleservice.model.ServiceRequest;
 import com.vehicleservice.model.Vehicle;
 import com.vehicleservice.model.User;
 import com.vehicleservice.repository.ServiceRequestRepository;
 import com.vehicleservice.repository.VehicleRepository;
 import com.vehicleservice.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ServiceRequestService {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceRequestService.class);
 
     @Autowired
     private ServiceRequestRepository serviceRequestRepository;
@@ -29,39 +41,55 @@ public class ServiceRequestService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CapacityCalendarService capacityCalendar;
+
+    @Autowired
+    private VehicleHistoryService vehicleHistoryService;
+
+    @Autowired
+    private AnalyticsRollupService analyticsRollupService;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private DomainEventOutbox domainEventOutbox;
+
     public ServiceRequestDTO createServiceRequest(CreateServiceRequestDTO dto) {
-        try {
-            if (dto.getVehicleId() == null) {
-                throw new RuntimeException("Vehicle ID is required");
-            }
-
-            Vehicle vehicle = vehicleRepository.findById(dto.getVehicleId())
-                    .orElseThrow(() -> new RuntimeException("Vehicle not found with id: " + dto.getVehicleId()));
-            
-            ServiceRequest serviceRequest = new ServiceRequest();
-            serviceRequest.setVehicle(vehicle);
-            serviceRequest.setDescription(dto.getDescription());
-            serviceRequest.setServiceType(dto.getServiceType());
-            serviceRequest.setPriority(dto.getPriority());
-            serviceRequest.setPreferredDate(dto.getPreferredDate());
-            serviceRequest.setStatus("PENDING");
-            
-            // Log the service request details
-            System.out.println("Creating service request with details:");
-            System.out.println("Vehicle ID: " + dto.getVehicleId());
-            System.out.println("Description: " + dto.getDescription());
-            System.out.println("Service Type: " + dto.getServiceType());
-            System.out.println("Priority: " + dto.getPriority());
-            System.out.println("Preferred Date: " + dto.getPreferredDate());
-            
-            ServiceRequest savedRequest = serviceRequestRepository.save(serviceRequest);
-            System.out.println("Service request saved with ID: " + savedRequest.getId());
-            
-            return convertToDTO(savedRequest);
-        } catch (Exception e) {
-            System.err.println("Error creating service request: " + e.getMessage());
-            throw new RuntimeException("Failed to create service request: " + e.getMessage());
+        if (dto.getVehicleId() == null) {
+            throw new ValidationException("Vehicle ID is required");
         }
+
+        Vehicle vehicle = vehicleRepository.findById(dto.getVehicleId())
+                .orElseThrow(() -> new ResourceNotFoundException("Vehicle not found with id: " + dto.getVehicleId()));
+        
+        // Takes a bay in the preferred slot; released again if this transaction rolls back
+        capacityCalendar.reserve(dto.getPreferredDate());
+
+        ServiceRequest serviceRequest = new ServiceRequest();
+        serviceRequest.setVehicle(vehicle);
+        serviceRequest.setDescription(dto.getDescription());
+        serviceRequest.setServiceType(dto.getServiceType());
+        serviceRequest.setPriority(dto.getPriority());
+        serviceRequest.setPreferredDate(dto.getPreferredDate());
+        serviceRequest.setStatus("PENDING");
+        
+        if (logger.isDebugEnabled()) {
+            logger.debug("Creating service request vehicleId={} serviceType={} priority={} preferredDate={}",
+                    dto.getVehicleId(), dto.getServiceType(), dto.getPriority(), dto.getPreferredDate());
+        }
+        
+        ServiceRequest savedRequest = serviceRequestRepository.save(serviceRequest);
+        logger.debug("Service request saved serviceRequestId={}", savedRequest.getId());
+        analyticsRollupService.recordRequestCreated(savedRequest);
+        
+        ServiceRequestDTO result = convertToDTO(savedRequest);
+        publishEvent(ServiceRequestEvent.Type.CREATED, savedRequest, result, null, null);
+        return result;
     }
 
     @Transactional(readOnly = true)
@@ -73,9 +101,10 @@ public class ServiceRequestService {
 
     @Transactional(readOnly = true)
     public ServiceRequestDTO getServiceRequestById(Long id) {
-        ServiceRequest serviceRequest = serviceRequestRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Service request not found"));
-        return convertToDTO(serviceRequest);
+        return serviceRequestRepository.findById(id)
+                .map(this::convertToDTO)
+                .or(() -> archiveService.findServiceRequest(id))
+                .orElseThrow(() -> ResourceNotFoundException.SERVICE_REQUEST);
     }
 
     public List<ServiceRequestDTO> getServiceRequestsByUserId(Long userId) {
@@ -84,37 +113,96 @@ public class ServiceRequestService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public Page<ServiceRequestDTO> getMechanicQueue(Long mechanicId, Collection<String> statuses, Pageable pageable) {
+        return serviceRequestRepository
+                .findByMechanic_IdAndStatusInOrderByPriorityRankAscPreferredDateAsc(mechanicId, statuses, pageable)
+                .map(this::convertToDTO);
+    }
+
+    @Timed(value = "service_request.assign_mechanic", percentiles = {0.5, 0.99, 0.999})
     public ServiceRequestDTO assignMechanic(Long requestId, Long mechanicId, String notes) {
         ServiceRequest serviceRequest = serviceRequestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Service request not found"));
+                .orElseThrow(() -> ResourceNotFoundException.SERVICE_REQUEST);
 
         User mechanic = userRepository.findById(mechanicId)
-                .orElseThrow(() -> new RuntimeException("Mechanic not found"));
+                .orElseThrow(() -> ResourceNotFoundException.MECHANIC);
 
         if (!mechanic.getRole().equals("MECHANIC")) {
-            throw new RuntimeException("User is not a mechanic");
+            throw new ValidationException("User is not a mechanic");
         }
 
+        Long previousMechanicId = serviceRequest.getMechanic() != null ? serviceRequest.getMechanic().getId() : null;
+        String previousStatus = serviceRequest.getStatus();
+        AnalyticsRollupService.Contribution previousCompletion = analyticsRollupService.completionOf(serviceRequest);
+
         serviceRequest.setMechanic(mechanic);
         serviceRequest.setStatus("ASSIGNED");
+        serviceRequest.setCompletedAt(null);
         serviceRequest.setMechanicNotes(notes);
         serviceRequest.setAssignedAt(LocalDateTime.now());
 
         ServiceRequest updatedRequest = serviceRequestRepository.save(serviceRequest);
-        return convertToDTO(updatedRequest);
+        analyticsRollupService.applyChange(previousCompletion, null);
+        ServiceRequestDTO result = convertToDTO(updatedRequest);
+        publishEvent(ServiceRequestEvent.Type.ASSIGNED, updatedRequest, result, previousMechanicId, previousStatus);
+        return result;
     }
 
     public ServiceRequestDTO updateServiceRequestStatus(Long requestId, String status, String notes) {
+        return updateServiceRequestStatus(requestId, status, notes, null);
+    }
+
+    /**
+     * mileage is the odometer reading at completion; it is recorded on the vehicle's
+     * service history when the request moves to COMPLETED.
+     */
+    public ServiceRequestDTO updateServiceRequestStatus(Long requestId, String status, String notes, Integer mileage) {
+        if (mileage != null && mileage < 0) {
+            throw new ValidationException("Mileage cannot be negative");
+        }
         ServiceRequest serviceRequest = serviceRequestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Service request not found"));
+                .orElseThrow(() -> ResourceNotFoundException.SERVICE_REQUEST);
+
+        String previousStatus = serviceRequest.getStatus();
+        AnalyticsRollupService.Contribution previousCompletion = analyticsRollupService.completionOf(serviceRequest);
+        boolean completing = "COMPLETED".equals(status) && !"COMPLETED".equals(previousStatus);
+
+        // A cancelled request gives its bay back; reopening it has to win one again
+        if ("CANCELLED".equals(status) && !"CANCELLED".equals(previousStatus)) {
+            capacityCalendar.release(serviceRequest.getPreferredDate());
+        } else if ("CANCELLED".equals(previousStatus) && !MechanicAssignmentEngine.CLOSED_STATUSES.contains(status)) {
+            capacityCalendar.reserve(serviceRequest.getPreferredDate());
+        }
 
         serviceRequest.setStatus(status);
+        if (completing) {
+            serviceRequest.setCompletedAt(LocalDateTime.now());
+        } else if (!"COMPLETED".equals(status)) {
+            serviceRequest.setCompletedAt(null);
+        }
         if (notes != null) {
             serviceRequest.setMechanicNotes(notes);
         }
 
         ServiceRequest updatedRequest = serviceRequestRepository.save(serviceRequest);
-        return convertToDTO(updatedRequest);
+        analyticsRollupService.applyChange(previousCompletion, analyticsRollupService.completionOf(updatedRequest));
+        if (completing) {
+            vehicleHistoryService.recordRequestCompleted(updatedRequest, mileage);
+        }
+        ServiceRequestDTO result = convertToDTO(updatedRequest);
+        publishEvent(ServiceRequestEvent.Type.STATUS_CHANGED, updatedRequest, result, result.getMechanicId(), previousStatus);
+        return result;
+    }
+
+    private void publishEvent(ServiceRequestEvent.Type type, ServiceRequest serviceRequest, ServiceRequestDTO dto,
+                              Long previousMechanicId, String previousStatus) {
+        Long userId = null;
+        if (serviceRequest.getVehicle() != null && serviceRequest.getVehicle().getUser() != null) {
+            userId = serviceRequest.getVehicle().getUser().getId();
+        }
+        eventPublisher.publishEvent(new ServiceRequestEvent(type, dto, userId, previousMechanicId, previousStatus));
+        domainEventOutbox.append(DomainEvent.SERVICE_REQUEST, dto.getId(), type.name(), dto);
     }
 
     private ServiceRequestDTO convertToDTO(ServiceRequest serviceRequest) {
@@ -128,6 +216,7 @@ public class ServiceRequestService {
         dto.setStatus(serviceRequest.getStatus());
         dto.setMechanicNotes(serviceRequest.getMechanicNotes());
         dto.setAssignedAt(serviceRequest.getAssignedAt());
+        dto.setCompletedAt(serviceRequest.getCompletedAt());
 
         if (serviceRequest.getVehicle() != null) {
             dto.setVehicleId(serviceRequest.getVehicle().getId());
@@ -0,0 +1,246 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.event.ServiceRequestEvent;
+import com.vehicleservice.exception.ForbiddenException;
+import com.vehicleservice.model.User;
+import com.vehicleservice.repository.ServiceRequestRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes service request changes to SSE subscribers. Every subscriber gets its own
+ * bounded buffer so a slow client can only lose its own events, never hold up the
+ * committing request thread or other subscribers.
+ *
+ * A viewer may only subscribe to their own user or mechanic topic, or to a request on
+ * their vehicle or assigned to them; ADMIN may subscribe to anything.
+ */
+@Service
+public class ServiceRequestStreamService {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceRequestStreamService.class);
+
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DROP_NEWEST,
+        DISCONNECT
+    }
+
+    @Autowired
+    private ServiceRequestRepository serviceRequestRepository;
+
+    @Value("${app.sse.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${app.sse.timeout:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.sse.overflow-policy:DROP_OLDEST}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${app.sse.max-dropped:256}")
+    private int maxDropped;
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService dispatcher;
+
+    public ServiceRequestStreamService(@Value("${app.sse.dispatcher-threads:4}") int dispatcherThreads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sse-dispatch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribeToUser(User viewer, Long userId) {
+        if (!isAdmin(viewer) && !Objects.equals(viewer.getId(), userId)) {
+            throw ForbiddenException.NOT_OWNER;
+        }
+        return subscribe("user:" + userId);
+    }
+
+    public SseEmitter subscribeToMechanic(User viewer, Long mechanicId) {
+        if (!isAdmin(viewer) && !Objects.equals(viewer.getId(), mechanicId)) {
+            throw ForbiddenException.NOT_OWNER;
+        }
+        return subscribe("mechanic:" + mechanicId);
+    }
+
+    public SseEmitter subscribeToRequest(User viewer, Long requestId) {
+        if (!isAdmin(viewer)
+                && !serviceRequestRepository.existsByIdAndVehicle_User_Id(requestId, viewer.getId())
+                && !serviceRequestRepository.existsByIdAndMechanic_Id(requestId, viewer.getId())) {
+            throw ForbiddenException.NOT_OWNER;
+        }
+        return subscribe("request:" + requestId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onServiceRequestEvent(ServiceRequestEvent event) {
+        publish("request:" + event.getServiceRequestId(), event);
+        if (event.getUserId() != null) {
+            publish("user:" + event.getUserId(), event);
+        }
+        if (event.getMechanicId() != null) {
+            publish("mechanic:" + event.getMechanicId(), event);
+        }
+        if (event.getPreviousMechanicId() != null
+                && !Objects.equals(event.getPreviousMechanicId(), event.getMechanicId())) {
+            publish("mechanic:" + event.getPreviousMechanicId(), event);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(Subscriber::close));
+        subscribers.clear();
+    }
+
+    private static boolean isAdmin(User viewer) {
+        return "ADMIN".equals(viewer.getRole());
+    }
+
+    private SseEmitter subscribe(String topic) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(topic, emitter, bufferSize);
+        subscribers.computeIfAbsent(topic, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        logger.debug("SSE subscriber added for {}", topic);
+        return emitter;
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.topic, (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        subscriber.closed = true;
+    }
+
+    private void publish(String topic, ServiceRequestEvent event) {
+        Set<Subscriber> topicSubscribers = subscribers.get(topic);
+        if (topicSubscribers == null) {
+            return;
+        }
+        long id = sequence.incrementAndGet();
+        for (Subscriber subscriber : topicSubscribers) {
+            subscriber.offer(new Delivery(id, event));
+        }
+    }
+
+    private static final class Delivery {
+        private final long id;
+        private final ServiceRequestEvent event;
+
+        private Delivery(long id, ServiceRequestEvent event) {
+            this.id = id;
+            this.event = event;
+        }
+    }
+
+    private final class Subscriber {
+        private final String topic;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Delivery> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicInteger dropped = new AtomicInteger();
+        private volatile boolean closed;
+
+        private Subscriber(String topic, SseEmitter emitter, int capacity) {
+            this.topic = topic;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void offer(Delivery delivery) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(delivery)) {
+                switch (overflowPolicy) {
+                    case DROP_OLDEST:
+                        buffer.poll();
+                        buffer.offer(delivery);
+                        break;
+                    case DROP_NEWEST:
+                        break;
+                    case DISCONNECT:
+                        logger.warn("Disconnecting slow SSE subscriber on {}", topic);
+                        close();
+                        return;
+                }
+                if (dropped.incrementAndGet() > maxDropped) {
+                    logger.warn("SSE subscriber on {} dropped more than {} events, disconnecting", topic, maxDropped);
+                    close();
+                    return;
+                }
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Delivery delivery;
+                while (!closed && (delivery = buffer.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(delivery.id))
+                            .name(delivery.event.getType().name())
+                            .data(delivery.event.getServiceRequest(), MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("SSE subscriber on {} went away: {}", topic, e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void close() {
+            if (!closed) {
+                unsubscribe(this);
+                buffer.clear();
+                emitter.complete();
+            }
+        }
+    }
+}
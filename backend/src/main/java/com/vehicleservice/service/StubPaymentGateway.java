@@ -0,0 +1,42 @@
+package com.vehicleservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for a card processor: sleeps for a configurable latency and fails a
+ * configurable fraction of calls transiently. Cards ending in 0000 are declined.
+ */
+@Service
+public class StubPaymentGateway implements PaymentGateway {
+
+    @Value("${app.payments.stub.latency-ms:200}")
+    private long latencyMs;
+
+    @Value("${app.payments.stub.failure-rate:0.0}")
+    private double failureRate;
+
+    private final Map<String, String> charges = new ConcurrentHashMap<>();
+
+    @Override
+    public String charge(String idempotencyKey, double amount, String paymentMethod, String cardLastFour) {
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while charging", e);
+        }
+        if ("0000".equals(cardLastFour)) {
+            throw new DeclinedException("Card declined");
+        }
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException("Gateway timeout");
+        }
+        return charges.computeIfAbsent(idempotencyKey, key -> "stub_" + UUID.randomUUID());
+    }
+}
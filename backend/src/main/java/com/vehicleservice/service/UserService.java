@@ -1,12 +1,16 @@
 package com.vehicleservice.service;
 
+import com.vehicleservice.exception.ResourceNotFoundException;
 import com.vehicleservice.model.User;
 import com.vehicleservice.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -17,16 +21,8 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    public User registerUser(User user) {
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new RuntimeException("Email already exists");
-        }
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        if (user.getAddress() == null || user.getAddress().trim().isEmpty()) {
-            throw new RuntimeException("Address is required");
-        }
-        return userRepository.save(user);
-    }
+    @Autowired
+    private MechanicAssignmentEngine assignmentEngine;
 
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
@@ -34,7 +30,7 @@ public class UserService {
 
     public User findById(Long id) {
         return userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> ResourceNotFoundException.USER);
     }
 
     public List<User> getAllUsers() {
@@ -46,9 +42,16 @@ public class UserService {
     }
 
     public List<User> getAvailableUsersByRole(String role) {
-        // For now, return all users with the specified role
-        // In a real application, you might check availability based on work schedule
-        return userRepository.findByRole(role);
+        List<User> users = userRepository.findByRole(role);
+        if (!"MECHANIC".equals(role)) {
+            return users;
+        }
+        // Least-loaded mechanics first, by the assignment engine's in-memory workload
+        // (untracked mechanics have no open jobs yet)
+        Map<Long, Integer> ranking = assignmentEngine.getMechanicRanking();
+        List<User> sorted = new ArrayList<>(users);
+        sorted.sort(Comparator.comparingInt(user -> ranking.getOrDefault(user.getId(), -1)));
+        return sorted;
     }
 
     public User updateUser(Long id, User userDetails) {
@@ -0,0 +1,212 @@
+package com.vehicleservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vehicleservice.dto.ServiceItemDTO;
+import com.vehicleservice.dto.VehicleHistoryEntryDTO;
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.exception.ValidationException;
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.model.ServiceItem;
+import com.vehicleservice.model.ServiceRequest;
+import com.vehicleservice.model.Vehicle;
+import com.vehicleservice.model.VehicleServiceHistory;
+import com.vehicleservice.repository.VehicleRepository;
+import com.vehicleservice.repository.VehicleServiceHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains vehicle_service_history, an append-only timeline written at the moment a
+ * service request is completed or its invoice is paid, and keeps the vehicle's
+ * lastServiceDate, lastServiceMileage and mileage current alongside it. Reading a timeline is then one
+ * range read of (vehicle_id, occurred_at) instead of a join over requests, invoices
+ * and items.
+ */
+@Service
+public class VehicleHistoryService {
+    private static final Logger logger = LoggerFactory.getLogger(VehicleHistoryService.class);
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+    private static final int MAX_DESCRIPTION_LENGTH = 1000;
+
+    private static final String INSERT_SQL = "INSERT INTO vehicle_service_history "
+            + "(vehicle_id, event_type, source_key, occurred_at, service_request_id, invoice_id, service_type, "
+            + "description, mechanic_name, mileage, amount, items_json) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final TypeReference<List<ServiceItemDTO>> ITEM_LIST = new TypeReference<>() {};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private VehicleServiceHistoryRepository historyRepository;
+
+    @Autowired
+    private MaintenanceReminderService maintenanceReminderService;
+
+    /**
+     * Records the completion of a service request. mileage is the odometer reading taken
+     * at completion, if the mechanic supplied one. Runs in the caller's transaction.
+     */
+    @Transactional
+    public void recordRequestCompleted(ServiceRequest serviceRequest, Integer mileage) {
+        Vehicle vehicle = serviceRequest.getVehicle();
+        if (vehicle == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String mechanicName = serviceRequest.getMechanic() != null ? serviceRequest.getMechanic().getName() : null;
+        boolean inserted = append(vehicle.getId(), VehicleServiceHistory.EventType.REQUEST_COMPLETED,
+                serviceRequest.getId(), now, serviceRequest.getId(), null, serviceRequest.getServiceType(),
+                truncate(serviceRequest.getDescription()), mechanicName, mileage, null, null);
+        if (inserted) {
+            advanceVehicle(vehicle, now, mileage);
+        }
+    }
+
+    /**
+     * Records a paid invoice together with a snapshot of its line items. Runs in the
+     * caller's transaction.
+     */
+    @Transactional
+    public void recordInvoicePaid(Invoice invoice) {
+        ServiceRequest serviceRequest = invoice.getServiceRequest();
+        if (serviceRequest == null || serviceRequest.getVehicle() == null) {
+            return;
+        }
+        LocalDateTime paidAt = invoice.getPaidAt() != null ? invoice.getPaidAt() : LocalDateTime.now();
+        boolean inserted = append(serviceRequest.getVehicle().getId(), VehicleServiceHistory.EventType.INVOICE_PAID,
+                invoice.getId(), paidAt, serviceRequest.getId(), invoice.getId(), serviceRequest.getServiceType(),
+                null, null, null, invoice.getTotalAmount(), itemsJson(invoice.getServiceItems()));
+        if (inserted) {
+            advanceVehicle(serviceRequest.getVehicle(), paidAt, null);
+        }
+    }
+
+    /**
+     * Timeline of the vehicle, newest first. from and to are inclusive and optional.
+     */
+    @Transactional(readOnly = true)
+    public List<VehicleHistoryEntryDTO> getTimeline(Long vehicleId, LocalDateTime from, LocalDateTime to, Integer limit) {
+        if (!vehicleRepository.existsById(vehicleId)) {
+            throw ResourceNotFoundException.VEHICLE;
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ValidationException("from must not be after to");
+        }
+        int size = limit == null ? DEFAULT_LIMIT : limit;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new ValidationException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return historyRepository.findByVehicleIdAndOccurredAtBetweenOrderByOccurredAtDesc(vehicleId,
+                        from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0),
+                        to != null ? to : LocalDateTime.of(9999, 12, 31, 23, 59),
+                        PageRequest.of(0, size)).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    private boolean append(Long vehicleId, VehicleServiceHistory.EventType type, Long sourceId, LocalDateTime occurredAt,
+                           Long serviceRequestId, Long invoiceId, String serviceType, String description,
+                           String mechanicName, Integer mileage, Double amount, String itemsJson) {
+        // source_key is unique, so completing or paying the same thing twice leaves one row.
+        // Only that duplicate is expected; not INSERT IGNORE, which would also swallow
+        // truncation, foreign key and NOT NULL errors.
+        try {
+            jdbcTemplate.update(INSERT_SQL, vehicleId, type.name(), type.name() + ":" + sourceId,
+                    Timestamp.valueOf(occurredAt), serviceRequestId, invoiceId, serviceType, description, mechanicName,
+                    mileage, amount, itemsJson);
+            return true;
+        } catch (DuplicateKeyException e) {
+            logger.debug("History entry {}:{} already recorded for vehicleId={}", type, sourceId, vehicleId);
+            return false;
+        }
+    }
+
+    /**
+     * Moves the vehicle forward only: an out-of-order event never winds back the last
+     * service date or the odometer. Goes through the managed entity so a later flush of
+     * the same vehicle cannot overwrite the new values.
+     */
+    private void advanceVehicle(Vehicle vehicle, LocalDateTime occurredAt, Integer mileage) {
+        if (mileage != null && (vehicle.getMileage() == null || vehicle.getMileage() < mileage)) {
+            vehicle.setMileage(mileage);
+        }
+        if (vehicle.getLastServiceDate() == null || vehicle.getLastServiceDate().isBefore(occurredAt)) {
+            vehicle.setLastServiceDate(occurredAt);
+            vehicle.setLastServiceMileage(mileage != null ? mileage : vehicle.getMileage());
+            // A new service cycle: reminders raised for the previous one are settled
+            maintenanceReminderService.closeOpenReminders(vehicle.getId());
+        }
+    }
+
+    private String itemsJson(List<ServiceItem> items) {
+        if (items == null || items.isEmpty()) {
+            return null;
+        }
+        List<ServiceItemDTO> snapshot = new ArrayList<>(items.size());
+        for (ServiceItem item : items) {
+            ServiceItemDTO dto = new ServiceItemDTO();
+            dto.setName(item.getName());
+            dto.setDescription(item.getDescription());
+            dto.setType(item.getType());
+            dto.setPartNumber(item.getPartNumber());
+            dto.setQuantity(item.getQuantity());
+            dto.setPrice(item.getPrice());
+            snapshot.add(dto);
+        }
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize invoice items", e);
+        }
+    }
+
+    private VehicleHistoryEntryDTO convertToDTO(VehicleServiceHistory entry) {
+        VehicleHistoryEntryDTO dto = new VehicleHistoryEntryDTO();
+        dto.setId(entry.getId());
+        dto.setVehicleId(entry.getVehicleId());
+        dto.setEventType(entry.getEventType());
+        dto.setOccurredAt(entry.getOccurredAt());
+        dto.setServiceRequestId(entry.getServiceRequestId());
+        dto.setInvoiceId(entry.getInvoiceId());
+        dto.setServiceType(entry.getServiceType());
+        dto.setDescription(entry.getDescription());
+        dto.setMechanicName(entry.getMechanicName());
+        dto.setMileage(entry.getMileage());
+        dto.setAmount(entry.getAmount());
+        if (entry.getItemsJson() != null) {
+            try {
+                dto.setItems(objectMapper.readValue(entry.getItemsJson(), ITEM_LIST));
+            } catch (JsonProcessingException e) {
+                logger.warn("Unreadable items on history entry id={}", entry.getId(), e);
+            }
+        }
+        return dto;
+    }
+
+    private static String truncate(String text) {
+        return text != null && text.length() > MAX_DESCRIPTION_LENGTH ? text.substring(0, MAX_DESCRIPTION_LENGTH) : text;
+    }
+}
@@ -0,0 +1,421 @@
+package com.vehicleservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vehicleservice.dto.VehicleDTO;
+import com.vehicleservice.dto.VehicleImportResultDTO;
+import com.vehicleservice.event.DomainEvent;
+import com.vehicleservice.exception.ApiException;
+import com.vehicleservice.exception.ValidationException;
+import com.vehicleservice.model.Vehicle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams a fleet's vehicles in from CSV or NDJSON. The body is read a line at a time
+ * and handled in chunks: rows are validated in parallel, checked against existing plates
+ * and VINs with one IN query, and inserted with one JDBC batch. Each chunk commits on its
+ * own, so a bad row costs that row only, and the result lists every rejected row. Past
+ * max-rows reading stops and the result is partial: earlier chunks have already
+ * committed, so it says where the rest of the file starts instead of failing.
+ */
+@Service
+public class VehicleImportService {
+    private static final Logger logger = LoggerFactory.getLogger(VehicleImportService.class);
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final String INSERT_SQL =
+            "INSERT INTO vehicles (user_id, make, model, year, license_plate, vin_number, mileage, plate_key, vin_key, "
+                    + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DomainEventOutbox domainEventOutbox;
+
+    @Value("${app.vehicle-import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.vehicle-import.max-rows:100000}")
+    private int maxRows;
+
+    @Value("${app.vehicle-import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public VehicleImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public VehicleImportResultDTO importVehicles(Long userId, InputStream body, Format format) {
+        userService.findById(userId);
+        long started = System.currentTimeMillis();
+        ImportRun run = new ImportRun(userId);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = null;
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && columns == null) {
+                    columns = csvHeader(line);
+                    continue;
+                }
+                if (run.result.getTotalRows() >= maxRows) {
+                    run.result.setRowLimitReached(true);
+                    run.result.setStoppedAtLine(lineNumber);
+                    break;
+                }
+                run.result.setTotalRows(run.result.getTotalRows() + 1);
+                chunk.add(format == Format.CSV ? csvRow(lineNumber, line, columns) : jsonRow(lineNumber, line));
+                if (chunk.size() >= chunkSize) {
+                    processChunk(run, chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(run, chunk);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read vehicle import", e);
+        }
+
+        logger.info("Vehicle import userId={} rows={} imported={} failed={} rowLimitReached={} in {}ms", userId,
+                run.result.getTotalRows(), run.result.getImported(), run.result.getFailed(),
+                run.result.isRowLimitReached(), System.currentTimeMillis() - started);
+        return run.result;
+    }
+
+    private void processChunk(ImportRun run, List<ImportRow> chunk) {
+        // Validation only looks at the row itself, so the rows can be checked concurrently
+        chunk.parallelStream().forEach(row -> {
+            if (row.error == null) {
+                try {
+                    vehicleService.validateNewVehicle(row.vehicle);
+                } catch (ApiException e) {
+                    row.error = e.getMessage();
+                }
+            }
+        });
+
+        // Duplicates within the file, then against the table in one query
+        List<ImportRow> candidates = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (row.error != null) {
+                continue;
+            }
+            if (!run.plateKeys.add(row.vehicle.getPlateKey())) {
+                row.error = "Duplicate license plate in this import";
+            } else if (row.vehicle.getVinKey() != null && !run.vinKeys.add(row.vehicle.getVinKey())) {
+                row.error = "Duplicate VIN in this import";
+            } else {
+                candidates.add(row);
+            }
+        }
+        markExisting(candidates);
+
+        List<ImportRow> inserts = new ArrayList<>(candidates.size());
+        for (ImportRow row : candidates) {
+            if (row.error == null) {
+                inserts.add(row);
+            }
+        }
+        insert(run.userId, inserts);
+
+        for (ImportRow row : chunk) {
+            if (row.error == null) {
+                run.result.setImported(run.result.getImported() + 1);
+            } else {
+                run.result.setFailed(run.result.getFailed() + 1);
+                if (run.result.getErrors().size() < maxReportedErrors) {
+                    run.result.getErrors().add(new VehicleImportResultDTO.RowError(row.lineNumber,
+                            row.vehicle != null ? row.vehicle.getLicensePlate() : null, row.error));
+                } else {
+                    run.result.setErrorsTruncated(true);
+                }
+            }
+        }
+    }
+
+    private void markExisting(List<ImportRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(rows.size() * 2);
+        List<String> vinKeys = new ArrayList<>();
+        for (ImportRow row : rows) {
+            args.add(row.vehicle.getPlateKey());
+            if (row.vehicle.getVinKey() != null) {
+                vinKeys.add(row.vehicle.getVinKey());
+            }
+        }
+        String sql = "SELECT plate_key, vin_key FROM vehicles WHERE plate_key IN (" + placeholders(rows.size()) + ")";
+        if (!vinKeys.isEmpty()) {
+            sql += " OR vin_key IN (" + placeholders(vinKeys.size()) + ")";
+            args.addAll(vinKeys);
+        }
+        Set<String> existingPlates = new HashSet<>();
+        Set<String> existingVins = new HashSet<>();
+        jdbcTemplate.query(sql, rs -> {
+            existingPlates.add(rs.getString("plate_key"));
+            if (rs.getString("vin_key") != null) {
+                existingVins.add(rs.getString("vin_key"));
+            }
+        }, args.toArray());
+        for (ImportRow row : rows) {
+            if (existingPlates.contains(row.vehicle.getPlateKey())) {
+                row.error = "Vehicle with this license plate already exists";
+            } else if (row.vehicle.getVinKey() != null && existingVins.contains(row.vehicle.getVinKey())) {
+                row.error = "Vehicle with this VIN already exists";
+            }
+        }
+    }
+
+    private void insert(Long userId, List<ImportRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> bind(ps, userId, row.vehicle, now));
+                appendCreatedEvents(userId, rows);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent insert took a plate or VIN after the existence check. The chunk
+            // rolled back; insert row by row to find out which ones.
+            logger.debug("Batch insert hit a duplicate, retrying {} rows one at a time", rows.size());
+            for (ImportRow row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, userId, row.vehicle, now));
+                        appendCreatedEvents(userId, List.of(row));
+                    });
+                } catch (DataIntegrityViolationException duplicate) {
+                    row.error = "Vehicle with this license plate or VIN already exists";
+                }
+            }
+        }
+    }
+
+    /**
+     * Outbox events for a chunk just inserted in the current transaction. The batch insert
+     * does not return keys, so the new ids are read back by plate key.
+     */
+    private void appendCreatedEvents(Long userId, List<ImportRow> rows) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, plate_key FROM vehicles WHERE plate_key IN (" + placeholders(rows.size()) + ")",
+                rs -> {
+                    ids.put(rs.getString("plate_key"), rs.getLong("id"));
+                },
+                rows.stream().map(row -> row.vehicle.getPlateKey()).toArray());
+        List<Vehicle> vehicles = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            row.vehicle.setId(ids.get(row.vehicle.getPlateKey()));
+            vehicles.add(row.vehicle);
+        }
+        domainEventOutbox.appendAll(DomainEvent.VEHICLE, "CREATED", vehicles, Vehicle::getId, vehicle -> {
+            VehicleDTO dto = VehicleDTO.fromEntity(vehicle);
+            dto.setUserId(userId);
+            return dto;
+        });
+    }
+
+    private static void bind(PreparedStatement ps, Long userId, Vehicle vehicle, Timestamp now) throws SQLException {
+        ps.setLong(1, userId);
+        ps.setString(2, vehicle.getMake().trim());
+        ps.setString(3, vehicle.getModel().trim());
+        ps.setInt(4, vehicle.getYear());
+        ps.setString(5, vehicle.getLicensePlate().trim());
+        ps.setString(6, vehicle.getVinNumber() != null ? vehicle.getVinNumber().trim() : null);
+        if (vehicle.getMileage() != null) {
+            ps.setInt(7, vehicle.getMileage());
+        } else {
+            ps.setNull(7, Types.INTEGER);
+        }
+        ps.setString(8, vehicle.getPlateKey());
+        ps.setString(9, vehicle.getVinKey());
+        ps.setTimestamp(10, now);
+        ps.setTimestamp(11, now);
+    }
+
+    private ImportRow jsonRow(int lineNumber, String line) {
+        try {
+            // A bare null, number or array is valid JSON but not a vehicle
+            JsonNode node = objectMapper.readTree(line);
+            if (node == null || !node.isObject()) {
+                return ImportRow.failed(lineNumber, "Each line must be a JSON object");
+            }
+            return new ImportRow(lineNumber, toVehicle(objectMapper.treeToValue(node, VehicleDTO.class)));
+        } catch (JsonProcessingException e) {
+            return ImportRow.failed(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static Map<String, Integer> csvHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(line);
+        for (int i = 0; i < names.size(); i++) {
+            // licensePlate, license_plate and "License Plate" all name the same column
+            columns.put(names.get(i).replaceAll("[^A-Za-z0-9]", "").toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("make", "model", "year", "licenseplate")) {
+            if (!columns.containsKey(required)) {
+                throw new ValidationException("CSV header must include make, model, year and licensePlate");
+            }
+        }
+        return columns;
+    }
+
+    private static ImportRow csvRow(int lineNumber, String line, Map<String, Integer> columns) {
+        List<String> values = splitCsv(line);
+        VehicleDTO dto = new VehicleDTO();
+        dto.setMake(column(values, columns, "make"));
+        dto.setModel(column(values, columns, "model"));
+        dto.setLicensePlate(column(values, columns, "licenseplate"));
+        String vin = column(values, columns, "vinnumber");
+        dto.setVinNumber(vin != null ? vin : column(values, columns, "vin"));
+        try {
+            dto.setYear(parseInteger(column(values, columns, "year")));
+            dto.setMileage(parseInteger(column(values, columns, "mileage")));
+        } catch (NumberFormatException e) {
+            return ImportRow.failed(lineNumber, "year and mileage must be whole numbers");
+        }
+        return new ImportRow(lineNumber, toVehicle(dto));
+    }
+
+    private static Vehicle toVehicle(VehicleDTO dto) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setMake(dto.getMake());
+        vehicle.setModel(dto.getModel());
+        vehicle.setYear(dto.getYear());
+        vehicle.setLicensePlate(dto.getLicensePlate());
+        vehicle.setVinNumber(dto.getVinNumber());
+        vehicle.setMileage(dto.getMileage());
+        return vehicle;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Integer parseInteger(String value) {
+        return value != null ? Integer.valueOf(value) : null;
+    }
+
+    /**
+     * Splits one CSV record (RFC 4180 quoting, no embedded line breaks).
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static final class ImportRun {
+        private final Long userId;
+        private final VehicleImportResultDTO result = new VehicleImportResultDTO();
+        private final Set<String> plateKeys = new HashSet<>();
+        private final Set<String> vinKeys = new HashSet<>();
+
+        private ImportRun(Long userId) {
+            this.userId = userId;
+        }
+    }
+
+    private static final class ImportRow {
+        private final int lineNumber;
+        private final Vehicle vehicle;
+        private volatile String error;
+
+        private ImportRow(int lineNumber, Vehicle vehicle) {
+            this.lineNumber = lineNumber;
+            this.vehicle = vehicle;
+        }
+
+        private static ImportRow failed(int lineNumber, String error) {
+            ImportRow row = new ImportRow(lineNumber, null);
+            row.error = error;
+            return row;
+        }
+    }
+}
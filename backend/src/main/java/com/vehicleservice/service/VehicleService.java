@@ -1,50 +1,50 @@
 package com.vehicleservice.service;
 
+import com.vehicleservice.dto.VehicleDTO;
+import com.vehicleservice.event.DomainEvent;
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.exception.ValidationException;
 import com.vehicleservice.model.Vehicle;
 import com.vehicleservice.model.User;
 import com.vehicleservice.repository.VehicleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class VehicleService {
+    private static final Logger logger = LoggerFactory.getLogger(VehicleService.class);
+
+    private static final int MAX_PLATE_KEY_LENGTH = 20;
+    private static final int MAX_VIN_KEY_LENGTH = 17;
+    private static final int MAX_PLATE_SUGGESTIONS = 50;
+
     @Autowired
     private VehicleRepository vehicleRepository;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private DomainEventOutbox domainEventOutbox;
+
     @Transactional
     public Vehicle addVehicle(Vehicle vehicle, Long userId) {
-        System.out.println("VehicleService.addVehicle called with userId: " + userId);
-        
-        // Validate required fields
-        if (vehicle.getMake() == null || vehicle.getMake().trim().isEmpty()) {
-            throw new RuntimeException("Make is required");
-        }
-        if (vehicle.getModel() == null || vehicle.getModel().trim().isEmpty()) {
-            throw new RuntimeException("Model is required");
-        }
-        if (vehicle.getYear() == null || vehicle.getYear() < 1900 || vehicle.getYear() > LocalDateTime.now().getYear() + 1) {
-            throw new RuntimeException("Invalid year");
-        }
-        if (vehicle.getLicensePlate() == null || vehicle.getLicensePlate().trim().isEmpty()) {
-            throw new RuntimeException("License plate is required");
-        }
-
-        // Check for duplicate license plate
-        if (vehicleRepository.existsByLicensePlate(vehicle.getLicensePlate())) {
-            throw new RuntimeException("Vehicle with this license plate already exists");
-        }
+        logger.debug("Adding vehicle for userId={}", userId);
+        validateNewVehicle(vehicle);
 
         // Get user and set relationships
         User user = userService.findById(userId);
-        System.out.println("Found user: " + user.getName() + " (ID: " + user.getId() + ")");
         vehicle.setUser(user);
         
         // Set current timestamp
@@ -52,6 +52,48 @@ public class VehicleService {
         vehicle.setCreatedAt(now);
         vehicle.setUpdatedAt(now);
 
+        // No existence pre-check: it would race with a concurrent insert. The unique
+        // indexes on plate_key and vin_key decide, and the violation is reported as a 409.
+        Vehicle savedVehicle;
+        try {
+            savedVehicle = vehicleRepository.saveAndFlush(vehicle);
+        } catch (DataIntegrityViolationException e) {
+            String cause = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase();
+            if (cause.contains("vin_key") || cause.contains("vin_number")) {
+                throw new ConflictException("Vehicle with this VIN already exists");
+            }
+            throw new ConflictException("Vehicle with this license plate already exists");
+        }
+        logger.debug("Vehicle saved vehicleId={} userId={}", savedVehicle.getId(), userId);
+        domainEventOutbox.append(DomainEvent.VEHICLE, savedVehicle.getId(), "CREATED", VehicleDTO.fromEntity(savedVehicle));
+        
+        return savedVehicle;
+    }
+
+    /**
+     * Checks the fields a new vehicle needs and blanks out empty optional ones. Touches
+     * nothing but the vehicle, so the bulk import runs it on many rows in parallel.
+     */
+    public void validateNewVehicle(Vehicle vehicle) {
+        if (vehicle.getMake() == null || vehicle.getMake().trim().isEmpty()) {
+            throw new ValidationException("Make is required");
+        }
+        if (vehicle.getModel() == null || vehicle.getModel().trim().isEmpty()) {
+            throw new ValidationException("Model is required");
+        }
+        if (vehicle.getYear() == null || vehicle.getYear() < 1900 || vehicle.getYear() > LocalDateTime.now().getYear() + 1) {
+            throw new ValidationException("Invalid year");
+        }
+        if (vehicle.getLicensePlate() == null || Vehicle.plateKey(vehicle.getLicensePlate()).isEmpty()) {
+            throw new ValidationException("License plate is required");
+        }
+        if (Vehicle.plateKey(vehicle.getLicensePlate()).length() > MAX_PLATE_KEY_LENGTH) {
+            throw new ValidationException("License plate is too long");
+        }
+        if (vehicle.getVinKey() != null && vehicle.getVinKey().length() > MAX_VIN_KEY_LENGTH) {
+            throw new ValidationException("VIN must be at most " + MAX_VIN_KEY_LENGTH + " characters");
+        }
+
         // Set optional fields to null if empty
         if (vehicle.getVinNumber() != null && vehicle.getVinNumber().trim().isEmpty()) {
             vehicle.setVinNumber(null);
@@ -59,36 +101,31 @@ public class VehicleService {
         if (vehicle.getMileage() != null && vehicle.getMileage() <= 0) {
             vehicle.setMileage(null);
         }
-
-        System.out.println("Saving vehicle: " + vehicle.getMake() + " " + vehicle.getModel() + " " + vehicle.getLicensePlate());
-        Vehicle savedVehicle = vehicleRepository.save(vehicle);
-        System.out.println("Vehicle saved with ID: " + savedVehicle.getId());
-        
-        return savedVehicle;
     }
 
     @Transactional(readOnly = true)
     public List<Vehicle> getVehiclesByUser(Long userId) {
-        System.out.println("VehicleService.getVehiclesByUser called with userId: " + userId);
         User user = userService.findById(userId);
-        System.out.println("Found user: " + user.getName() + " (ID: " + user.getId() + ")");
         List<Vehicle> vehicles = vehicleRepository.findByUser(user);
-        System.out.println("Found " + vehicles.size() + " vehicles for user " + userId);
-        for (Vehicle vehicle : vehicles) {
-            System.out.println("Vehicle: " + vehicle.getMake() + " " + vehicle.getModel() + " (ID: " + vehicle.getId() + ")");
+        logger.debug("Found {} vehicles for userId={}", vehicles.size(), userId);
+        if (logger.isTraceEnabled()) {
+            for (Vehicle vehicle : vehicles) {
+                logger.trace("Vehicle vehicleId={} make={} model={}", vehicle.getId(), vehicle.getMake(), vehicle.getModel());
+            }
         }
         return vehicles;
     }
 
     @Transactional(readOnly = true)
     public List<Vehicle> getAllVehicles() {
-        System.out.println("VehicleService.getAllVehicles called");
         List<Vehicle> vehicles = vehicleRepository.findAll();
-        System.out.println("Found " + vehicles.size() + " total vehicles in database");
-        for (Vehicle vehicle : vehicles) {
-            System.out.println("Vehicle: " + vehicle.getMake() + " " + vehicle.getModel() + 
-                             " (ID: " + vehicle.getId() + ", User: " + 
-                             (vehicle.getUser() != null ? vehicle.getUser().getName() : "null") + ")");
+        logger.debug("Found {} vehicles in total", vehicles.size());
+        if (logger.isTraceEnabled()) {
+            // User id only: getUser().getName() would initialize one lazy proxy per row
+            for (Vehicle vehicle : vehicles) {
+                logger.trace("Vehicle vehicleId={} make={} model={} userId={}", vehicle.getId(), vehicle.getMake(),
+                        vehicle.getModel(), vehicle.getUser() != null ? vehicle.getUser().getId() : null);
+            }
         }
         return vehicles;
     }
@@ -96,7 +133,39 @@ public class VehicleService {
     @Transactional(readOnly = true)
     public Vehicle getVehicleById(Long id) {
         return vehicleRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Vehicle not found"));
+                .orElseThrow(() -> ResourceNotFoundException.VEHICLE);
+    }
+
+    /**
+     * Exact lookup that ignores case and separators, so "ab-123" finds "AB 123".
+     */
+    @Transactional(readOnly = true)
+    public Vehicle findByLicensePlate(String licensePlate) {
+        return vehicleRepository.findByPlateKey(Vehicle.plateKey(licensePlate))
+                .orElseThrow(() -> ResourceNotFoundException.VEHICLE);
+    }
+
+    @Transactional(readOnly = true)
+    public Vehicle findByVin(String vinNumber) {
+        String key = Vehicle.vinKey(vinNumber);
+        if (key == null) {
+            throw ResourceNotFoundException.VEHICLE;
+        }
+        return vehicleRepository.findByVinKey(key).orElseThrow(() -> ResourceNotFoundException.VEHICLE);
+    }
+
+    /**
+     * Vehicles whose normalized plate starts with the given characters, for check-in
+     * type-ahead. One range scan of the plate_key index.
+     */
+    @Transactional(readOnly = true)
+    public List<Vehicle> searchByPlatePrefix(String prefix, int limit) {
+        String key = Vehicle.plateKey(prefix);
+        if (key == null || key.isEmpty()) {
+            return List.of();
+        }
+        return vehicleRepository.findByPlateKeyStartingWithOrderByPlateKeyAsc(key,
+                PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PLATE_SUGGESTIONS))));
     }
 
     @Transactional
@@ -106,12 +175,17 @@ public class VehicleService {
         vehicle.setModel(vehicleDetails.getModel());
         vehicle.setYear(vehicleDetails.getYear());
         vehicle.setUpdatedAt(LocalDateTime.now());
-        return vehicleRepository.save(vehicle);
+        logger.debug("Updating vehicleId={}", id);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        domainEventOutbox.append(DomainEvent.VEHICLE, id, "UPDATED", VehicleDTO.fromEntity(saved));
+        return saved;
     }
 
     @Transactional
     public void deleteVehicle(Long id) {
         Vehicle vehicle = getVehicleById(id);
         vehicleRepository.delete(vehicle);
+        domainEventOutbox.append(DomainEvent.VEHICLE, id, "DELETED", Map.of("id", id));
+        logger.debug("Deleted vehicleId={}", id);
     }
 } 
\ No newline at end of file
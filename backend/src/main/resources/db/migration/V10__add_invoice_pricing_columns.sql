@@ -0,0 +1,15 @@
+-- Server-computed invoice totals (InvoicePricingService) and an optimistic-lock version
+ALTER TABLE invoices ADD COLUMN subtotal DOUBLE NOT NULL DEFAULT 0;
+ALTER TABLE invoices ADD COLUMN tax_amount DOUBLE NOT NULL DEFAULT 0;
+ALTER TABLE invoices ADD COLUMN discount_amount DOUBLE NOT NULL DEFAULT 0;
+ALTER TABLE invoices ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Recompute open invoices from their items (no tax or discount was applied before).
+-- Paid invoices keep the amount that was charged.
+UPDATE invoices i
+SET subtotal = COALESCE((SELECT ROUND(SUM(s.price * s.quantity), 2) FROM service_items s WHERE s.invoice_id = i.id), 0)
+WHERE i.status <> 'COMPLETED';
+
+UPDATE invoices SET total_amount = subtotal WHERE subtotal > 0 AND status <> 'COMPLETED';
+
+UPDATE invoices SET subtotal = total_amount WHERE status = 'COMPLETED';
@@ -0,0 +1,13 @@
+-- Shop pricing rules compiled by PricingRuleEngine. NULL item_type / customer_id = any.
+CREATE TABLE IF NOT EXISTS pricing_rules (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    kind VARCHAR(255) NOT NULL,
+    item_type VARCHAR(255),
+    customer_id BIGINT,
+    rate DOUBLE,
+    amount DOUBLE,
+    priority INT NOT NULL DEFAULT 0,
+    enabled BIT NOT NULL DEFAULT 1,
+    updated_at DATETIME(6) NOT NULL
+);
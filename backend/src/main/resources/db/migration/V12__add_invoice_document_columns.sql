@@ -0,0 +1,5 @@
+-- Rendered invoice documents (InvoiceDocumentService): content hash of the stored file
+-- and the invoice version it was rendered from. Written with plain SQL so that
+-- recording a render does not bump the invoice's optimistic-lock version.
+ALTER TABLE invoices ADD COLUMN document_hash CHAR(64) NULL;
+ALTER TABLE invoices ADD COLUMN document_version BIGINT NULL;
@@ -0,0 +1,42 @@
+-- Parts catalog served from memory by PartsCatalogService, with list-price history.
+-- part_key is the part number as PartsCatalogIndex.normalize matches it (letters and
+-- digits only, upper case), so "BK-12A" and "bk 12a" cannot both be stored.
+CREATE TABLE IF NOT EXISTS parts (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    part_number VARCHAR(100) NOT NULL,
+    part_key VARCHAR(100) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(500),
+    type VARCHAR(50),
+    price DOUBLE NOT NULL,
+    warranty_info VARCHAR(255),
+    active BIT NOT NULL DEFAULT 1,
+    updated_at DATETIME(6) NOT NULL,
+    CONSTRAINT uk_parts_part_number UNIQUE (part_number),
+    CONSTRAINT uk_parts_part_key UNIQUE (part_key)
+);
+
+CREATE TABLE IF NOT EXISTS part_price_history (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    part_id BIGINT NOT NULL,
+    price DOUBLE NOT NULL,
+    effective_from DATETIME(6) NOT NULL,
+    CONSTRAINT fk_part_price_history_part FOREIGN KEY (part_id) REFERENCES parts (id)
+);
+
+CREATE INDEX idx_part_price_history_part ON part_price_history (part_id, effective_from);
+
+-- Seed the catalog from part numbers already used on invoices, at the last price charged
+INSERT INTO parts (part_number, part_key, name, description, type, price, warranty_info, active, updated_at)
+SELECT UPPER(TRIM(s.part_number)), latest.part_key, s.name, s.description, s.type, s.price, s.warranty_info, 1, NOW(6)
+FROM service_items s
+JOIN (
+    SELECT REGEXP_REPLACE(UPPER(part_number), '[^[:alnum:]]', '') AS part_key, MAX(id) AS last_id
+    FROM service_items
+    WHERE part_number IS NOT NULL
+    GROUP BY REGEXP_REPLACE(UPPER(part_number), '[^[:alnum:]]', '')
+    HAVING part_key <> ''
+) latest ON latest.last_id = s.id;
+
+INSERT INTO part_price_history (part_id, price, effective_from)
+SELECT id, price, updated_at FROM parts;
@@ -0,0 +1,35 @@
+-- Normalized plate / VIN keys (Vehicle.plateKey / Vehicle.vinKey): upper case ASCII letters
+-- and digits only; in VINs I, O and Q read as 1, 0 and 0. The regex is case-sensitive ('c')
+-- and runs before UPPER so that, as in Java, no non-ASCII letter survives or case-folds
+-- into the key. Keys of new rows are at most 20 (plate) and 17 (VIN) characters; longer
+-- legacy values are cut to fit the column.
+ALTER TABLE vehicles ADD COLUMN plate_key VARCHAR(32) NULL;
+ALTER TABLE vehicles ADD COLUMN vin_key VARCHAR(32) NULL;
+
+UPDATE vehicles SET plate_key = LEFT(UPPER(REGEXP_REPLACE(license_plate, '[^A-Za-z0-9]', '', 1, 0, 'c')), 32);
+
+UPDATE vehicles
+SET vin_key = NULLIF(LEFT(REPLACE(REPLACE(REPLACE(UPPER(REGEXP_REPLACE(vin_number, '[^A-Za-z0-9]', '', 1, 0, 'c')),
+        'I', '1'), 'O', '0'), 'Q', '0'), 32), '')
+WHERE vin_number IS NOT NULL;
+
+-- Rows that only differed by spelling ("ab-123" / "AB 123") now collide. Keep the oldest
+-- on the plain key and suffix the others with their id so the unique indexes can be
+-- built; they still show up in prefix search and can be merged by hand. The key is cut
+-- before the suffix so the result still fits VARCHAR(32).
+UPDATE vehicles v
+JOIN (SELECT plate_key, MIN(id) AS keep_id FROM vehicles GROUP BY plate_key HAVING COUNT(*) > 1) d
+    ON v.plate_key = d.plate_key AND v.id <> d.keep_id
+SET v.plate_key = CONCAT(LEFT(v.plate_key, 31 - CHAR_LENGTH(v.id)), '#', v.id);
+
+UPDATE vehicles v
+JOIN (SELECT vin_key, MIN(id) AS keep_id FROM vehicles WHERE vin_key IS NOT NULL
+      GROUP BY vin_key HAVING COUNT(*) > 1) d
+    ON v.vin_key = d.vin_key AND v.id <> d.keep_id
+SET v.vin_key = CONCAT(LEFT(v.vin_key, 31 - CHAR_LENGTH(v.id)), '#', v.id);
+
+ALTER TABLE vehicles MODIFY plate_key VARCHAR(32) NOT NULL;
+
+-- Also serve plate prefix search (plate_key LIKE 'AB1%') as a range scan
+CREATE UNIQUE INDEX uk_vehicles_plate_key ON vehicles (plate_key);
+CREATE UNIQUE INDEX uk_vehicles_vin_key ON vehicles (vin_key);
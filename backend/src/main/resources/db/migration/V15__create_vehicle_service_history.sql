@@ -0,0 +1,49 @@
+-- Append-only, denormalized service timeline per vehicle (VehicleHistoryService).
+-- source_key makes recording the same completion or payment twice a no-op.
+CREATE TABLE IF NOT EXISTS vehicle_service_history (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    vehicle_id BIGINT NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    source_key VARCHAR(64) NOT NULL,
+    occurred_at DATETIME(6) NOT NULL,
+    service_request_id BIGINT,
+    invoice_id BIGINT,
+    service_type VARCHAR(255),
+    description VARCHAR(1000),
+    mechanic_name VARCHAR(255),
+    mileage INT,
+    amount DOUBLE,
+    items_json TEXT,
+    CONSTRAINT uk_vehicle_service_history_source UNIQUE (source_key)
+);
+
+-- A vehicle's timeline is one range read of this index
+CREATE INDEX idx_vehicle_service_history_timeline ON vehicle_service_history (vehicle_id, occurred_at);
+
+-- Backfill. Completion times were never recorded, so past completions are dated by
+-- their appointment. The table is new and each source_key comes from one row, so
+-- there is nothing to ignore; requests without a vehicle have no timeline.
+INSERT INTO vehicle_service_history
+    (vehicle_id, event_type, source_key, occurred_at, service_request_id, service_type, description, mechanic_name)
+SELECT sr.vehicle_id, 'REQUEST_COMPLETED', CONCAT('REQUEST_COMPLETED:', sr.id),
+       COALESCE(sr.preferred_date, sr.created_at), sr.id, sr.service_type, LEFT(sr.description, 1000), m.name
+FROM service_requests sr
+LEFT JOIN users m ON m.id = sr.mechanic_id
+WHERE sr.status = 'COMPLETED' AND sr.vehicle_id IS NOT NULL;
+
+INSERT INTO vehicle_service_history
+    (vehicle_id, event_type, source_key, occurred_at, service_request_id, invoice_id, service_type, amount, items_json)
+SELECT sr.vehicle_id, 'INVOICE_PAID', CONCAT('INVOICE_PAID:', i.id), i.paid_at, sr.id, i.id, sr.service_type,
+       i.total_amount,
+       (SELECT JSON_ARRAYAGG(JSON_OBJECT('name', s.name, 'description', s.description, 'type', s.type,
+               'partNumber', s.part_number, 'quantity', s.quantity, 'price', s.price))
+        FROM service_items s WHERE s.invoice_id = i.id)
+FROM invoices i
+JOIN service_requests sr ON sr.id = i.service_request_id
+WHERE i.status = 'COMPLETED' AND i.paid_at IS NOT NULL AND sr.vehicle_id IS NOT NULL;
+
+UPDATE vehicles v
+JOIN (SELECT vehicle_id, MAX(occurred_at) AS last_at FROM vehicle_service_history GROUP BY vehicle_id) h
+    ON h.vehicle_id = v.id
+SET v.last_service_date = h.last_at
+WHERE v.last_service_date IS NULL OR v.last_service_date < h.last_at;
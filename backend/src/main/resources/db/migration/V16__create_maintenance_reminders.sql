@@ -0,0 +1,37 @@
+-- Predictive maintenance reminders (MaintenanceReminderService).
+
+ALTER TABLE vehicles ADD COLUMN last_service_mileage INT;
+
+-- Best available reading for services recorded before the column existed
+UPDATE vehicles SET last_service_mileage = mileage WHERE last_service_date IS NOT NULL;
+
+-- One reminder per vehicle, kind and service cycle. cycle_key identifies the cycle
+-- (the last service date, or the vehicle's creation for never-serviced vehicles), so
+-- re-running a scan never raises the same reminder twice.
+CREATE TABLE IF NOT EXISTS maintenance_reminders (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    vehicle_id BIGINT NOT NULL,
+    reminder_type VARCHAR(32) NOT NULL,
+    cycle_key VARCHAR(32) NOT NULL,
+    reason VARCHAR(255) NOT NULL,
+    due_at DATETIME(6),
+    due_mileage INT,
+    status VARCHAR(16) NOT NULL DEFAULT 'OPEN',
+    created_at DATETIME(6) NOT NULL,
+    closed_at DATETIME(6),
+    CONSTRAINT uk_maintenance_reminders_cycle UNIQUE (vehicle_id, reminder_type, cycle_key),
+    INDEX idx_maintenance_reminders_vehicle_status (vehicle_id, status)
+);
+
+-- Named leases for cluster-wide singleton jobs. The holder renews lease_until while it
+-- works; watermark is the job's persisted progress so another node can resume it.
+CREATE TABLE IF NOT EXISTS job_leases (
+    name VARCHAR(64) PRIMARY KEY,
+    owner VARCHAR(128),
+    lease_until DATETIME(6),
+    watermark BIGINT NOT NULL DEFAULT 0,
+    pass_started_at DATETIME(6),
+    last_completed_at DATETIME(6)
+);
+
+INSERT INTO job_leases (name) VALUES ('maintenance-reminders') ON DUPLICATE KEY UPDATE name = name;
@@ -0,0 +1,58 @@
+-- Management analytics: daily rollups maintained by delta (AnalyticsRollupService).
+
+ALTER TABLE service_requests ADD COLUMN completed_at DATETIME(6);
+
+-- Completion times recorded by the service history, else the same fallback it used
+UPDATE service_requests sr
+JOIN vehicle_service_history h ON h.source_key = CONCAT('REQUEST_COMPLETED:', sr.id)
+SET sr.completed_at = h.occurred_at
+WHERE sr.status = 'COMPLETED';
+
+UPDATE service_requests SET completed_at = COALESCE(preferred_date, created_at)
+WHERE status = 'COMPLETED' AND completed_at IS NULL;
+
+-- Per-day range reads for rebuilding a day from the source tables
+CREATE INDEX idx_service_requests_created_at ON service_requests (created_at);
+CREATE INDEX idx_service_requests_completed_at ON service_requests (completed_at);
+CREATE INDEX idx_invoices_paid_at ON invoices (paid_at);
+
+-- One row per (day, service type, mechanic). service_type '' and mechanic_id 0 stand
+-- for "none"; requests_created is never attributed to a mechanic.
+CREATE TABLE IF NOT EXISTS analytics_daily_rollups (
+    day DATE NOT NULL,
+    service_type VARCHAR(64) NOT NULL DEFAULT '',
+    mechanic_id BIGINT NOT NULL DEFAULT 0,
+    requests_created INT NOT NULL DEFAULT 0,
+    requests_completed INT NOT NULL DEFAULT 0,
+    turnaround_seconds BIGINT NOT NULL DEFAULT 0,
+    invoices_paid INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, service_type, mechanic_id)
+);
+
+INSERT INTO analytics_daily_rollups (day, service_type, mechanic_id, requests_created)
+SELECT DATE(created_at), COALESCE(LEFT(TRIM(service_type), 64), ''), 0, COUNT(*)
+FROM service_requests
+GROUP BY 1, 2
+ON DUPLICATE KEY UPDATE requests_created = requests_created + VALUES(requests_created);
+
+INSERT INTO analytics_daily_rollups (day, service_type, mechanic_id, requests_completed, turnaround_seconds)
+SELECT DATE(completed_at), COALESCE(LEFT(TRIM(service_type), 64), ''), COALESCE(mechanic_id, 0),
+       COUNT(*), SUM(GREATEST(TIMESTAMPDIFF(SECOND, created_at, completed_at), 0))
+FROM service_requests
+WHERE status = 'COMPLETED' AND completed_at IS NOT NULL
+GROUP BY 1, 2, 3
+ON DUPLICATE KEY UPDATE requests_completed = requests_completed + VALUES(requests_completed),
+                        turnaround_seconds = turnaround_seconds + VALUES(turnaround_seconds);
+
+INSERT INTO analytics_daily_rollups (day, service_type, mechanic_id, invoices_paid, revenue)
+SELECT DATE(i.paid_at), COALESCE(LEFT(TRIM(sr.service_type), 64), ''), COALESCE(sr.mechanic_id, 0),
+       COUNT(*), SUM(COALESCE(i.total_amount, 0))
+FROM invoices i
+LEFT JOIN service_requests sr ON sr.id = i.service_request_id
+WHERE i.status = 'COMPLETED' AND i.paid_at IS NOT NULL
+GROUP BY 1, 2, 3
+ON DUPLICATE KEY UPDATE invoices_paid = invoices_paid + VALUES(invoices_paid),
+                        revenue = revenue + VALUES(revenue);
+
+INSERT INTO job_leases (name) VALUES ('analytics-rebuild') ON DUPLICATE KEY UPDATE name = name;
@@ -0,0 +1,20 @@
+-- Cold storage for paid invoices with their items and payment intents, and for closed
+-- service requests (ArchiveService). Same columns and indexes as the hot tables plus
+-- archived_at. Rows are copied with explicit column lists, so column order does not
+-- matter, but a column added to a hot table later must be added to its archive table
+-- in the same migration and to the column list in ArchiveService.
+
+CREATE TABLE IF NOT EXISTS invoices_archive LIKE invoices;
+ALTER TABLE invoices_archive ADD COLUMN archived_at DATETIME(6) NOT NULL;
+
+CREATE TABLE IF NOT EXISTS service_items_archive LIKE service_items;
+ALTER TABLE service_items_archive ADD COLUMN archived_at DATETIME(6) NOT NULL;
+
+CREATE TABLE IF NOT EXISTS service_requests_archive LIKE service_requests;
+ALTER TABLE service_requests_archive ADD COLUMN archived_at DATETIME(6) NOT NULL;
+
+-- Intents move with their invoice, so fk_payment_intents_invoice stays in place
+CREATE TABLE IF NOT EXISTS payment_intents_archive LIKE payment_intents;
+ALTER TABLE payment_intents_archive ADD COLUMN archived_at DATETIME(6) NOT NULL;
+
+INSERT INTO job_leases (name) VALUES ('archive') ON DUPLICATE KEY UPDATE name = name;
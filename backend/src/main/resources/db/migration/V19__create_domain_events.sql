@@ -0,0 +1,31 @@
+-- Transactional outbox of domain events (DomainEventOutbox) and how far each
+-- in-process subscriber has consumed it (DomainEventDispatcher).
+
+CREATE TABLE IF NOT EXISTS domain_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    aggregate_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload MEDIUMTEXT,
+    created_at DATETIME(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS domain_event_checkpoints (
+    subscriber VARCHAR(64) PRIMARY KEY,
+    last_event_id BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME(6) NOT NULL
+);
+
+-- Id ranges a subscriber's checkpoint moved past while they were still empty. They are
+-- re-read until gap-max-age-ms so that a transaction committing late is not lost.
+CREATE TABLE IF NOT EXISTS domain_event_gaps (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    subscriber VARCHAR(64) NOT NULL,
+    from_id BIGINT NOT NULL,
+    to_id BIGINT NOT NULL,
+    skipped_at DATETIME(6) NOT NULL,
+    INDEX idx_domain_event_gaps_subscriber (subscriber, from_id),
+    INDEX idx_domain_event_gaps_skipped_at (skipped_at)
+);
+
+INSERT INTO job_leases (name) VALUES ('domain-events') ON DUPLICATE KEY UPDATE name = name;
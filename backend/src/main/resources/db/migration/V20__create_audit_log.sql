@@ -0,0 +1,14 @@
+-- Field-level change history of requests, invoices, items, vehicles and users,
+-- written by AuditLogService from Hibernate entity events.
+
+CREATE TABLE IF NOT EXISTS audit_log (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity_type VARCHAR(32) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    action VARCHAR(16) NOT NULL,
+    changes TEXT,
+    actor VARCHAR(255),
+    occurred_at DATETIME(6) NOT NULL,
+    INDEX idx_audit_log_entity (entity_type, entity_id, occurred_at),
+    INDEX idx_audit_log_occurred_at (occurred_at)
+);
@@ -0,0 +1,10 @@
+-- At most one open (not SUCCEEDED/FAILED) payment intent per invoice. PaymentService
+-- already serializes on the invoice row; this is the backstop. MySQL has no partial
+-- unique index, so the key is a generated column that is NULL once the intent settles.
+-- payment_intents_archive does without it: only settled intents are archived, and
+-- ArchiveService copies them by an explicit column list that leaves it out.
+
+ALTER TABLE payment_intents
+    ADD COLUMN open_invoice_id BIGINT
+        AS (CASE WHEN status IN ('SUCCEEDED', 'FAILED') THEN NULL ELSE invoice_id END) STORED,
+    ADD UNIQUE KEY uk_payment_intents_open_invoice (open_invoice_id);
@@ -0,0 +1,5 @@
+-- Rule-set version (CompiledRuleSet.getVersion) the stored totals were priced with.
+-- InvoicePricingService only applies per-line deltas while it matches the current rule
+-- set and reprices the whole invoice otherwise; NULL (existing rows) always reprices.
+ALTER TABLE invoices ADD COLUMN pricing_version VARCHAR(16) NULL;
+ALTER TABLE invoices_archive ADD COLUMN pricing_version VARCHAR(16) NULL AFTER document_version;
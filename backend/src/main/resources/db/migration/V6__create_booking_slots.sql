@@ -0,0 +1,11 @@
+-- Booked bays per calendar slot (CapacityCalendarService). Bookings take a bay with a
+-- conditional UPDATE; the service keeps an in-memory copy for availability lookups.
+
+CREATE TABLE IF NOT EXISTS booking_slots (
+    slot_date DATE NOT NULL,
+    slot_index INT NOT NULL,
+    booked INT NOT NULL DEFAULT 0,
+    capacity INT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (slot_date, slot_index)
+);
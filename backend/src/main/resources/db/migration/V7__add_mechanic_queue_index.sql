@@ -0,0 +1,14 @@
+-- Numeric priority so "my jobs" can be read in priority order straight from an index
+ALTER TABLE service_requests ADD COLUMN priority_rank INT NOT NULL DEFAULT 3;
+
+UPDATE service_requests
+SET priority_rank = CASE UPPER(priority)
+    WHEN 'HIGH' THEN 0
+    WHEN 'MEDIUM' THEN 1
+    WHEN 'LOW' THEN 2
+    ELSE 3
+END;
+
+-- Backs ServiceRequestRepository.findByMechanic_IdAndStatusInOrderByPriorityRankAscPreferredDateAsc
+CREATE INDEX idx_service_requests_mechanic_queue
+    ON service_requests (mechanic_id, status, priority_rank, preferred_date);
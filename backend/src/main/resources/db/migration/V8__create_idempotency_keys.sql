@@ -0,0 +1,13 @@
+-- Responses of requests sent with an Idempotency-Key header (IdempotencyService).
+-- response_json stays NULL until the original request commits.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    scope VARCHAR(64) NOT NULL,
+    idem_key VARCHAR(128) NOT NULL,
+    fingerprint CHAR(64) NOT NULL,
+    response_json MEDIUMTEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (scope, idem_key),
+    INDEX idx_idempotency_keys_expires_at (expires_at)
+);
@@ -0,0 +1,30 @@
+-- Accepted payments (PaymentService) and the outbox the payment workers drain.
+-- An intent and its outbox row are written in the same transaction.
+
+CREATE TABLE IF NOT EXISTS payment_intents (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    invoice_id BIGINT NOT NULL,
+    amount DOUBLE NOT NULL,
+    payment_method VARCHAR(255) NOT NULL,
+    card_last_four VARCHAR(255),
+    status VARCHAR(255) NOT NULL,
+    gateway_reference VARCHAR(255),
+    failure_reason VARCHAR(255),
+    created_at DATETIME(6) NOT NULL,
+    completed_at DATETIME(6),
+    INDEX idx_payment_intents_invoice (invoice_id, status),
+    CONSTRAINT fk_payment_intents_invoice FOREIGN KEY (invoice_id) REFERENCES invoices (id)
+);
+
+CREATE TABLE IF NOT EXISTS payment_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    payment_intent_id BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    lease_until DATETIME(6),
+    last_error VARCHAR(512),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_payment_outbox_due (status, next_attempt_at),
+    CONSTRAINT fk_payment_outbox_intent FOREIGN KEY (payment_intent_id) REFERENCES payment_intents (id)
+);
@@ -0,0 +1,46 @@
+package com.vehicleservice.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DataSourceProxyConfigTest {
+
+    @Test
+    void statementsThroughTheWrappedPoolAreCountedInTheOpenScope() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource wrapped = (DataSource) DataSourceProxyConfig.queryStatsDataSourceWrapper()
+                .postProcessAfterInitialization(pool, "dataSource");
+
+        try (Connection conn = wrapped.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("SELECT 1");
+            try (QueryStats stats = QueryStats.open()) {
+                stmt.execute("SELECT * FROM vehicles WHERE id = 1");
+                stmt.execute("SELECT * FROM vehicles WHERE id = 2");
+
+                assertThat(stats.getStatementCount()).isEqualTo(2);
+                assertThat(stats.getRepeatedStatements(2)).singleElement()
+                        .extracting(QueryStats.RepeatedStatement::getShape)
+                        .isEqualTo("SELECT * FROM vehicles WHERE id = ?");
+            }
+        }
+    }
+
+    @Test
+    void nonDataSourceBeansAreLeftAlone() {
+        Object bean = new Object();
+
+        assertThat(DataSourceProxyConfig.queryStatsDataSourceWrapper().postProcessAfterInitialization(bean, "other"))
+                .isSameAs(bean);
+    }
+}
@@ -0,0 +1,91 @@
+package com.vehicleservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DatabaseConcurrencyLimitFilterTest {
+
+    private DatabaseConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        HikariDataSource hikari = mock(HikariDataSource.class);
+        when(hikari.unwrap(HikariDataSource.class)).thenReturn(hikari);
+        when(hikari.getMaximumPoolSize()).thenReturn(1);
+        when(hikari.getConnectionTimeout()).thenReturn(50L);
+        filter = new DatabaseConcurrencyLimitFilter(hikari, 1);
+    }
+
+    @Test
+    void releasesThePermitAfterEachRequest() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/invoices"), first, new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/invoices"), second, new MockFilterChain());
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(filter.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWith503WhenNoPermitFreesUpInTime() throws Exception {
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowChain = (request, response) -> {
+            inside.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread holder = Thread.ofVirtual().start(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/invoices"), new MockHttpServletResponse(), slowChain);
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+        assertThat(inside.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/invoices"), rejected, new MockFilterChain());
+        release.countDown();
+        holder.join();
+
+        assertThat(failure.get()).isNull();
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(filter.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void skipsStreamsAndNonApiPaths() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/invoices"), new MockHttpServletResponse(), (req, res) -> {
+            MockHttpServletResponse stream = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/service-requests/stream/user/1"), stream,
+                    new MockFilterChain());
+            MockHttpServletResponse health = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), health, new MockFilterChain());
+
+            assertThat(stream.getStatus()).isEqualTo(200);
+            assertThat(health.getStatus()).isEqualTo(200);
+        });
+    }
+}
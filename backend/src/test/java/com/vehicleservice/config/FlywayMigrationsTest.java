@@ -0,0 +1,58 @@
+package com.vehicleservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlywayMigrationsTest {
+
+    private static final Pattern MIGRATION_NAME = Pattern.compile("V(\\d+)__\\w+\\.sql");
+
+    @Test
+    void flywayAndItsMySqlSupportAreOnTheClasspath() throws IOException {
+        // Without these Boot skips FlywayAutoConfiguration and ddl-auto=validate fails on startup
+        assertThat(ClassUtils.isPresent("org.flywaydb.core.Flyway", null)).isTrue();
+        assertThat(ClassUtils.isPresent("org.flywaydb.database.mysql.MySQLDatabaseType", null)).isTrue();
+        assertThat(applicationProperties().getProperty("spring.flyway.enabled")).isEqualTo("true");
+    }
+
+    @Test
+    void migrationsAfterTheBaselineAreContiguous() throws IOException {
+        int baseline = Integer.parseInt(applicationProperties().getProperty("spring.flyway.baseline-version"));
+        List<Integer> versions = migrationVersions();
+
+        assertThat(versions).doesNotHaveDuplicates();
+        assertThat(versions).contains(baseline);
+        List<Integer> pending = versions.stream().filter(v -> v > baseline).sorted().toList();
+        for (int i = 0; i < pending.size(); i++) {
+            assertThat(pending.get(i)).isEqualTo(baseline + 1 + i);
+        }
+    }
+
+    private static List<Integer> migrationVersions() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/*.sql");
+        List<Integer> versions = new ArrayList<>();
+        for (Resource resource : resources) {
+            Matcher matcher = MIGRATION_NAME.matcher(resource.getFilename());
+            assertThat(matcher.matches()).as("migration name %s", resource.getFilename()).isTrue();
+            versions.add(Integer.parseInt(matcher.group(1)));
+        }
+        return versions;
+    }
+
+    private static Properties applicationProperties() throws IOException {
+        return PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.vehicleservice.config;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Query budgets for tests, so a change that adds statements to a code path fails the
+ * build instead of showing up as latency later:
+ *
+ *   QueryCountAssertions.assertMaxQueries(3, () -> invoiceService.getInvoiceById(id));
+ *   QueryCountAssertions.assertNoRepeatedStatements(() -> invoiceService.getAllInvoices());
+ *
+ * Statements are counted on the calling thread, which covers service calls and MockMvc.
+ * Against a running server (TestRestTemplate, Postman) check the X-Query-Count header
+ * instead, with app.query-stats.headers=true. Failures throw AssertionError so any test
+ * framework reports them.
+ */
+public final class QueryCountAssertions {
+
+    public static final int DEFAULT_REPEAT_THRESHOLD = 5;
+
+    private QueryCountAssertions() {
+    }
+
+    public static QueryStats measure(Runnable action) {
+        try (QueryStats stats = QueryStats.open()) {
+            action.run();
+            return stats;
+        }
+    }
+
+    public static <T> T assertMaxQueries(int max, Supplier<T> action) {
+        try (QueryStats stats = QueryStats.open()) {
+            T result = action.get();
+            if (stats.getStatementCount() > max) {
+                throw new AssertionError("Expected at most " + max + " statements but " + stats.getStatementCount()
+                        + " ran; most repeated: " + stats.getRepeatedStatements(2));
+            }
+            return result;
+        }
+    }
+
+    public static void assertMaxQueries(int max, Runnable action) {
+        assertMaxQueries(max, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static void assertQueryCount(int expected, Runnable action) {
+        QueryStats stats = measure(action);
+        if (stats.getStatementCount() != expected) {
+            throw new AssertionError("Expected " + expected + " statements but " + stats.getStatementCount() + " ran");
+        }
+    }
+
+    /**
+     * Fails when any statement shape runs DEFAULT_REPEAT_THRESHOLD times or more, the
+     * same rule the request filter uses to flag suspected N+1 loads.
+     */
+    public static <T> T assertNoRepeatedStatements(Supplier<T> action) {
+        return assertNoRepeatedStatements(DEFAULT_REPEAT_THRESHOLD, action);
+    }
+
+    public static <T> T assertNoRepeatedStatements(int threshold, Supplier<T> action) {
+        try (QueryStats stats = QueryStats.open()) {
+            T result = action.get();
+            List<QueryStats.RepeatedStatement> repeated = stats.getRepeatedStatements(threshold);
+            if (!repeated.isEmpty()) {
+                throw new AssertionError("Suspected N+1: " + repeated);
+            }
+            return result;
+        }
+    }
+}
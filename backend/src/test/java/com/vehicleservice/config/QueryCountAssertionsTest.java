@@ -0,0 +1,59 @@
+package com.vehicleservice.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryCountAssertionsTest {
+
+    @Test
+    void budgetPassesWithinTheLimitAndReturnsTheResult() {
+        String result = QueryCountAssertions.assertMaxQueries(2, () -> {
+            QueryStats.record("SELECT * FROM invoices WHERE id = 1", 0);
+            QueryStats.record("SELECT * FROM service_items WHERE invoice_id = 1", 0);
+            return "invoice";
+        });
+
+        assertThat(result).isEqualTo("invoice");
+        assertThat(QueryStats.isActive()).isFalse();
+    }
+
+    @Test
+    void budgetFailsWhenTheCodePathRunsMoreStatements() {
+        assertThatThrownBy(() -> QueryCountAssertions.assertMaxQueries(1, () -> {
+            QueryStats.record("SELECT * FROM vehicles WHERE id = 1", 0);
+            QueryStats.record("SELECT * FROM vehicles WHERE id = 2", 0);
+        }))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("at most 1 statements but 2 ran")
+                .hasMessageContaining("2 x SELECT * FROM vehicles WHERE id = ?");
+        assertThat(QueryStats.isActive()).isFalse();
+    }
+
+    @Test
+    void exactCountMustMatch() {
+        QueryCountAssertions.assertQueryCount(1, () -> QueryStats.record("SELECT 1", 0));
+
+        assertThatThrownBy(() -> QueryCountAssertions.assertQueryCount(2, () -> QueryStats.record("SELECT 1", 0)))
+                .isInstanceOf(AssertionError.class)
+                .hasMessage("Expected 2 statements but 1 ran");
+    }
+
+    @Test
+    void repeatedShapeIsReportedAsSuspectedNPlusOne() {
+        assertThatThrownBy(() -> QueryCountAssertions.assertNoRepeatedStatements(() -> {
+            for (int id = 1; id <= QueryCountAssertions.DEFAULT_REPEAT_THRESHOLD; id++) {
+                QueryStats.record("SELECT * FROM service_items WHERE invoice_id = " + id, 0);
+            }
+            return null;
+        }))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageStartingWith("Suspected N+1: [5 x SELECT * FROM service_items WHERE invoice_id = ?]");
+
+        assertThat(QueryCountAssertions.assertNoRepeatedStatements(() -> {
+            QueryStats.record("SELECT * FROM service_items WHERE invoice_id IN (1, 2, 3, 4, 5)", 0);
+            return 5;
+        })).isEqualTo(5);
+    }
+}
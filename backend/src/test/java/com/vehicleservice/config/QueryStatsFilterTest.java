@@ -0,0 +1,49 @@
+package com.vehicleservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryStatsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QueryStatsFilter filter = new QueryStatsFilter(registry, true, 5);
+
+    @Test
+    void apiResponseCarriesTheQueryCountAndItsBody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/invoices/5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            QueryStats.record("SELECT * FROM invoices WHERE id = 5", 0);
+            res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+        };
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(response.getHeader(QueryStatsFilter.QUERY_COUNT_HEADER)).isEqualTo("1");
+        assertThat(response.getContentAsString()).isEqualTo("{}");
+        assertThat(registry.get("http.server.requests.queries").summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sendfileDocumentKeepsItsContentLength() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/invoices/5/document");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            res.setContentLengthLong(60_000);
+            req.setAttribute("org.apache.tomcat.sendfile.filename", "/tmp/invoice.html");
+        };
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(response.getContentLengthLong()).isEqualTo(60_000);
+        assertThat(response.getHeader(QueryStatsFilter.QUERY_COUNT_HEADER)).isNull();
+        assertThat(registry.get("http.server.requests.queries").summary().count()).isEqualTo(1);
+    }
+}
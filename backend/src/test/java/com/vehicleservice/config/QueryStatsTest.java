@@ -0,0 +1,65 @@
+package com.vehicleservice.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryStatsTest {
+
+    @Test
+    void shapeFoldsLiteralsWhitespaceAndInLists() {
+        assertThat(QueryStats.shapeOf("SELECT * FROM invoices  WHERE id = 42 AND status = 'it''s'"))
+                .isEqualTo("SELECT * FROM invoices WHERE id = ? AND status = ?");
+        assertThat(QueryStats.shapeOf("SELECT * FROM service_items WHERE invoice_id IN (?, ?,?)"))
+                .isEqualTo(QueryStats.shapeOf("SELECT * FROM service_items\n WHERE invoice_id IN (?)"))
+                .isEqualTo("SELECT * FROM service_items WHERE invoice_id IN (?...)");
+        assertThat(QueryStats.shapeOf("SELECT v2.id FROM vehicles v2 LIMIT 1.5"))
+                .isEqualTo("SELECT v2.id FROM vehicles v2 LIMIT ?");
+    }
+
+    @Test
+    void statementsCountTowardsEveryOpenScope() {
+        try (QueryStats outer = QueryStats.open()) {
+            QueryStats.record("SELECT 1", 1_000_000);
+            try (QueryStats inner = QueryStats.open()) {
+                QueryStats.record("SELECT 2", 500_000);
+                assertThat(inner.getStatementCount()).isEqualTo(1);
+            }
+            QueryStats.record("SELECT 3", 0);
+
+            assertThat(outer.getStatementCount()).isEqualTo(3);
+            assertThat(outer.getDbTimeMillis()).isEqualTo(1.5);
+        }
+        assertThat(QueryStats.isActive()).isFalse();
+    }
+
+    @Test
+    void repeatedShapesAreReportedMostRepeatedFirst() {
+        try (QueryStats stats = QueryStats.open()) {
+            for (int id = 1; id <= 6; id++) {
+                QueryStats.record("SELECT * FROM service_items WHERE invoice_id = " + id, 0);
+            }
+            for (int id = 1; id <= 4; id++) {
+                QueryStats.record("SELECT * FROM vehicles WHERE id = " + id, 0);
+            }
+            QueryStats.record("SELECT COUNT(*) FROM invoices", 0);
+
+            List<QueryStats.RepeatedStatement> repeated = stats.getRepeatedStatements(4);
+
+            assertThat(repeated).extracting(QueryStats.RepeatedStatement::getCount).containsExactly(6, 4);
+            assertThat(repeated.get(0).getShape()).isEqualTo("SELECT * FROM service_items WHERE invoice_id = ?");
+            assertThat(stats.getRepeatedStatements(7)).isEmpty();
+        }
+    }
+
+    @Test
+    void recordOutsideAScopeIsIgnored() {
+        QueryStats.record("SELECT 1", 0);
+
+        try (QueryStats stats = QueryStats.open()) {
+            assertThat(stats.getStatementCount()).isZero();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.vehicleservice.config;
+
+import com.vehicleservice.controller.ServiceRequestStreamController;
+import com.vehicleservice.model.User;
+import com.vehicleservice.security.CustomUserDetailsService;
+import com.vehicleservice.security.JwtAuthenticationFilter;
+import com.vehicleservice.security.JwtTokenProvider;
+import com.vehicleservice.service.AuthService;
+import com.vehicleservice.service.ServiceRequestStreamService;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringJUnitWebConfig(classes = {SecurityConfig.class, SecurityConfigTest.StreamWebConfig.class})
+class SecurityConfigTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @MockBean
+    private JwtTokenProvider tokenProvider;
+
+    @MockBean
+    private CustomUserDetailsService userDetailsService;
+
+    @MockBean
+    private ServiceRequestStreamService streamService;
+
+    @MockBean
+    private AuthService authService;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+        when(tokenProvider.validateToken("token")).thenReturn(true);
+        when(tokenProvider.getEmailFromJWT("token")).thenReturn("mia@example.com");
+        when(userDetailsService.loadUserByUsername("mia@example.com")).thenReturn(
+                new org.springframework.security.core.userdetails.User("mia@example.com", "",
+                        AuthorityUtils.createAuthorityList("MECHANIC")));
+        when(authService.getCurrentUser()).thenReturn(new User());
+    }
+
+    @Test
+    void completedStreamIsNotDeniedOnItsAsyncDispatch() throws Exception {
+        SseEmitter emitter = new SseEmitter(60_000L);
+        when(streamService.subscribeToMechanic(any(), eq(4L))).thenReturn(emitter);
+
+        MvcResult result = mvc.perform(get("/api/service-requests/stream/mechanic/4")
+                        .header("Authorization", "Bearer token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name("status").data("ASSIGNED"));
+        emitter.complete();
+
+        // The JWT filter skips async dispatches, so this one runs without an authentication
+        mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+
+    @Test
+    void streamStillNeedsAToken() throws Exception {
+        mvc.perform(get("/api/service-requests/stream/mechanic/4")).andExpect(status().isForbidden());
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class StreamWebConfig {
+
+        @Bean
+        JwtAuthenticationFilter jwtAuthenticationFilter(JwtTokenProvider tokenProvider,
+                                                        CustomUserDetailsService userDetailsService) {
+            return new JwtAuthenticationFilter(tokenProvider, userDetailsService);
+        }
+
+        @Bean
+        ServiceRequestStreamController serviceRequestStreamController() {
+            return new ServiceRequestStreamController();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.vehicleservice.controller;
+
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.exception.ForbiddenException;
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.exception.UnauthorizedException;
+import com.vehicleservice.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void domainExceptionsKeepTheirStatus() {
+        assertThat(handler.handleApiException(ResourceNotFoundException.INVOICE).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(handler.handleApiException(new ValidationException("bad")).getStatusCode())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(handler.handleApiException(new ConflictException("taken")).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+        assertThat(handler.handleApiException(ForbiddenException.NOT_OWNER).getStatusCode())
+                .isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(handler.handleApiException(UnauthorizedException.NOT_AUTHENTICATED).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void bareRuntimeExceptionIsAServerError() {
+        var response = handler.handleAllExceptions(new RuntimeException("boom"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(response.getBody()).containsEntry("error", "Internal server error");
+    }
+
+    @Test
+    void malformedInputIsABadRequestWithoutParserDetails() {
+        var body = handler.handleUnreadableBody(new HttpMessageNotReadableException(
+                "JSON parse error: Cannot deserialize value of type `java.lang.Integer` from String \"x\"",
+                new MockHttpInputMessage(new byte[0])));
+        var parameter = handler.handleMissingParameter(new MissingServletRequestParameterException("limit", "int"));
+
+        assertThat(body.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(body.getBody()).containsEntry("error", "Malformed request body");
+        assertThat(parameter.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(parameter.getBody()).containsEntry("error", "Missing request parameter: limit");
+    }
+
+    @Test
+    void illegalArgumentIsTreatedAsABug() {
+        var response = handler.handleAllExceptions(new IllegalArgumentException("id must not be null"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(response.getBody()).containsEntry("error", "Internal server error");
+    }
+}
@@ -0,0 +1,41 @@
+package com.vehicleservice.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.async.AsyncLoggerContext;
+import org.apache.logging.log4j.core.config.AppenderRef;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.ConfigurationFactory;
+import org.apache.logging.log4j.core.config.ConfigurationSource;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.filter.BurstFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoggingConfigurationTest {
+
+    @Test
+    void everyLoggerIsAsynchronous() {
+        assertThat(LogManager.getContext(false)).isInstanceOf(AsyncLoggerContext.class);
+    }
+
+    @Test
+    void rowLevelTraceOutputIsSampled() throws Exception {
+        LoggerContext context = new LoggerContext("logging-config-test");
+        ConfigurationSource source = ConfigurationSource.fromResource("log4j2-spring.xml", getClass().getClassLoader());
+        Configuration configuration = ConfigurationFactory.getInstance().getConfiguration(context, source);
+        configuration.initialize();
+
+        LoggerConfig root = configuration.getRootLogger();
+        assertThat(root.getLevel()).isEqualTo(Level.INFO);
+        assertThat(root.getAppenderRefs()).hasSize(1);
+        AppenderRef ref = root.getAppenderRefs().get(0);
+        assertThat(ref.getRef()).isEqualTo("JsonConsole");
+        Filter filter = ref.getFilter();
+        assertThat(filter).isInstanceOf(BurstFilter.class);
+        assertThat(((BurstFilter) filter).getAvailable()).isEqualTo(100);
+    }
+}
@@ -0,0 +1,65 @@
+package com.vehicleservice.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * FAIL_ON_EMPTY_BEANS stays on, so the entities that Hibernate may hand out as lazy
+ * proxies have to skip the proxy's own bookkeeping properties themselves.
+ */
+class EntitySerializationTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void emptyBeansStillFail() {
+        assertThatThrownBy(() -> objectMapper.writeValueAsString(new Object()))
+                .isInstanceOf(InvalidDefinitionException.class);
+    }
+
+    @Test
+    void proxiedUserSkipsHibernateInternals() throws Exception {
+        ProxiedUser user = new ProxiedUser();
+        user.setId(3L);
+        user.setName("Sam");
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(user));
+
+        assertThat(json.get("id").asLong()).isEqualTo(3L);
+        assertThat(json.has("hibernateLazyInitializer")).isFalse();
+        assertThat(json.has("handler")).isFalse();
+    }
+
+    @Test
+    void vehicleWithProxiedOwnerSerializes() throws Exception {
+        ProxiedUser owner = new ProxiedUser();
+        owner.setId(3L);
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(9L);
+        vehicle.setUser(owner);
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(vehicle));
+
+        assertThat(json.get("user").get("id").asLong()).isEqualTo(3L);
+    }
+
+    /**
+     * Stands in for a Hibernate proxy: same entity type plus accessors for state
+     * without any serializable properties.
+     */
+    static class ProxiedUser extends User {
+        public Object getHibernateLazyInitializer() {
+            return new Object();
+        }
+
+        public Object getHandler() {
+            return new Object();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.vehicleservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VehicleKeysTest {
+
+    @Test
+    void plateKeyIgnoresCaseAndSeparators() {
+        assertThat(Vehicle.plateKey("ab-123")).isEqualTo("AB123");
+        assertThat(Vehicle.plateKey(" AB 123 ")).isEqualTo("AB123");
+        assertThat(Vehicle.plateKey("ab.1_2/3")).isEqualTo("AB123");
+        assertThat(Vehicle.plateKey("--")).isEmpty();
+        assertThat(Vehicle.plateKey(null)).isNull();
+    }
+
+    @Test
+    void plateKeyKeepsOnlyAsciiLettersAndDigitsLikeTheV14Backfill() {
+        assertThat(Vehicle.plateKey("MÜ-ß 12")).isEqualTo("M12");
+        assertThat(Vehicle.plateKey("\u212A1\u0661")).isEqualTo("1");
+        assertThat(Vehicle.plateKey("ıi 7")).isEqualTo("I7");
+    }
+
+    @Test
+    void vinKeyReadsLettersThatNeverOccurInAVinAsDigits() {
+        assertThat(Vehicle.vinKey("1hgcm8263ia004352")).isEqualTo("1HGCM82631A004352");
+        assertThat(Vehicle.vinKey("1HG-CM826-3OA00Q352")).isEqualTo("1HGCM82630A000352");
+        assertThat(Vehicle.vinKey(" ")).isNull();
+        assertThat(Vehicle.vinKey(null)).isNull();
+    }
+
+    @Test
+    void settersKeepTheKeysInStep() {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setLicensePlate("xy 98-7");
+        vehicle.setVinNumber("wvwzzz1jz3w386752");
+
+        assertThat(vehicle.getPlateKey()).isEqualTo("XY987");
+        assertThat(vehicle.getVinKey()).isEqualTo("WVWZZZ1JZ3W386752");
+
+        vehicle.setVinNumber(null);
+        assertThat(vehicle.getVinKey()).isNull();
+    }
+}
@@ -0,0 +1,151 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.exception.ValidationException;
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.model.ServiceRequest;
+import com.vehicleservice.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AnalyticsRollupServiceTest {
+
+    private static final String UPSERT = "INSERT INTO analytics_daily_rollups (day, service_type, mechanic_id, "
+            + "requests_created";
+    private static final LocalDateTime PAID = LocalDateTime.of(2024, 5, 3, 16, 45);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final JobLeaseService jobLeaseService = mock(JobLeaseService.class);
+    private AnalyticsRollupService rollups;
+
+    @BeforeEach
+    void setUp() {
+        rollups = new AnalyticsRollupService(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(rollups, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(rollups, "jobLeaseService", jobLeaseService);
+    }
+
+    @Test
+    void onlyPaidInvoicesContributeRevenue() {
+        Invoice invoice = invoice(120.0);
+        invoice.setStatus("PENDING");
+
+        assertThat(rollups.revenueOf(invoice)).isNull();
+
+        invoice.setStatus("COMPLETED");
+        invoice.setPaidAt(null);
+        assertThat(rollups.revenueOf(invoice)).isNull();
+    }
+
+    @Test
+    void unchangedContributionWritesNothing() {
+        assertThat(rollups.revenueOf(invoice(120.0))).isEqualTo(rollups.revenueOf(invoice(120.004)));
+
+        rollups.applyChange(rollups.revenueOf(invoice(120.0)), rollups.revenueOf(invoice(120.004)));
+        rollups.applyChange(null, null);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void changedTotalMovesRevenueByDelta() {
+        rollups.applyChange(rollups.revenueOf(invoice(120.0)), rollups.revenueOf(invoice(150.0)));
+
+        Date day = Date.valueOf(PAID.toLocalDate());
+        verify(jdbcTemplate).update(startsWith(UPSERT), eq(day), eq("Oil change"), eq(9L),
+                eq(0), eq(0), eq(0L), eq(-1), eq(new BigDecimal("-120.00")));
+        verify(jdbcTemplate).update(startsWith(UPSERT), eq(day), eq("Oil change"), eq(9L),
+                eq(0), eq(0), eq(0L), eq(1), eq(new BigDecimal("150.00")));
+    }
+
+    @Test
+    void completionCountsTurnaroundForTheAssignedMechanic() {
+        ServiceRequest request = serviceRequest();
+        request.setStatus("COMPLETED");
+        request.setCreatedAt(PAID.minusHours(3));
+        request.setCompletedAt(PAID);
+
+        rollups.applyChange(null, rollups.completionOf(request));
+
+        verify(jdbcTemplate).update(startsWith(UPSERT), eq(Date.valueOf(PAID.toLocalDate())), eq("Oil change"),
+                eq(9L), eq(0), eq(1), eq(10800L), eq(0), eq(BigDecimal.ZERO));
+    }
+
+    @Test
+    void reportRejectsBadRangesAndGroupings() {
+        LocalDate day = PAID.toLocalDate();
+
+        assertThatThrownBy(() -> rollups.report(day, day.minusDays(1), null))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> rollups.report(day.minusYears(11), day, null))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> rollups.report(day, day, "vehicle"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("groupBy");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void rebuildRecountsEachDayUnderTheLease() {
+        when(jobLeaseService.tryAcquire(eq(AnalyticsRollupService.REBUILD_JOB), anyLong()))
+                .thenReturn(mock(JobLeaseService.Lease.class));
+        when(jobLeaseService.checkpoint(eq(AnalyticsRollupService.REBUILD_JOB), anyLong(), anyLong())).thenReturn(true);
+        LocalDate from = PAID.toLocalDate();
+
+        assertThat(rollups.rebuild(from, from.plusDays(1))).isEqualTo(2);
+
+        verify(jdbcTemplate).update("DELETE FROM analytics_daily_rollups WHERE day = ?", Date.valueOf(from));
+        verify(jdbcTemplate).update("DELETE FROM analytics_daily_rollups WHERE day = ?", Date.valueOf(from.plusDays(1)));
+        verify(jdbcTemplate, times(6)).update(startsWith("INSERT INTO analytics_daily_rollups"), any(Object[].class));
+        verify(jobLeaseService).completePass(AnalyticsRollupService.REBUILD_JOB);
+    }
+
+    @Test
+    void rebuildIsRefusedWhileAnotherRebuildHoldsTheLease() {
+        LocalDate day = PAID.toLocalDate();
+
+        assertThatThrownBy(() -> rollups.rebuild(day, day)).isInstanceOf(ConflictException.class);
+
+        verifyNoInteractions(jdbcTemplate);
+        verify(jobLeaseService, never()).release(any());
+    }
+
+    private static ServiceRequest serviceRequest() {
+        User mechanic = new User();
+        mechanic.setId(9L);
+        ServiceRequest request = new ServiceRequest();
+        request.setServiceType("  Oil change ");
+        request.setMechanic(mechanic);
+        return request;
+    }
+
+    private static Invoice invoice(double total) {
+        Invoice invoice = new Invoice();
+        invoice.setServiceRequest(serviceRequest());
+        invoice.setTotalAmount(total);
+        invoice.setStatus("COMPLETED");
+        invoice.setPaidAt(PAID);
+        return invoice;
+    }
+}
@@ -0,0 +1,140 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.event.ServiceRequestsArchivedEvent;
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.model.PaymentIntent;
+import com.vehicleservice.model.ServiceItem;
+import com.vehicleservice.model.ServiceRequest;
+import jakarta.persistence.Column;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToMany;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ArchiveServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final JobLeaseService jobLeaseService = mock(JobLeaseService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private ArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        archiveService = new ArchiveService(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(archiveService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(archiveService, "jobLeaseService", jobLeaseService);
+        ReflectionTestUtils.setField(archiveService, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(archiveService, "afterMonths", 24);
+        ReflectionTestUtils.setField(archiveService, "batchSize", 500);
+        ReflectionTestUtils.setField(archiveService, "maxBatchesPerRun", 200);
+        ReflectionTestUtils.setField(archiveService, "leaseSeconds", 120L);
+    }
+
+    @Test
+    void archiveColumnListsNameEveryMappedColumn() {
+        assertCovers("INVOICE_ARCHIVE_COLUMNS", Invoice.class);
+        assertCovers("ITEM_ARCHIVE_COLUMNS", ServiceItem.class);
+        assertCovers("REQUEST_ARCHIVE_COLUMNS", ServiceRequest.class);
+        assertCovers("INTENT_ARCHIVE_COLUMNS", PaymentIntent.class);
+        assertThat(columns("INVOICE_ARCHIVE_COLUMNS")).contains("document_hash", "document_version", "pricing_version");
+        assertThat(columns("INTENT_ARCHIVE_COLUMNS")).doesNotContain("open_invoice_id");
+    }
+
+    @Test
+    void paidInvoicesMoveWithTheirItemsAndSettledIntents() {
+        when(jobLeaseService.tryAcquire(eq(ArchiveService.JOB_NAME), anyLong()))
+                .thenReturn(mock(JobLeaseService.Lease.class));
+        when(jdbcTemplate.queryForList(startsWith("SELECT i.id FROM invoices"), eq(Long.class), any(Timestamp.class), eq(500)))
+                .thenReturn(List.of(11L, 12L));
+        when(jdbcTemplate.update(startsWith("DELETE FROM payment_intents"), any(Object[].class))).thenReturn(3);
+        when(jdbcTemplate.update(startsWith("DELETE FROM service_items"), any(Object[].class))).thenReturn(5);
+        when(jdbcTemplate.update(startsWith("DELETE FROM invoices"), any(Object[].class))).thenReturn(2);
+
+        Map<String, Object> result = archiveService.run();
+
+        assertThat(result).containsEntry("invoices", 2).containsEntry("serviceItems", 5)
+                .containsEntry("paymentIntents", 3).containsEntry("serviceRequests", 0);
+        ArgumentCaptor<String> selected = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).queryForList(selected.capture(), eq(Long.class), any(Timestamp.class), eq(500));
+        assertThat(selected.getAllValues().get(0)).contains("p.open_invoice_id IS NOT NULL", "'PENDING', 'IN_FLIGHT'");
+
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).update(statements.capture(), any(Object[].class));
+        assertThat(statements.getAllValues()).filteredOn(sql -> sql.startsWith("INSERT"))
+                .hasSize(3)
+                .allSatisfy(sql -> assertThat(sql).doesNotContain("*").contains(", archived_at) SELECT "));
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).update(startsWith("INSERT INTO payment_intents_archive"), any(Object[].class));
+        order.verify(jdbcTemplate).update(startsWith("DELETE o FROM payment_outbox"), any(Object[].class));
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM payment_intents"), any(Object[].class));
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM invoices"), any(Object[].class));
+        verify(jobLeaseService).completePass(ArchiveService.JOB_NAME);
+    }
+
+    @Test
+    void archivedRequestsArePublishedForTheSearchIndex() {
+        when(jobLeaseService.tryAcquire(eq(ArchiveService.JOB_NAME), anyLong()))
+                .thenReturn(mock(JobLeaseService.Lease.class));
+        when(jdbcTemplate.queryForList(startsWith("SELECT sr.id FROM service_requests sr WHERE sr.status = 'COMPLETED'"),
+                eq(Long.class), any(Timestamp.class), eq(500))).thenReturn(List.of(21L, 22L));
+        when(jdbcTemplate.update(startsWith("DELETE FROM service_requests"), any(Object[].class))).thenReturn(2);
+
+        Map<String, Object> result = archiveService.run();
+
+        assertThat(result).containsEntry("serviceRequests", 2);
+        ArgumentCaptor<ServiceRequestsArchivedEvent> event = ArgumentCaptor.forClass(ServiceRequestsArchivedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getServiceRequestIds()).containsExactly(21L, 22L);
+    }
+
+    private static void assertCovers(String constant, Class<?> entity) {
+        List<String> columns = columns(constant);
+        for (Field field : entity.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isAnnotationPresent(OneToMany.class)) {
+                continue;
+            }
+            assertThat(columns).as("%s.%s", entity.getSimpleName(), field.getName()).contains(columnOf(field));
+        }
+    }
+
+    private static String columnOf(Field field) {
+        JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+        if (joinColumn != null) {
+            return joinColumn.name();
+        }
+        Column column = field.getAnnotation(Column.class);
+        if (column != null && !column.name().isEmpty()) {
+            return column.name();
+        }
+        return field.getName().replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+    }
+
+    private static List<String> columns(String constant) {
+        return Arrays.asList(((String) ReflectionTestUtils.getField(ArchiveService.class, constant)).split(", "));
+    }
+}
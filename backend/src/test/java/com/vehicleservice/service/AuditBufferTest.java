@@ -0,0 +1,66 @@
+package com.vehicleservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditBufferTest {
+
+    @Test
+    void offerFailsAtCapacityUntilTheWriterDrains() {
+        AuditBuffer<Integer> buffer = new AuditBuffer<>(2);
+
+        assertThat(buffer.offer(1)).isTrue();
+        assertThat(buffer.offer(2)).isTrue();
+        assertThat(buffer.offer(3)).isFalse();
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 1)).isEqualTo(1);
+        assertThat(drained).containsExactly(1);
+        assertThat(buffer.offer(3)).isTrue();
+        assertThat(buffer.drainTo(drained, 10)).isEqualTo(2);
+        assertThat(drained).containsExactly(1, 2, 3);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void concurrentProducersNeverOverfillIt() throws Exception {
+        AuditBuffer<Integer> buffer = new AuditBuffer<>(500);
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService producers = Executors.newFixedThreadPool(8);
+        try {
+            for (int p = 0; p < 8; p++) {
+                producers.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < 1000; i++) {
+                        if (buffer.offer(i)) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            producers.shutdown();
+            assertThat(producers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(accepted.get()).isEqualTo(500);
+        assertThat(buffer.drainTo(drained, 1000)).isEqualTo(500);
+    }
+}
@@ -0,0 +1,96 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.model.User;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuditEntityListenerTest {
+
+    @Mock
+    private AuditLogService auditLogService;
+
+    @InjectMocks
+    private AuditEntityListener listener;
+
+    @Test
+    void updateRecordsOnlyChangedFieldsAndRedactsThePassword() {
+        EntityPersister persister = persister(User.class, "name", "password", "version");
+        PostUpdateEvent event = mock(PostUpdateEvent.class);
+        when(event.getPersister()).thenReturn(persister);
+        when(event.getId()).thenReturn(5L);
+        when(event.getOldState()).thenReturn(new Object[] {"Ann", "old-hash", 1L});
+        when(event.getState()).thenReturn(new Object[] {"Ann", "new-hash", 2L});
+
+        listener.onPostUpdate(event);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object[]>> changes = ArgumentCaptor.forClass(Map.class);
+        verify(auditLogService).record(eq("User"), eq(5L), eq("UPDATE"), changes.capture());
+        assertThat(changes.getValue()).containsOnlyKeys("password");
+        assertThat(changes.getValue().get("password")).containsExactly("[redacted]", "[redacted]");
+    }
+
+    @Test
+    void updateThatChangesNothingAuditedIsNotRecorded() {
+        EntityPersister persister = persister(Invoice.class, "status", "version");
+        PostUpdateEvent event = mock(PostUpdateEvent.class);
+        when(event.getPersister()).thenReturn(persister);
+        when(event.getOldState()).thenReturn(new Object[] {"PENDING", 1L});
+        when(event.getState()).thenReturn(new Object[] {"PENDING", 2L});
+
+        listener.onPostUpdate(event);
+
+        verify(auditLogService, never()).record(anyString(), anyLong(), anyString(), anyMap());
+    }
+
+    @Test
+    void unauditedEntitiesAreIgnored() {
+        EntityPersister persister = mock(EntityPersister.class);
+        when(persister.getMappedClass()).thenReturn((Class) String.class);
+        PostInsertEvent event = mock(PostInsertEvent.class);
+        when(event.getPersister()).thenReturn(persister);
+
+        listener.onPostInsert(event);
+
+        assertThat(listener.requiresPostCommitHandling(persister)).isFalse();
+        verify(auditLogService, never()).record(anyString(), anyLong(), anyString(), any());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static EntityPersister persister(Class<?> entity, String... properties) {
+        EntityPersister persister = mock(EntityPersister.class);
+        when(persister.getMappedClass()).thenReturn((Class) entity);
+        when(persister.getPropertyNames()).thenReturn(properties);
+        Type type = mock(Type.class);
+        Type[] types = new Type[properties.length];
+        Arrays.fill(types, type);
+        when(persister.getPropertyTypes()).thenReturn(types);
+        when(persister.isVersioned()).thenReturn(true);
+        when(persister.getVersionProperty()).thenReturn(properties.length - 1);
+        return persister;
+    }
+}
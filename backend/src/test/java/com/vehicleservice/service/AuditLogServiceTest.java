@@ -0,0 +1,131 @@
+package com.vehicleservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vehicleservice.exception.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class AuditLogServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void syncWritesTheRowRightAwayWithTheActingUser() throws Exception {
+        AuditLogService audit = service(AuditLogService.Durability.SYNC, AuditLogService.OverflowPolicy.BLOCK, 10);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+
+        audit.record("Invoice", 9L, "UPDATE", Map.of("status", new Object[] {"PENDING", "COMPLETED"}));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Object>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        ArgumentCaptor<Collection<Object>> entries = captor();
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO audit_log"), entries.capture(), anyInt(), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, entries.getValue().iterator().next());
+        verify(ps).setString(1, "Invoice");
+        verify(ps).setLong(2, 9L);
+        verify(ps).setString(4, "{\"status\":[\"PENDING\",\"COMPLETED\"]}");
+        verify(ps).setString(5, "alice");
+        assertThat(audit.getStatus()).containsEntry("written", 1L);
+    }
+
+    @Test
+    void asyncDropPolicyCountsEntriesThatDoNotFit() {
+        AuditLogService audit = service(AuditLogService.Durability.ASYNC, AuditLogService.OverflowPolicy.DROP, 1);
+
+        audit.record("Vehicle", 1L, "CREATE", Map.of());
+        audit.record("Vehicle", 2L, "CREATE", Map.of());
+
+        assertThat(audit.getStatus()).containsEntry("buffered", 1).containsEntry("dropped", 1L);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void asyncWriterFlushesWhatIsBufferedOnShutdown() throws Exception {
+        AuditLogService audit = service(AuditLogService.Durability.ASYNC, AuditLogService.OverflowPolicy.BLOCK, 100);
+        ReflectionTestUtils.setField(audit, "flushIntervalMs", 60_000L);
+        audit.start();
+
+        audit.record("Vehicle", 1L, "CREATE", Map.of());
+        audit.record("Vehicle", 1L, "UPDATE", Map.of());
+        audit.record("Vehicle", 1L, "DELETE", Map.of());
+        audit.shutdown();
+
+        // The writer may wake between records, so the three rows can arrive in more than one batch
+        assertThat(audit.getStatus()).containsEntry("written", 3L).containsEntry("buffered", 0);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(startsWith("INSERT INTO audit_log"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void asyncDirectChangeIsRecordedOnlyOnceTheTransactionCommits() {
+        AuditLogService audit = service(AuditLogService.Durability.ASYNC, AuditLogService.OverflowPolicy.DROP, 10);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            audit.recordDirectChange("Invoice", 5L, "UPDATE", Map.of("totalAmount", new Object[] {110.0, 154.0}));
+            assertThat(audit.getStatus()).containsEntry("buffered", 0);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(audit.getStatus()).containsEntry("buffered", 1);
+    }
+
+    @Test
+    void entriesLimitIsBounded() {
+        AuditLogService audit = service(AuditLogService.Durability.SYNC, AuditLogService.OverflowPolicy.BLOCK, 10);
+
+        assertThatThrownBy(() -> audit.getEntries("Invoice", 9L, 0)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> audit.getEntries("Invoice", 9L, 501)).isInstanceOf(ValidationException.class);
+    }
+
+    private AuditLogService service(AuditLogService.Durability durability, AuditLogService.OverflowPolicy policy,
+                                    int capacity) {
+        AuditLogService audit = new AuditLogService(durability, policy, capacity);
+        ReflectionTestUtils.setField(audit, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(audit, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(audit, "batchSize", 500);
+        ReflectionTestUtils.setField(audit, "flushIntervalMs", 200L);
+        ReflectionTestUtils.setField(audit, "blockTimeoutMs", 100L);
+        ReflectionTestUtils.setField(audit, "retryMaxMs", 30_000L);
+        ReflectionTestUtils.setField(audit, "shutdownTimeoutMs", 10_000L);
+        return audit;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Collection<Object>> captor() {
+        return ArgumentCaptor.forClass(Collection.class);
+    }
+}
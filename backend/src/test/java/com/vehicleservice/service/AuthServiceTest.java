@@ -0,0 +1,137 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.LoginRequest;
+import com.vehicleservice.dto.RegisterRequest;
+import com.vehicleservice.exception.UnauthorizedException;
+import com.vehicleservice.model.User;
+import com.vehicleservice.repository.UserRepository;
+import com.vehicleservice.repository.VehicleRepository;
+import com.vehicleservice.security.JwtTokenProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private MechanicAssignmentEngine assignmentEngine;
+
+    @InjectMocks
+    private AuthService authService;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void missingAuthenticationIsUnauthorized() {
+        assertThatThrownBy(() -> authService.getCurrentUser()).isSameAs(UnauthorizedException.NOT_AUTHENTICATED);
+    }
+
+    @Test
+    void anonymousAuthenticationIsUnauthorized() {
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        assertThatThrownBy(() -> authService.getCurrentUser()).isSameAs(UnauthorizedException.NOT_AUTHENTICATED);
+    }
+
+    @Test
+    void unknownEmailAndWrongPasswordFailTheSameWay() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail("nobody@example.com");
+        request.setPassword("secret");
+        when(userRepository.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> authService.login(request)).isSameAs(UnauthorizedException.INVALID_CREDENTIALS);
+
+        request.setEmail("sam@example.com");
+        when(userRepository.findByEmail("sam@example.com")).thenReturn(Optional.of(new User()));
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("bad"));
+
+        assertThatThrownBy(() -> authService.login(request)).isSameAs(UnauthorizedException.INVALID_CREDENTIALS);
+    }
+
+    @Test
+    void registeredMechanicIsTrackedOnceTheUserIsCommitted() {
+        RegisterRequest request = registration("mechanic");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            authService.register(request);
+            verify(assignmentEngine, never()).trackMechanic(anyLong());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(assignmentEngine).trackMechanic(7L);
+    }
+
+    @Test
+    void registeredMechanicIsTrackedRightAwayOutsideATransaction() {
+        authService.register(registration("MECHANIC"));
+
+        verify(assignmentEngine).trackMechanic(7L);
+    }
+
+    @Test
+    void registeredCustomerIsNotTracked() {
+        authService.register(registration(null));
+
+        verify(assignmentEngine, never()).trackMechanic(anyLong());
+    }
+
+    private RegisterRequest registration(String role) {
+        RegisterRequest request = new RegisterRequest();
+        request.setName("Sam");
+        request.setEmail("sam@example.com");
+        request.setPassword("secret");
+        request.setRole(role);
+        when(userRepository.findByEmail("sam@example.com")).thenReturn(Optional.empty());
+        when(passwordEncoder.encode("secret")).thenReturn("hash");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId(7L);
+            return user;
+        });
+        return request;
+    }
+}
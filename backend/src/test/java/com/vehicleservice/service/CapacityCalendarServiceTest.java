@@ -0,0 +1,159 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.repository.ServiceRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CapacityCalendarServiceTest {
+
+    private static final String TAKE_BAY = "UPDATE booking_slots SET booked = booked + 1";
+    private static final String RELEASE_BAY = "UPDATE booking_slots SET booked = booked - 1";
+    private static final String SELECT_SLOT = "SELECT booked FROM booking_slots WHERE slot_date = ?";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ServiceRequestRepository serviceRequestRepository = mock(ServiceRequestRepository.class);
+    private final LocalDate tomorrow = LocalDate.now().plusDays(1);
+    private CapacityCalendarService calendar;
+
+    @BeforeEach
+    void setUp() {
+        calendar = new CapacityCalendarService(4, 8, 18, 60, 30);
+        ReflectionTestUtils.setField(calendar, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(calendar, "serviceRequestRepository", serviceRequestRepository);
+    }
+
+    @Test
+    void reserveTakesTheBayInTheTableAndMirrorsItsCount() {
+        when(jdbcTemplate.update(startsWith(TAKE_BAY), any(Date.class), any(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(startsWith(SELECT_SLOT), eq(Integer.class), any(Date.class), any(Integer.class))).thenReturn(3);
+
+        calendar.reserve(tomorrow.atTime(10, 0));
+
+        verify(jdbcTemplate).update(startsWith(TAKE_BAY), eq(Date.valueOf(tomorrow)), eq(2));
+        assertThat(calendar.getDay(tomorrow).get(2).getBooked()).isEqualTo(3);
+        assertThat(calendar.getDayBooked(tomorrow)).isEqualTo(3);
+    }
+
+    @Test
+    void reserveFailsWhenTheTableSaysTheSlotIsFull() {
+        // Another instance filled the slot; this one had not seen those bookings yet
+        when(jdbcTemplate.update(startsWith(TAKE_BAY), any(Date.class), any(Integer.class))).thenReturn(0);
+        when(jdbcTemplate.queryForObject(startsWith(SELECT_SLOT), eq(Integer.class), any(Date.class), any(Integer.class))).thenReturn(4);
+
+        assertThatThrownBy(() -> calendar.reserve(tomorrow.atTime(10, 0)))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("first available slot is " + tomorrow.atTime(11, 0));
+
+        assertThat(calendar.getDay(tomorrow).get(2).getBooked()).isEqualTo(4);
+        assertThat(calendar.findFirstAvailable(tomorrow.atTime(10, 0)).getStart()).isEqualTo(tomorrow.atTime(11, 0));
+    }
+
+    @Test
+    void datesOutsideTheCalendarAreAcceptedUnchecked() {
+        calendar.reserve(tomorrow.atTime(20, 0));
+        calendar.reserve(LocalDate.now().plusDays(60).atTime(10, 0));
+        calendar.reserve(null);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void rolledBackReservationIsHandedBack() {
+        when(jdbcTemplate.update(startsWith(TAKE_BAY), any(Date.class), any(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(startsWith(SELECT_SLOT), eq(Integer.class), any(Date.class), any(Integer.class))).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            calendar.reserve(tomorrow.atTime(9, 30));
+            assertThat(calendar.getDay(tomorrow).get(1).getBooked()).isEqualTo(1);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(calendar.getDay(tomorrow).get(1).getBooked()).isZero();
+    }
+
+    @Test
+    void releaseGivesTheBayBackOnlyAfterCommit() {
+        when(jdbcTemplate.update(startsWith(TAKE_BAY), any(Date.class), any(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(startsWith(SELECT_SLOT), eq(Integer.class), any(Date.class), any(Integer.class))).thenReturn(2);
+        when(jdbcTemplate.update(startsWith(RELEASE_BAY), any(Date.class), any(Integer.class))).thenReturn(1);
+        calendar.reserve(tomorrow.atTime(14, 0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            calendar.release(tomorrow.atTime(14, 0));
+            assertThat(calendar.getDay(tomorrow).get(6).getBooked()).isEqualTo(2);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(calendar.getDay(tomorrow).get(6).getBooked()).isEqualTo(1);
+    }
+
+    @Test
+    void rebuildSeedsOpenRequestsAndLoadsTheTable() throws Exception {
+        ServiceRequestRepository.OpenRequestView open = mock(ServiceRequestRepository.OpenRequestView.class);
+        when(open.getPreferredDate()).thenReturn(tomorrow.atTime(8, 15));
+        when(serviceRequestRepository.findOpenRequests(any())).thenReturn(List.of(open, open));
+        ResultSet row = mock(ResultSet.class);
+        when(row.getDate("slot_date")).thenReturn(Date.valueOf(tomorrow));
+        when(row.getInt("slot_index")).thenReturn(0);
+        when(row.getInt("booked")).thenReturn(4);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT slot_date"), any(RowCallbackHandler.class), any(Date.class), any(Date.class));
+
+        calendar.rebuild();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> seed = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO booking_slots"), seed.capture());
+        assertThat(seed.getValue()).containsExactly(new Object[] {Date.valueOf(tomorrow), 0, 2, 4});
+        assertThat(calendar.getDay(tomorrow).get(0).getBooked()).isEqualTo(4);
+        assertThat(calendar.findFirstAvailable(tomorrow.atTime(8, 0)).getStart()).isEqualTo(tomorrow.atTime(9, 0));
+    }
+
+    @Test
+    void refreshKeepsTheCurrentCountsWhenTheTableIsUnreachable() {
+        when(jdbcTemplate.update(startsWith(TAKE_BAY), any(Date.class), any(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(startsWith(SELECT_SLOT), eq(Integer.class), any(Date.class), any(Integer.class))).thenReturn(1);
+        calendar.reserve(tomorrow.atTime(10, 0));
+        doAnswer(invocation -> {
+            throw new DataAccessResourceFailureException("down");
+        }).when(jdbcTemplate).query(startsWith("SELECT slot_date"), any(RowCallbackHandler.class), any(Date.class), any(Date.class));
+
+        calendar.refresh();
+
+        assertThat(calendar.getDay(tomorrow).get(2).getBooked()).isEqualTo(1);
+    }
+}
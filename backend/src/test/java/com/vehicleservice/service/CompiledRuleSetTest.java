@@ -0,0 +1,49 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.model.PricingRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledRuleSetTest {
+
+    @Test
+    void sameRulesInAnyOrderCompileToTheSameVersion() {
+        PricingRule tax = rule(1L, "TAX", 0.2);
+        PricingRule discount = rule(2L, "DISCOUNT", 0.1);
+
+        String version = CompiledRuleSet.compile(List.of(tax, discount), 0.0, 0.0).getVersion();
+
+        assertThat(version).hasSize(16);
+        assertThat(CompiledRuleSet.compile(List.of(discount, tax), 0.0, 0.0).getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    void changedRateOrDefaultsChangeTheVersion() {
+        String version = CompiledRuleSet.compile(List.of(rule(1L, "TAX", 0.2)), 0.0, 0.0).getVersion();
+
+        assertThat(CompiledRuleSet.compile(List.of(rule(1L, "TAX", 0.25)), 0.0, 0.0).getVersion()).isNotEqualTo(version);
+        assertThat(CompiledRuleSet.compile(List.of(rule(1L, "TAX", 0.2)), 0.1, 0.0).getVersion()).isNotEqualTo(version);
+    }
+
+    @Test
+    void disabledRulesDoNotChangeTheVersion() {
+        PricingRule disabled = rule(3L, "DISCOUNT", 0.5);
+        disabled.setEnabled(false);
+
+        assertThat(CompiledRuleSet.compile(List.of(rule(1L, "TAX", 0.2), disabled), 0.0, 0.0).getVersion())
+                .isEqualTo(CompiledRuleSet.compile(List.of(rule(1L, "TAX", 0.2)), 0.0, 0.0).getVersion());
+    }
+
+    private static PricingRule rule(Long id, String kind, double rate) {
+        PricingRule rule = new PricingRule();
+        rule.setId(id);
+        rule.setName(kind.toLowerCase());
+        rule.setKind(kind);
+        rule.setRate(rate);
+        rule.setEnabled(true);
+        return rule;
+    }
+}
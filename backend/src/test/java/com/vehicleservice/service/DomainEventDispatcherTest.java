@@ -0,0 +1,177 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.event.DomainEvent;
+import com.vehicleservice.event.DomainEventSubscriber;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DomainEventDispatcherTest {
+
+    private static final String GAPS = "SELECT id, from_id, to_id, skipped_at FROM domain_event_gaps";
+    private static final String CHECKPOINT = "SELECT last_event_id FROM domain_event_checkpoints";
+    private static final String INSERT_GAP = "INSERT INTO domain_event_gaps";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final JobLeaseService jobLeaseService = mock(JobLeaseService.class);
+    private final RecordingSubscriber subscriber = new RecordingSubscriber();
+    private DomainEventDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new DomainEventDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(dispatcher, "jobLeaseService", jobLeaseService);
+        ReflectionTestUtils.setField(dispatcher, "subscribers", List.of(subscriber));
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 200);
+        ReflectionTestUtils.setField(dispatcher, "maxBatchesPerPoll", 20);
+        ReflectionTestUtils.setField(dispatcher, "gapGraceMs", 10_000L);
+        ReflectionTestUtils.setField(dispatcher, "gapMaxAgeMs", 3_600_000L);
+        ReflectionTestUtils.setField(dispatcher, "leaseSeconds", 30L);
+        ReflectionTestUtils.setField(dispatcher, "retentionHours", 72L);
+        dispatcher.init();
+        when(jobLeaseService.tryAcquire(eq(DomainEventDispatcher.JOB_NAME), anyLong()))
+                .thenReturn(mock(JobLeaseService.Lease.class));
+    }
+
+    @Test
+    void checkpointRowIsCreatedWithoutInsertIgnore() {
+        verify(jdbcTemplate).update(eq("INSERT INTO domain_event_checkpoints (subscriber, last_event_id, updated_at) "
+                + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE subscriber = subscriber"), eq("recorder"), eq(0L),
+                any(Timestamp.class));
+    }
+
+    @Test
+    void gapPastTheGraceIsSkippedAndRemembered() {
+        LocalDateTime old = LocalDateTime.now().minusMinutes(1);
+        when(jdbcTemplate.queryForObject(startsWith(CHECKPOINT), eq(Long.class), eq("recorder"))).thenReturn(0L);
+        when(jdbcTemplate.query(contains("WHERE id > ?"), any(RowMapper.class), eq(0L), eq(200)))
+                .thenReturn(List.of(event(1L, old), event(4L, old)));
+
+        dispatcher.poll();
+
+        assertThat(subscriber.delivered).containsExactly(1L, 4L);
+        List<Object[]> gaps = capturedGaps();
+        assertThat(gaps).hasSize(1);
+        assertThat(gaps.get(0)).startsWith("recorder", 2L, 3L);
+        verify(jdbcTemplate).update(startsWith("UPDATE domain_event_checkpoints"), eq(4L), any(Timestamp.class),
+                eq("recorder"));
+    }
+
+    @Test
+    void gapYoungerThanTheGraceHoldsTheBatchBack() {
+        when(jdbcTemplate.queryForObject(startsWith(CHECKPOINT), eq(Long.class), eq("recorder"))).thenReturn(0L);
+        when(jdbcTemplate.query(contains("WHERE id > ?"), any(RowMapper.class), eq(0L), eq(200)))
+                .thenReturn(List.of(event(1L, LocalDateTime.now()), event(3L, LocalDateTime.now())));
+
+        dispatcher.poll();
+
+        assertThat(subscriber.delivered).containsExactly(1L);
+        verify(jdbcTemplate, never()).batchUpdate(startsWith(INSERT_GAP), any(List.class));
+    }
+
+    @Test
+    void lateCommitInARememberedGapIsStillDelivered() throws Exception {
+        stubGap(LocalDateTime.now().minusMinutes(5));
+        when(jdbcTemplate.query(contains("BETWEEN"), any(RowMapper.class), eq(2L), eq(5L)))
+                .thenReturn(List.of(event(3L, LocalDateTime.now().minusMinutes(6))));
+        when(jdbcTemplate.queryForObject(startsWith(CHECKPOINT), eq(Long.class), eq("recorder"))).thenReturn(6L);
+
+        dispatcher.poll();
+
+        assertThat(subscriber.delivered).containsExactly(3L);
+        verify(jdbcTemplate).update("DELETE FROM domain_event_gaps WHERE id = ?", 70L);
+        List<Object[]> rest = capturedGaps();
+        assertThat(rest).hasSize(2);
+        assertThat(rest.get(0)).startsWith("recorder", 2L, 2L);
+        assertThat(rest.get(1)).startsWith("recorder", 4L, 5L);
+    }
+
+    @Test
+    void expiredGapIsGivenUp() throws Exception {
+        stubGap(LocalDateTime.now().minusHours(2));
+        when(jdbcTemplate.queryForObject(startsWith(CHECKPOINT), eq(Long.class), eq("recorder"))).thenReturn(6L);
+
+        dispatcher.poll();
+
+        assertThat(subscriber.delivered).isEmpty();
+        verify(jdbcTemplate).update("DELETE FROM domain_event_gaps WHERE id = ?", 70L);
+        verify(jdbcTemplate, never()).batchUpdate(startsWith(INSERT_GAP), any(List.class));
+    }
+
+    @Test
+    void purgeWithoutCheckpointsGoesByAgeAlone() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT MIN(last_event_id)"), eq(Long.class))).thenReturn(null);
+        when(jdbcTemplate.update(startsWith("DELETE FROM domain_events WHERE created_at < ?"), any(Timestamp.class)))
+                .thenReturn(10_000, 12);
+
+        dispatcher.purge();
+
+        ArgumentCaptor<Timestamp> cutoff = ArgumentCaptor.forClass(Timestamp.class);
+        verify(jdbcTemplate, times(2))
+                .update(startsWith("DELETE FROM domain_events WHERE created_at < ?"), cutoff.capture());
+        assertThat(cutoff.getValue().toLocalDateTime()).isBefore(LocalDateTime.now().minusHours(71));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM domain_event_gaps WHERE skipped_at < ?"), any(Timestamp.class));
+    }
+
+    private void stubGap(LocalDateTime skippedAt) throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong("id")).thenReturn(70L);
+        when(row.getLong("from_id")).thenReturn(2L);
+        when(row.getLong("to_id")).thenReturn(5L);
+        when(row.getTimestamp("skipped_at")).thenReturn(Timestamp.valueOf(skippedAt));
+        when(jdbcTemplate.query(startsWith(GAPS), any(RowMapper.class), eq("recorder")))
+                .thenAnswer(invocation -> List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(row, 0)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> capturedGaps() {
+        ArgumentCaptor<List<Object[]>> gaps = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith(INSERT_GAP), gaps.capture());
+        return gaps.getValue();
+    }
+
+    private static DomainEvent event(long id, LocalDateTime createdAt) {
+        return new DomainEvent(id, DomainEvent.INVOICE, 9L, "UPDATED", "{}", createdAt);
+    }
+
+    private static final class RecordingSubscriber implements DomainEventSubscriber {
+        private final List<Long> delivered = new ArrayList<>();
+
+        @Override
+        public String getName() {
+            return "recorder";
+        }
+
+        @Override
+        public boolean replayFromStart() {
+            return true;
+        }
+
+        @Override
+        public void onEvents(List<DomainEvent> events) {
+            events.forEach(event -> delivered.add(event.getId()));
+        }
+    }
+}
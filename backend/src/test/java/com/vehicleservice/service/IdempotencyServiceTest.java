@@ -0,0 +1,147 @@
+package com.vehicleservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vehicleservice.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AtomicInteger runs = new AtomicInteger();
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(mock(PlatformTransactionManager.class), 100);
+        ReflectionTestUtils.setField(idempotencyService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(idempotencyService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeoutMs", 5000L);
+    }
+
+    @Test
+    void withoutAKeyTheActionAlwaysRuns() {
+        idempotencyService.execute("invoice-payment", null, "fp", String.class, this::charge);
+        idempotencyService.execute("invoice-payment", " ", "fp", String.class, this::charge);
+
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void retryWithTheSameKeyReplaysTheStoredResponse() {
+        String first = idempotencyService.execute("invoice-payment", "key-1", "fp", String.class, this::charge);
+        String retry = idempotencyService.execute("invoice-payment", "key-1", "fp", String.class, this::charge);
+
+        assertThat(retry).isEqualTo(first).isEqualTo("charge-1");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void sameKeyInAnotherScopeIsIndependent() {
+        idempotencyService.execute("invoice-payment", "key-1", "fp", String.class, this::charge);
+        idempotencyService.execute("service-request-invoice", "key-1", "fp", String.class, this::charge);
+
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() {
+        idempotencyService.execute("invoice-payment", "key-1", "fp-a", String.class, this::charge);
+
+        assertThatThrownBy(() -> idempotencyService.execute("invoice-payment", "key-1", "fp-b", String.class, this::charge))
+                .isInstanceOf(ValidationException.class);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void overlongKeyIsRejected() {
+        assertThatThrownBy(() -> idempotencyService.execute("invoice-payment", "k".repeat(129), "fp", String.class,
+                this::charge)).isInstanceOf(ValidationException.class);
+        assertThat(runs).hasValue(0);
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("invoice-payment", "key-1", "fp", String.class, () -> {
+                    started.countDown();
+                    await(finish);
+                    return charge();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("invoice-payment", "key-1", "fp", String.class, this::charge));
+        finish.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("charge-1");
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo("charge-1");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void failedCallDoesNotStoreTheKey() {
+        assertThatThrownBy(() -> idempotencyService.execute("invoice-payment", "key-1", "fp", String.class, () -> {
+            throw new ValidationException("Invoice is already paid");
+        })).isInstanceOf(ValidationException.class);
+
+        assertThat(idempotencyService.execute("invoice-payment", "key-1", "fp", String.class, this::charge))
+                .isEqualTo("charge-1");
+    }
+
+    @Test
+    void keyClaimedByAnotherInstanceReturnsThatInstancesResponse() throws Exception {
+        ResultSet winner = mock(ResultSet.class);
+        when(winner.getString("fingerprint")).thenReturn("fp");
+        when(winner.getString("response_json")).thenReturn("\"charge-elsewhere\"");
+        when(winner.getTimestamp("expires_at")).thenReturn(Timestamp.valueOf(LocalDateTime.now().plusHours(1)));
+        AtomicInteger loads = new AtomicInteger();
+        when(jdbcTemplate.query(startsWith("SELECT fingerprint"), any(RowMapper.class), any(), any(), any()))
+                .thenAnswer(invocation -> loads.getAndIncrement() == 0
+                        ? List.of()
+                        : List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(winner, 0)));
+        when(jdbcTemplate.update(startsWith("INSERT INTO idempotency_keys"), any(), any(), any(), any()))
+                .thenThrow(new DuplicateKeyException("Duplicate entry"));
+
+        String response = idempotencyService.execute("invoice-payment", "key-1", "fp", String.class, this::charge);
+
+        assertThat(response).isEqualTo("charge-elsewhere");
+        assertThat(runs).hasValue(0);
+    }
+
+    private String charge() {
+        return "charge-" + runs.incrementAndGet();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.InvoiceDTO;
+import com.vehicleservice.dto.ServiceItemDTO;
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.model.ServiceItem;
+import com.vehicleservice.repository.InvoiceRepository;
+import com.vehicleservice.repository.ServiceItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InvoiceDocumentServiceTest {
+
+    private final InvoiceRepository invoiceRepository = mock(InvoiceRepository.class);
+    private final ServiceItemRepository serviceItemRepository = mock(ServiceItemRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ArchiveService archiveService = mock(ArchiveService.class);
+    private final AtomicLong version = new AtomicLong(1);
+    private final Invoice invoice = new Invoice();
+    private final ServiceItem item = new ServiceItem();
+    private InvoiceDocumentService documents;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        documents = new InvoiceDocumentService(mock(PlatformTransactionManager.class), dir.toString(), 1, 4);
+        ReflectionTestUtils.setField(documents, "invoiceRepository", invoiceRepository);
+        ReflectionTestUtils.setField(documents, "serviceItemRepository", serviceItemRepository);
+        ReflectionTestUtils.setField(documents, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(documents, "archiveService", archiveService);
+        ReflectionTestUtils.setField(documents, "renderTimeoutMs", 5000L);
+
+        invoice.setId(5L);
+        invoice.setStatus("PENDING");
+        invoice.setTotalAmount(40.0);
+        item.setName("Oil change");
+        item.setPrice(40.0);
+        item.setQuantity(1);
+        when(invoiceRepository.findById(5L)).thenAnswer(invocation -> {
+            invoice.setVersion(version.get());
+            return Optional.of(invoice);
+        });
+        when(serviceItemRepository.findByInvoiceId(5L)).thenAnswer(invocation -> List.of(item));
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong("version")).thenAnswer(invocation -> version.get());
+        when(jdbcTemplate.query(startsWith("SELECT version, document_hash, document_version FROM invoices WHERE"),
+                any(RowMapper.class), eq(5L)))
+                .thenAnswer(invocation -> List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(row, 0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        documents.shutdown();
+    }
+
+    @Test
+    void unchangedVersionServesTheStoredDocument() {
+        InvoiceDocumentService.StoredDocument first = documents.getDocument(5L);
+        InvoiceDocumentService.StoredDocument second = documents.getDocument(5L);
+
+        assertThat(second).isSameAs(first);
+        verify(invoiceRepository, times(1)).findById(5L);
+    }
+
+    @Test
+    void itemEditThatBumpedTheVersionIsRenderedAgain() throws Exception {
+        InvoiceDocumentService.StoredDocument first = documents.getDocument(5L);
+
+        // A rename leaves the totals alone; the bumped version is what invalidates the document
+        item.setName("Synthetic oil change");
+        version.incrementAndGet();
+        InvoiceDocumentService.StoredDocument second = documents.getDocument(5L);
+
+        assertThat(second.getVersion()).isEqualTo(2L);
+        assertThat(second.getHash()).isNotEqualTo(first.getHash());
+        assertThat(Files.readString(second.getPath(), StandardCharsets.UTF_8)).contains("Synthetic oil change");
+    }
+
+    @Test
+    void archivedInvoiceIsRenderedFromTheArchive() throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong("version")).thenReturn(3L);
+        when(jdbcTemplate.query(startsWith("SELECT version, document_hash, document_version FROM invoices_archive"),
+                any(RowMapper.class), eq(9L)))
+                .thenAnswer(invocation -> List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(row, 0)));
+        InvoiceDTO archived = new InvoiceDTO();
+        archived.setId(9L);
+        archived.setStatus("COMPLETED");
+        archived.setTotalAmount(80.0);
+        ServiceItemDTO line = new ServiceItemDTO();
+        line.setName("Timing belt");
+        line.setPrice(80.0);
+        line.setQuantity(1);
+        archived.setServiceItems(List.of(line));
+        when(archiveService.findInvoice(9L)).thenReturn(Optional.of(archived));
+
+        InvoiceDocumentService.StoredDocument document = documents.getDocument(9L);
+
+        assertThat(document.getVersion()).isEqualTo(3L);
+        assertThat(Files.readString(document.getPath(), StandardCharsets.UTF_8)).contains("Timing belt", "80.00");
+        verify(jdbcTemplate).update(startsWith("UPDATE invoices_archive SET document_hash"), any(Object[].class));
+    }
+
+    @Test
+    void invoiceInNeitherTableIsNotFound() {
+        assertThatThrownBy(() -> documents.getDocument(404L)).isSameAs(ResourceNotFoundException.INVOICE);
+    }
+}
@@ -0,0 +1,255 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.model.ServiceItem;
+import com.vehicleservice.repository.InvoiceRepository;
+import com.vehicleservice.repository.ServiceItemRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@ExtendWith(MockitoExtension.class)
+class InvoicePricingServiceTest {
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private ServiceItemRepository serviceItemRepository;
+
+    @Mock
+    private PricingRuleEngine pricingRuleEngine;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private AuditLogService auditLogService;
+
+    @InjectMocks
+    private InvoicePricingService invoicePricingService;
+
+    private final CompiledRuleSet rules = CompiledRuleSet.compile(List.of(), 0.1, 0.0);
+
+    @Test
+    void loadedInvoiceIsRefreshedAfterTheNativeDelta() {
+        when(pricingRuleEngine.current()).thenReturn(rules);
+        when(invoiceRepository.findPricingViewForUpdate(5L)).thenReturn(Optional.of(pricing(2L, rules.getVersion())));
+        when(invoiceRepository.applyTotalsDelta(5L, 40.0, 4.0, 0.0, 44.0, rules.getVersion())).thenReturn(1);
+        Invoice invoice = new Invoice();
+        when(entityManager.getReference(Invoice.class, 5L)).thenReturn(invoice);
+
+        invoicePricingService.applyLineChange(5L, null, item(20.0, 2));
+
+        InOrder order = inOrder(invoiceRepository, entityManager);
+        order.verify(invoiceRepository).applyTotalsDelta(5L, 40.0, 4.0, 0.0, 44.0, rules.getVersion());
+        order.verify(entityManager).refresh(invoice);
+    }
+
+    @Test
+    void priceChangeIsAuditedWithTheBeforeAndAfterTotals() {
+        when(pricingRuleEngine.current()).thenReturn(rules);
+        when(invoiceRepository.findPricingViewForUpdate(5L)).thenReturn(Optional.of(pricing(2L, rules.getVersion())));
+        when(invoiceRepository.applyTotalsDelta(5L, 40.0, 4.0, 0.0, 44.0, rules.getVersion())).thenReturn(1);
+        Invoice proxy = uninitializedProxy();
+        when(entityManager.getReference(Invoice.class, 5L)).thenReturn(proxy);
+
+        invoicePricingService.applyLineChange(5L, null, item(20.0, 2));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object[]>> changes = ArgumentCaptor.forClass(Map.class);
+        verify(auditLogService).recordDirectChange(eq("Invoice"), eq(5L), eq("UPDATE"), changes.capture());
+        assertThat(changes.getValue()).containsOnlyKeys("subtotal", "taxAmount", "totalAmount");
+        assertThat(changes.getValue().get("subtotal")).containsExactly(100.0, 140.0);
+        assertThat(changes.getValue().get("totalAmount")).containsExactly(110.0, 154.0);
+    }
+
+    @Test
+    void invoiceTheSessionHasNotLoadedIsLeftAlone() {
+        when(pricingRuleEngine.current()).thenReturn(rules);
+        when(invoiceRepository.findPricingViewForUpdate(5L)).thenReturn(Optional.of(pricing(2L, rules.getVersion())));
+        when(invoiceRepository.applyTotalsDelta(5L, -40.0, -4.0, 0.0, -44.0, rules.getVersion())).thenReturn(1);
+        Invoice proxy = uninitializedProxy();
+        when(entityManager.getReference(Invoice.class, 5L)).thenReturn(proxy);
+
+        invoicePricingService.applyLineChange(5L, item(20.0, 2), null);
+
+        verify(entityManager, never()).refresh(any());
+    }
+
+    @Test
+    void changeThatLeavesTheAmountsAloneStillBumpsTheVersion() {
+        when(pricingRuleEngine.current()).thenReturn(rules);
+        when(invoiceRepository.findPricingViewForUpdate(5L)).thenReturn(Optional.of(pricing(2L, rules.getVersion())));
+        when(invoiceRepository.applyTotalsDelta(5L, 0.0, 0.0, 0.0, 0.0, rules.getVersion())).thenReturn(1);
+        when(entityManager.getReference(Invoice.class, 5L)).thenReturn(new Invoice());
+
+        invoicePricingService.applyLineChange(5L, item(20.0, 2), item(20.0, 2));
+
+        verify(invoiceRepository).applyTotalsDelta(5L, 0.0, 0.0, 0.0, 0.0, rules.getVersion());
+        verifyNoInteractions(auditLogService);
+    }
+
+    @Test
+    void invoicePricedUnderOtherRulesIsRepricedFromItsItems() {
+        // The stored totals came from a 20% tax; the old line must not be backed out at 10%
+        when(pricingRuleEngine.current()).thenReturn(rules);
+        String oldVersion = CompiledRuleSet.compile(List.of(), 0.2, 0.0).getVersion();
+        when(invoiceRepository.findPricingViewForUpdate(5L)).thenReturn(Optional.of(pricing(2L, oldVersion)));
+        when(serviceItemRepository.findByInvoiceId(5L)).thenReturn(List.of(item(20.0, 2), item(5.0, 2)));
+        when(entityManager.getReference(Invoice.class, 5L)).thenReturn(new Invoice());
+
+        invoicePricingService.applyLineChange(5L, item(20.0, 1), item(20.0, 2));
+
+        verify(invoiceRepository, never()).applyTotalsDelta(anyLong(), anyDouble(), anyDouble(), anyDouble(),
+                anyDouble(), anyString());
+        verify(invoiceRepository).setTotals(5L, 50.0, 5.0, 0.0, 55.0, rules.getVersion());
+        verify(auditLogService).recordDirectChange(eq("Invoice"), eq(5L), eq("UPDATE"), any());
+    }
+
+    @Test
+    void deltaThatLosesTheRaceToARepriceFallsBackToAFullReprice() {
+        when(pricingRuleEngine.current()).thenReturn(rules);
+        when(invoiceRepository.findPricingViewForUpdate(5L)).thenReturn(Optional.of(pricing(2L, rules.getVersion())));
+        when(invoiceRepository.applyTotalsDelta(5L, 40.0, 4.0, 0.0, 44.0, rules.getVersion())).thenReturn(0);
+        when(serviceItemRepository.findByInvoiceId(5L)).thenReturn(List.of(item(20.0, 2)));
+        when(entityManager.getReference(Invoice.class, 5L)).thenReturn(new Invoice());
+
+        invoicePricingService.applyLineChange(5L, null, item(20.0, 2));
+
+        verify(invoiceRepository).setTotals(5L, 40.0, 4.0, 0.0, 44.0, rules.getVersion());
+    }
+
+    @Test
+    void fullPricingRecordsTheRuleSetVersion() {
+        when(pricingRuleEngine.current()).thenReturn(rules);
+        Invoice invoice = new Invoice();
+
+        invoicePricingService.applyTotals(invoice, List.of(item(20.0, 2)));
+
+        assertThat(invoice.getTotalAmount()).isEqualTo(44.0);
+        assertThat(invoice.getPricingVersion()).isEqualTo(rules.getVersion());
+    }
+
+    @Test
+    void itemsOfAPaidInvoiceCannotChange() {
+        when(invoiceRepository.findPricingViewForUpdate(5L))
+                .thenReturn(Optional.of(pricing(2L, rules.getVersion(), "COMPLETED", null)));
+
+        assertThatThrownBy(() -> invoicePricingService.applyLineChange(5L, null, item(20.0, 2)))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("already paid");
+        verify(invoiceRepository, never()).applyTotalsDelta(anyLong(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyString());
+        verifyNoInteractions(pricingRuleEngine);
+    }
+
+    @Test
+    void itemsCannotChangeWhileAPaymentIsInProgress() {
+        when(invoiceRepository.findPricingViewForUpdate(5L))
+                .thenReturn(Optional.of(pricing(2L, rules.getVersion(), "PENDING", 31L)));
+
+        assertThatThrownBy(() -> invoicePricingService.applyLineChange(5L, item(20.0, 2), null))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("payment in progress");
+        verifyNoInteractions(pricingRuleEngine);
+    }
+
+    @Test
+    void itemWithoutAnInvoiceTouchesNothing() {
+        invoicePricingService.applyLineChange(null, null, item(20.0, 2));
+
+        verifyNoInteractions(invoiceRepository, pricingRuleEngine, entityManager);
+    }
+
+    private static InvoiceRepository.PricingView pricing(Long customerId, String pricingVersion) {
+        return pricing(customerId, pricingVersion, "PENDING", null);
+    }
+
+    private static InvoiceRepository.PricingView pricing(Long customerId, String pricingVersion, String status,
+                                                         Long openIntentId) {
+        return new InvoiceRepository.PricingView() {
+            @Override
+            public Long getCustomerId() {
+                return customerId;
+            }
+
+            @Override
+            public String getPricingVersion() {
+                return pricingVersion;
+            }
+
+            @Override
+            public String getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getOpenIntentId() {
+                return openIntentId;
+            }
+
+            @Override
+            public Double getSubtotal() {
+                return 100.0;
+            }
+
+            @Override
+            public Double getTaxAmount() {
+                return 10.0;
+            }
+
+            @Override
+            public Double getDiscountAmount() {
+                return 0.0;
+            }
+
+            @Override
+            public Double getTotalAmount() {
+                return 110.0;
+            }
+        };
+    }
+
+    private static ServiceItem item(double price, int quantity) {
+        ServiceItem item = new ServiceItem();
+        item.setPrice(price);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static Invoice uninitializedProxy() {
+        Invoice proxy = mock(Invoice.class, withSettings().extraInterfaces(HibernateProxy.class));
+        LazyInitializer initializer = mock(LazyInitializer.class);
+        when(((HibernateProxy) proxy).asHibernateProxy()).thenReturn((HibernateProxy) proxy);
+        when(((HibernateProxy) proxy).getHibernateLazyInitializer()).thenReturn(initializer);
+        when(initializer.isUninitialized()).thenReturn(true);
+        return proxy;
+    }
+}
@@ -0,0 +1,74 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.InvoiceDTO;
+import com.vehicleservice.dto.ServiceItemDTO;
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.repository.InvoiceRepository;
+import com.vehicleservice.repository.ServiceItemRepository;
+import com.vehicleservice.repository.ServiceRequestRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceServiceTest {
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private ServiceRequestRepository serviceRequestRepository;
+
+    @Mock
+    private ServiceItemRepository serviceItemRepository;
+
+    @Mock
+    private InvoicePricingService invoicePricingService;
+
+    @Mock
+    private VehicleHistoryService vehicleHistoryService;
+
+    @Mock
+    private AnalyticsRollupService analyticsRollupService;
+
+    @Mock
+    private ArchiveService archiveService;
+
+    @Mock
+    private DomainEventOutbox domainEventOutbox;
+
+    @InjectMocks
+    private InvoiceService invoiceService;
+
+    @Test
+    void updateLoadsTheInvoiceWithAForcedVersionBump() {
+        Invoice invoice = new Invoice();
+        invoice.setId(4L);
+        invoice.setStatus("PENDING");
+        when(invoiceRepository.findByIdForChange(4L)).thenReturn(Optional.of(invoice));
+        when(invoiceRepository.save(invoice)).thenReturn(invoice);
+
+        ServiceItemDTO item = new ServiceItemDTO();
+        item.setName("Brake pads");
+        item.setPrice(80.0);
+        item.setQuantity(1);
+        InvoiceDTO dto = new InvoiceDTO();
+        dto.setStatus("PENDING");
+        dto.setServiceItems(List.of(item));
+        InvoiceDTO result = invoiceService.updateInvoice(4L, dto);
+
+        verify(invoiceRepository, never()).findById(4L);
+        verify(invoicePricingService).applyTotals(invoice, invoice.getServiceItems());
+        assertThat(result.getServiceItems()).extracting(ServiceItemDTO::getName).containsExactly("Brake pads");
+    }
+}
@@ -0,0 +1,71 @@
+package com.vehicleservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JobLeaseServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private JobLeaseService jobLeaseService;
+
+    @Test
+    void tryAcquireReturnsNullWhileAnotherNodeHoldsTheLease() {
+        when(jdbcTemplate.update(startsWith("UPDATE job_leases SET owner = ?"), any(Object[].class))).thenReturn(0);
+
+        assertThat(jobLeaseService.tryAcquire("maintenance-reminders", 120)).isNull();
+
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any(Object[].class));
+    }
+
+    @Test
+    void tryAcquireReturnsThePersistedProgress() throws Exception {
+        when(jdbcTemplate.update(startsWith("UPDATE job_leases SET owner = ?"), any(Object[].class))).thenReturn(1);
+        LocalDateTime started = LocalDateTime.of(2024, 6, 1, 2, 0);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString("owner")).thenReturn("node-a");
+        when(row.getLong("watermark")).thenReturn(4000L);
+        when(row.getTimestamp("lease_until")).thenReturn(Timestamp.valueOf(started.plusMinutes(2)));
+        when(row.getTimestamp("pass_started_at")).thenReturn(Timestamp.valueOf(started));
+        when(row.getTimestamp("last_completed_at")).thenReturn(null);
+        when(jdbcTemplate.query(startsWith("SELECT owner"), any(RowMapper.class), eq("maintenance-reminders")))
+                .thenAnswer(invocation -> List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(row, 0)));
+
+        JobLeaseService.Lease lease = jobLeaseService.tryAcquire("maintenance-reminders", 120);
+
+        assertThat(lease.isPassInProgress()).isTrue();
+        assertThat(lease.getWatermark()).isEqualTo(4000L);
+        assertThat(lease.getPassStartedAt()).isEqualTo(started);
+        assertThat(lease.getLastCompletedAt()).isNull();
+    }
+
+    @Test
+    void checkpointReportsALostLease() {
+        when(jdbcTemplate.update(startsWith("UPDATE job_leases SET watermark = ?"), any(Object[].class))).thenReturn(0);
+
+        assertThat(jobLeaseService.checkpoint("maintenance-reminders", 2000L, 120)).isFalse();
+    }
+}
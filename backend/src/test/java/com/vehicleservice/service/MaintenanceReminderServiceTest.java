@@ -0,0 +1,115 @@
+package com.vehicleservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class MaintenanceReminderServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final JobLeaseService jobLeaseService = mock(JobLeaseService.class);
+    private MaintenanceReminderService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MaintenanceReminderService(2);
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "jobLeaseService", jobLeaseService);
+        ReflectionTestUtils.setField(service, "rulesSpec", "OIL_CHANGE:6:5000");
+        ReflectionTestUtils.setField(service, "passIntervalHours", 24L);
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "leaseSeconds", 120L);
+        ReflectionTestUtils.setField(service, "leadDays", 14);
+        ReflectionTestUtils.setField(service, "leadMiles", 500);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void passResumesAfterTheWatermarkAndWritesDueReminders() throws Exception {
+        JobLeaseService.Lease lease = mock(JobLeaseService.Lease.class);
+        when(lease.isPassInProgress()).thenReturn(true);
+        when(lease.getWatermark()).thenReturn(40L);
+        when(jobLeaseService.tryAcquire(MaintenanceReminderService.JOB_NAME, 120L)).thenReturn(lease);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong("id")).thenReturn(41L);
+        when(row.getObject("mileage", Integer.class)).thenReturn(26000);
+        when(row.getTimestamp("last_service_date")).thenReturn(Timestamp.valueOf(LocalDateTime.now().minusMonths(2)));
+        when(row.getObject("last_service_mileage", Integer.class)).thenReturn(20000);
+        when(jdbcTemplate.query(startsWith("SELECT id, mileage"), any(RowMapper.class), eq(40L), eq(2)))
+                .thenAnswer(invocation -> List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(row, 0)));
+        when(jobLeaseService.checkpoint(MaintenanceReminderService.JOB_NAME, 41L, 120L)).thenReturn(true);
+
+        MaintenanceReminderService.PassResult result = service.run(false);
+
+        assertThat(result.isCompleted()).isTrue();
+        assertThat(result.getVehiclesScanned()).isEqualTo(1);
+        assertThat(result.getRemindersDue()).isEqualTo(1);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<MaintenanceRule.Due>> written = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), written.capture(), eq(1),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(sql.getValue()).doesNotContain("IGNORE").endsWith("ON DUPLICATE KEY UPDATE vehicle_id = vehicle_id");
+        assertThat(written.getValue()).singleElement()
+                .satisfies(due -> assertThat(due.getReason()).isEqualTo("Oil change due: 5000 miles since last service"));
+        verify(jobLeaseService, never()).startPass(any(), anyLong());
+        verify(jobLeaseService).completePass(MaintenanceReminderService.JOB_NAME);
+    }
+
+    @Test
+    void passStopsWithoutCompletingWhenTheLeaseIsLost() throws Exception {
+        JobLeaseService.Lease lease = mock(JobLeaseService.Lease.class);
+        when(jobLeaseService.tryAcquire(MaintenanceReminderService.JOB_NAME, 120L)).thenReturn(lease);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong("id")).thenReturn(3L);
+        when(jdbcTemplate.query(startsWith("SELECT id, mileage"), any(RowMapper.class), eq(0L), eq(2)))
+                .thenAnswer(invocation -> List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(row, 0),
+                        invocation.<RowMapper<?>>getArgument(1).mapRow(row, 1)));
+
+        MaintenanceReminderService.PassResult result = service.run(true);
+
+        assertThat(result.isCompleted()).isFalse();
+        assertThat(result.getMessage()).isEqualTo("Lease lost at vehicle id 3");
+        verify(jobLeaseService).startPass(MaintenanceReminderService.JOB_NAME, 120L);
+        verify(jobLeaseService, never()).completePass(any());
+        verify(jdbcTemplate, never()).batchUpdate(any(String.class), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void passIsSkippedWhileAnotherNodeHoldsTheLease() {
+        MaintenanceReminderService.PassResult result = service.run(true);
+
+        assertThat(result.isCompleted()).isFalse();
+        assertThat(result.getMessage()).isEqualTo("Another instance holds the lease");
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,92 @@
+package com.vehicleservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MaintenanceRuleTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 9, 0);
+
+    @Test
+    void parseReadsEveryEntryAndSkipsBlankOnes() {
+        List<MaintenanceRule> rules = MaintenanceRule.parse(" oil_change:6:5000, ,BRAKE_CHECK:12:0");
+
+        assertThat(rules).extracting(MaintenanceRule::getType).containsExactly("OIL_CHANGE", "BRAKE_CHECK");
+        assertThat(rules.get(0).getIntervalMiles()).isEqualTo(5000);
+        assertThat(rules.get(1).getIntervalMonths()).isEqualTo(12);
+        assertThat(MaintenanceRule.parse(null)).isEmpty();
+    }
+
+    @Test
+    void parseRejectsMalformedEntries() {
+        assertThatThrownBy(() -> MaintenanceRule.parse("OIL_CHANGE:6"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("TYPE:months:miles");
+        assertThatThrownBy(() -> MaintenanceRule.parse("OIL_CHANGE:0:0"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("positive month or mile interval");
+        assertThatThrownBy(() -> MaintenanceRule.parse("OIL_CHANGE:six:5000"))
+                .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void dueByMonthsWithinTheLeadWindow() {
+        LocalDateTime serviced = LocalDateTime.of(2023, 12, 10, 14, 30, 15, 123_000_000);
+        MaintenanceRule rule = new MaintenanceRule("OIL_CHANGE", 6, 0);
+
+        MaintenanceRule.Due due = rule.evaluate(new MaintenanceRule.VehicleSnapshot(7L, 20000, serviced, 18000, null),
+                NOW, 14, 500);
+
+        assertThat(due).isNotNull();
+        assertThat(due.getVehicleId()).isEqualTo(7L);
+        assertThat(due.getDueAt()).isEqualTo(serviced.plusMonths(6));
+        assertThat(due.getCycleKey()).isEqualTo("2023-12-10T14:30:15");
+        assertThat(due.getReason()).isEqualTo("Oil change due: 6 months since last service");
+    }
+
+    @Test
+    void notDueBeforeTheLeadWindow() {
+        MaintenanceRule rule = new MaintenanceRule("OIL_CHANGE", 6, 5000);
+
+        assertThat(rule.evaluate(new MaintenanceRule.VehicleSnapshot(7L, 20000, NOW.minusMonths(5), 18000, null),
+                NOW, 14, 500)).isNull();
+    }
+
+    @Test
+    void dueByMilesSinceTheLastServiceReading() {
+        MaintenanceRule rule = new MaintenanceRule("TIRE_ROTATION", 6, 7500);
+
+        MaintenanceRule.Due due = rule.evaluate(
+                new MaintenanceRule.VehicleSnapshot(7L, 25100, NOW.minusMonths(1), 18000, null), NOW, 14, 500);
+
+        assertThat(due).isNotNull();
+        assertThat(due.getDueMileage()).isEqualTo(25500);
+        assertThat(due.getReason()).isEqualTo("Tire rotation due: 7500 miles since last service");
+    }
+
+    @Test
+    void milesAreIgnoredWithoutAReadingAtTheLastService() {
+        MaintenanceRule rule = new MaintenanceRule("TIRE_ROTATION", 0, 7500);
+
+        assertThat(rule.evaluate(new MaintenanceRule.VehicleSnapshot(7L, 90000, NOW.minusMonths(1), null, null),
+                NOW, 14, 500)).isNull();
+    }
+
+    @Test
+    void neverServicedVehiclesCountFromRegistration() {
+        MaintenanceRule rule = new MaintenanceRule("OIL_CHANGE", 6, 5000);
+
+        MaintenanceRule.Due due = rule.evaluate(
+                new MaintenanceRule.VehicleSnapshot(7L, 90000, null, null, NOW.minusMonths(7)), NOW, 14, 500);
+
+        assertThat(due).isNotNull();
+        assertThat(due.getCycleKey()).isEqualTo("NEW");
+        assertThat(due.getDueMileage()).isNull();
+        assertThat(due.getReason()).isEqualTo("Oil change due: 6 months since registration");
+    }
+}
@@ -0,0 +1,152 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.MechanicWorkloadDTO;
+import com.vehicleservice.dto.ServiceRequestDTO;
+import com.vehicleservice.event.ServiceRequestEvent;
+import com.vehicleservice.exception.ValidationException;
+import com.vehicleservice.model.ServiceRequest;
+import com.vehicleservice.model.User;
+import com.vehicleservice.repository.ServiceRequestRepository;
+import com.vehicleservice.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MechanicAssignmentEngineTest {
+
+    @Mock
+    private ServiceRequestRepository serviceRequestRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ServiceRequestService serviceRequestService;
+
+    @InjectMocks
+    private MechanicAssignmentEngine engine;
+
+    @Test
+    void failedReassignmentRestoresThePreviousJob() {
+        rebuild(List.of(mechanic(1L), mechanic(2L)), List.of(openRequest(10L, 2L, "OIL_CHANGE", "ASSIGNED")));
+        ServiceRequest request = new ServiceRequest();
+        request.setId(10L);
+        request.setStatus("ASSIGNED");
+        request.setServiceType("OIL_CHANGE");
+        request.setPriority("MEDIUM");
+        when(serviceRequestRepository.findById(10L)).thenReturn(Optional.of(request));
+        when(serviceRequestService.assignMechanic(eq(10L), anyLong(), any()))
+                .thenThrow(new ValidationException("Mechanic is not available"));
+
+        assertThatThrownBy(() -> engine.autoAssign(10L)).isInstanceOf(ValidationException.class);
+
+        assertThat(openJobs()).containsEntry(1L, 0).containsEntry(2L, 1);
+        assertThat(engine.getPendingCount()).isZero();
+    }
+
+    @Test
+    void failedFirstAssignmentReturnsTheRequestToTheQueue() {
+        rebuild(List.of(mechanic(1L)), List.of(openRequest(10L, null, "OIL_CHANGE", "PENDING")));
+        when(serviceRequestService.assignMechanic(eq(10L), anyLong(), any()))
+                .thenThrow(new ValidationException("Service request changed"));
+
+        assertThat(engine.autoAssignPending(5)).isEmpty();
+
+        assertThat(openJobs()).containsEntry(1L, 0);
+        assertThat(engine.getPendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentPendingEventsForOneRequestQueueItOnce() throws Exception {
+        rebuild(List.of(mechanic(1L)), List.of());
+        when(serviceRequestService.assignMechanic(eq(10L), anyLong(), any())).thenReturn(new ServiceRequestDTO());
+        String[] priorities = {"LOW", "MEDIUM", "HIGH", "URGENT"};
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 200; i++) {
+                ServiceRequestEvent event = pendingEvent(10L, priorities[i % priorities.length]);
+                executor.submit(() -> {
+                    start.await();
+                    engine.onServiceRequestEvent(event);
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(engine.getPendingCount()).isEqualTo(1);
+        assertThat(engine.autoAssignPending(10)).hasSize(1);
+        verify(serviceRequestService, times(1)).assignMechanic(eq(10L), anyLong(), any());
+    }
+
+    private void rebuild(List<User> mechanics, List<ServiceRequestRepository.OpenRequestView> openRequests) {
+        ReflectionTestUtils.setField(engine, "defaultDurationMinutes", 60);
+        when(userRepository.findByRole("MECHANIC")).thenReturn(mechanics);
+        when(serviceRequestRepository.findOpenRequests(any())).thenReturn(openRequests);
+        engine.rebuild();
+    }
+
+    private Map<Long, Integer> openJobs() {
+        return engine.getWorkload().stream()
+                .collect(Collectors.toMap(MechanicWorkloadDTO::getMechanicId, MechanicWorkloadDTO::getOpenJobs));
+    }
+
+    private static User mechanic(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setRole("MECHANIC");
+        return user;
+    }
+
+    private static ServiceRequestRepository.OpenRequestView openRequest(Long id, Long mechanicId, String serviceType,
+                                                                        String status) {
+        ServiceRequestRepository.OpenRequestView view = mock(ServiceRequestRepository.OpenRequestView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getMechanicId()).thenReturn(mechanicId);
+        when(view.getServiceType()).thenReturn(serviceType);
+        if (mechanicId == null) {
+            when(view.getStatus()).thenReturn(status);
+            when(view.getPriority()).thenReturn("MEDIUM");
+            when(view.getPreferredDate()).thenReturn(LocalDateTime.of(2026, 1, 5, 9, 0));
+        }
+        return view;
+    }
+
+    private static ServiceRequestEvent pendingEvent(Long id, String priority) {
+        ServiceRequestDTO request = new ServiceRequestDTO();
+        request.setId(id);
+        request.setStatus("PENDING");
+        request.setServiceType("OIL_CHANGE");
+        request.setPriority(priority);
+        request.setPreferredDate(LocalDateTime.of(2026, 1, 5, 9, 0));
+        return new ServiceRequestEvent(ServiceRequestEvent.Type.CREATED, request, 1L, null, null);
+    }
+}
@@ -0,0 +1,92 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.ServiceRequestDTO;
+import com.vehicleservice.event.ServiceRequestEvent;
+import com.vehicleservice.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MechanicQueueServiceTest {
+
+    @Mock
+    private ServiceRequestService serviceRequestService;
+
+    @InjectMocks
+    private MechanicQueueService mechanicQueueService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(mechanicQueueService, "cacheTtlMs", 60_000L);
+    }
+
+    @Test
+    void unknownStatusIsRejectedBeforeTouchingTheCache() {
+        assertThatThrownBy(() -> mechanicQueueService.getQueue(5L, "whatever-" + System.nanoTime(), 0, 20))
+                .isInstanceOf(ValidationException.class);
+
+        verifyNoInteractions(serviceRequestService);
+    }
+
+    @Test
+    void knownStatusIsNormalizedAndCached() {
+        Page<ServiceRequestDTO> empty = new PageImpl<>(List.of());
+        when(serviceRequestService.getMechanicQueue(eq(5L), eq(List.of("IN_PROGRESS")), any())).thenReturn(empty);
+
+        mechanicQueueService.getQueue(5L, "in_progress", 0, 20);
+        mechanicQueueService.getQueue(5L, " IN_PROGRESS ", 0, 20);
+
+        verify(serviceRequestService, times(1)).getMechanicQueue(5L, List.of("IN_PROGRESS"), PageRequest.of(0, 20));
+    }
+
+    @Test
+    void cachedPagesPerMechanicAreBounded() {
+        when(serviceRequestService.getMechanicQueue(eq(5L), any(), any())).thenReturn(new PageImpl<>(List.of()));
+        for (int page = 0; page < MechanicQueueService.MAX_CACHED_PAGES + 8; page++) {
+            mechanicQueueService.getQueue(5L, null, page, 10);
+        }
+
+        int overflow = MechanicQueueService.MAX_CACHED_PAGES + 4;
+        mechanicQueueService.getQueue(5L, null, overflow, 10);
+        mechanicQueueService.getQueue(5L, null, 0, 10);
+
+        verify(serviceRequestService, times(2))
+                .getMechanicQueue(5L, MechanicQueueService.OPEN_STATUSES, PageRequest.of(overflow, 10));
+        verify(serviceRequestService, times(1))
+                .getMechanicQueue(5L, MechanicQueueService.OPEN_STATUSES, PageRequest.of(0, 10));
+    }
+
+    @Test
+    void assignmentEventDropsTheMechanicsPages() {
+        when(serviceRequestService.getMechanicQueue(eq(5L), any(), any())).thenReturn(new PageImpl<>(List.of()));
+        mechanicQueueService.getQueue(5L, null, 0, 10);
+
+        ServiceRequestDTO request = new ServiceRequestDTO();
+        request.setId(1L);
+        request.setMechanicId(5L);
+        mechanicQueueService.onServiceRequestEvent(
+                new ServiceRequestEvent(ServiceRequestEvent.Type.ASSIGNED, request, 2L, null, "PENDING"));
+        mechanicQueueService.getQueue(5L, null, 0, 10);
+
+        verify(serviceRequestService, times(2))
+                .getMechanicQueue(5L, MechanicQueueService.OPEN_STATUSES, PageRequest.of(0, 10));
+    }
+}
@@ -0,0 +1,110 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.PartDTO;
+import com.vehicleservice.dto.PartPriceDTO;
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.model.Part;
+import com.vehicleservice.model.PartPriceHistory;
+import com.vehicleservice.repository.PartPriceHistoryRepository;
+import com.vehicleservice.repository.PartRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PartsCatalogServiceTest {
+
+    @Mock
+    private PartRepository partRepository;
+
+    @Mock
+    private PartPriceHistoryRepository partPriceHistoryRepository;
+
+    @InjectMocks
+    private PartsCatalogService partsCatalogService;
+
+    @Test
+    void partNumberThatNormalizesToAnExistingOneIsAConflict() {
+        when(partRepository.findByPartKey("BK12A")).thenReturn(Optional.of(part(1L, "BK12A", true)));
+
+        assertThatThrownBy(() -> partsCatalogService.savePart(null, dto("bk 12-a")))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("already exists as BK12A");
+        verify(partRepository, never()).save(any());
+    }
+
+    @Test
+    void savedPartStoresTheNormalizedKey() {
+        when(partRepository.findByPartKey("BK12A")).thenReturn(Optional.empty());
+        when(partRepository.save(any(Part.class))).thenAnswer(invocation -> {
+            Part part = invocation.getArgument(0);
+            part.setId(3L);
+            return part;
+        });
+
+        PartDTO saved;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            saved = partsCatalogService.savePart(null, dto(" bk-12a "));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(saved.getPartNumber()).isEqualTo("BK-12A");
+        verify(partRepository).save(argThat(part -> "BK12A".equals(part.getPartKey())));
+        verify(partPriceHistoryRepository).save(any(PartPriceHistory.class));
+    }
+
+    @Test
+    void retiredPartStillHasAPriceHistory() {
+        when(partRepository.findByPartKey("BK12A")).thenReturn(Optional.of(part(1L, "BK-12A", false)));
+        LocalDateTime since = LocalDateTime.of(2026, 3, 1, 9, 0);
+        when(partPriceHistoryRepository.findByPartIdOrderByEffectiveFromDesc(1L))
+                .thenReturn(List.of(new PartPriceHistory(1L, 12.5, since)));
+
+        List<PartPriceDTO> history = partsCatalogService.getPriceHistory("bk-12a");
+
+        assertThat(history).extracting(PartPriceDTO::getPrice).containsExactly(12.5);
+    }
+
+    @Test
+    void unknownPartHasNoPriceHistory() {
+        when(partRepository.findByPartKey("NOPE")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> partsCatalogService.getPriceHistory("nope"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private static PartDTO dto(String partNumber) {
+        PartDTO dto = new PartDTO();
+        dto.setPartNumber(partNumber);
+        dto.setName("Brake pad");
+        dto.setPrice(12.5);
+        return dto;
+    }
+
+    private static Part part(Long id, String partNumber, boolean active) {
+        Part part = new Part();
+        part.setId(id);
+        part.setPartNumber(partNumber);
+        part.setPartKey(PartsCatalogIndex.normalize(partNumber));
+        part.setActive(active);
+        return part;
+    }
+}
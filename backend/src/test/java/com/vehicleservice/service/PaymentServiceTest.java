@@ -0,0 +1,124 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.PaymentIntentDTO;
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.model.PaymentIntent;
+import com.vehicleservice.repository.InvoiceRepository;
+import com.vehicleservice.repository.PaymentIntentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentServiceTest {
+
+    @Mock
+    private PaymentIntentRepository paymentIntentRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private InvoiceService invoiceService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private PaymentService paymentService;
+
+    @Test
+    void firstRequestLocksTheInvoiceAndQueuesOneIntent() {
+        when(invoiceRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(invoice("PENDING")));
+        when(paymentIntentRepository.findFirstByInvoiceIdAndStatusNotIn(7L, PaymentIntent.TERMINAL_STATUSES))
+                .thenReturn(Optional.empty());
+        when(paymentIntentRepository.save(any(PaymentIntent.class))).thenAnswer(invocation -> {
+            PaymentIntent intent = invocation.getArgument(0);
+            intent.setId(40L);
+            return intent;
+        });
+
+        PaymentIntentDTO intent = paymentService.requestPayment(7L, "CARD", "4242");
+
+        assertThat(intent.getId()).isEqualTo(40L);
+        assertThat(intent.getAmount()).isEqualTo(120.0);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO payment_outbox"), eq(40L), any(Timestamp.class));
+        verify(invoiceRepository, never()).findById(any());
+    }
+
+    @Test
+    void anyUnsettledIntentIsJoinedInsteadOfChargingTwice() {
+        PaymentIntent processing = new PaymentIntent();
+        processing.setId(41L);
+        processing.setInvoiceId(7L);
+        processing.setStatus("PROCESSING");
+        when(invoiceRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(invoice("PENDING")));
+        when(paymentIntentRepository.findFirstByInvoiceIdAndStatusNotIn(7L, PaymentIntent.TERMINAL_STATUSES))
+                .thenReturn(Optional.of(processing));
+
+        PaymentIntentDTO intent = paymentService.requestPayment(7L, "CARD", "4242");
+
+        assertThat(intent.getId()).isEqualTo(41L);
+        verify(paymentIntentRepository, never()).save(any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void paidInvoiceIsRejected() {
+        when(invoiceRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(invoice("COMPLETED")));
+
+        assertThatThrownBy(() -> paymentService.requestPayment(7L, "CARD", "4242"))
+                .isInstanceOf(ConflictException.class);
+        verifyNoInteractions(paymentIntentRepository, jdbcTemplate);
+    }
+
+    @Test
+    void terminalStatusesAreTheSettledOnes() {
+        assertThat(PaymentIntent.TERMINAL_STATUSES)
+                .containsExactlyInAnyOrder(PaymentIntent.Status.SUCCEEDED.name(), PaymentIntent.Status.FAILED.name())
+                .doesNotContain(PaymentIntent.Status.PENDING.name());
+    }
+
+    @Test
+    void longFailureReasonIsTruncatedToTheColumn() {
+        PaymentIntent intent = new PaymentIntent();
+        intent.setId(40L);
+        intent.setInvoiceId(7L);
+        when(paymentIntentRepository.findById(40L)).thenReturn(Optional.of(intent));
+
+        paymentService.markFailed(40L, "Gave up after 5 attempts: " + "x".repeat(1000));
+
+        ArgumentCaptor<PaymentIntent> saved = ArgumentCaptor.forClass(PaymentIntent.class);
+        verify(paymentIntentRepository).save(saved.capture());
+        assertThat(saved.getValue().getStatus()).isEqualTo(PaymentIntent.Status.FAILED.name());
+        assertThat(saved.getValue().getFailureReason())
+                .hasSize(PaymentIntent.FAILURE_REASON_LENGTH)
+                .startsWith("Gave up after 5 attempts: ");
+    }
+
+    private static Invoice invoice(String status) {
+        Invoice invoice = new Invoice();
+        invoice.setId(7L);
+        invoice.setStatus(status);
+        invoice.setTotalAmount(120.0);
+        return invoice;
+    }
+}
@@ -0,0 +1,136 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.InvoiceDTO;
+import com.vehicleservice.dto.ServiceItemDTO;
+import com.vehicleservice.event.DomainEvent;
+import com.vehicleservice.model.Invoice;
+import com.vehicleservice.model.ServiceItem;
+import com.vehicleservice.model.ServiceRequest;
+import com.vehicleservice.repository.InvoiceRepository;
+import com.vehicleservice.repository.ServiceItemRepository;
+import com.vehicleservice.repository.ServiceRequestRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceItemServiceTest {
+
+    @Mock
+    private ServiceItemRepository serviceItemRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private ServiceRequestRepository serviceRequestRepository;
+
+    @Mock
+    private InvoicePricingService invoicePricingService;
+
+    @Mock
+    private PartsCatalogService partsCatalogService;
+
+    @Mock
+    private DomainEventOutbox domainEventOutbox;
+
+    @InjectMocks
+    private ServiceItemService serviceItemService;
+
+    @Test
+    void renamingAnItemStillGoesThroughPricingSoTheInvoiceVersionMoves() {
+        Invoice invoice = invoice(9L);
+        ServiceItem item = item(invoice, "Oil change", 40.0);
+        when(serviceItemRepository.findById(3L)).thenReturn(Optional.of(item));
+        when(invoiceRepository.findById(9L)).thenReturn(Optional.of(invoice));
+        when(serviceItemRepository.save(item)).thenReturn(item);
+
+        ServiceItemDTO dto = new ServiceItemDTO();
+        dto.setInvoiceId(9L);
+        dto.setName("Synthetic oil change");
+        dto.setPrice(40.0);
+        dto.setQuantity(1);
+        serviceItemService.updateServiceItem(3L, dto);
+
+        ArgumentCaptor<ServiceItem> before = ArgumentCaptor.forClass(ServiceItem.class);
+        verify(invoicePricingService).applyLineChange(eq(9L), before.capture(), eq(item));
+        assertThat(before.getValue().getPrice()).isEqualTo(40.0);
+    }
+
+    @Test
+    void itemSavedOutsideTheDtoPathIsPricedOntoItsInvoice() {
+        ServiceItem item = item(invoice(9L), "Diagnostic", 50.0);
+        when(serviceItemRepository.save(any(ServiceItem.class))).thenReturn(item);
+
+        serviceItemService.saveNewServiceItem(item);
+
+        verify(invoicePricingService).applyLineChange(9L, null, item);
+        verify(domainEventOutbox).append(eq(DomainEvent.INVOICE), eq(9L), eq("ITEM_ADDED"), any(ServiceItemDTO.class));
+    }
+
+    @Test
+    void invoiceCreatedWithItemsIsPublished() {
+        ServiceRequest serviceRequest = new ServiceRequest();
+        serviceRequest.setId(4L);
+        when(serviceRequestRepository.findById(4L)).thenReturn(Optional.of(serviceRequest));
+        when(invoiceRepository.save(any(Invoice.class))).thenAnswer(invocation -> {
+            Invoice saved = invocation.getArgument(0);
+            saved.setId(9L);
+            return saved;
+        });
+        when(serviceItemRepository.save(any(ServiceItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ServiceItemDTO line = new ServiceItemDTO();
+        line.setName("Brake pads");
+        line.setPrice(80.0);
+        line.setQuantity(2);
+        InvoiceDTO dto = new InvoiceDTO();
+        dto.setStatus("PENDING");
+        dto.setServiceItems(List.of(line));
+
+        serviceItemService.createInvoice(4L, dto);
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(domainEventOutbox).append(eq(DomainEvent.INVOICE), eq(9L), eq("CREATED"), payload.capture());
+        InvoiceDTO created = (InvoiceDTO) payload.getValue();
+        assertThat(created.getServiceRequestId()).isEqualTo(4L);
+        assertThat(created.getServiceItems()).extracting(ServiceItemDTO::getName).containsExactly("Brake pads");
+    }
+
+    @Test
+    void deletedItemIsPublishedAsARemovalFromItsInvoice() {
+        ServiceItem item = item(invoice(9L), "Diagnostic", 50.0);
+        when(serviceItemRepository.findById(3L)).thenReturn(Optional.of(item));
+
+        serviceItemService.deleteServiceItem(3L);
+
+        verify(domainEventOutbox).append(DomainEvent.INVOICE, 9L, "ITEM_REMOVED", Map.of("id", 3L, "invoiceId", 9L));
+    }
+
+    private static Invoice invoice(Long id) {
+        Invoice invoice = new Invoice();
+        invoice.setId(id);
+        return invoice;
+    }
+
+    private static ServiceItem item(Invoice invoice, String name, double price) {
+        ServiceItem item = new ServiceItem();
+        item.setInvoice(invoice);
+        item.setName(name);
+        item.setPrice(price);
+        item.setQuantity(1);
+        return item;
+    }
+}
@@ -0,0 +1,137 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.dto.ServiceRequestDTO;
+import com.vehicleservice.dto.ServiceRequestSearchCriteria;
+import com.vehicleservice.event.ServiceRequestEvent;
+import com.vehicleservice.event.ServiceRequestsArchivedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ServiceRequestSearchServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private ServiceRequestSearchService search;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        search = new ServiceRequestSearchService();
+        ReflectionTestUtils.setField(search, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(search, "indexDir", dir.toString());
+        ReflectionTestUtils.setField(search, "indexerThreads", 1);
+        ReflectionTestUtils.setField(search, "indexerBatchSize", 10);
+        search.open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        search.close();
+    }
+
+    @Test
+    void liveIndexKeepsAnsweringWhileARebuildRuns() throws Exception {
+        index(1L, "brake squeal");
+        search.refresh();
+        List<Long> seenMidRebuild = new ArrayList<>();
+        when(jdbcTemplate.queryForMap(startsWith("SELECT MIN(id)"))).thenReturn(Map.of("lo", 2L, "hi", 2L));
+        when(jdbcTemplate.query(startsWith("SELECT sr.id"), any(RowMapper.class), anyLong(), anyLong()))
+                .thenAnswer(invocation -> {
+                    // The scheduled refresh and commit fire mid-rebuild; the old documents stay visible
+                    search.refresh();
+                    search.commit();
+                    seenMidRebuild.addAll(ids("brake"));
+                    return List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(row(2L, "brake pads worn"), 0));
+                });
+
+        int indexed = search.rebuild();
+
+        assertThat(indexed).isEqualTo(1);
+        assertThat(seenMidRebuild).containsExactly(1L);
+        assertThat(ids("brake")).containsExactly(2L);
+        assertThat(search.getDocumentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rebuiltGenerationIsReopenedAndTheOldOneRemoved() throws Exception {
+        when(jdbcTemplate.queryForMap(startsWith("SELECT MIN(id)"))).thenReturn(Map.of("lo", 5L, "hi", 5L));
+        when(jdbcTemplate.query(startsWith("SELECT sr.id"), any(RowMapper.class), anyLong(), anyLong()))
+                .thenAnswer(invocation -> List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(row(5L, "oil leak"), 0)));
+
+        search.rebuild();
+        search.close();
+        search.open();
+
+        assertThat(ids("oil")).containsExactly(5L);
+        try (Stream<Path> generations = Files.list(dir).filter(Files::isDirectory)) {
+            assertThat(generations).hasSize(1);
+        }
+    }
+
+    @Test
+    void failedRebuildLeavesTheLiveIndexAlone() throws Exception {
+        index(1L, "brake squeal");
+        search.refresh();
+        when(jdbcTemplate.queryForMap(startsWith("SELECT MIN(id)"))).thenReturn(Map.of("lo", 2L, "hi", 2L));
+        when(jdbcTemplate.query(startsWith("SELECT sr.id"), any(RowMapper.class), anyLong(), anyLong()))
+                .thenThrow(new IllegalStateException("database went away"));
+
+        assertThatThrownBy(() -> search.rebuild()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(ids("brake")).containsExactly(1L);
+    }
+
+    @Test
+    void archivedRequestsLeaveTheIndex() throws Exception {
+        index(1L, "brake squeal");
+        index(2L, "brake pads worn");
+        search.refresh();
+
+        search.onServiceRequestsArchived(new ServiceRequestsArchivedEvent(List.of(1L)));
+        search.refresh();
+
+        assertThat(ids("brake")).containsExactly(2L);
+    }
+
+    private void index(Long id, String description) {
+        ServiceRequestDTO request = new ServiceRequestDTO();
+        request.setId(id);
+        request.setDescription(description);
+        search.onServiceRequestEvent(new ServiceRequestEvent(ServiceRequestEvent.Type.CREATED, request, 1L, null, null));
+    }
+
+    private List<Long> ids(String q) {
+        ServiceRequestSearchCriteria criteria = new ServiceRequestSearchCriteria();
+        criteria.setQ(q);
+        return search.search(criteria, 0, 10).getContent().stream().map(ServiceRequestDTO::getId).toList();
+    }
+
+    private static ResultSet row(Long id, String description) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getString("description")).thenReturn(description);
+        return rs;
+    }
+}
@@ -0,0 +1,100 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.model.ServiceRequest;
+import com.vehicleservice.repository.ServiceRequestRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceRequestServiceTest {
+
+    private static final LocalDateTime PREFERRED = LocalDateTime.of(2026, 11, 2, 10, 0);
+
+    @Mock
+    private ServiceRequestRepository serviceRequestRepository;
+
+    @Mock
+    private CapacityCalendarService capacityCalendar;
+
+    @Mock
+    private AnalyticsRollupService analyticsRollupService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DomainEventOutbox domainEventOutbox;
+
+    @InjectMocks
+    private ServiceRequestService serviceRequestService;
+
+    @Test
+    void cancellingReleasesTheBay() {
+        ServiceRequest request = request("PENDING");
+        when(serviceRequestRepository.save(request)).thenReturn(request);
+
+        serviceRequestService.updateServiceRequestStatus(1L, "CANCELLED", null);
+
+        verify(capacityCalendar).release(PREFERRED);
+        verify(capacityCalendar, never()).reserve(any());
+    }
+
+    @Test
+    void reopeningACancelledRequestReservesTheBayAgain() {
+        ServiceRequest request = request("CANCELLED");
+        when(serviceRequestRepository.save(request)).thenReturn(request);
+
+        serviceRequestService.updateServiceRequestStatus(1L, "PENDING", null);
+
+        verify(capacityCalendar).reserve(PREFERRED);
+        assertThat(request.getStatus()).isEqualTo("PENDING");
+    }
+
+    @Test
+    void reopeningIntoAFullSlotIsRejected() {
+        ServiceRequest request = request("CANCELLED");
+        doThrow(new ConflictException("No capacity left")).when(capacityCalendar).reserve(PREFERRED);
+
+        assertThatThrownBy(() -> serviceRequestService.updateServiceRequestStatus(1L, "PENDING", null))
+                .isInstanceOf(ConflictException.class);
+
+        assertThat(request.getStatus()).isEqualTo("CANCELLED");
+        verify(serviceRequestRepository, never()).save(any());
+    }
+
+    @Test
+    void otherTransitionsLeaveTheBayAlone() {
+        ServiceRequest request = request("ASSIGNED");
+        when(serviceRequestRepository.save(request)).thenReturn(request);
+
+        serviceRequestService.updateServiceRequestStatus(1L, "IN_PROGRESS", null);
+
+        verify(capacityCalendar, never()).reserve(any());
+        verify(capacityCalendar, never()).release(any());
+    }
+
+    private ServiceRequest request(String status) {
+        ServiceRequest request = new ServiceRequest();
+        request.setId(1L);
+        request.setStatus(status);
+        request.setPreferredDate(PREFERRED);
+        when(serviceRequestRepository.findById(1L)).thenReturn(Optional.of(request));
+        return request;
+    }
+}
@@ -0,0 +1,74 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.exception.ForbiddenException;
+import com.vehicleservice.model.User;
+import com.vehicleservice.repository.ServiceRequestRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ServiceRequestStreamServiceTest {
+
+    private final ServiceRequestRepository repository = mock(ServiceRequestRepository.class);
+    private ServiceRequestStreamService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ServiceRequestStreamService(1);
+        ReflectionTestUtils.setField(service, "serviceRequestRepository", repository);
+        ReflectionTestUtils.setField(service, "bufferSize", 4);
+        ReflectionTestUtils.setField(service, "timeoutMs", 1000L);
+        ReflectionTestUtils.setField(service, "overflowPolicy", ServiceRequestStreamService.OverflowPolicy.DROP_OLDEST);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void customerCanOnlySubscribeToOwnTopic() {
+        User customer = user(7L, "USER");
+
+        assertThat(service.subscribeToUser(customer, 7L)).isNotNull();
+        assertThatThrownBy(() -> service.subscribeToUser(customer, 8L)).isSameAs(ForbiddenException.NOT_OWNER);
+        assertThatThrownBy(() -> service.subscribeToMechanic(customer, 8L)).isSameAs(ForbiddenException.NOT_OWNER);
+        assertThat(service.getSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void requestStreamRequiresOwnerOrAssignedMechanic() {
+        User owner = user(7L, "USER");
+        User mechanic = user(9L, "MECHANIC");
+        User stranger = user(11L, "USER");
+        when(repository.existsByIdAndVehicle_User_Id(100L, 7L)).thenReturn(true);
+        when(repository.existsByIdAndMechanic_Id(100L, 9L)).thenReturn(true);
+
+        assertThat(service.subscribeToRequest(owner, 100L)).isNotNull();
+        assertThat(service.subscribeToRequest(mechanic, 100L)).isNotNull();
+        assertThatThrownBy(() -> service.subscribeToRequest(stranger, 100L)).isSameAs(ForbiddenException.NOT_OWNER);
+    }
+
+    @Test
+    void adminCanSubscribeToAnything() {
+        User admin = user(1L, "ADMIN");
+
+        assertThat(service.subscribeToUser(admin, 7L)).isNotNull();
+        assertThat(service.subscribeToMechanic(admin, 9L)).isNotNull();
+        assertThat(service.subscribeToRequest(admin, 100L)).isNotNull();
+        assertThat(service.getSubscriberCount()).isEqualTo(3);
+    }
+
+    private static User user(Long id, String role) {
+        User user = new User();
+        user.setId(id);
+        user.setRole(role);
+        return user;
+    }
+}
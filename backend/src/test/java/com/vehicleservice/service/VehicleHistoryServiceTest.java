@@ -0,0 +1,101 @@
+package com.vehicleservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vehicleservice.model.ServiceRequest;
+import com.vehicleservice.model.Vehicle;
+import com.vehicleservice.repository.VehicleRepository;
+import com.vehicleservice.repository.VehicleServiceHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleHistoryServiceTest {
+
+    private static final String INSERT = "INSERT INTO vehicle_service_history";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    @Mock
+    private VehicleServiceHistoryRepository historyRepository;
+
+    @Mock
+    private MaintenanceReminderService maintenanceReminderService;
+
+    @InjectMocks
+    private VehicleHistoryService vehicleHistoryService;
+
+    @Test
+    void firstCompletionIsRecordedAndAdvancesTheVehicle() {
+        ServiceRequest request = completedRequest();
+        when(jdbcTemplate.update(startsWith(INSERT), any(Object[].class))).thenReturn(1);
+
+        vehicleHistoryService.recordRequestCompleted(request, 52_000);
+
+        assertThat(request.getVehicle().getMileage()).isEqualTo(52_000);
+        assertThat(request.getVehicle().getLastServiceDate()).isNotNull();
+        verify(maintenanceReminderService).closeOpenReminders(7L);
+    }
+
+    @Test
+    void repeatedCompletionIsANoOp() {
+        ServiceRequest request = completedRequest();
+        when(jdbcTemplate.update(startsWith(INSERT), any(Object[].class)))
+                .thenThrow(new DuplicateKeyException("Duplicate entry 'REQUEST_COMPLETED:3' for key 'uk_vehicle_service_history_source'"));
+
+        vehicleHistoryService.recordRequestCompleted(request, 52_000);
+
+        assertThat(request.getVehicle().getMileage()).isEqualTo(40_000);
+        verifyNoInteractions(maintenanceReminderService);
+    }
+
+    @Test
+    void otherIntegrityErrorsAreNotSwallowed() {
+        ServiceRequest request = completedRequest();
+        when(jdbcTemplate.update(startsWith(INSERT), any(Object[].class)))
+                .thenThrow(new DataIntegrityViolationException("Data too long for column 'service_type'"));
+
+        assertThatThrownBy(() -> vehicleHistoryService.recordRequestCompleted(request, 52_000))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .isNotInstanceOf(DuplicateKeyException.class);
+        verify(maintenanceReminderService, never()).closeOpenReminders(anyLong());
+    }
+
+    private static ServiceRequest completedRequest() {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(7L);
+        vehicle.setMileage(40_000);
+        vehicle.setLastServiceDate(LocalDateTime.now().minusYears(1));
+        ServiceRequest request = new ServiceRequest();
+        request.setId(3L);
+        request.setVehicle(vehicle);
+        request.setServiceType("OIL_CHANGE");
+        request.setDescription("Oil and filter");
+        return request;
+    }
+}
@@ -0,0 +1,132 @@
+package com.vehicleservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vehicleservice.dto.VehicleImportResultDTO;
+import com.vehicleservice.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class VehicleImportServiceTest {
+
+    private static final String HEADER = "make,model,year,license_plate,vin\n";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final UserService userService = mock(UserService.class);
+    private VehicleImportService importer;
+
+    @BeforeEach
+    void setUp() {
+        importer = new VehicleImportService(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(importer, "vehicleService", new VehicleService());
+        ReflectionTestUtils.setField(importer, "userService", userService);
+        ReflectionTestUtils.setField(importer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(importer, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(importer, "domainEventOutbox", mock(DomainEventOutbox.class));
+        ReflectionTestUtils.setField(importer, "chunkSize", 2);
+        ReflectionTestUtils.setField(importer, "maxRows", 3);
+        ReflectionTestUtils.setField(importer, "maxReportedErrors", 10);
+    }
+
+    @Test
+    void rowsPastTheLimitAreLeftForAnotherImportInsteadOfFailingAfterCommits() {
+        String csv = HEADER
+                + "Honda,Civic,2018,AA-1,\n"
+                + "Honda,Civic,2018,AA-2,\n"
+                + "Honda,Civic,2018,AA-3,\n"
+                + "Honda,Civic,2018,AA-4,\n"
+                + "Honda,Civic,2018,AA-5,\n";
+
+        VehicleImportResultDTO result = importer.importVehicles(1L, body(csv), VehicleImportService.Format.CSV);
+
+        assertThat(result.getTotalRows()).isEqualTo(3);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.isRowLimitReached()).isTrue();
+        assertThat(result.getStoppedAtLine()).isEqualTo(5);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT INTO vehicles"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void importWithinTheLimitIsComplete() {
+        VehicleImportResultDTO result = importer.importVehicles(1L,
+                body(HEADER + "Honda,Civic,2018,AA-1,\n"), VehicleImportService.Format.CSV);
+
+        assertThat(result.isRowLimitReached()).isFalse();
+        assertThat(result.getStoppedAtLine()).isNull();
+    }
+
+    @Test
+    void badAndRepeatedRowsAreReportedOneByOne() {
+        String csv = HEADER
+                + "Honda,Civic,20x8,AA-1,\n"
+                + "Honda,Civic,2018,ab 12,\n"
+                + "Honda,Civic,2018,AB-12,\n";
+
+        VehicleImportResultDTO result = importer.importVehicles(1L, body(csv), VehicleImportService.Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(VehicleImportResultDTO.RowError::getRow).containsExactly(2, 4);
+        assertThat(result.getErrors()).extracting(VehicleImportResultDTO.RowError::getMessage)
+                .containsExactly("year and mileage must be whole numbers", "Duplicate license plate in this import");
+    }
+
+    @Test
+    void csvWithoutTheRequiredColumnsIsRejectedBeforeAnythingIsWritten() {
+        assertThatThrownBy(() -> importer.importVehicles(1L, body("make,model\nHonda,Civic\n"),
+                VehicleImportService.Format.CSV))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void ndjsonRowsAreImportedToo() {
+        String ndjson = "{\"make\":\"Ford\",\"model\":\"Focus\",\"year\":2020,\"licensePlate\":\"ZZ 9\"}\n{not json}\n";
+
+        VehicleImportResultDTO result = importer.importVehicles(1L, body(ndjson), VehicleImportService.Format.NDJSON);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(VehicleImportResultDTO.RowError::getRow).containsExactly(2);
+        ArgumentCaptor<Collection> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO vehicles"), rows.capture(), eq(1),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(rows.getValue()).hasSize(1);
+    }
+
+    @Test
+    void ndjsonLinesThatAreNotObjectsAreRowErrors() {
+        String ndjson = "null\n[1, 2]\n{\"make\":\"Ford\",\"model\":\"Focus\",\"year\":2020,\"licensePlate\":\"ZZ 9\"}\n";
+
+        VehicleImportResultDTO result = importer.importVehicles(1L, body(ndjson), VehicleImportService.Format.NDJSON);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(VehicleImportResultDTO.RowError::getRow).containsExactly(1, 2);
+        assertThat(result.getErrors()).extracting(VehicleImportResultDTO.RowError::getMessage)
+                .containsOnly("Each line must be a JSON object");
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,107 @@
+package com.vehicleservice.service;
+
+import com.vehicleservice.exception.ConflictException;
+import com.vehicleservice.exception.ResourceNotFoundException;
+import com.vehicleservice.exception.ValidationException;
+import com.vehicleservice.model.User;
+import com.vehicleservice.model.Vehicle;
+import com.vehicleservice.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleServiceTest {
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private DomainEventOutbox domainEventOutbox;
+
+    @InjectMocks
+    private VehicleService vehicleService;
+
+    @Test
+    void lookupMatchesOnThePlateKey() {
+        Vehicle stored = vehicle("AB 123", null);
+        when(vehicleRepository.findByPlateKey("AB123")).thenReturn(Optional.of(stored));
+
+        assertThat(vehicleService.findByLicensePlate("ab-123")).isSameAs(stored);
+    }
+
+    @Test
+    void blankVinIsNotLookedUp() {
+        assertThatThrownBy(() -> vehicleService.findByVin(" - "))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(vehicleRepository);
+    }
+
+    @Test
+    void prefixSearchUsesTheKeyAndCapsTheLimit() {
+        when(vehicleRepository.findByPlateKeyStartingWithOrderByPlateKeyAsc("AB1", PageRequest.of(0, 50)))
+                .thenReturn(List.of());
+
+        vehicleService.searchByPlatePrefix("ab-1", 500);
+
+        verify(vehicleRepository).findByPlateKeyStartingWithOrderByPlateKeyAsc("AB1", PageRequest.of(0, 50));
+        assertThat(vehicleService.searchByPlatePrefix(" -", 10)).isEmpty();
+    }
+
+    @Test
+    void plateWithoutLettersOrDigitsIsRejected() {
+        assertThatThrownBy(() -> vehicleService.validateNewVehicle(vehicle("--", null)))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("License plate is required");
+    }
+
+    @Test
+    void duplicateVinIsReportedAsAConflictOnTheVin() {
+        when(userService.findById(1L)).thenReturn(new User());
+        when(vehicleRepository.saveAndFlush(any(Vehicle.class))).thenThrow(new DataIntegrityViolationException("dup",
+                new SQLIntegrityConstraintViolationException("Duplicate entry for key 'vehicles.uk_vehicles_vin_key'")));
+
+        assertThatThrownBy(() -> vehicleService.addVehicle(vehicle("AB 123", "1HGCM82633A004352"), 1L))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Vehicle with this VIN already exists");
+    }
+
+    @Test
+    void duplicatePlateIsReportedAsAConflictOnThePlate() {
+        when(userService.findById(1L)).thenReturn(new User());
+        when(vehicleRepository.saveAndFlush(any(Vehicle.class))).thenThrow(new DataIntegrityViolationException("dup",
+                new SQLIntegrityConstraintViolationException("Duplicate entry 'AB123' for key 'vehicles.uk_vehicles_plate_key'")));
+
+        assertThatThrownBy(() -> vehicleService.addVehicle(vehicle("ab-123", null), 1L))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Vehicle with this license plate already exists");
+    }
+
+    private static Vehicle vehicle(String plate, String vin) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setMake("Honda");
+        vehicle.setModel("Civic");
+        vehicle.setYear(2018);
+        vehicle.setLicensePlate(plate);
+        vehicle.setVinNumber(vin);
+        return vehicle;
+    }
+}